@@ -25,6 +25,7 @@ public class CORSFilter implements ContainerResponseFilter {
       cres.getHeaders().add("Access-Control-Allow-Credentials", "true");
       cres.getHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS, HEAD");
       cres.getHeaders().add("Access-Control-Max-Age", "1209600");
+      cres.getHeaders().add("Access-Control-Expose-Headers", "Next-Cursor");
    }
 
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package caches;
+
+import java.io.Serializable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * <p>Applies the in-memory changes that mirror a database write only once the transaction of that write commits.</p>
+ * <p>A transaction that rolls back, including each attempt discarded by {@link interceptors.RetryOnConflict}, leaves the caches untouched, so they never show changes that never happened nor count the same change twice.</p>
+ * <p><em>The changes run on the request thread right after the commit, when the transaction is already over, so they must only touch memory.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class AfterCommit implements Serializable {
+	/**
+	 * Registry of the transaction associated with the current thread.
+	 */
+	@Resource
+	private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * <ol>
+	 * 	<li>Runs the change at once if there is no transaction, since there is nothing to wait for</li>
+	 * 	<li>Discards the change if the transaction is already bound to roll back</li>
+	 * 	<li>Otherwise, runs the change after the transaction completes, only if it committed</li>
+	 * </ol>
+	 * 
+	 * @param change the in-memory change
+	 */
+	public void run(Runnable change) {
+		int transactionStatus = transactionSynchronizationRegistry.getTransactionStatus();
+		
+		if (transactionStatus == Status.STATUS_NO_TRANSACTION) {
+			change.run();
+			
+			return;
+		}
+		
+		if (transactionStatus != Status.STATUS_ACTIVE) {
+			Logger.getLogger(AfterCommit.class.getName()).log(Level.FINE, "In-memory change discarded, the transaction will not commit");
+			
+			return;
+		}
+		
+		transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+			@Override
+			public void beforeCompletion() {}
+			
+			@Override
+			public void afterCompletion(int completionStatus) {
+				if (completionStatus != Status.STATUS_COMMITTED) {
+					return;
+				}
+				
+				try {
+					change.run();
+				} catch (RuntimeException runtimeException) {
+					Logger.getLogger(AfterCommit.class.getName()).log(Level.WARNING, "In-memory change failed after the commit", runtimeException);
+				}
+			}
+		});
+	}
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package caches;
+
+import java.io.Serializable;
+import java.text.DecimalFormat;
+
+import entities.Product;
+import enums.Section;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * <p>Immutable copy of a {@link Product} kept by the {@link ProductCatalog}.</p>
+ * <p>The display fields (formatted price and section label) are computed once, when the catalogue is built, instead of on every request.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Getter
+@AllArgsConstructor
+public final class CatalogProduct implements Serializable {
+	private final Long id;
+	private final String name, image;
+	private final Section section;
+	private final Float price;
+	private final String sectionLabel, formattedPrice;
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Copies the provided product, computing its display fields.
+	 * 
+	 * @param product		the product to be copied
+	 * @param decimalFormat the format used for the price
+	 * @return the {@link CatalogProduct} resultant object
+	 */
+	static CatalogProduct of(Product product, DecimalFormat decimalFormat) {
+		return new CatalogProduct(
+				product.getId(), 
+				product.getName(), 
+				product.getImage(), 
+				product.getSection(), 
+				product.getPrice(), 
+				product.getSection().getVALUE(), 
+				decimalFormat.format(product.getPrice()) + "€");
+	}
+}
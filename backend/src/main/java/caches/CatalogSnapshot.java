@@ -0,0 +1,132 @@
+package caches;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import entities.Product;
+import enums.Section;
+import lombok.Getter;
+
+/**
+ * <p>Immutable picture of the whole product catalogue at a given moment.</p>
+ * <p>It is never changed after being built: a write creates a new snapshot, which replaces this one at once, so readers never see a half built catalogue.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+final class CatalogSnapshot {
+	/**
+	 * Pattern of the formatted price of every product.
+	 */
+	private static final String PRICE_FORMAT = "#,###.00";
+	/**
+	 * All products, ordered by id.
+	 */
+	@Getter
+	private final List<CatalogProduct> all;
+	/**
+	 * All products partitioned by their section, each partition ordered by id.
+	 */
+	private final Map<Section, List<CatalogProduct>> bySection;
+	/**
+	 * All products indexed by their id.
+	 */
+	private final Map<Long, CatalogProduct> byId;
+	/**
+	 * Moment, in milliseconds since the epoch, when this snapshot was built.
+	 */
+	@Getter
+	private final long builtAt;
+	
+	/**
+	 * Builds the snapshot from the provided products.
+	 * 
+	 * @param products the whole catalogue, as read from the database
+	 */
+	CatalogSnapshot(List<Product> products) {
+		this(toCatalogProducts(products));
+	}
+	
+	/**
+	 * Builds the snapshot from the provided catalogue products.
+	 * 
+	 * @param catalogProducts the whole catalogue, in any order
+	 */
+	private CatalogSnapshot(ArrayList<CatalogProduct> catalogProducts) {
+		List<CatalogProduct> allProducts = new ArrayList<>(catalogProducts.size());
+		Map<Section, List<CatalogProduct>> productsBySection = new EnumMap<>(Section.class);
+		Map<Long, CatalogProduct> productsById = new HashMap<>();
+		
+		for (Section section : Section.values()) {
+			productsBySection.put(section, new ArrayList<>());
+		}
+		
+		catalogProducts.stream().sorted(Comparator.comparing(CatalogProduct::getId)).forEach(catalogProduct -> {
+			allProducts.add(catalogProduct);
+			productsBySection.get(catalogProduct.getSection()).add(catalogProduct);
+			productsById.put(catalogProduct.getId(), catalogProduct);
+		});
+		
+		productsBySection.replaceAll((section, sectionProducts) -> Collections.unmodifiableList(sectionProducts));
+		
+		all = Collections.unmodifiableList(allProducts);
+		bySection = Collections.unmodifiableMap(productsBySection);
+		byId = Collections.unmodifiableMap(productsById);
+		builtAt = System.currentTimeMillis();
+	}
+	
+	/**
+	 * Gets the products of the provided section.
+	 * 
+	 * @param section which the list of products belongs
+	 * @return the unmodifiable products list of that section
+	 */
+	List<CatalogProduct> getBySection(Section section) {
+		return bySection.get(section);
+	}
+	
+	/**
+	 * Gets the product that owns the provided id.
+	 * 
+	 * @param productId primary key that identifies the product to be found
+	 * @return the {@link CatalogProduct} found, null if it is not in this snapshot
+	 */
+	CatalogProduct getById(Long productId) {
+		return byId.get(productId);
+	}
+	
+	/**
+	 * Builds a new snapshot with every product of this one plus the provided product, without reading the database.
+	 * 
+	 * @param product the product to be added
+	 * @return the new {@link CatalogSnapshot}
+	 */
+	CatalogSnapshot with(Product product) {
+		ArrayList<CatalogProduct> catalogProducts = new ArrayList<>(all.size() + 1);
+		
+		catalogProducts.addAll(all);
+		catalogProducts.add(CatalogProduct.of(product, new DecimalFormat(PRICE_FORMAT)));
+		
+		return new CatalogSnapshot(catalogProducts);
+	}
+	
+	/**
+	 * Converts the provided products, formatting their display fields.
+	 * 
+	 * @param products the products read from the database
+	 * @return the {@link CatalogProduct} {@link ArrayList} of the products
+	 */
+	private static ArrayList<CatalogProduct> toCatalogProducts(List<Product> products) {
+		DecimalFormat decimalFormat = new DecimalFormat(PRICE_FORMAT);
+		ArrayList<CatalogProduct> catalogProducts = new ArrayList<>(products.size());
+		
+		products.forEach(productElement -> catalogProducts.add(CatalogProduct.of(productElement, decimalFormat)));
+		
+		return catalogProducts;
+	}
+}
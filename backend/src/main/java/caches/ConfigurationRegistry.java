@@ -0,0 +1,220 @@
+package caches;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.ws.rs.core.Response;
+
+import daos.ConfigurationDAO;
+import entities.Configuration;
+import exceptions.PharmacyException;
+
+/**
+ * <p>In-memory copy of the configurations table, with typed getters, so configuration values are read without any query.</p>
+ * <p>It is loaded when the application starts. The values are held in an immutable map that is replaced as a whole on every change, so reads never lock. Changes made through it are written to the database and only published once that transaction commits; changes made directly in the database are picked up by {@link #reload()}.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class ConfigurationRegistry implements Serializable {
+	/**
+	 * Object that contains all methods to manipulates database regarding configurations table.
+	 */
+	@Inject
+	private ConfigurationDAO configurationDAO;
+	
+	/**
+	 * Applies the changes of the values once the transaction commits.
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+	
+	/**
+	 * The configuration values by their keyword.
+	 */
+	private volatile Map<String, String> values = Collections.emptyMap();
+	/**
+	 * Indicates if the values were already loaded from the database.
+	 */
+	private volatile boolean isLoaded;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Loads the configurations as soon as the application is deployed.
+	 * 
+	 * @param event the application context initialisation, unused
+	 */
+	public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+		try {
+			reload();
+		} catch (PharmacyException pharmacyException) {
+			Logger.getLogger(ConfigurationRegistry.class.getName()).log(Level.WARNING, "Configurations could not be loaded at startup, they will be loaded in the first read", pharmacyException);
+		}
+	}
+	
+	/**
+	 * Gets every configuration value.
+	 * 
+	 * @return the unmodifiable {@link Map} of the values by their keyword
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if the values were not loaded yet and the database could not be reached
+	 */
+	public Map<String, String> getAll() {
+		loadIfNeeded();
+		
+		return values;
+	}
+	
+	/**
+	 * Gets the value of the given keyword.
+	 * 
+	 * @param keyword the configuration to find
+	 * @return {@link Optional} with the value, empty if the keyword does not exist
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if the values were not loaded yet and the database could not be reached
+	 */
+	public Optional<String> get(String keyword) {
+		loadIfNeeded();
+		
+		return Optional.ofNullable(values.get(keyword));
+	}
+	
+	/**
+	 * Gets the value of the given keyword as a long.
+	 * 
+	 * @param keyword	   the configuration to find
+	 * @param defaultValue the value returned when the keyword does not exist or is not a number
+	 * @return the value found, or the default one
+	 */
+	public long getLong(String keyword, long defaultValue) {
+		Optional<String> value = get(keyword);
+		
+		try {
+			return value.isPresent() ? Long.parseLong(value.get().trim()) : defaultValue;
+		} catch (NumberFormatException numberFormatException) {
+			Logger.getLogger(ConfigurationRegistry.class.getName()).log(Level.WARNING, "Configuration {0} is not a number, {1} used instead", new Object[] {keyword, defaultValue});
+			
+			return defaultValue;
+		}
+	}
+	
+	/**
+	 * Gets the value of the given keyword as an int.
+	 * 
+	 * @param keyword	   the configuration to find
+	 * @param defaultValue the value returned when the keyword does not exist or is not a number
+	 * @return the value found, or the default one
+	 */
+	public int getInteger(String keyword, int defaultValue) {
+		long value = getLong(keyword, defaultValue);
+		
+		return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? defaultValue : (int) value;
+	}
+	
+	/**
+	 * Gets the value of the given keyword as a boolean.
+	 * 
+	 * @param keyword	   the configuration to find
+	 * @param defaultValue the value returned when the keyword does not exist
+	 * @return true if the value is "true", ignoring case, the default one if the keyword does not exist
+	 */
+	public boolean getBoolean(String keyword, boolean defaultValue) {
+		return get(keyword).map(value -> Boolean.parseBoolean(value.trim())).orElse(defaultValue);
+	}
+	
+	/**
+	 * <p>Saves the given value in the database and publishes it in memory once the transaction commits.</p>
+	 * <p><em>A transaction that rolls back leaves the values in memory as they were, the same as the database.</em></p>
+	 * 
+	 * @param keyword the configuration to set
+	 * @param value	  the new value
+	 * @return the unmodifiable {@link Map} of the values by their keyword, as they will be after the commit
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	public Map<String, String> set(String keyword, String value) {
+		if (configurationDAO.setValue(keyword, value) == null) {
+			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		}
+		
+		loadIfNeeded();
+		afterCommit.run(() -> publish(keyword, value));
+		
+		Map<String, String> newValues = new HashMap<>(values);
+		newValues.put(keyword, value);
+		
+		return Collections.unmodifiableMap(newValues);
+	}
+	
+	/**
+	 * Replaces the value of the given keyword in memory.
+	 * 
+	 * @param keyword the configuration set
+	 * @param value	  the new value
+	 */
+	private synchronized void publish(String keyword, String value) {
+		Map<String, String> newValues = new HashMap<>(values);
+		newValues.put(keyword, value);
+		values = Collections.unmodifiableMap(newValues);
+	}
+	
+	/**
+	 * <p>Reads again the value of the given keyword from the database.</p>
+	 * <p><em>Used by who changes a configuration row without going through this registry.</em></p>
+	 * 
+	 * @param keyword the configuration changed
+	 */
+	public synchronized void refresh(String keyword) {
+		if (!isLoaded) {
+			return;
+		}
+		
+		Optional<Configuration> configuration = configurationDAO.findValueByKeyWord(keyword);
+		Map<String, String> newValues = new HashMap<>(values);
+		
+		configuration.ifPresentOrElse(configurationElement -> newValues.put(keyword, configurationElement.getValue()), () -> newValues.remove(keyword));
+		values = Collections.unmodifiableMap(newValues);
+	}
+	
+	/**
+	 * Replaces every value in memory with the ones in the database.
+	 * 
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	public synchronized void reload() {
+		List<Configuration> configurations = configurationDAO.findAllConfigurations();
+		
+		if (configurations == null) {
+			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		}
+		
+		Map<String, String> newValues = new HashMap<>();
+		configurations.forEach(configurationElement -> newValues.put(configurationElement.getKeyword(), configurationElement.getValue()));
+		
+		values = Collections.unmodifiableMap(newValues);
+		isLoaded = true;
+		
+		Logger.getLogger(ConfigurationRegistry.class.getName()).log(Level.INFO, "{0} configurations loaded", newValues.size());
+	}
+	
+	/**
+	 * Loads the values from the database if the startup load did not succeed.
+	 */
+	private void loadIfNeeded() {
+		if (!isLoaded) {
+			reload();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,248 @@
+package caches;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import dtos.DashboardDTO;
+import dtos.UserDTO;
+
+/**
+ * <p>In-memory copy of the administrator dashboard figures, kept up to date by the services at the point where each figure changes, so the dashboard is answered without any query.</p>
+ * <p>Money is kept in cents, so the sums are exact. A periodic full recompute replaces every figure with the database values, which corrects any drift (for instance, a change made while the previous recompute was running, or made outside of this application).</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class DashboardStatistics implements Serializable {
+	/**
+	 * Keeps the recompute apart from the increments: many increments can run at the same time, but none while the figures are being replaced.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	/**
+	 * Indicates if the figures were already loaded from the database.
+	 */
+	private volatile boolean isLoaded;
+	private final AtomicLong totalClients = new AtomicLong();
+	private final AtomicLong totalProducts = new AtomicLong();
+	private final AtomicLong totalCarts = new AtomicLong();
+	private final AtomicLong totalSignIns = new AtomicLong();
+	private final AtomicLong totalRevenueInCents = new AtomicLong();
+	/**
+	 * Revenue of the concluded orders, in cents, by the month they were concluded.
+	 */
+	private final ConcurrentMap<YearMonth, AtomicLong> revenueInCentsByMonth = new ConcurrentHashMap<>();
+	/**
+	 * Users waiting for approval, by their id.
+	 */
+	private final ConcurrentSkipListMap<Long, UserDTO> visitors = new ConcurrentSkipListMap<>();
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Checks if the figures were already loaded from the database.
+	 * 
+	 * @return true if the dashboard can be answered from memory
+	 */
+	public boolean isLoaded() {
+		return isLoaded;
+	}
+	
+	/**
+	 * Registers a new user waiting for approval.
+	 * 
+	 * @param visitorDTO the new user
+	 */
+	public void visitorSignedUp(UserDTO visitorDTO) {
+		update(() -> visitors.put(visitorDTO.getId(), visitorDTO));
+	}
+	
+	/**
+	 * Registers the approval of a user, who becomes a client.
+	 * 
+	 * @param visitorId primary key that identifies the approved user
+	 */
+	public void visitorApproved(Long visitorId) {
+		update(() -> {
+			visitors.remove(visitorId);
+			totalClients.incrementAndGet();
+		});
+	}
+	
+	/**
+	 * Registers a client sign in.
+	 */
+	public void clientSignedIn() {
+		update(totalSignIns::incrementAndGet);
+	}
+	
+	/**
+	 * Registers a new product.
+	 */
+	public void productCreated() {
+		update(totalProducts::incrementAndGet);
+	}
+	
+	/**
+	 * Registers a new cart (non concluded order).
+	 */
+	public void cartCreated() {
+		update(totalCarts::incrementAndGet);
+	}
+	
+	/**
+	 * Registers a cart removed without being concluded.
+	 */
+	public void cartRemoved() {
+		update(totalCarts::decrementAndGet);
+	}
+	
+	/**
+	 * Registers several carts removed at once without being concluded.
+	 * 
+	 * @param amount how many carts were removed
+	 */
+	public void cartsRemoved(long amount) {
+		update(() -> totalCarts.addAndGet(-amount));
+	}
+	
+	/**
+	 * Registers a cart that was concluded, adding its value to the revenue.
+	 * 
+	 * @param totalValue  the order total value
+	 * @param concludedIn the day the order was concluded
+	 */
+	public void orderConcluded(Double totalValue, LocalDate concludedIn) {
+		long valueInCents = toCents(totalValue);
+		
+		update(() -> {
+			totalCarts.decrementAndGet();
+			totalRevenueInCents.addAndGet(valueInCents);
+			revenueInCentsByMonth.computeIfAbsent(YearMonth.from(concludedIn), month -> new AtomicLong()).addAndGet(valueInCents);
+		});
+	}
+	
+	/**
+	 * Builds the dashboard from the figures in memory.
+	 * 
+	 * @return the {@link DashboardDTO} filled, except the figures that do not exist yet
+	 */
+	public DashboardDTO toDTO() {
+		YearMonth currentMonth = YearMonth.now();
+		DashboardDTO dashboardDTO = new DashboardDTO();
+		
+		lock.readLock().lock();
+		try {
+			dashboardDTO.setTotalClients(totalClients.get());
+			dashboardDTO.setTotalProducts(totalProducts.get());
+			dashboardDTO.setTotalCarts(totalCarts.get());
+			dashboardDTO.setTotalSignIns(totalSignIns.get());
+			dashboardDTO.setTotalValueConcludedOrders(fromCents(totalRevenueInCents.get()));
+			dashboardDTO.setTotalValueConcludedOrdersCurrentMonth(fromCents(revenueOf(currentMonth)));
+			dashboardDTO.setTotalValueConcludedOrdersLastMonth(fromCents(revenueOf(currentMonth.minusMonths(1L))));
+			dashboardDTO.setVisitorsDTO(new ArrayList<>(visitors.values()));
+			dashboardDTO.setUnavailableFigures(new ArrayList<>());
+		} finally {
+			lock.readLock().unlock();
+		}
+		
+		return dashboardDTO;
+	}
+	
+	/**
+	 * <p>Replaces every figure with the ones computed from the database.</p>
+	 * <p><em>If the figures were already loaded, any difference is logged, since it means some point of change is not being registered.</em></p>
+	 * 
+	 * @param computedDTO  the dashboard computed from the database, with every figure available
+	 * @param currentMonth the month that computed dashboard considers as current
+	 */
+	public void replaceWith(DashboardDTO computedDTO, YearMonth currentMonth) {
+		lock.writeLock().lock();
+		try {
+			if (isLoaded) {
+				logDrift("clients", totalClients.get(), computedDTO.getTotalClients());
+				logDrift("products", totalProducts.get(), computedDTO.getTotalProducts());
+				logDrift("carts", totalCarts.get(), computedDTO.getTotalCarts());
+				logDrift("revenue in cents", totalRevenueInCents.get(), toCents(computedDTO.getTotalValueConcludedOrders()));
+			}
+			
+			totalClients.set(computedDTO.getTotalClients());
+			totalProducts.set(computedDTO.getTotalProducts());
+			totalCarts.set(computedDTO.getTotalCarts());
+			totalSignIns.set(computedDTO.getTotalSignIns() == null ? 0 : computedDTO.getTotalSignIns());
+			totalRevenueInCents.set(toCents(computedDTO.getTotalValueConcludedOrders()));
+			revenueInCentsByMonth.clear();
+			revenueInCentsByMonth.put(currentMonth, new AtomicLong(toCents(computedDTO.getTotalValueConcludedOrdersCurrentMonth())));
+			revenueInCentsByMonth.put(currentMonth.minusMonths(1L), new AtomicLong(toCents(computedDTO.getTotalValueConcludedOrdersLastMonth())));
+			visitors.clear();
+			computedDTO.getVisitorsDTO().forEach(visitorDTO -> visitors.put(visitorDTO.getId(), visitorDTO));
+			isLoaded = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Applies an increment, unless the figures were not loaded yet (the first recompute will bring it anyway).
+	 * 
+	 * @param increment the change to apply
+	 */
+	private void update(Runnable increment) {
+		lock.readLock().lock();
+		try {
+			if (isLoaded) {
+				increment.run();
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets the revenue of the provided month.
+	 * 
+	 * @param month the month of the revenue
+	 * @return the revenue in cents, 0 if there is none
+	 */
+	private long revenueOf(YearMonth month) {
+		AtomicLong revenue = revenueInCentsByMonth.get(month);
+		
+		return revenue == null ? 0L : revenue.get();
+	}
+	
+	/**
+	 * Logs the difference between a figure in memory and the same figure in the database.
+	 * 
+	 * @param figure	the figure name
+	 * @param inMemory	the value in memory
+	 * @param computed	the value in the database
+	 */
+	private void logDrift(String figure, long inMemory, Long computed) {
+		if (computed != null && inMemory != computed) {
+			Logger.getLogger(DashboardStatistics.class.getName()).log(Level.WARNING, "Dashboard {0} drifted: {1} in memory, {2} in database", new Object[] {figure, inMemory, computed});
+		}
+	}
+	
+	private static long toCents(Double value) {
+		return value == null ? 0L : Math.round(value * 100);
+	}
+	
+	private static Double fromCents(long valueInCents) {
+		return valueInCents / 100d;
+	}
+}
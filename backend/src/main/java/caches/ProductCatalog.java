@@ -0,0 +1,263 @@
+package caches;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.Response;
+
+import daos.ProductDAO;
+import dtos.CatalogStatisticsDTO;
+import entities.Product;
+import enums.Section;
+import exceptions.PharmacyException;
+
+/**
+ * <p>In-memory copy of the product catalogue that serves the read-heavy product endpoints without a database round trip.</p>
+ * <p>The catalogue is held as an immutable {@link CatalogSnapshot}, which is rebuilt from the database and swapped atomically every time a product is written. Like counters change much more often than products, so they are kept apart and updated in place by the likes/unlikes.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class ProductCatalog implements Serializable {
+	/**
+	 * Object that contains all methods to manipulates database regarding products table.
+	 */
+	@Inject
+	private ProductDAO productDAO;
+	
+	/**
+	 * The current catalogue, null until it is built for the first time.
+	 */
+	private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+	/**
+	 * The amount of likes of each product, also the lock of every change made to them.
+	 */
+	private final ConcurrentMap<Long, Long> likeCounts = new ConcurrentHashMap<>();
+	/**
+	 * The likes added to each product while a rebuild reads the database, applied again once it ends, null when no rebuild is running.
+	 */
+	private Map<Long, Long> likeCountChangesDuringRebuild;
+	/**
+	 * Reads served by the catalogue.
+	 */
+	private final LongAdder hits = new LongAdder();
+	/**
+	 * Reads that had to go to the database.
+	 */
+	private final LongAdder misses = new LongAdder();
+	/**
+	 * How many times the catalogue was built.
+	 */
+	private final LongAdder rebuilds = new LongAdder();
+	/**
+	 * Time spent, in milliseconds, in all catalogue builds.
+	 */
+	private final LongAdder totalRebuildMillis = new LongAdder();
+	/**
+	 * Time spent, in milliseconds, in the last catalogue build.
+	 */
+	private volatile long lastRebuildMillis;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Gets all products.
+	 * 
+	 * @return the unmodifiable {@link CatalogProduct} {@link List} with all products, ordered by id
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if the catalogue had to be built and some problem happened in database
+	 */
+	public List<CatalogProduct> getAll() {
+		return current().getAll();
+	}
+	
+	/**
+	 * Gets all products of the provided section.
+	 * 
+	 * @param section which the list of products belongs
+	 * @return the unmodifiable {@link CatalogProduct} {@link List} of that section, ordered by id
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if the catalogue had to be built and some problem happened in database
+	 */
+	public List<CatalogProduct> getAllBySection(Section section) {
+		return current().getBySection(section);
+	}
+	
+	/**
+	 * <p>Gets the product that owns the provided id.</p>
+	 * <p><em>A product not found in the catalogue may have been written outside of this application, so it is looked up by its id in the database and, if it exists, added to the catalogue. The whole catalogue is never read again for a product that does not exist.</em></p>
+	 * 
+	 * @param productId primary key that identifies the product to be found
+	 * @return the {@link Optional} {@link CatalogProduct} found, {@link Optional} empty if the product does not exist
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if the product had to be looked up and some problem happened in database
+	 */
+	public Optional<CatalogProduct> getById(Long productId) {
+		CatalogSnapshot currentSnapshot = snapshot.get();
+		
+		if (currentSnapshot != null && currentSnapshot.getById(productId) != null) {
+			hits.increment();
+			
+			return Optional.of(currentSnapshot.getById(productId));
+		}
+		
+		misses.increment();
+		
+		if (currentSnapshot == null) {
+			rebuild();
+			
+			return Optional.ofNullable(snapshot.get().getById(productId));
+		}
+		
+		Optional<Product> productFound = productDAO.findById(productId);
+		
+		if (productFound == null) {
+			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		}
+		
+		productFound.ifPresent(this::add);
+		
+		return productFound.map(productElement -> snapshot.get().getById(productId));
+	}
+	
+	/**
+	 * <p>Adds the provided product to the catalogue, replacing the current snapshot with a copy that has it, without reading the database.</p>
+	 * <p><em>Must be called after the product is saved in database. If the catalogue was not built yet nothing is done, since its first build reads the product.</em></p>
+	 * 
+	 * @param product the product saved
+	 */
+	public synchronized void add(Product product) {
+		CatalogSnapshot currentSnapshot = snapshot.get();
+		
+		if (currentSnapshot == null || currentSnapshot.getById(product.getId()) != null) {
+			return;
+		}
+		
+		likeCounts.putIfAbsent(product.getId(), product.getLikeCount() == null ? 0L : product.getLikeCount());
+		snapshot.set(currentSnapshot.with(product));
+	}
+	
+	/**
+	 * Gets the amount of likes of the provided product.
+	 * 
+	 * @param productId primary key that identifies the product
+	 * @return the amount of likes of that product
+	 */
+	public Long getLikeCount(Long productId) {
+		return likeCounts.getOrDefault(productId, 0L);
+	}
+	
+	/**
+	 * <p>Adds the provided amount to the likes of the provided product, after the like/unlike was saved in database.</p>
+	 * <p><em>If a rebuild is running, the amount is also kept to be added again to the counts it read, which may not have it yet.</em></p>
+	 * 
+	 * @param productId primary key that identifies the product
+	 * @param amount	how many likes to add (negative to remove)
+	 */
+	public void addToLikeCount(Long productId, int amount) {
+		if (amount == 0) {
+			return;
+		}
+		
+		synchronized (likeCounts) {
+			likeCounts.merge(productId, (long) amount, Long::sum);
+			
+			if (likeCountChangesDuringRebuild != null) {
+				likeCountChangesDuringRebuild.merge(productId, (long) amount, Long::sum);
+			}
+		}
+	}
+	
+	/**
+	 * <p>Reads the whole catalogue from the database and replaces the current snapshot with it.</p>
+	 * <p>Must be called after product writes other than creations, which are applied by {@link #add(Product)}. Concurrent rebuilds are serialised, readers are never blocked.</p>
+	 * <p><em>The likes added while the database is read are added again to the counts read, so a like/unlike that commits during the rebuild is not lost. Only one that commits in the instant between the read and its own in-memory update may be counted twice, until the next rebuild.</em></p>
+	 * 
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	public synchronized void rebuild() {
+		long start = System.currentTimeMillis();
+		List<Product> products;
+		
+		synchronized (likeCounts) {
+			likeCountChangesDuringRebuild = new HashMap<>();
+		}
+		try {
+			products = productDAO.findAllReadOnly();
+			
+			if (products == null) {
+				throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+			}
+			
+			CatalogSnapshot newSnapshot = new CatalogSnapshot(products);
+			
+			synchronized (likeCounts) {
+				products.forEach(productElement -> likeCounts.put(productElement.getId(), productElement.getLikeCount()));
+				likeCounts.keySet().retainAll(products.stream().map(Product::getId).collect(Collectors.toSet()));
+				likeCountChangesDuringRebuild.forEach((productId, amount) -> likeCounts.computeIfPresent(productId, (id, likeCount) -> likeCount + amount));
+			}
+			snapshot.set(newSnapshot);
+		} finally {
+			synchronized (likeCounts) {
+				likeCountChangesDuringRebuild = null;
+			}
+		}
+		
+		lastRebuildMillis = System.currentTimeMillis() - start;
+		totalRebuildMillis.add(lastRebuildMillis);
+		rebuilds.increment();
+		Logger.getLogger(ProductCatalog.class.getName()).log(Level.FINE, "Product catalogue rebuilt with {0} products in {1} ms", new Object[] {products.size(), lastRebuildMillis});
+	}
+	
+	/**
+	 * Gets the catalogue usage metrics.
+	 * 
+	 * @return the {@link CatalogStatisticsDTO} with the current metrics
+	 */
+	public CatalogStatisticsDTO getStatistics() {
+		CatalogSnapshot currentSnapshot = snapshot.get();
+		long amountOfRebuilds = rebuilds.sum();
+		
+		return new CatalogStatisticsDTO(
+				currentSnapshot == null ? 0 : currentSnapshot.getAll().size(), 
+				hits.sum(), 
+				misses.sum(), 
+				amountOfRebuilds, 
+				lastRebuildMillis, 
+				amountOfRebuilds == 0 ? 0 : totalRebuildMillis.sum() / amountOfRebuilds, 
+				currentSnapshot == null ? null : currentSnapshot.getBuiltAt());
+	}
+	
+	/**
+	 * Gets the current snapshot, building it if this is the first read.
+	 * 
+	 * @return the current {@link CatalogSnapshot}
+	 */
+	private CatalogSnapshot current() {
+		CatalogSnapshot currentSnapshot = snapshot.get();
+		
+		if (currentSnapshot != null) {
+			hits.increment();
+			
+			return currentSnapshot;
+		}
+		
+		misses.increment();
+		rebuild();
+		
+		return snapshot.get();
+	}
+}
@@ -0,0 +1,144 @@
+package caches;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import entities.User;
+
+/**
+ * <p>Bounded, time limited cache that maps a session token to its {@link SessionPrincipal}.</p>
+ * <p>It sits in front of the token lookup in the users table, which otherwise runs in almost every request. Every write that changes a logged user (sign in, sign out, approval, edition) must refresh or invalidate it once its transaction commits, so what it caches is what the database holds, while the time to live bounds how long any change made outside of this application may go unnoticed.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class SessionCache implements Serializable {
+	/**
+	 * How long a principal is kept since it was read from the database.
+	 */
+	private static final long TIME_TO_LIVE_MILLIS = Duration.ofMinutes(30L).toMillis();
+	/**
+	 * Maximum amount of principals kept at the same time.
+	 */
+	private static final int MAXIMUM_SIZE = 10_000;
+	
+	/**
+	 * The cached principals by their token.
+	 */
+	private final ConcurrentMap<UUID, SessionPrincipal> principals = new ConcurrentHashMap<>();
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Gets the principal of the provided token, if it is cached and not expired yet.
+	 * 
+	 * @param token logged user identifier key
+	 * @return the {@link Optional} {@link SessionPrincipal} of that token, {@link Optional} empty if it must be read from the database
+	 */
+	public Optional<SessionPrincipal> get(UUID token) {
+		SessionPrincipal principal = principals.get(token);
+		
+		if (principal == null) {
+			return Optional.empty();
+		}
+		
+		if (principal.isExpired(System.currentTimeMillis())) {
+			principals.remove(token, principal);
+			
+			return Optional.empty();
+		}
+		
+		return Optional.of(principal);
+	}
+	
+	/**
+	 * <p>Caches the principal of the provided user under their current token.</p>
+	 * <p><em>When the cache is full, the expired principals are evicted first and, if that is not enough, the one closest to expiring.</em></p>
+	 * 
+	 * @param user the logged user read from the database
+	 * @return the {@link SessionPrincipal} created
+	 */
+	public SessionPrincipal put(User user) {
+		SessionPrincipal principal = new SessionPrincipal(user.getId(), user.getToken(), user.getRole(), Boolean.TRUE.equals(user.getIsDeleted()), System.currentTimeMillis() + TIME_TO_LIVE_MILLIS);
+		
+		if (user.getToken() == null) {
+			return principal;
+		}
+		
+		if (principals.size() >= MAXIMUM_SIZE && !principals.containsKey(user.getToken())) {
+			makeRoom();
+		}
+		
+		principals.put(user.getToken(), principal);
+		
+		return principal;
+	}
+	
+	/**
+	 * Removes the principal of the provided token.
+	 * 
+	 * @param token logged user identifier key
+	 */
+	public void invalidate(UUID token) {
+		if (token != null) {
+			principals.remove(token);
+		}
+	}
+	
+	/**
+	 * <p>Removes every principal of the provided user, whatever their token is.</p>
+	 * <p><em>Used when the user is changed without their token being known, or when they get a new token.</em></p>
+	 * 
+	 * @param userId primary key that identifies the user
+	 */
+	public void invalidateUser(Long userId) {
+		principals.values().removeIf(principal -> principal.getUserId().equals(userId));
+	}
+	
+	/**
+	 * Removes all expired principals.
+	 * 
+	 * @return the amount of principals removed
+	 */
+	public int evictExpired() {
+		long now = System.currentTimeMillis();
+		int sizeBefore = principals.size();
+		
+		principals.values().removeIf(principal -> principal.isExpired(now));
+		
+		return Math.max(sizeBefore - principals.size(), 0);
+	}
+	
+	/**
+	 * Gets the amount of principals cached.
+	 * 
+	 * @return the amount of principals cached, including the expired ones not evicted yet
+	 */
+	public int size() {
+		return principals.size();
+	}
+	
+	/**
+	 * Frees space for a new principal.
+	 */
+	private void makeRoom() {
+		if (evictExpired() > 0) {
+			return;
+		}
+		
+		principals.values().stream()
+				.min(Comparator.comparingLong(SessionPrincipal::getExpiresAt))
+				.ifPresent(principal -> principals.remove(principal.getToken(), principal));
+	}
+}
@@ -0,0 +1,52 @@
+package caches;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import entities.User;
+import enums.Role;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * <p>Immutable, lightweight view of a logged {@link User}, kept by the {@link SessionCache}.</p>
+ * <p>It holds only what is needed to authenticate and authorise a request, so it can be reused without reaching the database.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Getter
+@AllArgsConstructor
+public final class SessionPrincipal implements Serializable {
+	private final Long userId;
+	private final UUID token;
+	private final Role role;
+	private final boolean isDeleted;
+	/**
+	 * Moment, in milliseconds since the epoch, after which this principal must be read again from the database.
+	 */
+	private final long expiresAt;
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Checks if this principal has the ADMINISTRATOR role and was not deleted.
+	 * 
+	 * @return true if this principal belongs to an active administrator
+	 */
+	public boolean isActiveAdministrator() {
+		return role == Role.ADMINISTRATOR && !isDeleted;
+	}
+	
+	/**
+	 * Checks if this principal is already expired.
+	 * 
+	 * @param now current moment, in milliseconds since the epoch
+	 * @return true if this principal must not be used anymore
+	 */
+	boolean isExpired(long now) {
+		return now >= expiresAt;
+	}
+}
@@ -0,0 +1,93 @@
+package caches;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import daos.ConfigurationDAO;
+
+/**
+ * <p>Counts the client sign ins in memory and flushes them to the configurations table in batches.</p>
+ * <p>Each sign in only increments a {@link LongAdder}, whose cells are spread among the threads, so concurrent sign ins neither wait for each other nor for the database. The flush adds everything counted since the previous one with a single atomic update.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class SignInCounter implements Serializable {
+	/**
+	 * Keyword of the configurations row that stores the total of sign ins.
+	 */
+	public static final String CONFIGURATION_KEYWORD = "total of sign ins";
+	/**
+	 * Every sign in counted since the application started.
+	 */
+	private final LongAdder signIns = new LongAdder();
+	/**
+	 * How many of the counted sign ins were already saved in the database.
+	 */
+	private long flushedSignIns;
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding configurations table.
+	 */
+	@Inject
+	private ConfigurationDAO configurationDAO;
+	
+	/**
+	 * In-memory copy of the configurations table, told about every flush.
+	 */
+	@Inject
+	private ConfigurationRegistry configurationRegistry;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Counts one more sign in.
+	 */
+	public void increment() {
+		signIns.increment();
+	}
+	
+	/**
+	 * Gets how many sign ins were counted but not saved in the database yet.
+	 * 
+	 * @return the amount of sign ins waiting for the next flush
+	 */
+	public synchronized long getPendingAmount() {
+		return signIns.sum() - flushedSignIns;
+	}
+	
+	/**
+	 * <p>Adds the pending sign ins to the value stored in the database.</p>
+	 * <p><em>The sign ins counted while it runs are left for the next flush. If the database cannot be reached nothing is discarded, the same amount is tried again in the next flush.</em></p>
+	 * 
+	 * @return the amount of sign ins saved
+	 */
+	public synchronized long flush() {
+		long total = signIns.sum();
+		long amount = total - flushedSignIns;
+		
+		if (amount == 0) {
+			return 0;
+		}
+		
+		if (configurationDAO.addToValue(CONFIGURATION_KEYWORD, amount) == null) {
+			Logger.getLogger(SignInCounter.class.getName()).log(Level.WARNING, "{0} sign ins could not be saved, they will be tried again in the next flush", amount);
+			
+			return 0;
+		}
+		
+		flushedSignIns = total;
+		configurationRegistry.refresh(CONFIGURATION_KEYWORD);
+		
+		return amount;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+/**
+ * Contains all Project in-memory caches, kept in step with the database by the services that write it.
+ * 
+ * @author Wanderley Drumond
+ */
+package caches;
\ No newline at end of file
@@ -1,6 +1,5 @@
 package controllers;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,11 +15,13 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 
 import dtos.CommentDTO;
 import dtos.ProductDTO;
 import entities.Comment;
 import entities.User;
+import exceptions.PharmacyException;
 import mappers.CommentMapper;
 import services.CommentService;
 import services.UserService;
@@ -70,7 +71,7 @@ public class CommentController {
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response create(@HeaderParam("token") UUID token, @QueryParam("id") String productId, CommentDTO requestBody) {
 		User user = userService.getByToken(token);
-		Comment comment = commentService.create(user, Short.valueOf(productId), requestBody);
+		Comment comment = commentService.create(user, Long.valueOf(productId), requestBody);
 		CommentDTO commentDTO = commentMapper.toDTO(comment, user);
 		
 		return Response.ok(commentDTO).build();
@@ -95,7 +96,7 @@ public class CommentController {
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response getByProductIdForLoggedUser(@HeaderParam("token") UUID token, @QueryParam("id") String productId) {
 		User user = userService.getByToken(token);
-		Comment comment = commentService.getByProductIdForLoggedUser(Short.valueOf(productId), token).get();
+		Comment comment = commentService.getByProductIdForLoggedUser(Long.valueOf(productId), token).get();
 		
 		return Response.ok(commentMapper.toDTO(comment, user)).build();
 	}
@@ -114,7 +115,7 @@ public class CommentController {
 	@Path("/by")
 	@DELETE
 	public Response deleteById(@HeaderParam("token") UUID token, @QueryParam("id") String commentId) {
-		return Response.ok(commentService.delete(token, Short.valueOf(commentId))).build();
+		return Response.ok(commentService.delete(token, Long.valueOf(commentId))).build();
 	}
 	
 	/**
@@ -132,31 +133,40 @@ public class CommentController {
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response updateById(@HeaderParam("token") UUID token, @QueryParam("id") String commentId, CommentDTO requestBody) {
 		User user = userService.getByToken(token);
-		Comment comment = commentService.updateById(token, Short.valueOf(commentId), requestBody);
+		Comment comment = commentService.updateById(token, Long.valueOf(commentId), requestBody);
 		CommentDTO answerBody = commentMapper.toDTO(comment, user);
 		
 		return Response.ok(answerBody).build();
 	}
 	
 	/**
-	 * Gets all comments made from all users of the given product.
+	 * Gets a page of the comments made from all users of the given product, from the oldest to the newest.
 	 * 
-	 * @param productId primary key that identifies the product to find all comments
+	 * @param productId primary key that identifies the product to find the comments
+	 * @param after		primary key of the last comment of the previous page, taken from its <code>Next-Cursor</code> header. Not provided for the first page
+	 * @param limit		the maximum amount of comments of the page
 	 * @return {@link Response} with status code:
 	 *      <ul>
-	 *         <li><strong>200 (OK)</strong> if the product was found along with the {@link CommentDTO} {@link List} from it</li>
+	 *         <li><strong>200 (OK)</strong> along with the {@link CommentDTO} {@link List} of the page, and the <code>Next-Cursor</code> header if there may be more pages</li>
+	 *         <li><strong>400 (BAD REQUEST)</strong> if the limit is out of range</li>
 	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
 	 *      </ul>
 	 */
 	@Path("all-by")
 	@GET
 	@Produces(MediaType.APPLICATION_JSON)
-	public Response getAllByProductId(@QueryParam("id") String productId) {
-		List<Comment> comments = commentService.getAllByProductId(Short.valueOf(productId));
-		List<CommentDTO> commentsDTO = new ArrayList<>();
-		
-		comments.forEach(commentElement -> commentsDTO.add(commentMapper.toDTO(commentElement, commentElement.getOwner())));
-		
-		return Response.ok(commentsDTO).build();
+	public Response getAllByProductId(@QueryParam("id") String productId, @QueryParam("after") Long after, @QueryParam("limit") Integer limit) {
+		try {
+			List<CommentDTO> commentsDTO = commentService.getPageByProductId(Long.valueOf(productId), after, limit);
+			ResponseBuilder responseBuilder = Response.ok(commentsDTO);
+			
+			if (commentsDTO.size() == (limit == null ? CommentService.DEFAULT_PAGE_SIZE : limit)) {
+				responseBuilder.header("Next-Cursor", commentsDTO.get(commentsDTO.size() - 1).getId());
+			}
+			
+			return responseBuilder.build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
 	}
 }
\ No newline at end of file
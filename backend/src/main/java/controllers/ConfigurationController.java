@@ -0,0 +1,101 @@
+package controllers;
+
+import java.util.Map;
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import exceptions.PharmacyException;
+import services.ConfigurationService;
+
+/**
+ * Class that contains all requisition methods that refers to configurations.
+ * 
+ * @author Wanderley Drumond
+ */
+@Path("/configuration")
+public class ConfigurationController {
+	/**
+	 * Object that contains all configuration service methods.
+	 */
+	@Inject
+	private ConfigurationService configurationService;
+	
+	/**
+	 * Gets every configuration value.
+	 * 
+	 * @param token logged administrator identifier key
+	 * @return {@link Response} with status code:
+	 *      <ul>
+	 *         <li><strong>200 (OK)</strong> along with the {@link Map} of the values by their keyword</li>
+	 *         <li><strong>403 (FORBIDDEN)</strong> if the logged user is not an administrator</li>
+	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
+	 *      </ul>
+	 */
+	@Path("/all")
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getAll(@HeaderParam("token") UUID token) {
+		try {
+			return Response.ok(configurationService.getAll(token)).build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
+	}
+	
+	/**
+	 * Sets the value of a configuration.
+	 * 
+	 * @param token	  logged administrator identifier key
+	 * @param keyword the configuration to set
+	 * @param value	  the new value
+	 * @return {@link Response} with status code:
+	 *      <ul>
+	 *         <li><strong>200 (OK)</strong> along with the {@link Map} of the values by their keyword</li>
+	 *         <li><strong>400 (BAD REQUEST)</strong> if the keyword or the value are blank</li>
+	 *         <li><strong>403 (FORBIDDEN)</strong> if the logged user is not an administrator</li>
+	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
+	 *      </ul>
+	 */
+	@Path("/by")
+	@PUT
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response set(@HeaderParam("token") UUID token, @QueryParam("keyword") String keyword, @QueryParam("value") String value) {
+		try {
+			return Response.ok(configurationService.set(token, keyword, value)).build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
+	}
+	
+	/**
+	 * Reloads every configuration from the database, picking up the changes made directly in it.
+	 * 
+	 * @param token logged administrator identifier key
+	 * @return {@link Response} with status code:
+	 *      <ul>
+	 *         <li><strong>200 (OK)</strong> along with the {@link Map} of the values by their keyword</li>
+	 *         <li><strong>403 (FORBIDDEN)</strong> if the logged user is not an administrator</li>
+	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
+	 *      </ul>
+	 */
+	@Path("/reload")
+	@POST
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response reload(@HeaderParam("token") UUID token) {
+		try {
+			return Response.ok(configurationService.reload(token)).build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
+	}
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package controllers;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,10 +15,14 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 
 import daos.OrderDAO;
 import dtos.OrderDTO;
+import dtos.RevenueDTO;
 import entities.Order;
+import enums.ExportFormat;
+import exceptions.PharmacyException;
 import mappers.OrderMapper;
 import services.OrderService;
 
@@ -58,7 +63,7 @@ public class OrderController {
 	@PUT
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response addProduct(@HeaderParam("token") UUID token, @QueryParam("productId") String productId) {
-		Order order = orderService.manage(token, Short.valueOf(productId));
+		Order order = orderService.manage(token, Long.valueOf(productId));
 		OrderDTO orderDTO = orderMapper.toDTO(order);
 		
 		return Response.ok(orderDTO).build();
@@ -80,7 +85,7 @@ public class OrderController {
 	@GET
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response getById(@HeaderParam("token") UUID token, @QueryParam("verify") boolean verifyLikedOrFavorited, @QueryParam("orderId") String orderId) {
-		Order order = orderService.getById(token, Short.valueOf(orderId));
+		Order order = orderService.getById(token, Long.valueOf(orderId));
 		OrderDTO orderDTO = orderMapper.toDTO(order, verifyLikedOrFavorited, token);
 		
 		return Response.ok(orderDTO).build();
@@ -105,7 +110,7 @@ public class OrderController {
 	@DELETE
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response removeProductById(@HeaderParam("token") UUID token, @QueryParam("orderId") String orderId, @QueryParam("productId") String productId) {
-		Order order = orderService.removeProductByOrderId(token, Short.valueOf(orderId), Short.valueOf(productId));
+		Order order = orderService.removeProductByOrderId(token, Long.valueOf(orderId), Long.valueOf(productId));
 		OrderDTO orderDTO = orderMapper.toDTO(order);
 		
 		return Response.ok(orderDTO).build();
@@ -114,11 +119,14 @@ public class OrderController {
 	/**
 	 * Gets all concluded orders for the logged user.
 	 * 
-	 * @param token	logged user identifier key
+	 * @param token  logged user identifier key
+	 * @param before primary key of the last order of the previous page, taken from its <code>Next-Cursor</code> header. Not provided for the first page
+	 * @param limit	 the maximum amount of orders of the page
 	 * @return {@link Response} with status code:
 	 *      <ul>
-	 *         <li><strong>200 (OK)</strong> if the product was removed along with the updated {@link OrderDTO}</li>
+	 *         <li><strong>200 (OK)</strong> along with the {@link OrderDTO} {@link List} of the page, newest first, and the <code>Next-Cursor</code> header if there may be more pages</li>
 	 *         <li><strong>202 (NO CONTENT)</strong> if the provided id belongs to an user with no concluded orders</li>
+	 *         <li><strong>400 (BAD REQUEST)</strong> if the limit is out of range</li>
 	 *         <li><strong>401 (UNAUTHORIZED)</strong> if a non logged user tries to access this functionality</li>
 	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
 	 *      </ul>
@@ -126,11 +134,16 @@ public class OrderController {
 	@Path("/all")
 	@GET
 	@Produces(MediaType.APPLICATION_JSON)
-	public Response getAllConcludedOrders(@HeaderParam("token") UUID token) {
-		List<Order> orders = orderService.getAllConcluded(token);
+	public Response getAllConcludedOrders(@HeaderParam("token") UUID token, @QueryParam("before") Long before, @QueryParam("limit") Integer limit) {
+		List<Order> orders = orderService.getConcludedPage(token, before, limit);
 		List<OrderDTO> ordersDTO = orderMapper.toDTOs(orders);
+		ResponseBuilder responseBuilder = Response.ok(ordersDTO);
+		
+		if (orders.size() == (limit == null ? OrderService.DEFAULT_PAGE_SIZE : limit)) {
+			responseBuilder.header("Next-Cursor", orders.get(orders.size() - 1).getId());
+		}
 		
-		return Response.ok(ordersDTO).build();
+		return responseBuilder.build();
 	}
 	
 	/**
@@ -151,7 +164,7 @@ public class OrderController {
 	@PUT
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response concludeOrder(@HeaderParam("token") UUID token, @QueryParam("id") String orderId) {
-		Order order = orderService.conclude(token, Short.valueOf(orderId));
+		Order order = orderService.conclude(token, Long.valueOf(orderId));
 		OrderDTO orderDTO = orderMapper.toDTO(order);
 		
 		return Response.ok(orderDTO).build();
@@ -172,7 +185,7 @@ public class OrderController {
 	@DELETE
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response deleteNonConcludedById(@HeaderParam("token") UUID token, @QueryParam("id") String orderId) {
-		return Response.ok(orderService.emptyCart(token, Short.valueOf(orderId))).build();
+		return Response.ok(orderService.emptyCart(token, Long.valueOf(orderId))).build();
 	}
 	
 	/**
@@ -198,4 +211,64 @@ public class OrderController {
 		
 		return Response.ok(orderDTO).build();
 	}
+	
+	/**
+	 * Gets the revenue of each day or month of the given range.
+	 * 
+	 * @param token		  logged administrator identifier key
+	 * @param from		  first day of the range, in ISO format (e.g. 2023-01-31)
+	 * @param to		  last day of the range, in ISO format
+	 * @param granularity DAY or MONTH, MONTH if not provided
+	 * @return {@link Response} with status code:
+	 *      <ul>
+	 *         <li><strong>200 (OK)</strong> along with the {@link RevenueDTO} {@link List}, one element per period</li>
+	 *         <li><strong>400 (BAD REQUEST)</strong> if the range or the granularity are not valid</li>
+	 *         <li><strong>403 (FORBIDDEN)</strong> if the logged user is not an administrator</li>
+	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
+	 *      </ul>
+	 */
+	@Path("/revenue")
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getRevenue(@HeaderParam("token") UUID token, @QueryParam("from") String from, @QueryParam("to") String to, @QueryParam("granularity") String granularity) {
+		try {
+			return Response.ok(orderService.getRevenue(token, from, to, granularity)).build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
+	}
+	
+	/**
+	 * Exports every line of the concluded orders of the given range, written while it is read from the database.
+	 * 
+	 * @param token	 logged administrator identifier key
+	 * @param format CSV or NDJSON, CSV if not provided
+	 * @param from	 first day of the range, in ISO format (e.g. 2023-01-31). From the first order if not provided
+	 * @param to	 last day of the range, in ISO format. Up to the last order if not provided
+	 * @return {@link Response} with status code:
+	 *      <ul>
+	 *         <li><strong>200 (OK)</strong> along with the export file, one line per order line</li>
+	 *         <li><strong>400 (BAD REQUEST)</strong> if the range or the format are not valid</li>
+	 *         <li><strong>403 (FORBIDDEN)</strong> if the logged user is not an administrator</li>
+	 *      </ul>
+	 */
+	@Path("/export")
+	@GET
+	@Produces({"text/csv", "application/x-ndjson"})
+	public Response exportConcludedOrders(@HeaderParam("token") UUID token, @QueryParam("format") String format, @QueryParam("from") String from, @QueryParam("to") String to) {
+		try {
+			final ExportFormat EXPORT_FORMAT;
+			try {
+				EXPORT_FORMAT = format == null || format.isBlank() ? ExportFormat.CSV : ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException illegalArgumentException) {
+				throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid format", "Provide format as CSV or NDJSON");
+			}
+			
+			return Response.ok(orderService.exportConcluded(token, EXPORT_FORMAT, from, to), EXPORT_FORMAT.getMEDIA_TYPE())
+					.header("Content-Disposition", "attachment; filename=\"orders." + EXPORT_FORMAT.getEXTENSION() + "\"")
+					.build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
+	}
 }
\ No newline at end of file
@@ -17,7 +17,10 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import caches.CatalogProduct;
+import dtos.CatalogStatisticsDTO;
 import dtos.ProductDTO;
+import dtos.SuggestionDTO;
 import entities.Product;
 import exceptions.PharmacyException;
 import mappers.ProductMapper;
@@ -86,8 +89,8 @@ public class ProductController {
 	@GET
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response getAllBySection(@HeaderParam("token") UUID token, @QueryParam("section") String section, @QueryParam("verify") boolean verifyLikedOrFavorited) {
-		List<Product> products = productService.getAllBySection(section);
-		List<ProductDTO> productsDTO = productMapper.toDTOs(products, verifyLikedOrFavorited, token);
+		List<CatalogProduct> products = productService.getAllBySection(section);
+		List<ProductDTO> productsDTO = productMapper.catalogToDTOs(products, verifyLikedOrFavorited, token);
 		try {
 			
 			return productsDTO.isEmpty() ? Response.status(Response.Status.NO_CONTENT).entity(productsDTO).build() : Response.ok(productsDTO).build();
@@ -126,8 +129,8 @@ public class ProductController {
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response getAll(@HeaderParam("token") UUID token, @QueryParam("verify") boolean verifyLikedOrFavorited) {
 		try {
-			List<Product> products = productService.getAll();
-			List<ProductDTO> productsDTO = productMapper.toDTOs(products, verifyLikedOrFavorited, token);
+			List<CatalogProduct> products = productService.getAll();
+			List<ProductDTO> productsDTO = productMapper.catalogToDTOs(products, verifyLikedOrFavorited, token);
 			
 			return productsDTO.isEmpty() ? Response.status(Response.Status.NO_CONTENT).entity(productsDTO).build() : Response.ok(productsDTO).build();
 			
@@ -145,7 +148,7 @@ public class ProductController {
 	 * @return {@link Response} with status code:
 	 *      <ul>
 	 *         <li><strong>200 (OK)</strong> if the product was found along with the {@link ProductDTO}</li>
-	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Short}, {@link Integer} or {@link Byte}</li>
+	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Long}, {@link Integer} or {@link Byte}</li>
 	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
 	 *      </ul>
 	 */
@@ -154,8 +157,8 @@ public class ProductController {
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response getById(@HeaderParam("token") UUID token, @QueryParam("verify") boolean verifyLikedOrFavorited, @QueryParam("id") String productId) {
 		try {
-			Product product = productService.getById(Short.parseShort(productId));
-			ProductDTO productDTO = productMapper.toDTO(product, verifyLikedOrFavorited, token);
+			CatalogProduct product = productService.getCatalogProductById(Long.parseLong(productId));
+			ProductDTO productDTO = productMapper.catalogToDTO(product, verifyLikedOrFavorited, token);
 			
 			return Response.ok(productDTO).build();
 		} catch (NumberFormatException numberFormatException) {
@@ -177,7 +180,7 @@ public class ProductController {
 	 * @return {@link Response} with status code:
 	 *      <ul>
 	 *         <li><strong>200 (OK)</strong> if the user liked the product along with true {@link boolean} value</li>
-	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Short}, {@link Integer} or {@link Byte}</li>
+	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Long}, {@link Integer} or {@link Byte}</li>
 	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
 	 *      </ul>
 	 */
@@ -186,7 +189,7 @@ public class ProductController {
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response likeById(@HeaderParam("token") UUID token, @QueryParam("id") String productId) {
 		try {
-			return Response.ok(productService.likeById(token, Short.valueOf(productId))).build();
+			return Response.ok(productService.likeById(token, Long.valueOf(productId))).build();
 		} catch (NumberFormatException numberFormatException) {
 			System.err.println("Catch " + numberFormatException.getClass().getName() + " in likeById() in ProductController");
 			Logger.getLogger(ProductController.class.getName()).log(Level.SEVERE, "Incorrect number format for id", numberFormatException);
@@ -209,7 +212,7 @@ public class ProductController {
 	 * @return {@link Response} with status code:
 	 *      <ul>
 	 *         <li><strong>200 (OK)</strong> if the user unliked the product along with true {@link boolean} value</li>
-	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Short}, {@link Integer} or {@link Byte}</li>
+	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Long}, {@link Integer} or {@link Byte}</li>
 	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
 	 *      </ul>
 	 */
@@ -218,7 +221,7 @@ public class ProductController {
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response unlikeById(@HeaderParam("token") UUID token, @QueryParam("id") String productId) {
 		try {
-			return Response.ok(productService.unlikeById(token, Short.valueOf(productId))).build();
+			return Response.ok(productService.unlikeById(token, Long.valueOf(productId))).build();
 		} catch (NumberFormatException numberFormatException) {
 			System.err.println("Catch " + numberFormatException.getClass().getName() + " in unlikeById() in ProductController");
 			Logger.getLogger(ProductController.class.getName()).log(Level.SEVERE, "Incorrect number format for id", numberFormatException);
@@ -241,7 +244,7 @@ public class ProductController {
 	 * @return {@link Response} with status code:
 	 *      <ul>
 	 *         <li><strong>200 (OK)</strong> if the user marks the product as favourite along with true {@link boolean} value</li>
-	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Short}, {@link Integer} or {@link Byte}</li>
+	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Long}, {@link Integer} or {@link Byte}</li>
 	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
 	 *      </ul>
 	 */
@@ -250,7 +253,7 @@ public class ProductController {
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response favoriteById(@HeaderParam("token") UUID token, @QueryParam("id") String productId) {
 		try {
-			return Response.ok(productService.favoriteById(token, Short.valueOf(productId))).build();
+			return Response.ok(productService.favoriteById(token, Long.valueOf(productId))).build();
 		} catch (NumberFormatException numberFormatException) {
 			System.err.println("Catch " + numberFormatException.getClass().getName() + " in favoriteById() in ProductController");
 			Logger.getLogger(ProductController.class.getName()).log(Level.SEVERE, "Incorrect number format for id", numberFormatException);
@@ -273,7 +276,7 @@ public class ProductController {
 	 * @return {@link Response} with status code:
 	 *      <ul>
 	 *         <li><strong>200 (OK)</strong> if the user marks off the product as favourite along with true {@link boolean} value</li>
-	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Short}, {@link Integer} or {@link Byte}</li>
+	 *         <li><strong>406 (NOT ACCEPTABLE)</strong> if the product id type is different then {@link Long}, {@link Integer} or {@link Byte}</li>
 	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
 	 *      </ul>
 	 */
@@ -282,7 +285,7 @@ public class ProductController {
 	@Produces(MediaType.APPLICATION_JSON)
 	public Response unfavoriteById(@HeaderParam("token") UUID token, @QueryParam("id") String productId) {
 		try {
-			return Response.ok(productService.unfavoriteById(token, Short.valueOf(productId))).build();
+			return Response.ok(productService.unfavoriteById(token, Long.valueOf(productId))).build();
 		} catch (NumberFormatException numberFormatException) {
 			System.err.println("Catch " + numberFormatException.getClass().getName() + " in unfavoriteById() in ProductController");
 			Logger.getLogger(ProductController.class.getName()).log(Level.SEVERE, "Incorrect number format for id", numberFormatException);
@@ -325,25 +328,76 @@ public class ProductController {
 	}
 	
 	/**
-	 * Gets all the products that contains the provided name checking if those products were liked and/or marked as favourite.
+	 * Gets the most relevant products that contains the provided name checking if those products were liked and/or marked as favourite.
 	 * 
 	 * @param token					 logged user identifier key
 	 * @param productName			 the key search
 	 * @param verifyLikedOrFavorited it will check if this product was liked and/or marked as favourite?
+	 * @param limit					 the maximum amount of products to answer (optional)
+	 * @param isFuzzy				 it will also find names with misspelled words?
 	 * @return {@link Response} with status code:
 	 *      <ul>
 	 *         <li><strong>200 (OK)</strong> if the products list was found and has elements</li>
 	 *         <li><strong>204 (NO CONTENT)</strong> if the products list was found and is empty</li>
+	 *         <li><strong>400 (BAD REQUEST)</strong> if the limit is not positive</li>
 	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
 	 *      </ul>
 	 */
 	@Path("/all-by-")
 	@GET
 	@Produces(MediaType.APPLICATION_JSON)
-	public Response getAllByName(@HeaderParam("token") UUID token, @QueryParam("name") String productName, @QueryParam("verify") boolean verifyLikedOrFavorited) {
-		List<Product> productsFound = productService.getAllByName(productName);
-		List<ProductDTO> productsDTOFound = productMapper.toDTOs(productsFound, verifyLikedOrFavorited, token);
-		
-		return productsDTOFound.isEmpty() ? Response.status(Response.Status.NO_CONTENT).entity(productsDTOFound).build() : Response.ok(productsDTOFound).build();
+	public Response getAllByName(@HeaderParam("token") UUID token, @QueryParam("name") String productName, @QueryParam("verify") boolean verifyLikedOrFavorited, @QueryParam("limit") Integer limit, @QueryParam("fuzzy") boolean isFuzzy) {
+		try {
+			List<CatalogProduct> productsFound = productService.getAllByName(productName, limit, isFuzzy);
+			List<ProductDTO> productsDTOFound = productMapper.catalogToDTOs(productsFound, verifyLikedOrFavorited, token);
+			
+			return productsDTOFound.isEmpty() ? Response.status(Response.Status.NO_CONTENT).entity(productsDTOFound).build() : Response.ok(productsDTOFound).build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
+	}
+	
+	/**
+	 * Suggests product names while the user types in the search box.
+	 * 
+	 * @param prefix what was typed so far
+	 * @param limit	 the maximum amount of suggestions (optional)
+	 * @return {@link Response} with status code:
+	 *      <ul>
+	 *         <li><strong>200 (OK)</strong> along with the {@link SuggestionDTO} {@link List}, which may be empty</li>
+	 *         <li><strong>400 (BAD REQUEST)</strong> if the limit is out of range</li>
+	 *         <li><strong>502 (BAD GATEWAY)</strong> if some problem happened in database</li>
+	 *      </ul>
+	 */
+	@Path("/suggest")
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response suggest(@QueryParam("prefix") String prefix, @QueryParam("limit") Integer limit) {
+		try {
+			return Response.ok(productService.suggest(prefix, limit)).build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
+	}
+	
+	/**
+	 * Gets the in-memory product catalogue usage metrics.
+	 * 
+	 * @param token logged administrator identifier key
+	 * @return {@link Response} with status code:
+	 *      <ul>
+	 *         <li><strong>200 (OK)</strong> along with the {@link CatalogStatisticsDTO}</li>
+	 *         <li><strong>403 (FORBIDDEN)</strong> if the logged user is not an administrator</li>
+	 *      </ul>
+	 */
+	@Path("/catalog-statistics")
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getCatalogStatistics(@HeaderParam("token") UUID token) {
+		try {
+			return Response.ok(productService.getCatalogStatistics(token)).build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
 	}
 }
\ No newline at end of file
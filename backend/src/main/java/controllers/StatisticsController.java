@@ -0,0 +1,75 @@
+package controllers;
+
+import java.util.UUID;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import dtos.DatabaseStatisticsDTO;
+import exceptions.PharmacyException;
+import services.StatisticsService;
+
+/**
+ * Class that contains all requisition methods that refers to the database usage metrics.
+ * 
+ * @author Wanderley Drumond
+ */
+@Path("/statistics")
+public class StatisticsController {
+	/**
+	 * Media type of the Prometheus text exposition format.
+	 */
+	private static final String PROMETHEUS_MEDIA_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	
+	/**
+	 * Object that contains all statistics service methods.
+	 */
+	@Inject
+	private StatisticsService statisticsService;
+	
+	/**
+	 * Gets the database usage metrics, of Hibernate, of each DAO method and of each query.
+	 * 
+	 * @param token logged administrator identifier key
+	 * @return {@link Response} with status code:
+	 *      <ul>
+	 *         <li><strong>200 (OK)</strong> along with the {@link DatabaseStatisticsDTO}</li>
+	 *         <li><strong>403 (FORBIDDEN)</strong> if the logged user is not an administrator</li>
+	 *      </ul>
+	 */
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getStatistics(@HeaderParam("token") UUID token) {
+		try {
+			return Response.ok(statisticsService.getStatistics(token)).build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
+	}
+	
+	/**
+	 * Gets the database usage metrics of Hibernate and of each DAO method, in the Prometheus text format.
+	 * 
+	 * @param token logged administrator identifier key
+	 * @return {@link Response} with status code:
+	 *      <ul>
+	 *         <li><strong>200 (OK)</strong> along with the metrics</li>
+	 *         <li><strong>403 (FORBIDDEN)</strong> if the logged user is not an administrator</li>
+	 *      </ul>
+	 */
+	@Path("/prometheus")
+	@GET
+	@Produces(MediaType.TEXT_PLAIN)
+	public Response getPrometheusStatistics(@HeaderParam("token") UUID token) {
+		try {
+			return Response.ok(statisticsService.getPrometheusStatistics(token), PROMETHEUS_MEDIA_TYPE).build();
+		} catch (PharmacyException pharmacyException) {
+			return Response.status(pharmacyException.getHttpStatus()).header("Impossible to proceed", pharmacyException.getHeader()).entity(pharmacyException.getMessage()).build();
+		}
+	}
+}
\ No newline at end of file
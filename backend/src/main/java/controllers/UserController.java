@@ -135,7 +135,7 @@ public class UserController {
 	@Consumes(MediaType.APPLICATION_JSON)
 	public Response approve(@HeaderParam("token") UUID token, @QueryParam("id") String userToApproveId) {
 		try {
-			return Response.ok(userService.approve(token, Integer.valueOf(userToApproveId))).build();
+			return Response.ok(userService.approve(token, Long.valueOf(userToApproveId))).build();
 		} catch (PharmacyException pharmacyException) {
 			Logger.getLogger(UserController.class.getName()).log(Level.SEVERE, "in approve()", pharmacyException);
 			
@@ -12,8 +12,10 @@ import javax.persistence.NoResultException;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
+import dtos.CommentDTO;
 import entities.Comment;
 import entities.Product;
 import entities.User;
@@ -49,7 +51,7 @@ public class CommentDAO extends GenericDAO<Comment> {
 	 * 			<li>null, if some problem happened in database</li>
 	 * 		</ul>
 	 */
-	public Optional<Comment> findByProductIdForLoggedUser(Short productId, UUID token) {
+	public Optional<Comment> findByProductIdForLoggedUser(Long productId, UUID token) {
 		try {
 			final CriteriaQuery<Comment> CRITERIA_QUERY;
 			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
@@ -75,33 +77,44 @@ public class CommentDAO extends GenericDAO<Comment> {
 	}
 
 	/**
-	 * Finds the list of comments made from all users from the given product.
+	 * <p>Finds a page of the comments made from all users from the given product, from the oldest to the newest, already projected into {@link CommentDTO} along with their owner.</p>
+	 * <p><em>The owner is read by the same query and the page starts right after the given comment id instead of skipping rows, so every page costs a single query whatever its position.</em></p>
 	 * 
-	 * @param productId	primary key that identifies the product to find all comments
+	 * @param productId	primary key that identifies the product to find the comments
+	 * @param afterId	primary key of the last comment of the previous page, null for the first page
+	 * @param pageSize	the maximum amount of comments of the page
 	 * @return
 	 * 		<ul>
-	 * 			<li>The {@link Comment} {@link List} that belongs to the identified product</li>
-	 * 			<li>new {@link ArrayList} if no comment was found with the given match</li>
+	 * 			<li>The {@link CommentDTO} {@link List} of the page, empty if there are no more comments</li>
 	 * 			<li>null, if some problem happened in database</li>
 	 * 		</ul>
 	 */
-	public List<Comment> findAllByProductId(Short productId) {
+	public List<CommentDTO> findPageByProductId(Long productId, Long afterId, int pageSize) {
 		try {
-			final CriteriaQuery<Comment> CRITERIA_QUERY;
+			final CriteriaQuery<CommentDTO> CRITERIA_QUERY;
 			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(Comment.class);
+			CRITERIA_QUERY = criteriaBuilder.createQuery(CommentDTO.class);
 			Root<Comment> commentTable = CRITERIA_QUERY.from(Comment.class);
-			Join<Comment, Product> productTable = commentTable.join("product");
+			Join<Comment, User> userTable = commentTable.join("owner");
+			List<Predicate> predicates = new ArrayList<>();
 			
-			CRITERIA_QUERY.select(commentTable).where(criteriaBuilder.equal(productTable.get("id"), productId));
+			predicates.add(criteriaBuilder.equal(commentTable.get("product").get("id"), productId));
+			if (afterId != null) {
+				predicates.add(criteriaBuilder.greaterThan(commentTable.get("id"), afterId));
+			}
 			
-			return entityManager.createQuery(CRITERIA_QUERY).getResultList();
-		} catch (NoResultException noResultException) {
-			Logger.getLogger(CommentDAO.class.getName()).log(Level.SEVERE, "in findAllByProductId()", noResultException);
+			CRITERIA_QUERY.select(criteriaBuilder.construct(CommentDTO.class,
+					commentTable.get("id"),
+					userTable.get("id"),
+					commentTable.get("content"),
+					userTable.get("name"),
+					userTable.get("token")))
+					.where(predicates.toArray(new Predicate[0]))
+					.orderBy(criteriaBuilder.asc(commentTable.get("id")));
 			
-			return new ArrayList<Comment>();
+			return entityManager.createQuery(CRITERIA_QUERY).setMaxResults(pageSize).getResultList();
 		} catch (Exception exception) {
-			Logger.getLogger(CommentDAO.class.getName()).log(Level.SEVERE, "in findAllByProductId()", exception);
+			Logger.getLogger(CommentDAO.class.getName()).log(Level.SEVERE, "in findPageByProductId()", exception);
 			
 			return null;
 		}
@@ -1,10 +1,12 @@
 package daos;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.ejb.Stateless;
+import javax.persistence.NoResultException;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
@@ -27,7 +29,7 @@ public class ConfigurationDAO extends GenericDAO<Configuration> {
 	 * Finds the value that the corresponding keyword cell contains.
 	 * 
 	 * @param keyword the cell that corresponds the value to be found
-	 * @return {@link Optional} that contains the value correspondent by the keyword
+	 * @return {@link Optional} that contains the value correspondent by the keyword, empty if the keyword does not exist or if any errors happened in the database
 	 */
 	public Optional<Configuration> findValueByKeyWord(String keyword) {
 		try {
@@ -39,12 +41,99 @@ public class ConfigurationDAO extends GenericDAO<Configuration> {
 			CRITERIA_QUERY.select(configurationTable).where(criteriaBuilder.equal(configurationTable.get("keyword"), keyword));
 			
 			return Optional.ofNullable(entityManager.createQuery(CRITERIA_QUERY).getSingleResult());
+		} catch (NoResultException noResultException) {
+			Logger.getLogger(ConfigurationDAO.class.getName()).log(Level.FINE, "Configuration {0} not found", keyword);
+			
+			return Optional.empty();
 		} catch (Exception exception) {
-			System.err.println("Catch " + exception.getClass().getName() + " in findValueByKeyWord() in ConfigurationDAO");
 			Logger.getLogger(ConfigurationDAO.class.getName()).log(Level.SEVERE, "in findValueByKeyWord()", exception);
-			exception.printStackTrace();
 			
 			return Optional.empty();
 		}
 	}
+
+	/**
+	 * Finds every configuration row.
+	 * 
+	 * @return the {@link Configuration} {@link List}, null if any errors happened in the database
+	 */
+	public List<Configuration> findAllConfigurations() {
+		try {
+			return findAllReadOnly();
+		} catch (Exception exception) {
+			Logger.getLogger(ConfigurationDAO.class.getName()).log(Level.SEVERE, "in findAllConfigurations()", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Sets the value of the corresponding keyword, creating the row if it does not exist yet.
+	 * 
+	 * @param keyword the cell that corresponds the value to be set
+	 * @param value	  the new value
+	 * @return the amount of rows affected, null if any errors happened in the database
+	 */
+	public Integer setValue(String keyword, String value) {
+		try {
+			Integer amountOfRowsUpdated = entityManager.createNativeQuery("UPDATE configurations SET value = ?2 WHERE keyword = ?1")
+					.setParameter(1, keyword)
+					.setParameter(2, value)
+					.executeUpdate();
+			
+			if (amountOfRowsUpdated > 0) {
+				return amountOfRowsUpdated;
+			}
+			
+			return insertIfAbsent(keyword, value);
+		} catch (Exception exception) {
+			Logger.getLogger(ConfigurationDAO.class.getName()).log(Level.SEVERE, "in setValue()", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * <p>Adds the given amount to the numeric value of the corresponding keyword, creating the row with that amount if it does not exist yet.</p>
+	 * <p><em>The sum is made by the database, so concurrent additions never overwrite each other.</em></p>
+	 * 
+	 * @param keyword the cell that corresponds the value to be incremented
+	 * @param amount  how much to add to the value
+	 * @return the amount of rows affected, null if any errors happened in the database
+	 */
+	public Integer addToValue(String keyword, long amount) {
+		try {
+			Integer amountOfRowsUpdated = entityManager.createNativeQuery(
+					"UPDATE configurations SET value = CAST(CAST(value AS SIGNED) + ?2 AS CHAR) WHERE keyword = ?1")
+					.setParameter(1, keyword)
+					.setParameter(2, amount)
+					.executeUpdate();
+			
+			if (amountOfRowsUpdated > 0) {
+				return amountOfRowsUpdated;
+			}
+			
+			return insertIfAbsent(keyword, String.valueOf(amount));
+		} catch (Exception exception) {
+			Logger.getLogger(ConfigurationDAO.class.getName()).log(Level.SEVERE, "in addToValue()", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Inserts a configuration row with the given keyword and value, unless the keyword already exists.
+	 * 
+	 * @param keyword the cell that corresponds the value to be inserted
+	 * @param value	  the value of the new row
+	 * @return the amount of rows inserted
+	 */
+	private Integer insertIfAbsent(String keyword, String value) {
+		return entityManager.createNativeQuery(
+				"INSERT INTO configurations (keyword, value) SELECT ?1, ?2 FROM DUAL "
+				+ "WHERE NOT EXISTS (SELECT 1 FROM configurations WHERE keyword = ?1)")
+				.setParameter(1, keyword)
+				.setParameter(2, value)
+				.executeUpdate();
+	}
 }
\ No newline at end of file
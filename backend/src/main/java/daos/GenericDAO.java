@@ -1,14 +1,28 @@
 package daos;
 
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.annotations.QueryHints;
+
+import interceptors.Monitored;
 
 /**
  * Contains all common actions for used for for objects to interact with
@@ -16,6 +30,7 @@ import javax.persistence.criteria.CriteriaQuery;
  * 
  * @param <T> the object type
  */
+@Monitored
 @TransactionAttribute(TransactionAttributeType.REQUIRED)
 public abstract class GenericDAO<T extends Serializable> implements Serializable {
 
@@ -79,12 +94,33 @@ public abstract class GenericDAO<T extends Serializable> implements Serializable
 	 * Updates the given item into the database.
 	 * 
 	 * @param entity the object that contains informations to be updated
+	 * @throws OptimisticLockException if the entity is versioned and was changed by someone else since it was read
 	 */
 	public void merge(final T entity) {
 		try {
 			entityManager.merge(entity);
+			entityManager.flush();
+		} catch (OptimisticLockException optimisticLockException) {
+			throw optimisticLockException;
+		} catch (Exception exception) {
+			exception.printStackTrace();
+		}
+	}
+
+	/**
+	 * Reads again the state of the given managed item from the database, overwriting the one kept by the persistence context.
+	 * 
+	 * @param entity the managed object whose row was changed by a native query
+	 * @return the refreshed object, null if any errors happened in the database
+	 */
+	public T refresh(final T entity) {
+		try {
+			entityManager.refresh(entity);
+			
+			return entity;
 		} catch (Exception exception) {
 			exception.printStackTrace();
+			return null;
 		}
 	}
 
@@ -92,6 +128,7 @@ public abstract class GenericDAO<T extends Serializable> implements Serializable
 	 * Removes the given item from the database.
 	 * 
 	 * @param entity the object that contains informations to be deleted
+	 * @throws OptimisticLockException if the entity is versioned and was changed by someone else since it was read
 	 */
 	public void remove(final T entity) {
 		try {
@@ -100,6 +137,9 @@ public abstract class GenericDAO<T extends Serializable> implements Serializable
 			} else {
 				entityManager.remove(entityManager.merge(entity));
 			}
+			entityManager.flush();
+		} catch (OptimisticLockException optimisticLockException) {
+			throw optimisticLockException;
 		} catch (Exception exception) {
 			exception.printStackTrace();
 		}
@@ -117,13 +157,195 @@ public abstract class GenericDAO<T extends Serializable> implements Serializable
 	}
 
 	/**
-	 * Counts all results from a determined query.
+	 * <p>Finds all results from a determined query, as read only entities.</p>
+	 * <p><em>Changes made to the entities found are never written to the database.</em></p>
 	 * 
-	 * @return the result count
+	 * @return the result list
 	 */
-	public Short countAll() {
+	public List<T> findAllReadOnly() {
 		final CriteriaQuery<T> criteriaQuery = entityManager.getCriteriaBuilder().createQuery(CLAZZ);
 		criteriaQuery.select(criteriaQuery.from(CLAZZ));
-		return (short) entityManager.createQuery(criteriaQuery).getResultList().size();
+		return readOnly(entityManager.createQuery(criteriaQuery)).getResultList();
+	}
+
+	/**
+	 * Counts all rows of the entity table in the database.
+	 * 
+	 * @return the result count
+	 */
+	public Long countAll() {
+		return count(null);
+	}
+
+	/**
+	 * Counts, in the database, the rows that match the given restriction.
+	 * 
+	 * @param restriction the where clause of the query, null to count all rows
+	 * @return the amount of rows found
+	 */
+	protected Long count(Restriction<T> restriction) {
+		final CriteriaQuery<Long> CRITERIA_QUERY;
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CRITERIA_QUERY = criteriaBuilder.createQuery(Long.class);
+		Root<T> table = CRITERIA_QUERY.from(CLAZZ);
+		
+		CRITERIA_QUERY.select(criteriaBuilder.count(table));
+		where(CRITERIA_QUERY, criteriaBuilder, table, restriction);
+		
+		return entityManager.createQuery(CRITERIA_QUERY).getSingleResult();
+	}
+
+	/**
+	 * Checks, in the database, if at least one row matches the given restriction.
+	 * <p><em>The database stops searching at the first row found.</em></p>
+	 * 
+	 * @param restriction the where clause of the query
+	 * @return
+	 * 		<ul>
+	 * 			<li>True, if some row matches the restriction</li>
+	 * 			<li>False, if no row matches the restriction</li>
+	 * 		</ul>
+	 */
+	protected Boolean exists(Restriction<T> restriction) {
+		final CriteriaQuery<Boolean> CRITERIA_QUERY;
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CRITERIA_QUERY = criteriaBuilder.createQuery(Boolean.class);
+		Root<T> table = CRITERIA_QUERY.from(CLAZZ);
+		
+		CRITERIA_QUERY.select(criteriaBuilder.literal(true));
+		where(CRITERIA_QUERY, criteriaBuilder, table, restriction);
+		
+		return !entityManager.createQuery(CRITERIA_QUERY).setMaxResults(1).getResultList().isEmpty();
+	}
+
+	/**
+	 * Sums, in the database, the given numeric attribute of the rows that match the given restriction.
+	 * 
+	 * @param attributePath the attribute to be summed, joined attributes are separated by dots (e.g. <code>buyer.id</code>)
+	 * @param restriction	the where clause of the query, null to sum all rows
+	 * @return the sum found, 0 if no row matches the restriction
+	 */
+	protected Double sum(String attributePath, Restriction<T> restriction) {
+		final CriteriaQuery<Number> CRITERIA_QUERY;
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CRITERIA_QUERY = criteriaBuilder.createQuery(Number.class);
+		Root<T> table = CRITERIA_QUERY.from(CLAZZ);
+		
+		CRITERIA_QUERY.select(criteriaBuilder.sum(this.<Number>path(table, attributePath)));
+		where(CRITERIA_QUERY, criteriaBuilder, table, restriction);
+		
+		Number total = entityManager.createQuery(CRITERIA_QUERY).getSingleResult();
+		
+		return total == null ? 0D : total.doubleValue();
+	}
+
+	/**
+	 * Counts, in the database, the rows that match the given restriction grouped by the given attribute.
+	 * 
+	 * @param <K>		  the grouping attribute type
+	 * @param keyPath	  the grouping attribute, joined attributes are separated by dots (e.g. <code>likedProducts.id</code>)
+	 * @param restriction the where clause of the query, null to count all rows
+	 * @return the {@link Map} of each grouping value found with its amount of rows. Values without rows are not present
+	 */
+	protected <K> Map<K, Long> countGroupedBy(String keyPath, Restriction<T> restriction) {
+		final CriteriaQuery<Tuple> CRITERIA_QUERY;
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CRITERIA_QUERY = criteriaBuilder.createTupleQuery();
+		Root<T> table = CRITERIA_QUERY.from(CLAZZ);
+		Path<K> key = path(table, keyPath);
+		
+		CRITERIA_QUERY.multiselect(key, criteriaBuilder.count(table)).groupBy(key);
+		where(CRITERIA_QUERY, criteriaBuilder, table, restriction);
+		
+		Map<K, Long> counts = new HashMap<>();
+		for (Tuple tuple : entityManager.createQuery(CRITERIA_QUERY).getResultList()) {
+			counts.put(tuple.get(0, key.getJavaType()), tuple.get(1, Long.class));
+		}
+		
+		return counts;
+	}
+
+	/**
+	 * Finds, in the database, only the given attribute of the rows that match the given restriction, without loading the entities.
+	 * 
+	 * @param <R>			the attribute type
+	 * @param attributePath the attribute to be found, joined attributes are separated by dots (e.g. <code>owner.name</code>)
+	 * @param type			the attribute class
+	 * @param restriction	the where clause of the query, null to find the attribute of all rows
+	 * @return the {@link List} of values found
+	 */
+	protected <R> List<R> project(String attributePath, Class<R> type, Restriction<T> restriction) {
+		final CriteriaQuery<R> CRITERIA_QUERY;
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CRITERIA_QUERY = criteriaBuilder.createQuery(type);
+		Root<T> table = CRITERIA_QUERY.from(CLAZZ);
+		
+		CRITERIA_QUERY.select(this.<R>path(table, attributePath));
+		where(CRITERIA_QUERY, criteriaBuilder, table, restriction);
+		
+		return entityManager.createQuery(CRITERIA_QUERY).getResultList();
+	}
+
+	/**
+	 * <p>Marks the given query as read only.</p>
+	 * <p><em>The entities it loads are neither snapshotted nor dirty-checked at flush, which saves memory and flush time when they are only mapped to DTOs.</em></p>
+	 * 
+	 * @param <R>	the query result type
+	 * @param query the query to be marked
+	 * @return the same query, for chaining
+	 */
+	protected <R> TypedQuery<R> readOnly(TypedQuery<R> query) {
+		return query.setHint(QueryHints.READ_ONLY, true);
+	}
+
+	/**
+	 * <p>Gets the {@link Path} of the given attribute, joining the attributes separated by dots.</p>
+	 * <p><em>Joins already made from the same {@link From} are reused, so the grouping key and the restriction of a query share them.</em></p>
+	 * 
+	 * @param <Y>			the attribute type
+	 * @param from			the query root or join the path starts from
+	 * @param attributePath the attribute name, joined attributes are separated by dots (e.g. <code>likedProducts.id</code>)
+	 * @return the {@link Path} of the attribute
+	 */
+	protected <Y> Path<Y> path(From<?, ?> from, String attributePath) {
+		String[] attributes = attributePath.split("\\.");
+		From<?, ?> current = from;
+		
+		for (int index = 0; index < attributes.length - 1; index++) {
+			current = join(current, attributes[index]);
+		}
+		
+		return current.get(attributes[attributes.length - 1]);
+	}
+
+	/**
+	 * Gets the join of the given attribute, reusing it if it was already made.
+	 * 
+	 * @param from		the query root or join to join from
+	 * @param attribute the attribute name to join
+	 * @return the {@link Join} of the attribute
+	 */
+	private From<?, ?> join(From<?, ?> from, String attribute) {
+		for (Join<?, ?> existentJoin : from.getJoins()) {
+			if (existentJoin.getAttribute().getName().equals(attribute)) {
+				return existentJoin;
+			}
+		}
+		
+		return from.join(attribute);
+	}
+
+	/**
+	 * Applies the given restriction, if any, to the given query.
+	 * 
+	 * @param criteriaQuery	  the query to be restricted
+	 * @param criteriaBuilder object used to create the predicate
+	 * @param table			  the query root
+	 * @param restriction	  the where clause of the query, null for no restriction
+	 */
+	private void where(CriteriaQuery<?> criteriaQuery, CriteriaBuilder criteriaBuilder, Root<T> table, Restriction<T> restriction) {
+		if (restriction != null) {
+			criteriaQuery.where(restriction.toPredicate(criteriaBuilder, table));
+		}
 	}
-}
\ No newline at end of file
+}
@@ -1,26 +1,40 @@
 package daos;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.Timestamp;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.annotation.Resource;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
 import javax.persistence.NoResultException;
+import javax.persistence.OptimisticLockException;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.NativeQuery;
+
 import entities.Order;
+import entities.OrderLine;
+import entities.Product;
 import entities.User;
 
 /**
@@ -36,6 +50,30 @@ public class OrderDAO extends GenericDAO<Order> {
 	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
 	 */
 	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * <p>Fetch size of the export cursor.</p>
+	 * <p><em>MySQL driver only streams the rows one by one, instead of loading the whole result set, with this exact value.</em></p>
+	 */
+	private static final int EXPORT_FETCH_SIZE = Integer.MIN_VALUE;
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding revenue_rollups table.
+	 */
+	@Inject
+	private RevenueRollupDAO revenueRollupDAO;
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding order_lines table.
+	 */
+	@Inject
+	private OrderLineDAO orderLineDAO;
+	
+	/**
+	 * Container context of this bean, used to roll back an order change that could not be completed.
+	 */
+	@Resource
+	private SessionContext sessionContext;
 
 	public OrderDAO() {
 		super(Order.class);
@@ -52,7 +90,7 @@ public class OrderDAO extends GenericDAO<Order> {
 	 * 			<li>Something goes wrong with the database, null</li>
 	 * 		</ul>
 	 */
-	public Optional<Order> findById(Short orderId) {
+	public Optional<Order> findById(Long orderId) {
 		try {
 			final CriteriaQuery<Order> CRITERIA_QUERY;
 			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
@@ -74,30 +112,41 @@ public class OrderDAO extends GenericDAO<Order> {
 	}
 
 	/**
-	 * Finds the list of orders from the logged user which has the isConcluded column marked as true
+	 * <p>Finds a page of the concluded orders of the logged user, from the newest to the oldest, along with their buyer.</p>
+	 * <p><em>The page starts right after the given order id instead of skipping rows, so every page costs the same whatever its position.</em></p>
 	 * 
-	 * @param token logged user identifier key
+	 * @param token	   logged user identifier key
+	 * @param beforeId primary key of the last order of the previous page, null for the first page
+	 * @param pageSize the maximum amount of orders of the page
 	 * @return If:
 	 * 		<ul>
 	 * 			<li>Finds, {@link Order} {@link List} corresponding</li>
 	 * 			<li>Something goes wrong with the database, null</li>
 	 * 		</ul>
 	 */
-	public List<Order> findAllConcluded(UUID token) {
+	public List<Order> findConcludedPage(UUID token, Long beforeId, int pageSize) {
 		try {
 			final CriteriaQuery<Order> CRITERIA_QUERY;
 			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
 			CRITERIA_QUERY = criteriaBuilder.createQuery(Order.class);
 			Root<Order> orderTable = CRITERIA_QUERY.from(Order.class);
-			Join<Order, User> userTable = orderTable.join("buyer");
+			@SuppressWarnings("unchecked")
+			Join<Order, User> userTable = (Join<Order, User>) orderTable.fetch("buyer");
+			List<Predicate> predicates = new ArrayList<>();
 			
-			CRITERIA_QUERY.select(orderTable).where(criteriaBuilder.and(
-					criteriaBuilder.equal(userTable.get("token"), token), 
-					criteriaBuilder.equal(orderTable.get("isConcluded"), true)));
+			predicates.add(criteriaBuilder.equal(userTable.get("token"), token));
+			predicates.add(criteriaBuilder.equal(orderTable.get("isConcluded"), true));
+			if (beforeId != null) {
+				predicates.add(criteriaBuilder.lessThan(orderTable.get("id"), beforeId));
+			}
+			
+			CRITERIA_QUERY.select(orderTable)
+					.where(predicates.toArray(new Predicate[0]))
+					.orderBy(criteriaBuilder.desc(orderTable.get("id")));
 			
-			return entityManager.createQuery(CRITERIA_QUERY).getResultList();
+			return readOnly(entityManager.createQuery(CRITERIA_QUERY)).setMaxResults(pageSize).getResultList();
 		} catch (Exception exception) {
-			Logger.getLogger(OrderDAO.class.getName()).log(Level.SEVERE, "in findAllConcluded() in OrderDAO", exception);
+			Logger.getLogger(OrderDAO.class.getName()).log(Level.SEVERE, "in findConcludedPage() in OrderDAO", exception);
 			
 			return null;
 		}
@@ -138,16 +187,14 @@ public class OrderDAO extends GenericDAO<Order> {
 		}
 	}
 
-	public Short countAllNonConcluded() {
+	/**
+	 * Counts, in the database, all orders that were not concluded yet (carts).
+	 * 
+	 * @return the amount of non concluded orders
+	 */
+	public Long countAllNonConcluded() {
 		try {
-			final CriteriaQuery<Order> CRITERIA_QUERY;
-			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(Order.class);
-			Root<Order> orderTable = CRITERIA_QUERY.from(Order.class);
-			
-			CRITERIA_QUERY.select(orderTable).where(criteriaBuilder.equal(orderTable.get("isConcluded"), false));
-			
-			return (short) entityManager.createQuery(CRITERIA_QUERY).getResultList().size();
+			return count((criteriaBuilder, orderTable) -> criteriaBuilder.equal(orderTable.get("isConcluded"), false));
 		} catch (Exception exception) {
 			Logger.getLogger(OrderDAO.class.getName()).log(Level.SEVERE, "in countAllNonConcluded()", exception);
 			
@@ -156,75 +203,230 @@ public class OrderDAO extends GenericDAO<Order> {
 	}
 
 	/**
-	 * Sums the total value from all orders.
+	 * <p>Saves the given order as concluded and adds its total value to the revenue rollups of the current day and month.</p>
+	 * <p><em>Both writes share the same transaction, so an order is never concluded without being counted in the revenue.</em></p>
 	 * 
-	 * @return the sum of total value from all orders existent in database
+	 * @param order the order, already marked as concluded
+	 * @return the merged {@link Order}, null if any errors happened in the database
+	 * @throws OptimisticLockException if the order was changed by someone else since it was read
 	 */
-	public Float sumTotalValue() {
+	public Order conclude(Order order) {
 		try {
-			final CriteriaQuery<Float> CRITERIA_QUERY;
-			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(Float.class);
-			Root<Order> orderTable = CRITERIA_QUERY.from(Order.class);
+			Order concludedOrder = entityManager.merge(order);
+			entityManager.flush();
 			
-			CRITERIA_QUERY.multiselect(criteriaBuilder.sum(orderTable.<BigDecimal>get("totalValue"))).where(criteriaBuilder.equal(orderTable.get("isConcluded"), true));
+			if (revenueRollupDAO.addConcludedOrder(LocalDate.now(), order.getTotalValue()) == null) {
+				sessionContext.setRollbackOnly();
+				
+				return null;
+			}
 			
-			return entityManager.createQuery(CRITERIA_QUERY).getSingleResult();
-		} catch (NoResultException noResultException) {
-			Logger.getLogger(OrderDAO.class.getName()).log(Level.FINE, "in sumTotalValue()", noResultException);
-			return 0F;
+			return concludedOrder;
+		} catch (OptimisticLockException optimisticLockException) {
+			throw optimisticLockException;
 		} catch (Exception exception) {
-			Logger.getLogger(OrderDAO.class.getName()).log(Level.SEVERE, "in sumTotalValue()", exception);
+			Logger.getLogger(OrderDAO.class.getName()).log(Level.SEVERE, "in conclude() in OrderDAO", exception);
+			sessionContext.setRollbackOnly();
+			
 			return null;
 		}
 	}
 
 	/**
-	 * Sums the total value from all orders from current month.
+	 * <p>Adds one unit of the given product to the given order and adds its price to the order total value.</p>
+	 * <p><em>Both writes are single row increments made by the database in the same transaction, so their cost does not depend on the size of the order and concurrent additions never overwrite each other.</em></p>
 	 * 
-	 * @return the sum of the total value from all orders from current month
+	 * @param orderId primary key that identifies the order
+	 * @param product the product to add
+	 * @return the amount of rows affected, null if any errors happened in the database
 	 */
-	public Float sumTotalValueConcludedOrdersCurrentMonth() {
-		final CriteriaQuery<Float> CRITERIA_QUERY;
-		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-		CRITERIA_QUERY = criteriaBuilder.createQuery(Float.class);
-		Root<Order> orderTable = CRITERIA_QUERY.from(Order.class);
+	public Integer addProduct(Long orderId, Product product) {
+		Integer amountOfLinesAffected = orderLineDAO.addUnit(orderId, product.getId(), product.getPrice());
 		
-		Timestamp firstDayOfMonth = Timestamp.valueOf(LocalDateTime.of(LocalDate.now(), LocalTime.of(0, 0, 0)).with(TemporalAdjusters.firstDayOfMonth()));
-		Timestamp lastDayOfMonth = Timestamp.valueOf(LocalDateTime.of(LocalDate.now(), LocalTime.of(23, 59, 59)).with(TemporalAdjusters.lastDayOfMonth()));
+		if (amountOfLinesAffected == null || addToTotalValue(orderId, product.getPrice().doubleValue()) == null) {
+			sessionContext.setRollbackOnly();
+			
+			return null;
+		}
 		
-		Predicate currentMonth = criteriaBuilder.between(orderTable.get("lastUpdate"), firstDayOfMonth, lastDayOfMonth);
-	
-		CRITERIA_QUERY.multiselect(criteriaBuilder.sum(
-				orderTable.<BigDecimal>get("totalValue"))).where(
-						criteriaBuilder.and(
-								criteriaBuilder.equal(orderTable.get("isConcluded"), true), 
-								currentMonth));
-		return entityManager.createQuery(CRITERIA_QUERY).getSingleResult();
+		return amountOfLinesAffected;
 	}
 
 	/**
-	 * Sums the total value from all orders from last month.
+	 * <p>Removes one unit of the given product from the given order and subtracts its unit price from the order total value.</p>
+	 * <p><em>The price subtracted is the one kept in the order line, so later price changes do not unbalance the total.</em></p>
 	 * 
-	 * @return the sum of the total value from all orders from last month month
+	 * @param orderId	primary key that identifies the order
+	 * @param productId	primary key that identifies the product to remove
+	 * @return the amount of rows affected (0 if the order does not have this product, or a concurrent request already removed its line, in which case the total value is left as it is), null if any errors happened in the database
 	 */
-	public Float sumTotalValueConcludedOrdersLastMonth() {
-		final CriteriaQuery<Float> CRITERIA_QUERY;
-		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-		CRITERIA_QUERY = criteriaBuilder.createQuery(Float.class);
-		Root<Order> orderTable = CRITERIA_QUERY.from(Order.class);
+	public Integer removeProduct(Long orderId, Long productId) {
+		Optional<OrderLine> orderLine = orderLineDAO.findByOrderIdAndProductId(orderId, productId);
 		
-		Timestamp firstDayOfMonth = Timestamp.valueOf(LocalDateTime.of(LocalDate.now().minusMonths(1L), LocalTime.of(0, 0, 0)).with(TemporalAdjusters.firstDayOfMonth()));
-		Timestamp lastDayOfMonth = Timestamp.valueOf(LocalDateTime.of(LocalDate.now().minusMonths(1L), LocalTime.of(23, 59, 59)).with(TemporalAdjusters.lastDayOfMonth()));
+		if (orderLine == null) {
+			return null;
+		}
 		
-		Predicate currentMonth = criteriaBuilder.between(orderTable.get("lastUpdate"), firstDayOfMonth, lastDayOfMonth);
-	
-		CRITERIA_QUERY.multiselect(criteriaBuilder.sum(
-				orderTable.<BigDecimal>get("totalValue"))).where(
-						criteriaBuilder.and(
-								criteriaBuilder.equal(orderTable.get("isConcluded"), true), 
-								currentMonth));
+		if (orderLine.isEmpty()) {
+			return 0;
+		}
+		
+		Integer amountOfLinesAffected = orderLineDAO.removeUnit(orderId, productId);
+		
+		if (amountOfLinesAffected == null) {
+			sessionContext.setRollbackOnly();
+			
+			return null;
+		}
+		
+		if (amountOfLinesAffected == 0) {
+			return 0;
+		}
+		
+		if (addToTotalValue(orderId, -orderLine.get().getUnitPrice().doubleValue()) == null) {
+			sessionContext.setRollbackOnly();
+			
+			return null;
+		}
+		
+		return amountOfLinesAffected;
+	}
+
+	/**
+	 * Removes the given order from the database, along with its lines.
+	 * 
+	 * @param order the order to be deleted
+	 * @throws OptimisticLockException if the order was changed by someone else since it was read
+	 */
+	@Override
+	public void remove(final Order order) {
+		if (orderLineDAO.deleteAllByOrderId(order.getId()) == null) {
+			sessionContext.setRollbackOnly();
+			
+			return;
+		}
+		
+		super.remove(order);
+	}
 
-		return entityManager.createQuery(CRITERIA_QUERY).getSingleResult();
+	/**
+	 * <p>Deletes a batch of carts (non concluded orders) not updated since the given time, along with their lines.</p>
+	 * <p><em>The carts are locked while they are deleted, so a cart updated in the meantime is either deleted before the update or not deleted at all.</em></p>
+	 * 
+	 * @param olderThan			 carts last updated before this time are deleted
+	 * @param batchSize			 the maximum amount of carts to delete
+	 * @param includeFormerTable if the rows of the former ordered_products table must be deleted as well
+	 * @return the amount of carts deleted, null if any errors happened in the database
+	 */
+	public Integer deleteStaleCarts(Timestamp olderThan, int batchSize, boolean includeFormerTable) {
+		try {
+			@SuppressWarnings("unchecked")
+			List<Number> staleCartsIds = entityManager.createNativeQuery(
+					"SELECT id FROM orders WHERE is_concluded = FALSE AND last_update < ?1 ORDER BY id LIMIT ?2 FOR UPDATE")
+					.setParameter(1, olderThan)
+					.setParameter(2, batchSize)
+					.getResultList();
+			
+			if (staleCartsIds.isEmpty()) {
+				return 0;
+			}
+			
+			if (includeFormerTable) {
+				entityManager.createNativeQuery("DELETE FROM ordered_products WHERE order_id IN (?1)").setParameter(1, staleCartsIds).executeUpdate();
+			}
+			entityManager.createNativeQuery("DELETE FROM order_lines WHERE order_id IN (?1)").setParameter(1, staleCartsIds).executeUpdate();
+			
+			return entityManager.createNativeQuery("DELETE FROM orders WHERE id IN (?1)").setParameter(1, staleCartsIds).executeUpdate();
+		} catch (Exception exception) {
+			Logger.getLogger(OrderDAO.class.getName()).log(Level.SEVERE, "in deleteStaleCarts() in OrderDAO", exception);
+			sessionContext.setRollbackOnly();
+			
+			return null;
+		}
+	}
+
+	/**
+	 * <p>Reads every line of the orders concluded in the given range, from the oldest order to the newest, handing each one to the given consumer as soon as it is read.</p>
+	 * <p>Each row contains, in this order: order id, buyer username, order creation, order conclusion, order total value, product id, product name, quantity and unit price.</p>
+	 * <p><em>The rows are read through a forward only cursor of a stateless session, out of any transaction, so neither the result set nor the persistence context grow with the amount of rows.</em></p>
+	 * 
+	 * @param from		  orders concluded at or after this time are read, null to read from the first order
+	 * @param to		  orders concluded before this time are read, null to read up to the last order
+	 * @param rowConsumer receives each row read
+	 * @return the amount of rows read, null if any errors happened in the database
+	 * @throws IOException if the consumer could not write a row, as when the client disconnects, so it is not taken for a database error
+	 */
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public Long scrollConcludedLines(Timestamp from, Timestamp to, Consumer<Object[]> rowConsumer) throws IOException {
+		StatelessSession statelessSession = null;
+		ScrollableResults scrollableResults = null;
+		try {
+			statelessSession = entityManager.unwrap(Session.class).getSessionFactory().openStatelessSession();
+			NativeQuery<?> nativeQuery = statelessSession.createNativeQuery(
+					"SELECT o.id, u.username, o.created_in, o.last_update, o.total_value, p.id, p.name, ol.quantity, ol.unit_price "
+					+ "FROM orders o "
+					+ "JOIN users u ON u.id = o.buyer_id "
+					+ "JOIN order_lines ol ON ol.order_id = o.id "
+					+ "JOIN products p ON p.id = ol.product_id "
+					+ "WHERE o.is_concluded = TRUE "
+					+ (from == null ? "" : "AND o.last_update >= :from ")
+					+ (to == null ? "" : "AND o.last_update < :to ")
+					+ "ORDER BY o.id, ol.id");
+			
+			if (from != null) {
+				nativeQuery.setParameter("from", from);
+			}
+			if (to != null) {
+				nativeQuery.setParameter("to", to);
+			}
+			
+			scrollableResults = nativeQuery
+					.setReadOnly(true)
+					.setFetchSize(EXPORT_FETCH_SIZE)
+					.scroll(ScrollMode.FORWARD_ONLY);
+			
+			long amountOfRows = 0L;
+			while (scrollableResults.next()) {
+				rowConsumer.accept(scrollableResults.get());
+				amountOfRows++;
+			}
+			
+			return amountOfRows;
+		} catch (UncheckedIOException uncheckedIOException) {
+			throw uncheckedIOException.getCause();
+		} catch (Exception exception) {
+			Logger.getLogger(OrderDAO.class.getName()).log(Level.SEVERE, "in scrollConcludedLines() in OrderDAO", exception);
+			
+			return null;
+		} finally {
+			if (scrollableResults != null) {
+				scrollableResults.close();
+			}
+			if (statelessSession != null) {
+				statelessSession.close();
+			}
+		}
+	}
+
+	/**
+	 * <p>Adds the given amount to the total value of the given order.</p>
+	 * <p><em>The order version is incremented as well, so whoever read the order before this change cannot overwrite it.</em></p>
+	 * 
+	 * @param orderId primary key that identifies the order
+	 * @param amount  how much to add, negative to subtract
+	 * @return the amount of rows updated, null if any errors happened in the database
+	 */
+	private Integer addToTotalValue(Long orderId, Double amount) {
+		try {
+			return entityManager.createNativeQuery(
+					"UPDATE orders SET total_value = COALESCE(total_value, 0) + ?2, version = version + 1, last_update = CURRENT_TIMESTAMP WHERE id = ?1")
+					.setParameter(1, orderId)
+					.setParameter(2, amount)
+					.executeUpdate();
+		} catch (Exception exception) {
+			Logger.getLogger(OrderDAO.class.getName()).log(Level.SEVERE, "in addToTotalValue() in OrderDAO", exception);
+			
+			return null;
+		}
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+package daos;
+
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ejb.Stateless;
+import javax.persistence.NoResultException;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import entities.OrderLine;
+
+/**
+ * Class that makes the database communication layer role in relation with of the order_lines table.
+ * 
+ * @author Wanderley Drumond
+ */
+@Stateless
+public class OrderLineDAO extends GenericDAO<OrderLine> {
+
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public OrderLineDAO() {
+		super(OrderLine.class);
+	}
+
+	/**
+	 * Adds one unit of the given product to the given order, creating its line with the given unit price if it is the first one.
+	 * 
+	 * @param orderId	primary key that identifies the order
+	 * @param productId	primary key that identifies the product to add
+	 * @param unitPrice	the current price of the product, kept only when the line is created
+	 * @return the amount of rows affected, null if any errors happened in the database
+	 */
+	public Integer addUnit(Long orderId, Long productId, Float unitPrice) {
+		try {
+			return entityManager.createNativeQuery(
+					"INSERT INTO order_lines (order_id, product_id, quantity, unit_price) VALUES (?1, ?2, 1, ?3) "
+					+ "ON DUPLICATE KEY UPDATE quantity = quantity + 1")
+					.setParameter(1, orderId)
+					.setParameter(2, productId)
+					.setParameter(3, unitPrice)
+					.executeUpdate();
+		} catch (Exception exception) {
+			Logger.getLogger(OrderLineDAO.class.getName()).log(Level.SEVERE, "in addUnit() in OrderLineDAO", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Removes one unit of the given product from the given order, deleting its line if it was the last one.
+	 * 
+	 * @param orderId	primary key that identifies the order
+	 * @param productId	primary key that identifies the product to remove
+	 * @return the amount of rows affected (0 if the order does not have this product), null if any errors happened in the database
+	 */
+	public Integer removeUnit(Long orderId, Long productId) {
+		try {
+			Integer amountOfRowsUpdated = entityManager.createNativeQuery(
+					"UPDATE order_lines SET quantity = quantity - 1 WHERE order_id = ?1 AND product_id = ?2 AND quantity > 1")
+					.setParameter(1, orderId)
+					.setParameter(2, productId)
+					.executeUpdate();
+			
+			if (amountOfRowsUpdated > 0) {
+				return amountOfRowsUpdated;
+			}
+			
+			return entityManager.createNativeQuery("DELETE FROM order_lines WHERE order_id = ?1 AND product_id = ?2")
+					.setParameter(1, orderId)
+					.setParameter(2, productId)
+					.executeUpdate();
+		} catch (Exception exception) {
+			Logger.getLogger(OrderLineDAO.class.getName()).log(Level.SEVERE, "in removeUnit() in OrderLineDAO", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Finds the line of the given product in the given order.
+	 * 
+	 * @param orderId	primary key that identifies the order
+	 * @param productId	primary key that identifies the product
+	 * @return If:
+	 * 		<ul>
+	 * 			<li>Finds, {@link Optional} {@link OrderLine} corresponding</li>
+	 * 			<li>Does not find, {@link Optional} empty</li>
+	 * 			<li>Something goes wrong with the database, null</li>
+	 * 		</ul>
+	 */
+	public Optional<OrderLine> findByOrderIdAndProductId(Long orderId, Long productId) {
+		try {
+			final CriteriaQuery<OrderLine> CRITERIA_QUERY;
+			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+			CRITERIA_QUERY = criteriaBuilder.createQuery(OrderLine.class);
+			Root<OrderLine> orderLineTable = CRITERIA_QUERY.from(OrderLine.class);
+			
+			CRITERIA_QUERY.select(orderLineTable).where(criteriaBuilder.and(
+					criteriaBuilder.equal(orderLineTable.get("order").get("id"), orderId), 
+					criteriaBuilder.equal(orderLineTable.get("product").get("id"), productId)));
+			
+			return Optional.ofNullable(entityManager.createQuery(CRITERIA_QUERY).getSingleResult());
+		} catch (NoResultException noResultException) {
+			Logger.getLogger(OrderLineDAO.class.getName()).log(Level.FINE, "in findByOrderIdAndProductId() in OrderLineDAO", noResultException);
+			
+			return Optional.empty();
+		} catch (Exception exception) {
+			Logger.getLogger(OrderLineDAO.class.getName()).log(Level.SEVERE, "in findByOrderIdAndProductId() in OrderLineDAO", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Deletes every line of the given order.
+	 * 
+	 * @param orderId primary key that identifies the order
+	 * @return the amount of rows deleted, null if any errors happened in the database
+	 */
+	public Integer deleteAllByOrderId(Long orderId) {
+		try {
+			return entityManager.createNativeQuery("DELETE FROM order_lines WHERE order_id = ?1")
+					.setParameter(1, orderId)
+					.executeUpdate();
+		} catch (Exception exception) {
+			Logger.getLogger(OrderLineDAO.class.getName()).log(Level.SEVERE, "in deleteAllByOrderId() in OrderLineDAO", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * <p>Creates the order lines from the rows of the former ordered_products table, where each unit of a product was a row of its own.</p>
+	 * <p><em>The former table did not keep prices, so the current price of each product is used as its unit price.</em></p>
+	 * 
+	 * @return the amount of lines created (0 if the former table does not exist), null if any errors happened in the database
+	 */
+	public Integer backfillFromOrderedProducts() {
+		try {
+			if (!hasFormerOrderedProductsTable()) {
+				return 0;
+			}
+			
+			return entityManager.createNativeQuery(
+					"INSERT INTO order_lines (order_id, product_id, quantity, unit_price) "
+					+ "SELECT op.order_id, op.product_id, COUNT(*), p.price FROM ordered_products op "
+					+ "JOIN products p ON p.id = op.product_id GROUP BY op.order_id, op.product_id, p.price")
+					.executeUpdate();
+		} catch (Exception exception) {
+			Logger.getLogger(OrderLineDAO.class.getName()).log(Level.SEVERE, "in backfillFromOrderedProducts() in OrderLineDAO", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Checks if the former ordered_products table, replaced by the order lines, still exists in the database.
+	 * 
+	 * @return true if the table exists
+	 */
+	public boolean hasFormerOrderedProductsTable() {
+		Number amountOfFormerTables = (Number) entityManager.createNativeQuery(
+				"SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = 'ordered_products'")
+				.getSingleResult();
+		
+		return amountOfFormerTables.intValue() > 0;
+	}
+}
\ No newline at end of file
@@ -1,20 +1,28 @@
 package daos;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.annotation.Resource;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
 import javax.persistence.NoResultException;
+import javax.persistence.Tuple;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Root;
 
-import entities.Order;
+import entities.OrderLine;
 import entities.Product;
 import entities.User;
 import enums.Section;
@@ -33,6 +41,12 @@ public class ProductDAO extends GenericDAO<Product> {
 	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
 	 */
 	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Container context of this bean, used to roll back a like whose counter could not be updated.
+	 */
+	@Resource
+	private SessionContext sessionContext;
 
 	public ProductDAO() {
 		super(Product.class);
@@ -57,7 +71,7 @@ public class ProductDAO extends GenericDAO<Product> {
 			
 			CRITERIA_QUERY.select(productTable).where(criteriaBuilder.equal(productTable.get("section"), section));
 			
-			return entityManager.createQuery(CRITERIA_QUERY).getResultList();
+			return readOnly(entityManager.createQuery(CRITERIA_QUERY)).getResultList();
 		} catch (Exception exception) {
 			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in findAllBySection() in ProductDAO", exception);
 			
@@ -71,7 +85,7 @@ public class ProductDAO extends GenericDAO<Product> {
 	 * @param productId primary key that identifies the product to be found
 	 * @return the {@link Optional} {@link Product} that owns the provided id
 	 */
-	public Optional<Product> findById(Short productId) {
+	public Optional<Product> findById(Long productId) {
 		try {
 			final CriteriaQuery<Product> CRITERIA_QUERY;
 			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
@@ -112,7 +126,7 @@ public class ProductDAO extends GenericDAO<Product> {
 			
 			CRITERIA_QUERY.select(productTable).where(criteriaBuilder.equal(userTable.get("token"), token));
 			
-			return entityManager.createQuery(CRITERIA_QUERY).getResultList();
+			return readOnly(entityManager.createQuery(CRITERIA_QUERY)).getResultList();
 		} catch (Exception exception) {
 			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in findAllfavoritesByToken() in ProductDAO", exception);
 			
@@ -121,136 +135,271 @@ public class ProductDAO extends GenericDAO<Product> {
 	}
 
 	/**
-	 * Finds the list of products that contains the provided key search in their product names
+	 * Finds all products that belongs to the given order id.
+	 * 
+	 * @param orderId that contains the products list to be found
+	 * @return the {@link Product} {@link List} of the products that belogs to the given orderId
+	 */
+	public List<Product> findAllByOrderId(Long orderId) {
+		Map<Long, List<Product>> productsByOrderId = findAllByOrderIds(Collections.singleton(orderId));
+		
+		return productsByOrderId == null ? null : productsByOrderId.getOrDefault(orderId, new ArrayList<>());
+	}
+
+	/**
+	 * <p>Finds, with a single query, all products that belongs to each one of the given orders.</p>
+	 * <p><em>Each product is read once, from its order line, and repeated in the list by the quantity of that line.</em></p>
 	 * 
-	 * @param keysearch the product name or part of it
+	 * @param ordersIds primary keys that identify the orders
 	 * @return
 	 * 		<ul>If:
-	 * 			<li>the {@link List} of the products that contains the provided key search in their names</li>
+	 * 			<li>the {@link Map} of the {@link Product} {@link List} of each order by the order id. Orders without products are not present</li>
 	 * 			<li>any errors happened in the database, null</li>
 	 * 		</ul>
 	 */
-	public List<Product> findAllByName(String keysearch) {
+	public Map<Long, List<Product>> findAllByOrderIds(Collection<Long> ordersIds) {
 		try {
-			final CriteriaQuery<Product> CRITERIA_QUERY;
+			Map<Long, List<Product>> productsByOrderId = new HashMap<>();
+			
+			if (ordersIds.isEmpty()) {
+				return productsByOrderId;
+			}
+			
+			final CriteriaQuery<Tuple> CRITERIA_QUERY;
 			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(Product.class);
-			Root<Product> productTable = CRITERIA_QUERY.from(Product.class);
+			CRITERIA_QUERY = criteriaBuilder.createTupleQuery();
+			Root<OrderLine> orderLineTable = CRITERIA_QUERY.from(OrderLine.class);
+			Join<OrderLine, Product> productTable = orderLineTable.join("product");
+			
+			CRITERIA_QUERY.multiselect(orderLineTable.get("order").get("id"), productTable, orderLineTable.get("quantity"))
+					.where(orderLineTable.get("order").get("id").in(ordersIds))
+					.orderBy(criteriaBuilder.asc(orderLineTable.get("id")));
 			
-			CRITERIA_QUERY.select(productTable).where(criteriaBuilder.or(
-					criteriaBuilder.like(productTable.get("name"), keysearch + '%'),
-					criteriaBuilder.like(productTable.get("name"), '%' + keysearch + '%'),
-					criteriaBuilder.like(productTable.get("name"), '%' + keysearch)));
+			readOnly(entityManager.createQuery(CRITERIA_QUERY)).getResultList().forEach(tupleElement -> {
+				List<Product> productsOfThisOrder = productsByOrderId.computeIfAbsent(tupleElement.get(0, Long.class), orderId -> new ArrayList<>());
+				Product product = tupleElement.get(1, Product.class);
+				
+				for (int unit = 0; unit < tupleElement.get(2, Integer.class); unit++) {
+					productsOfThisOrder.add(product);
+				}
+			});
 			
-			return entityManager.createQuery(CRITERIA_QUERY).getResultList();
+			return productsByOrderId;
 		} catch (Exception exception) {
-			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in findAllByName() in ProductDAO", exception);
+			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in findAllByOrderIds() in ProductDAO", exception);
 			
 			return null;
 		}
 	}
+	
+	/**
+	 * Finds, among the provided products, the ids of the ones that the logged user liked.
+	 * 
+	 * @param token		  logged user identifier key
+	 * @param productsIds primary keys that identify the products to be checked
+	 * @return
+	 * 		<ul>If:
+	 * 			<li>the {@link List} of the ids of the products liked by the logged user</li>
+	 * 			<li>any errors happened in the database, null</li>
+	 * 		</ul>
+	 */
+	public List<Long> findAllIdsLikedByToken(UUID token, Collection<Long> productsIds) {
+		return findAllIdsMarkedByToken("usersThatLiked", token, productsIds);
+	}
 
 	/**
-	 * Finds all products that belongs to the given order id.
+	 * Finds, among the provided products, the ids of the ones that the logged user marked as favourite.
 	 * 
-	 * @param orderId that contains the products list to be found
-	 * @return the {@link Product} {@link List} of the products that belogs to the given orderId
+	 * @param token		  logged user identifier key
+	 * @param productsIds primary keys that identify the products to be checked
+	 * @return
+	 * 		<ul>If:
+	 * 			<li>the {@link List} of the ids of the products marked as favourite by the logged user</li>
+	 * 			<li>any errors happened in the database, null</li>
+	 * 		</ul>
+	 */
+	public List<Long> findAllIdsFavoritedByToken(UUID token, Collection<Long> productsIds) {
+		return findAllIdsMarkedByToken("usersThatFavorited", token, productsIds);
+	}
+
+	/**
+	 * Finds, among the provided products, the ids of the ones that the logged user is present in the given users relationship with a single <code>IN</code> query.
+	 * 
+	 * @param usersRelationship the {@link Product} attribute that contains the users that liked or favourited it
+	 * @param token				logged user identifier key
+	 * @param productsIds		primary keys that identify the products to be checked
+	 * @return the {@link List} of the ids found, null if any errors happened in the database
 	 */
-	public List<Product> findAllByOrderId(Short orderId) {
+	private List<Long> findAllIdsMarkedByToken(String usersRelationship, UUID token, Collection<Long> productsIds) {
+		if (productsIds.isEmpty()) {
+			return new ArrayList<Long>();
+		}
+		
 		try {
-			final CriteriaQuery<Product> CRITERIA_QUERY;
-			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(Product.class);
-			Root<Product> productTable = CRITERIA_QUERY.from(Product.class);
-			Join<Product, Order> orderTable = productTable.join("ordersOfAProduct");
-			
-			CRITERIA_QUERY.select(productTable).where(criteriaBuilder.equal(orderTable.get("id"), orderId));
-			
-			return entityManager.createQuery(CRITERIA_QUERY).getResultList();
-		} catch (NoResultException noResultException) {
-			Logger.getLogger(ProductDAO.class.getName()).log(Level.FINE, "in findAllThatFavouritedThisProduct()", noResultException);
-			
-			return new ArrayList<Product>();
+			return project("id", Long.class, (criteriaBuilder, productTable) -> criteriaBuilder.and(
+					criteriaBuilder.equal(path(productTable, usersRelationship + ".token"), token),
+					productTable.get("id").in(productsIds)));
 		} catch (Exception exception) {
-			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in findAllByOrderId() in ProductDAO", exception);
+			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in findAllIdsMarkedByToken() in ProductDAO", exception);
 			
 			return null;
 		}
 	}
-	
+
+	/**
+	 * <p>Inserts, if it does not exist yet, the like of the provided user in the provided product.</p>
+	 * <p><em>When the like is new, the product like counter is incremented in the same transaction.</em></p>
+	 * 
+	 * @param productId primary key that identifies the product to be liked
+	 * @param userId	primary key that identifies the user who likes the product
+	 * @return the amount of rows inserted (0 if the user already liked this product), null if any errors happened in the database
+	 */
+	public Integer insertLike(Long productId, Long userId) {
+		Integer amountOfRowsInserted = insertIntoJoinTable("liked_products", "liked_product_id", "user_that_liked_id", productId, userId);
+		
+		if (amountOfRowsInserted == null || amountOfRowsInserted == 0) {
+			return amountOfRowsInserted;
+		}
+		
+		return addToLikeCount(productId, amountOfRowsInserted);
+	}
+
+	/**
+	 * <p>Deletes the like of the provided user in the provided product.</p>
+	 * <p><em>When a like was really removed, the product like counter is decremented in the same transaction.</em></p>
+	 * 
+	 * @param productId primary key that identifies the product to be unliked
+	 * @param userId	primary key that identifies the user who unlikes the product
+	 * @return the amount of rows deleted (0 if the user did not like this product), null if any errors happened in the database
+	 */
+	public Integer deleteLike(Long productId, Long userId) {
+		Integer amountOfRowsDeleted = deleteFromJoinTable("liked_products", "liked_product_id", "user_that_liked_id", productId, userId);
+		
+		if (amountOfRowsDeleted == null || amountOfRowsDeleted == 0) {
+			return amountOfRowsDeleted;
+		}
+		
+		return addToLikeCount(productId, -amountOfRowsDeleted);
+	}
+
 	/**
-	 * Verifies if the logged user liked the provided product.
+	 * <p>Adds the given amount to the like counter of the identified product.</p>
+	 * <p><em>The increment is made by the database itself (like_count = like_count + amount), so concurrent likes never overwrite each other. If it fails, the whole transaction is marked to roll back, so the join table write is undone too.</em></p>
 	 * 
-	 * @param token	  logged user identifier key
-	 * @param product object to the checked if it was liked
-	 * @return If: 
-	 * 	<ul>
-	 * 		<li>Yes, true</li>
-	 * 		<li>Not, false</li>
-	 * 	</ul>
+	 * @param productId primary key that identifies the product to be updated
+	 * @param amount	how many likes to add (negative to remove)
+	 * @return the absolute value of the given amount, null if any errors happened in the database
 	 */
-	public Boolean verifyLoggedUserLiked(UUID token, Product product) {
+	private Integer addToLikeCount(Long productId, Integer amount) {
 		try {
-			final CriteriaQuery<User> CRITERIA_QUERY;
+			final CriteriaUpdate<Product> CRITERIA_UPDATE;
 			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(User.class);
-			Root<User> userTable = CRITERIA_QUERY.from(User.class);
-			Join<User, Product> productsLiked = userTable.join("likedProducts");
-			
-			CRITERIA_QUERY.select(userTable).where(criteriaBuilder.and(
-					criteriaBuilder.equal(userTable.get("token"), token),
-					criteriaBuilder.equal(productsLiked.get("id"), product.getId())
-					));
-			
-			entityManager.createQuery(CRITERIA_QUERY).getSingleResult();
+			CRITERIA_UPDATE = criteriaBuilder.createCriteriaUpdate(Product.class);
+			Root<Product> productTable = CRITERIA_UPDATE.from(Product.class);
 			
-			return true;
-		} catch (NoResultException noResultException) {
-			Logger.getLogger(ProductDAO.class.getName()).log(Level.FINE, "in verifyLoggedUserFavorited() in ProductDAO", noResultException);
+			CRITERIA_UPDATE.set(productTable.<Long>get("likeCount"), criteriaBuilder.sum(productTable.<Long>get("likeCount"), amount.longValue()));
+			CRITERIA_UPDATE.where(criteriaBuilder.equal(productTable.get("id"), productId));
+			entityManager.createQuery(CRITERIA_UPDATE).executeUpdate();
 			
-			return false;
+			return Math.abs(amount);
 		} catch (Exception exception) {
-			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in verifyLoggedUserLiked() in ProductDAO", exception);
+			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in addToLikeCount() in ProductDAO", exception);
+			sessionContext.setRollbackOnly();
 			
 			return null;
 		}
 	}
 
 	/**
-	 * Verifies if the logged user marked the provided product as favourite.
+	 * <p>Repairs the like counter of every product whose value differs from the real amount of rows in the liked_products table.</p>
+	 * <p><em>The counter is only touched where it drifted, so a healthy catalogue is just read.</em></p>
 	 * 
-	 * @param token	  logged user identifier key
-	 * @param product object to the checked if it was marked as favourite
-	 * @return If: 
-	 * 	<ul>
-	 * 		<li>Yes, true</li>
-	 * 		<li>Not, false</li>
-	 * 	</ul>
+	 * @return the amount of products repaired, null if any errors happened in the database
 	 */
-	public Boolean verifyLoggedUserFavorited(UUID token, Product product) {
+	public Integer reconcileLikeCounts() {
 		try {
-			final CriteriaQuery<User> CRITERIA_QUERY;
-			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(User.class);
-			Root<User> userTable = CRITERIA_QUERY.from(User.class);
-			Join<User, Product> productsFavorited = userTable.join("favoriteProducts");
-			
-			CRITERIA_QUERY.select(userTable).where(criteriaBuilder.and(
-					criteriaBuilder.equal(userTable.get("token"), token),
-					criteriaBuilder.equal(productsFavorited.get("id"), product.getId())
-					));
-			
-			entityManager.createQuery(CRITERIA_QUERY).getSingleResult();
+			return entityManager.createNativeQuery(
+					"UPDATE products p JOIN ("
+					+ "SELECT p2.id, COUNT(l.user_that_liked_id) AS total FROM products p2 "
+					+ "LEFT JOIN liked_products l ON l.liked_product_id = p2.id GROUP BY p2.id"
+					+ ") counted ON counted.id = p.id "
+					+ "SET p.like_count = counted.total WHERE p.like_count <> counted.total")
+					.executeUpdate();
+		} catch (Exception exception) {
+			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in reconcileLikeCounts() in ProductDAO", exception);
 			
-			return true;
-		} catch (NoResultException noResultException) {
-			Logger.getLogger(ProductDAO.class.getName()).log(Level.FINE, "in verifyLoggedUserFavorited() in ProductDAO", noResultException);
+			return null;
+		}
+	}
+
+	/**
+	 * Inserts, if it does not exist yet, the provided product as favourite of the provided user.
+	 * 
+	 * @param productId primary key that identifies the product to be favourited
+	 * @param userId	primary key that identifies the user who favourites the product
+	 * @return the amount of rows inserted (0 if the user already favourited this product), null if any errors happened in the database
+	 */
+	public Integer insertFavorite(Long productId, Long userId) {
+		return insertIntoJoinTable("favorite_products", "favorite_product_id", "user_that_favorited_id", productId, userId);
+	}
+
+	/**
+	 * Deletes the provided product from the favourites of the provided user.
+	 * 
+	 * @param productId primary key that identifies the product to be unfavourited
+	 * @param userId	primary key that identifies the user who unfavourites the product
+	 * @return the amount of rows deleted (0 if the user did not favourite this product), null if any errors happened in the database
+	 */
+	public Integer deleteFavorite(Long productId, Long userId) {
+		return deleteFromJoinTable("favorite_products", "favorite_product_id", "user_that_favorited_id", productId, userId);
+	}
+
+	/**
+	 * <p>Inserts a single row into the given product-user join table, unless it already exists.</p>
+	 * <p><em>The row is written directly, so its cost does not depend on how many users are already related to the product. The (product, user) primary key makes the database skip a row that already exists, atomically, so concurrent inserts of the same row never add it twice.</em></p>
+	 * 
+	 * @param joinTable		the join table name
+	 * @param productColumn the join table column that references the product
+	 * @param userColumn	the join table column that references the user
+	 * @param productId		primary key that identifies the product
+	 * @param userId		primary key that identifies the user
+	 * @return the amount of rows inserted, null if any errors happened in the database
+	 */
+	private Integer insertIntoJoinTable(String joinTable, String productColumn, String userColumn, Long productId, Long userId) {
+		try {
+			return entityManager.createNativeQuery(
+					"INSERT IGNORE INTO " + joinTable + " (" + productColumn + ", " + userColumn + ") VALUES (?1, ?2)")
+					.setParameter(1, productId)
+					.setParameter(2, userId)
+					.executeUpdate();
+		} catch (Exception exception) {
+			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in insertIntoJoinTable() in ProductDAO", exception);
 			
-			return false;
+			return null;
+		}
+	}
+
+	/**
+	 * Deletes a single row from the given product-user join table.
+	 * 
+	 * @param joinTable		the join table name
+	 * @param productColumn the join table column that references the product
+	 * @param userColumn	the join table column that references the user
+	 * @param productId		primary key that identifies the product
+	 * @param userId		primary key that identifies the user
+	 * @return the amount of rows deleted, null if any errors happened in the database
+	 */
+	private Integer deleteFromJoinTable(String joinTable, String productColumn, String userColumn, Long productId, Long userId) {
+		try {
+			return entityManager.createNativeQuery(
+					"DELETE FROM " + joinTable + " WHERE " + productColumn + " = ?1 AND " + userColumn + " = ?2")
+					.setParameter(1, productId)
+					.setParameter(2, userId)
+					.executeUpdate();
 		} catch (Exception exception) {
-			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in verifyLoggedUserFavorited() in ProductDAO", exception);
+			Logger.getLogger(ProductDAO.class.getName()).log(Level.SEVERE, "in deleteFromJoinTable() in ProductDAO", exception);
 			
 			return null;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package daos;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+/**
+ * Builds the where clause of the aggregate and projection queries from {@link GenericDAO}.
+ *
+ * @param <T> the entity type queried
+ * @author Wanderley Drumond
+ */
+@FunctionalInterface
+public interface Restriction<T> {
+	/**
+	 * Creates the {@link Predicate} that filters the rows of the query.
+	 *
+	 * @param criteriaBuilder object used to create the predicate
+	 * @param table			  the query root, which the paths are taken from
+	 * @return the {@link Predicate} to be used in the where clause
+	 */
+	Predicate toPredicate(CriteriaBuilder criteriaBuilder, Root<T> table);
+}
@@ -0,0 +1,164 @@
+package daos;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.ejb.SessionContext;
+import javax.ejb.Stateless;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import entities.RevenueRollup;
+import enums.Granularity;
+
+/**
+ * Class that makes the database communication layer role in relation with of the revenue_rollups table.
+ * 
+ * @author Wanderley Drumond
+ */
+@Stateless
+public class RevenueRollupDAO extends GenericDAO<RevenueRollup> {
+
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Container context of this bean, used to roll back a backfill that could not be finished.
+	 */
+	@Resource
+	private SessionContext sessionContext;
+
+	public RevenueRollupDAO() {
+		super(RevenueRollup.class);
+	}
+
+	/**
+	 * <p>Adds a concluded order to the rollup rows of its day and of its month, creating them if it is the first order of the period.</p>
+	 * <p><em>Both rows are incremented by the database in a single statement, so concurrent conclusions never overwrite each other.</em></p>
+	 * 
+	 * @param day	the day the order was concluded
+	 * @param value	the total value of the order
+	 * @return the amount of rows affected, null if any errors happened in the database
+	 */
+	public Integer addConcludedOrder(LocalDate day, Double value) {
+		try {
+			return entityManager.createNativeQuery(
+					"INSERT INTO revenue_rollups (granularity, period_start, total, orders_count) VALUES (?1, ?2, ?3, 1), (?4, ?5, ?3, 1) "
+					+ "ON DUPLICATE KEY UPDATE total = total + VALUES(total), orders_count = orders_count + 1")
+					.setParameter(1, Granularity.DAY.name())
+					.setParameter(2, Date.valueOf(day))
+					.setParameter(3, value.doubleValue())
+					.setParameter(4, Granularity.MONTH.name())
+					.setParameter(5, Date.valueOf(day.with(TemporalAdjusters.firstDayOfMonth())))
+					.executeUpdate();
+		} catch (Exception exception) {
+			Logger.getLogger(RevenueRollupDAO.class.getName()).log(Level.SEVERE, "in addConcludedOrder() in RevenueRollupDAO", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Finds the rollup rows of the given granularity whose period starts between the given days, ordered by period.
+	 * 
+	 * @param granularity	size of the periods to find
+	 * @param from			first period start to include
+	 * @param to			last period start to include
+	 * @return the {@link RevenueRollup} {@link List} found, null if any errors happened in the database
+	 */
+	public List<RevenueRollup> findAllBetween(Granularity granularity, LocalDate from, LocalDate to) {
+		try {
+			final CriteriaQuery<RevenueRollup> CRITERIA_QUERY;
+			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+			CRITERIA_QUERY = criteriaBuilder.createQuery(RevenueRollup.class);
+			Root<RevenueRollup> revenueRollupTable = CRITERIA_QUERY.from(RevenueRollup.class);
+			
+			CRITERIA_QUERY.select(revenueRollupTable).where(criteriaBuilder.and(
+					criteriaBuilder.equal(revenueRollupTable.get("granularity"), granularity), 
+					criteriaBuilder.between(revenueRollupTable.get("periodStart"), from, to)))
+					.orderBy(criteriaBuilder.asc(revenueRollupTable.get("periodStart")));
+			
+			return readOnly(entityManager.createQuery(CRITERIA_QUERY)).getResultList();
+		} catch (Exception exception) {
+			Logger.getLogger(RevenueRollupDAO.class.getName()).log(Level.SEVERE, "in findAllBetween() in RevenueRollupDAO", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Sums the revenue of every month rolled up.
+	 * 
+	 * @return the sum of the total value from all concluded orders, null if any errors happened in the database
+	 */
+	public Double sumTotalValue() {
+		try {
+			return sum("total", (criteriaBuilder, revenueRollupTable) -> criteriaBuilder.equal(revenueRollupTable.get("granularity"), Granularity.MONTH));
+		} catch (Exception exception) {
+			Logger.getLogger(RevenueRollupDAO.class.getName()).log(Level.SEVERE, "in sumTotalValue() in RevenueRollupDAO", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Sums the revenue of the month of the given day.
+	 * 
+	 * @param dayOfMonth any day of the month to be summed
+	 * @return the sum of the total value from all concluded orders of that month, null if any errors happened in the database
+	 */
+	public Double sumTotalValueOfMonth(LocalDate dayOfMonth) {
+		try {
+			LocalDate firstDayOfMonth = dayOfMonth.with(TemporalAdjusters.firstDayOfMonth());
+			
+			return sum("total", (criteriaBuilder, revenueRollupTable) -> criteriaBuilder.and(
+					criteriaBuilder.equal(revenueRollupTable.get("granularity"), Granularity.MONTH), 
+					criteriaBuilder.equal(revenueRollupTable.get("periodStart"), firstDayOfMonth)));
+		} catch (Exception exception) {
+			Logger.getLogger(RevenueRollupDAO.class.getName()).log(Level.SEVERE, "in sumTotalValueOfMonth() in RevenueRollupDAO", exception);
+			
+			return null;
+		}
+	}
+
+	/**
+	 * <p>Rebuilds every rollup row from the concluded orders.</p>
+	 * <p><em>Meant for the first deployment or after manual changes in the orders table, it reads all concluded orders once.</em></p>
+	 * 
+	 * @return the amount of rollup rows written, null if any errors happened in the database
+	 */
+	public Integer rebuild() {
+		try {
+			entityManager.createNativeQuery("DELETE FROM revenue_rollups").executeUpdate();
+			
+			Integer amountOfDays = entityManager.createNativeQuery(
+					"INSERT INTO revenue_rollups (granularity, period_start, total, orders_count) "
+					+ "SELECT ?1, DATE(last_update), SUM(total_value), COUNT(*) FROM orders "
+					+ "WHERE is_concluded = TRUE GROUP BY DATE(last_update)")
+					.setParameter(1, Granularity.DAY.name())
+					.executeUpdate();
+			Integer amountOfMonths = entityManager.createNativeQuery(
+					"INSERT INTO revenue_rollups (granularity, period_start, total, orders_count) "
+					+ "SELECT ?1, DATE_FORMAT(last_update, '%Y-%m-01'), SUM(total_value), COUNT(*) FROM orders "
+					+ "WHERE is_concluded = TRUE GROUP BY DATE_FORMAT(last_update, '%Y-%m-01')")
+					.setParameter(1, Granularity.MONTH.name())
+					.executeUpdate();
+			
+			return amountOfDays + amountOfMonths;
+		} catch (Exception exception) {
+			Logger.getLogger(RevenueRollupDAO.class.getName()).log(Level.SEVERE, "in rebuild() in RevenueRollupDAO", exception);
+			sessionContext.setRollbackOnly();
+			
+			return null;
+		}
+	}
+}
\ No newline at end of file
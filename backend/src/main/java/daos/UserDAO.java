@@ -1,6 +1,5 @@
 package daos;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -8,18 +7,15 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.ejb.Stateless;
+import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
-import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.CriteriaUpdate;
-import javax.persistence.criteria.Join;
-import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import javax.persistence.criteria.Subquery;
 import javax.ws.rs.core.Response;
 
-import entities.Product;
+import dtos.UserDTO;
 import entities.User;
 import enums.Role;
 import exceptions.PharmacyException;
@@ -103,6 +99,39 @@ public class UserDAO extends GenericDAO<User> {
 		}
 	}
 
+	/**
+	 * <p>Finds an user by their UUID, locking their row until the current transaction ends.</p>
+	 * <p><em>Serialises the operations of the same user that must not run at the same time, wherever they run.</em></p>
+	 * 
+	 * @param token logged user identifier key
+	 * @return If:
+	 * 		<ul>
+	 * 			<li>Finds, {@link Optional} {@link User} corresponding </li>
+	 * 			<li>Does not find, {@link Optional} empty</li>
+	 * 			<li>Something goes wrong with the database, null</li>
+	 * 		</ul>
+	 */
+	public Optional<User> findByUUIDForUpdate(UUID token) {
+		try {
+			final CriteriaQuery<User> CRITERIA_QUERY;
+			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+			CRITERIA_QUERY = criteriaBuilder.createQuery(User.class);
+			Root<User> userTable = CRITERIA_QUERY.from(User.class);
+			
+			CRITERIA_QUERY.select(userTable).where(criteriaBuilder.equal(userTable.get("token"), token));
+			
+			return Optional.ofNullable(entityManager.createQuery(CRITERIA_QUERY).setLockMode(LockModeType.PESSIMISTIC_WRITE).getSingleResult());
+		} catch (NoResultException noResultException) {
+			Logger.getLogger(UserDAO.class.getName()).log(Level.FINE, "in findByUUIDForUpdate()", noResultException);
+			
+			return Optional.empty();
+		} catch (Exception exception) {
+			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in findByUUIDForUpdate()", exception);
+			
+			return null;
+		}
+	}
+
 	/**
 	 * Updates the users table removing the given token from its owner.
 	 * 
@@ -130,50 +159,6 @@ public class UserDAO extends GenericDAO<User> {
 		}
 	}
 
-	/**
-	 * Checks if the user that holds the given token has the role of ADMINISTRATOR.
-	 * FIXME Even if I'm logged as client I can do things which suppose not to. See "A client tries to get the dashboard" example in postman
-	 * 
-	 * @param token logged user identifier key
-	 * @return
-	 * 		<ul>
-	 * 			<li>True, if the provided token belongs to an active administrator</li>
-	 * 			<li>False, if the provided token does not belong to an active administrator</li>
-	 * 			<li>Null, if any errors have occurred in the database.</li>
-	 * 		</ul>
-	 */
-	public Boolean checkIfIsAdmin(UUID token) {
-		try {
-			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-
-			CriteriaQuery<Boolean> query = criteriaBuilder.createQuery(Boolean.class);
-			query.from(User.class);
-			query.select(criteriaBuilder.literal(true));
-
-			Subquery<User> subquery = query.subquery(User.class);
-			Root<User> subRootEntity = subquery.from(User.class);
-			subquery.select(subRootEntity);
-
-			Predicate checkToken = criteriaBuilder.equal(subRootEntity.get("token"), token);
-			Predicate checkIsDeleted = criteriaBuilder.equal(subRootEntity.get("isDeleted"), false);
-			
-			subquery.where(criteriaBuilder.and(checkToken, checkIsDeleted));
-			query.where(criteriaBuilder.exists(subquery));
-
-			TypedQuery<Boolean> typedQuery = entityManager.createQuery(query);
-			
-			return typedQuery.getSingleResult();
-		} catch (NoResultException noResultException) {
-			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in checkIfIsAdmin()", noResultException);
-
-			return false;
-		} catch (Exception exception) {
-			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in checkIfIsAdmin()", exception);
-			
-			return null;
-		}
-	}
-
 	/**
 	 * <p>Changes the role of the user that owns the given id to VISITOR.</p>
 	 * <p><em>The logged user must be an administrator.</em></p>
@@ -182,7 +167,7 @@ public class UserDAO extends GenericDAO<User> {
 	 * @return the amount of rows affected
 	 * @throws {@link PharmacyException} with status code 503 (SERVICE UNAVAILABLE) if any errors occurs in database
 	 */
-	public Integer approve(Integer userToApproveId) {
+	public Integer approve(Long userToApproveId) {
 		try {
 			final CriteriaUpdate<User> CRITERIA_UPDATE;
 			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
@@ -204,131 +189,14 @@ public class UserDAO extends GenericDAO<User> {
 		}
 	}
 
-	
-	/**
-	 * Finds all users that liked the product which the provided id belongs.
-	 * 
-	 * @param productId primary key that identifies the product that contains the list of users that likes it
-	 * @return
-	 * 		<ul>If:
-	 * 			<li>Exists, at least, one record, the list, already existent in database, of users that liked this product</li>
-	 * 			<li>Do not exists, a new list</li>
-	 * 			<li>Some problem happened, null</li>
-	 * 		</ul>
-	 */
-	public List<User> findAllThatLikedThisProduct(Short productId) {
-		try {
-			final CriteriaQuery<User> CRITERIA_QUERY;
-			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(User.class);
-			Root<User> userTable = CRITERIA_QUERY.from(User.class);
-			Join<User, Product> productTable = userTable.join("likedProducts");
-			
-			CRITERIA_QUERY.select(userTable).where(criteriaBuilder.equal(productTable.get("id"), productId));
-			
-			return entityManager.createQuery(CRITERIA_QUERY).getResultList();
-		} catch (NoResultException noResultException) {
-			System.err.println("Catch " + noResultException.getClass().getName() + " in findAllThatLikedThisProduct() in UserDAO");
-			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in findAllThatLikedThisProduct()", noResultException);
-			// noResultException.printStackTrace();
-			
-			return new ArrayList<User>();
-		} catch (Exception exception) {
-			System.err.println("Catch " + exception.getClass().getName() + " in findAllThatLikedThisProduct() in UserDAO");
-			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in findAllThatLikedThisProduct()", exception);
-			// exception.printStackTrace();
-			
-			return null;
-		}
-	}
-	
-	/**
-	 * Counts all likes the product which the provided id belongs.
-	 * 
-	 * @param productId primary key that identifies the product that contains the list of users that likes it
-	 * @return
-	 * 		<ul>If:
-	 * 			<li>Exists, at least, one record, the list size</li>
-	 * 			<li>Not exists, 0</li>
-	 * 			<li>Some problem happened, null</li>
-	 * 		</ul>
-	 */
-	public Short countTotalLikes(Short productId) {
-		try {
-			final CriteriaQuery<User> CRITERIA_QUERY;
-			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(User.class);
-			Root<User> userTable = CRITERIA_QUERY.from(User.class);
-			Join<User, Product> productTable = userTable.join("likedProducts");
-			
-			CRITERIA_QUERY.select(userTable).where(criteriaBuilder.equal(productTable.get("id"), productId));
-			
-			return (short) entityManager.createQuery(CRITERIA_QUERY).getResultList().size();
-		} catch (NoResultException noResultException) {
-			System.err.println("Catch " + noResultException.getClass().getName() + " in countTotalLikes() in UserDAO");
-			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in countTotalLikes()", noResultException);
-			// noResultException.printStackTrace();
-			
-			return 0;
-		} catch (Exception exception) {
-			System.err.println("Catch " + exception.getClass().getName() + " in countTotalLikes() in UserDAO");
-			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in countTotalLikes()", exception);
-			// exception.printStackTrace();
-			
-			return null;
-		}
-	}
-
-	/**
-	 * Finds all users that favourited the product which the provided id belongs.
-	 * 
-	 * @param productId primary key that identifies the product that contains the list of users that set it as favourite
-	 * @return
-	 * 		<ul>If:
-	 * 			<li>Exists, at least, one record, the list, already existent in database, of users that favourited this product</li>
-	 * 			<li>Not exists, a new list</li>
-	 * 			<li>Some problem happened, null</li>
-	 * 		</ul>
-	 */
-	public List<User> findAllThatFavouritedThisProduct(Short productId) {
-		try {
-			final CriteriaQuery<User> CRITERIA_QUERY;
-			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(User.class);
-			Root<User> userTable = CRITERIA_QUERY.from(User.class);
-			Join<User, Product> productTable = userTable.join("favoriteProducts");
-			
-			CRITERIA_QUERY.select(userTable).where(criteriaBuilder.equal(productTable.get("id"), productId));
-			
-			return entityManager.createQuery(CRITERIA_QUERY).getResultList();
-		} catch (NoResultException noResultException) {
-			System.err.println("Catch " + noResultException.getClass().getName() + " in findAllThatFavouritedThisProduct() in UserDAO");
-			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in findAllThatFavouritedThisProduct()", noResultException);
-			
-			return new ArrayList<User>();
-		} catch (Exception exception) {
-			System.err.println("Catch " + exception.getClass().getName() + " in findAllThatFavouritedThisProduct() in UserDAO");
-			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in findAllThatFavouritedThisProduct()", exception);
-			
-			return null;
-		}
-	}
-
 	/**
 	 * Counts all users that has the CLIENT role.
 	 * 
 	 * @return The amount of clients of the system
 	 */
-	public Short countAllClients() {
+	public Long countAllClients() {
 		try {
-			final CriteriaQuery<User> CRITERIA_QUERY;
-			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(User.class);
-			Root<User> userTable = CRITERIA_QUERY.from(User.class);
-			
-			CRITERIA_QUERY.select(userTable).where(criteriaBuilder.equal(userTable.get("role"), Role.CLIENT));
-			
-			return (short) entityManager.createQuery(CRITERIA_QUERY).getResultList().size();
+			return count((criteriaBuilder, userTable) -> criteriaBuilder.equal(userTable.get("role"), Role.CLIENT));
 		} catch (Exception exception) {
 			Logger.getLogger(UserDAO.class.getName()).log(Level.SEVERE, "in countAllClients()", exception);
 			
@@ -337,18 +205,25 @@ public class UserDAO extends GenericDAO<User> {
 	}
 
 	/**
-	 * Finds the list of users that have their role as VISITOR. 
+	 * <p>Finds the list of users that have their role as VISITOR, already projected into {@link UserDTO}.</p>
+	 * <p><em>No entity is loaded, so nothing is kept in the persistence context.</em></p>
 	 * 
-	 * @return the {@link List} of {@link User} that contains their role as VISITOR
+	 * @return the {@link List} of {@link UserDTO} of the users that contains their role as VISITOR
 	 */
-	public List<User> findAllVisitors() {
+	public List<UserDTO> findAllVisitors() {
 		try {
-			final CriteriaQuery<User> CRITERIA_QUERY;
+			final CriteriaQuery<UserDTO> CRITERIA_QUERY;
 			CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-			CRITERIA_QUERY = criteriaBuilder.createQuery(User.class);
+			CRITERIA_QUERY = criteriaBuilder.createQuery(UserDTO.class);
 			Root<User> userTable = CRITERIA_QUERY.from(User.class);
 			
-			CRITERIA_QUERY.select(userTable).where(criteriaBuilder.equal(userTable.get("role"), Role.VISITOR));
+			CRITERIA_QUERY.select(criteriaBuilder.construct(UserDTO.class,
+					userTable.get("id"),
+					userTable.get("name"),
+					userTable.get("username"),
+					userTable.get("password"),
+					userTable.get("role")))
+					.where(criteriaBuilder.equal(userTable.get("role"), Role.VISITOR));
 			
 			return entityManager.createQuery(CRITERIA_QUERY).getResultList();
 		} catch (Exception exception) {
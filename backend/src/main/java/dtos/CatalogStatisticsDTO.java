@@ -0,0 +1,24 @@
+package dtos;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * In-memory product catalogue usage metrics that the frontend consumes.
+ * 
+ * @author Wanderley Drumond
+ */
+@XmlRootElement
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CatalogStatisticsDTO {
+	private Integer totalProducts;
+	private Long hits, misses, rebuilds, lastRebuildMillis, averageRebuildMillis;
+	private Long builtAt;
+}
@@ -22,7 +22,7 @@ import lombok.Setter;
 @Getter
 @Setter
 public class CommentDTO implements Serializable {
-	private Short id, idOwner;
+	private Long id, idOwner;
 	private String content, nameOwner;
 	private UUID tokenOwner;
 	/**
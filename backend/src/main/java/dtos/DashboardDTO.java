@@ -11,7 +11,11 @@ import lombok.Setter;
 @Getter
 @Setter
 public class DashboardDTO {
-	private Short totalClients, totalProducts, totalCarts, totalSignIns;
-	private Float totalValueConcludedOrders, totalValueConcludedOrdersCurrentMonth, totalValueConcludedOrdersLastMonth;
+	private Long totalClients, totalProducts, totalCarts, totalSignIns;
+	private Double totalValueConcludedOrders, totalValueConcludedOrdersCurrentMonth, totalValueConcludedOrdersLastMonth;
 	private List<UserDTO> visitorsDTO;
+	/**
+	 * The figures that could not be computed in time, which are left null.
+	 */
+	private List<String> unavailableFigures;
 }
\ No newline at end of file
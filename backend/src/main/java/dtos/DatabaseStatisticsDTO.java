@@ -0,0 +1,28 @@
+package dtos;
+
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Database usage metrics, from Hibernate and from every monitored DAO method, that the administrators consume.
+ * 
+ * @author Wanderley Drumond
+ */
+@XmlRootElement
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class DatabaseStatisticsDTO {
+	private Long startedAt;
+	private Long sessionsOpened, transactions, preparedStatements, queryExecutions, queryExecutionMaxMillis;
+	private String slowestQuery;
+	private Long entityLoads, entityFetches, collectionLoads, collectionFetches, optimisticFailures;
+	private List<StatementStatisticsDTO> daoMethods, queries;
+}
\ No newline at end of file
@@ -21,9 +21,9 @@ import lombok.Setter;
 @Getter
 @Setter
 public class OrderDTO implements Serializable {
-	private Short id;
+	private Long id;
 	private String lastUpdate;
-	private Float totalValue;
+	private Double totalValue;
 	private Boolean isConcluded;
 	private List<ProductDTO> productsDTO;
 	/**
@@ -20,7 +20,8 @@ import lombok.Setter;
 @Getter
 @Setter
 public class ProductDTO implements Serializable {
-	private Short id, totalLikes;
+	private Long id;
+	private Long totalLikes;
 	private String name, image, section, price;
     private boolean hasLoggedUserLiked, hasLoggedUserFavorited;
 	/**
@@ -0,0 +1,34 @@
+package dtos;
+
+import java.io.Serializable;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Revenue of a single day or month that the administrator reports consume.
+ * 
+ * @author Wanderley Drumond
+ */
+@XmlRootElement
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class RevenueDTO implements Serializable {
+	/**
+	 * First day of the period, in ISO format.
+	 */
+	private String period;
+	private Double total;
+	private Long ordersCount;
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package dtos;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Time spent and rows returned by a DAO method or a query, since the application started.
+ * 
+ * @author Wanderley Drumond
+ */
+@XmlRootElement
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class StatementStatisticsDTO {
+	private String statement;
+	private Long count, rows;
+	private Double totalMillis, maxMillis, averageMillis;
+}
\ No newline at end of file
@@ -24,7 +24,7 @@ import lombok.Setter;
 @Getter
 @Setter
 public class UserDTO implements Serializable {
-	private @NonNull Short id;
+	private @NonNull Long id;
 	private @NonNull String name, username, password;
 	private UUID token;
 	private @NonNull Role role;
@@ -29,7 +29,7 @@ public @Data class Comment implements Serializable {
 	 */
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
-	private Short id;
+	private Long id;
 	/**
 	 * The text of the comment.
 	 */
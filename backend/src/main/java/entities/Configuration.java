@@ -30,7 +30,7 @@ public @Data class Configuration implements Serializable {
 	 */
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
-	private Short  id;
+	private Long  id;
 	/**
 	 * The amount of sign ins made by all users in the the system.
 	 */
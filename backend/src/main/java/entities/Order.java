@@ -4,18 +4,15 @@ import java.io.Serializable;
 import java.sql.Timestamp;
 import java.util.List;
 
-import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
-import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -45,7 +42,7 @@ public @Data class Order implements Serializable {
 	 */
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
-	private Short id;
+	private Long id;
 	/**
 	 * Last time this order was updated.
 	 */
@@ -62,12 +59,19 @@ public @Data class Order implements Serializable {
 	 * The sum of all products of this order.
 	 */
 	@Column(name = "total_value")
-	private @NonNull Float totalValue;
+	private @NonNull Double totalValue;
 	/**
 	 * State of this order.
 	 */
 	@Column(name = "is_concluded")
 	private Boolean isConcluded;
+	/**
+	 * <p>Incremented by every update, so a request that read an older version of this order cannot overwrite the changes made meanwhile.</p>
+	 * <p><em>Such a request fails with an optimistic lock exception instead, and is retried by the cart methods.</em></p>
+	 */
+	@Version
+	@Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+	private Long version;
 	
 	/**
 	 * The user who made the order.
@@ -75,10 +79,10 @@ public @Data class Order implements Serializable {
 	@ManyToOne
 	private User buyer;
 	/**
-	 * The products to be bought.
+	 * <p>The products to be bought, each one repeated by the quantity of its {@link OrderLine}.</p>
+	 * <p><em>Not persisted, filled from the order lines when the order is read.</em></p>
 	 */
-	@ManyToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-	@JoinTable(name = "ordered_products", joinColumns = @JoinColumn(name = "order_id"), inverseJoinColumns = @JoinColumn(name = "product_id"))
+	@Transient
 	private List<Product> productsOfAnOrder;
 	
 	/**
@@ -0,0 +1,66 @@
+package entities;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * <p>A product inside an order, along with how many units of it were added and the price of each unit when it was first added.</p>
+ * <p>An order has a single line per product, so adding or removing a unit changes one row no matter how many products the order has.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Entity
+@NoArgsConstructor
+@Table(name = "order_lines", uniqueConstraints = @UniqueConstraint(columnNames = {"order_id", "product_id"}))
+public @Data class OrderLine implements Serializable {
+	/**
+	 * Order line identification in database.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	/**
+	 * The order this line belongs to.
+	 */
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "order_id")
+	private Order order;
+	/**
+	 * The product bought.
+	 */
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "product_id")
+	private Product product;
+	/**
+	 * How many units of the product were added.
+	 */
+	@Column(nullable = false)
+	private Integer quantity;
+	/**
+	 * The product price when it was first added to the order.
+	 */
+	@Column(name = "unit_price", nullable = false)
+	private Float unitPrice;
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialized object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+}
\ No newline at end of file
@@ -2,8 +2,10 @@ package entities;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Set;
 
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
@@ -23,9 +25,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import enums.Section;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.ToString;
 
 /**
  * Product information type that backend consumes and produces.
@@ -44,7 +48,7 @@ public @Data class Product implements Serializable {
 	 */
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
-	private Short id;
+	private Long id;
 	/**
 	 * Product's name.
 	 */
@@ -65,6 +69,12 @@ public @Data class Product implements Serializable {
 	 */
 	@NotBlank
 	private @NonNull String image;
+	/**
+	 * <p>How many users liked this product.</p>
+	 * <p><em>Kept in step with the liked_products table by {@link daos.ProductDAO} in the same statement batch as the like/unlike, using in-database increments. It is never written back from the entity, so a stale product being merged cannot overwrite it.</em></p>
+	 */
+	@Column(name = "like_count", nullable = false, updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+	private Long likeCount = 0L;
 	
 	/**
 	 * All the comments that this products received from the users.
@@ -73,25 +83,25 @@ public @Data class Product implements Serializable {
 	@OneToMany(mappedBy = "product", fetch = FetchType.LAZY)
 	private List<Comment> comments;
 	/**
-	 * All users that liked this product.
+	 * <p>All users that liked this product.</p>
+	 * <p><em>A user likes a product only once. Likes are written directly in the join table by {@link daos.ProductDAO}, so this set is never loaded to be changed.</em></p>
 	 */
 	@JsonIgnore
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
 	@ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
 	@JoinTable(name = "liked_products", joinColumns = @JoinColumn(name = "liked_product_id"), inverseJoinColumns = @JoinColumn(name = "user_that_liked_id"))
-	private List<User> usersThatLiked;
+	private Set<User> usersThatLiked;
 	/**
-	 * All users that marked this product as favourite.
+	 * <p>All users that marked this product as favourite.</p>
+	 * <p><em>A user favourites a product only once. Favourites are written directly in the join table by {@link daos.ProductDAO}, so this set is never loaded to be changed.</em></p>
 	 */
 	@JsonIgnore
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
 	@ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
 	@JoinTable(name = "favorite_products", joinColumns = @JoinColumn(name = "favorite_product_id"), inverseJoinColumns = @JoinColumn(name = "user_that_favorited_id"))
-	private List<User> usersThatFavorited;
-	/**
-	 * All orders from this product (concluded and on going).
-	 */
-	@JsonIgnore
-	@ManyToMany(mappedBy = "productsOfAnOrder", fetch = FetchType.LAZY)
-	private List<Order> ordersOfAProduct;
+	private Set<User> usersThatFavorited;
 	
 	/**
 	 * <p>The serial version identifier for this class.<p>
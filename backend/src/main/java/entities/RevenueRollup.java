@@ -0,0 +1,62 @@
+package entities;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import enums.Granularity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * <p>Revenue of the concluded orders of a single day or month.</p>
+ * <p>The rows are kept up to date when each order is concluded, so reports over any range read one row per period instead of every order.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Entity
+@NoArgsConstructor
+@Table(name = "revenue_rollups", uniqueConstraints = @UniqueConstraint(columnNames = {"granularity", "period_start"}))
+public @Data class RevenueRollup implements Serializable {
+	/**
+	 * Rollup identification in database.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	/**
+	 * Size of the period this row sums.
+	 */
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 5)
+	private Granularity granularity;
+	/**
+	 * First day of the period this row sums.
+	 */
+	@Column(name = "period_start", nullable = false)
+	private LocalDate periodStart;
+	/**
+	 * The sum of the total value of the orders concluded in the period.
+	 */
+	@Column(nullable = false)
+	private Double total;
+	/**
+	 * The amount of orders concluded in the period.
+	 */
+	@Column(name = "orders_count", nullable = false)
+	private Long ordersCount;
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialized object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+}
\ No newline at end of file
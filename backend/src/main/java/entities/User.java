@@ -2,6 +2,7 @@ package entities;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.persistence.Column;
@@ -23,9 +24,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import enums.Role;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.ToString;
 
 /**
  * User information type that backend consumes and produces.
@@ -52,7 +55,7 @@ public @Data class User implements Serializable {
 	 */
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
-	private Short id;
+	private Long id;
 	/**
 	 * The name of the user.
 	 */
@@ -103,14 +106,18 @@ public @Data class User implements Serializable {
 	 * All products that the user marked as like.
 	 */
 	@JsonIgnore
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
 	@ManyToMany(mappedBy = "usersThatLiked", fetch = FetchType.LAZY)
-	private List<Product> likedProducts;
+	private Set<Product> likedProducts;
 	/**
 	 * All products that the user marked as favourite.
 	 */
 	@JsonIgnore
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
 	@ManyToMany(mappedBy = "usersThatFavorited", fetch = FetchType.LAZY)
-	private List<Product> favoriteProducts;
+	private Set<Product> favoriteProducts;
 	
 	/**
 	 * <p>The serial version identifier for this class.<p>
@@ -0,0 +1,25 @@
+package enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Represents the formats in which the concluded orders can be exported.
+ * 
+ * <p>Each format has a media type and a file extension.</p>
+ * <ul>
+ *   <li>CSV: one header line followed by one comma separated line per order line</li>
+ *   <li>NDJSON: one JSON object per line, one per order line</li>
+ * </ul>
+ * 
+ * @author Wanderley Drumond
+ */
+@AllArgsConstructor
+@Getter
+public enum ExportFormat {
+	CSV ("text/csv", "csv"),
+	NDJSON ("application/x-ndjson", "ndjson");
+	
+	private final String MEDIA_TYPE;
+	private final String EXTENSION;
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package enums;
+
+/**
+ * Represents the period sizes in which the revenue is rolled up.
+ * 
+ * <ul>
+ *   <li>DAY: one row per calendar day</li>
+ *   <li>MONTH: one row per calendar month, starting in its first day</li>
+ * </ul>
+ * 
+ * @author Wanderley Drumond
+ */
+public enum Granularity {
+	DAY,
+	MONTH;
+}
\ No newline at end of file
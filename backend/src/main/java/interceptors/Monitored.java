@@ -0,0 +1,22 @@
+package interceptors;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.interceptor.InterceptorBinding;
+
+/**
+ * <p>Times every call of the annotated methods, or of every method of the annotated class, and counts the rows they return.</p>
+ * <p><em>The figures are kept by {@link MonitoredStatistics}, one entry for each class and method.</em></p>
+ * 
+ * @author Wanderley Drumond
+ * @see MonitoredInterceptor
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Monitored {}
\ No newline at end of file
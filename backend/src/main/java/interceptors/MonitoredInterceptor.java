@@ -0,0 +1,92 @@
+package interceptors;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Optional;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+
+/**
+ * <p>Implementation of {@link Monitored}.</p>
+ * <p>Each call costs two clock readings and a few uncontended counter increments, so it can stay enabled in production.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Monitored
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 50)
+public class MonitoredInterceptor implements Serializable {
+	/**
+	 * Where the figures of every monitored method are kept.
+	 */
+	@Inject
+	private MonitoredStatistics monitoredStatistics;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * <ol>
+	 * 	<li>Proceeds with the intercepted method, measuring how long it takes</li>
+	 * 	<li>Records the time and the amount of rows returned under the class and method names, even if the method failed</li>
+	 * </ol>
+	 * 
+	 * @param invocationContext the intercepted method invocation
+	 * @return the value returned by the intercepted method
+	 * @throws Exception the exception thrown by the intercepted method
+	 */
+	@AroundInvoke
+	public Object monitor(InvocationContext invocationContext) throws Exception {
+		long start = System.nanoTime();
+		Object result = null;
+		
+		try {
+			result = invocationContext.proceed();
+			
+			return result;
+		} finally {
+			monitoredStatistics.record(nameOf(invocationContext), System.nanoTime() - start, rowsOf(result));
+		}
+	}
+	
+	/**
+	 * Gets the name the intercepted method is recorded under, made of the simple name of the bean class and the method name.
+	 * 
+	 * @param invocationContext the intercepted method invocation
+	 * @return the name of the method, as in <code>ProductDAO.findAllBySection</code>
+	 */
+	private String nameOf(InvocationContext invocationContext) {
+		Class<?> beanClass = invocationContext.getTarget().getClass();
+		
+		while (beanClass.getSuperclass() != null && beanClass.getName().contains("$")) {
+			beanClass = beanClass.getSuperclass();
+		}
+		
+		return beanClass.getSimpleName() + "." + invocationContext.getMethod().getName();
+	}
+	
+	/**
+	 * Counts the rows returned by the intercepted method.
+	 * 
+	 * @param result the value returned by the intercepted method
+	 * @return the size of a {@link Collection}, 1 for any other value or present {@link Optional}, 0 for null or empty {@link Optional}
+	 */
+	private long rowsOf(Object result) {
+		if (result instanceof Collection) {
+			return ((Collection<?>) result).size();
+		}
+		
+		if (result instanceof Optional) {
+			return ((Optional<?>) result).isPresent() ? 1L : 0L;
+		}
+		
+		return result == null ? 0L : 1L;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package interceptors;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+import dtos.DatabaseStatisticsDTO;
+import dtos.StatementStatisticsDTO;
+
+/**
+ * <p>Keeps the figures of every {@link Monitored} method and reads the ones Hibernate keeps of every query.</p>
+ * <p>The figures of each method are {@link LongAdder}s, whose cells are spread among the threads, so concurrent calls of the same method do not wait for each other to be recorded.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class MonitoredStatistics implements Serializable {
+	/**
+	 * Nanoseconds in a millisecond.
+	 */
+	private static final double NANOS_PER_MILLI = 1_000_000D;
+	
+	/**
+	 * The figures of each method, by its class and method names.
+	 */
+	private final ConcurrentMap<String, Figures> figuresByMethod = new ConcurrentHashMap<>();
+	
+	/**
+	 * The persistence unit whose Hibernate statistics are read.
+	 */
+	@PersistenceUnit(unitName = "backend")
+	private EntityManagerFactory entityManagerFactory;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Adds one call to the figures of the given method.
+	 * 
+	 * @param method the class and method names
+	 * @param nanos	 how long the call took, in nanoseconds
+	 * @param rows	 the amount of rows returned by the call
+	 */
+	public void record(String method, long nanos, long rows) {
+		Figures figures = figuresByMethod.get(method);
+		
+		if (figures == null) {
+			figures = figuresByMethod.computeIfAbsent(method, newMethod -> new Figures());
+		}
+		
+		figures.calls.increment();
+		figures.nanos.add(nanos);
+		figures.maxNanos.accumulate(nanos);
+		figures.rows.add(rows);
+	}
+	
+	/**
+	 * <p>Gets the database usage metrics since the application started.</p>
+	 * <p><em>Both the monitored methods and the queries are sorted from the one that took the longest in total.</em></p>
+	 * 
+	 * @return the {@link DatabaseStatisticsDTO} with the current metrics
+	 */
+	public DatabaseStatisticsDTO getStatistics() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		List<StatementStatisticsDTO> daoMethods = figuresByMethod.entrySet().stream()
+				.map(entry -> toMethodStatistics(entry.getKey(), entry.getValue()))
+				.sorted(Comparator.comparing(StatementStatisticsDTO::getTotalMillis).reversed())
+				.collect(Collectors.toList());
+		List<StatementStatisticsDTO> queries = Arrays.stream(statistics.getQueries())
+				.map(query -> toQueryStatistics(query, statistics.getQueryStatistics(query)))
+				.sorted(Comparator.comparing(StatementStatisticsDTO::getTotalMillis).reversed())
+				.collect(Collectors.toList());
+		
+		return new DatabaseStatisticsDTO(
+				statistics.getStartTime(),
+				statistics.getSessionOpenCount(),
+				statistics.getTransactionCount(),
+				statistics.getPrepareStatementCount(),
+				statistics.getQueryExecutionCount(),
+				statistics.getQueryExecutionMaxTime(),
+				statistics.getQueryExecutionMaxTimeQueryString(),
+				statistics.getEntityLoadCount(),
+				statistics.getEntityFetchCount(),
+				statistics.getCollectionLoadCount(),
+				statistics.getCollectionFetchCount(),
+				statistics.getOptimisticFailureCount(),
+				daoMethods,
+				queries);
+	}
+	
+	/**
+	 * Converts the figures of a monitored method.
+	 * 
+	 * @param method  the class and method names
+	 * @param figures the figures of the method
+	 * @return the {@link StatementStatisticsDTO} of the method
+	 */
+	private StatementStatisticsDTO toMethodStatistics(String method, Figures figures) {
+		long calls = figures.calls.sum();
+		double totalMillis = figures.nanos.sum() / NANOS_PER_MILLI;
+		
+		return new StatementStatisticsDTO(method, calls, figures.rows.sum(), totalMillis, figures.maxNanos.get() / NANOS_PER_MILLI, calls == 0 ? 0D : totalMillis / calls);
+	}
+	
+	/**
+	 * Converts the figures Hibernate keeps of a query.
+	 * 
+	 * @param query			  the query string
+	 * @param queryStatistics the figures of the query, whose times are in milliseconds
+	 * @return the {@link StatementStatisticsDTO} of the query
+	 */
+	private StatementStatisticsDTO toQueryStatistics(String query, QueryStatistics queryStatistics) {
+		long executions = queryStatistics.getExecutionCount();
+		double totalMillis = queryStatistics.getExecutionTotalTime();
+		
+		return new StatementStatisticsDTO(query, executions, queryStatistics.getExecutionRowCount(), totalMillis, (double) queryStatistics.getExecutionMaxTime(), executions == 0 ? 0D : totalMillis / executions);
+	}
+	
+	/**
+	 * The figures of a single monitored method.
+	 */
+	private static final class Figures implements Serializable {
+		/**
+		 * <p>The serial version identifier for this class.<p>
+		 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * How many times the method was called.
+		 */
+		private final LongAdder calls = new LongAdder();
+		/**
+		 * Time spent, in nanoseconds, in all calls.
+		 */
+		private final LongAdder nanos = new LongAdder();
+		/**
+		 * Time spent, in nanoseconds, in the longest call.
+		 */
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+		/**
+		 * Rows returned by all calls.
+		 */
+		private final LongAdder rows = new LongAdder();
+	}
+}
\ No newline at end of file
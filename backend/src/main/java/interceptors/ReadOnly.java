@@ -0,0 +1,23 @@
+package interceptors;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.interceptor.InterceptorBinding;
+
+/**
+ * <p>Runs the annotated method in a transaction of its own in which nothing is flushed to the database and the entities read are not dirty-checked.</p>
+ * <p><em>It only takes effect when the method is called out of any transaction. Called from a method that writes, it joins that transaction as it is, so the entities the caller will change are still tracked.</em></p>
+ * 
+ * @author Wanderley Drumond
+ * @see ReadOnlyInterceptor
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ReadOnly {
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package interceptors;
+
+import java.io.Serializable;
+
+import javax.annotation.Priority;
+import javax.annotation.Resource;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Status;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+/**
+ * <p>Implementation of {@link ReadOnly}.</p>
+ * <p>Its priority puts it between {@link RetryOnConflictInterceptor} and the transaction interceptor, so the transaction it begins is the one joined by the method and by every DAO it calls.</p>
+ * <p><em>The transaction is begun through the container {@link TransactionManager}, since a {@link javax.transaction.UserTransaction} may not be used by beans with transactional interceptors.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ReadOnly
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 150)
+public class ReadOnlyInterceptor implements Serializable {
+	/**
+	 * Registry of the transaction associated with the current thread, used to know if there is one.
+	 */
+	@Resource
+	private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+	
+	/**
+	 * Begins the transaction of each read only method called out of any transaction.
+	 */
+	@Resource(lookup = "java:/TransactionManager")
+	private TransactionManager transactionManager;
+	
+	/**
+	 * Persistence context of the current transaction, shared with the DAOs.
+	 */
+	@PersistenceContext(unitName = "backend")
+	private EntityManager entityManager;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * <ol>
+	 * 	<li>Checks if there is a transaction already, if there is, proceeds in it as it is</li>
+	 * 	<li>Begins a transaction whose persistence context never flushes and keeps no snapshot of the entities read</li>
+	 * 	<li>Proceeds with the intercepted method and commits, or rolls back if it failed</li>
+	 * </ol>
+	 * 
+	 * @param invocationContext the intercepted method invocation
+	 * @return the value returned by the intercepted method
+	 * @throws Exception the exception thrown by the intercepted method or by the transaction
+	 */
+	@AroundInvoke
+	public Object readOnly(InvocationContext invocationContext) throws Exception {
+		if (transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_NO_TRANSACTION) {
+			return invocationContext.proceed();
+		}
+		
+		transactionManager.begin();
+		try {
+			Session session = entityManager.unwrap(Session.class);
+			session.setHibernateFlushMode(FlushMode.MANUAL);
+			session.setDefaultReadOnly(true);
+			
+			Object result = invocationContext.proceed();
+			
+			transactionManager.commit();
+			
+			return result;
+		} finally {
+			if (transactionManager.getStatus() != Status.STATUS_NO_TRANSACTION) {
+				transactionManager.rollback();
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package interceptors;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.enterprise.util.Nonbinding;
+import javax.interceptor.InterceptorBinding;
+import javax.persistence.OptimisticLockException;
+
+/**
+ * <p>Runs the annotated method again when it fails because another request changed the same row first ({@link OptimisticLockException}).</p>
+ * <p><em>The method must read again everything it writes, since every attempt starts from scratch.</em></p>
+ * 
+ * @author Wanderley Drumond
+ * @see RetryOnConflictInterceptor
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RetryOnConflict {
+	/**
+	 * How many times the method may run before the conflict is reported to the client.
+	 * 
+	 * @return the maximum amount of attempts
+	 */
+	@Nonbinding
+	int attempts() default 3;
+}
\ No newline at end of file
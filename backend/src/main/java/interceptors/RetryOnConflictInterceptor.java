@@ -0,0 +1,103 @@
+package interceptors;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Priority;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import javax.persistence.OptimisticLockException;
+import javax.ws.rs.core.Response;
+
+import exceptions.PharmacyException;
+
+/**
+ * <p>Implementation of {@link RetryOnConflict}.</p>
+ * <p>Each new attempt waits a random time, which grows with the attempts, so the requests that collided do not collide again. Its priority puts it outside of any transaction interceptor, so every attempt runs in a new transaction.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RetryOnConflict
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class RetryOnConflictInterceptor implements Serializable {
+	/**
+	 * Longest wait, in milliseconds, before the second attempt. It doubles on each further attempt.
+	 */
+	private static final long BACKOFF_MILLIS = 20L;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Proceeds with the intercepted method, running it again while it fails by an optimistic lock conflict and there are attempts left.
+	 * 
+	 * @param invocationContext the intercepted method invocation
+	 * @return the value returned by the intercepted method
+	 * @throws Exception the exception thrown by the intercepted method, if it is not a conflict
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 409 (CONFLICT) if every attempt failed by a conflict
+	 */
+	@AroundInvoke
+	public Object retry(InvocationContext invocationContext) throws Exception {
+		int attempts = attemptsOf(invocationContext);
+		
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return invocationContext.proceed();
+			} catch (Exception exception) {
+				if (!isConflict(exception)) {
+					throw exception;
+				}
+				
+				if (attempt >= attempts) {
+					Logger.getLogger(RetryOnConflictInterceptor.class.getName()).log(Level.WARNING, "{0} gave up after {1} conflicting attempts", new Object[] {invocationContext.getMethod().getName(), attempt});
+					
+					throw new PharmacyException(Response.Status.CONFLICT, "Concurrent modification", "The data was changed by another request at the same time, please try again");
+				}
+				
+				Logger.getLogger(RetryOnConflictInterceptor.class.getName()).log(Level.FINE, "Conflict in {0}, attempt {1} of {2}", new Object[] {invocationContext.getMethod().getName(), attempt, attempts});
+				Thread.sleep(ThreadLocalRandom.current().nextLong(1L, (BACKOFF_MILLIS << (attempt - 1)) + 1L));
+			}
+		}
+	}
+	
+	/**
+	 * Gets the maximum amount of attempts from the annotation of the intercepted method, or of its class.
+	 * 
+	 * @param invocationContext the intercepted method invocation
+	 * @return the maximum amount of attempts, at least 1
+	 */
+	private int attemptsOf(InvocationContext invocationContext) {
+		Method method = invocationContext.getMethod();
+		RetryOnConflict retryOnConflict = method.getAnnotation(RetryOnConflict.class);
+		
+		if (retryOnConflict == null) {
+			retryOnConflict = method.getDeclaringClass().getAnnotation(RetryOnConflict.class);
+		}
+		
+		return retryOnConflict == null ? 1 : Math.max(1, retryOnConflict.attempts());
+	}
+	
+	/**
+	 * Checks if the given exception was caused by an optimistic lock conflict, which the container may have wrapped in other exceptions.
+	 * 
+	 * @param exception the exception thrown by the intercepted method
+	 * @return true if an {@link OptimisticLockException} is found in the causes chain
+	 */
+	private boolean isConflict(Throwable exception) {
+		for (Throwable cause = exception; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+			if (cause instanceof OptimisticLockException) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+/**
+ * Contains all Project interceptors and their bindings.
+ * 
+ * @author Wanderley Drumond
+ */
+package interceptors;
\ No newline at end of file
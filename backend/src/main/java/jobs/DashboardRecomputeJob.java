@@ -0,0 +1,39 @@
+package jobs;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+
+import caches.DashboardStatistics;
+import exceptions.PharmacyException;
+import services.UserService;
+
+/**
+ * Recomputes the {@link DashboardStatistics} from the database, correcting any figure that drifted from the increments made at the points of change.
+ * 
+ * @author Wanderley Drumond
+ */
+@Singleton
+public class DashboardRecomputeJob {
+	
+	/**
+	 * Object that contains all user service methods.
+	 */
+	@Inject
+	private UserService userService;
+	
+	/**
+	 * Recomputes the dashboard figures every fifteen minutes.
+	 */
+	@Schedule(hour = "*", minute = "*/15", persistent = false)
+	public void recompute() {
+		try {
+			userService.refreshDashboard();
+		} catch (PharmacyException pharmacyException) {
+			Logger.getLogger(DashboardRecomputeJob.class.getName()).log(Level.WARNING, "Dashboard could not be recomputed", pharmacyException);
+		}
+	}
+}
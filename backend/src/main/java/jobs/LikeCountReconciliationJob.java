@@ -0,0 +1,68 @@
+package jobs;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.DependsOn;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.inject.Inject;
+
+import caches.ProductCatalog;
+import daos.ProductDAO;
+import entities.Product;
+import exceptions.PharmacyException;
+
+/**
+ * <p>Repairs the {@link Product} like counter against the liked_products table.</p>
+ * <p>The counter is kept in step by every like/unlike, this job only fixes drift left by manual database changes or by counters written before the column existed. It runs once when the application starts and then every night.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Startup
+@Singleton
+@DependsOn("SchemaMigrationJob")
+public class LikeCountReconciliationJob {
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding products table.
+	 */
+	@Inject
+	private ProductDAO productDAO;
+	
+	/**
+	 * In-memory product catalogue, which holds its own copy of the like counters.
+	 */
+	@Inject
+	private ProductCatalog productCatalog;
+	
+	/**
+	 * Reconciles the like counters as soon as the application is deployed.
+	 */
+	@PostConstruct
+	public void onStartup() {
+		reconcile();
+	}
+	
+	/**
+	 * Sets the like counter of each product whose value differs from the real amount of likes, logging how many were repaired and refreshing the product catalogue if any was.
+	 */
+	@Schedule(hour = "3", minute = "30", persistent = false)
+	public void reconcile() {
+		Integer amountOfProductsRepaired = productDAO.reconcileLikeCounts();
+		
+		if (amountOfProductsRepaired == null) {
+			Logger.getLogger(LikeCountReconciliationJob.class.getName()).log(Level.WARNING, "Like counters could not be reconciled");
+		} else if (amountOfProductsRepaired > 0) {
+			Logger.getLogger(LikeCountReconciliationJob.class.getName()).log(Level.INFO, "Like counters repaired in {0} products", amountOfProductsRepaired);
+			
+			try {
+				productCatalog.rebuild();
+			} catch (PharmacyException pharmacyException) {
+				Logger.getLogger(LikeCountReconciliationJob.class.getName()).log(Level.WARNING, "Product catalogue could not be rebuilt after reconciling like counters", pharmacyException);
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package jobs;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.DependsOn;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.inject.Inject;
+
+import daos.OrderLineDAO;
+import entities.OrderLine;
+
+/**
+ * <p>Moves the orders products from the former ordered_products table, with a row per unit, to the {@link OrderLine} table, with a row per product and its quantity.</p>
+ * <p>It only runs when the application starts with no order lines, so it happens once. The former table is left untouched.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Startup
+@Singleton
+@DependsOn("SchemaMigrationJob")
+public class OrderLineBackfillJob {
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding order_lines table.
+	 */
+	@Inject
+	private OrderLineDAO orderLineDAO;
+	
+	/**
+	 * Creates the order lines as soon as the application is deployed, if there are none yet.
+	 */
+	@PostConstruct
+	public void onStartup() {
+		try {
+			if (orderLineDAO.countAll() > 0) {
+				return;
+			}
+		} catch (Exception exception) {
+			Logger.getLogger(OrderLineBackfillJob.class.getName()).log(Level.WARNING, "Order lines could not be counted, the backfill was skipped", exception);
+			
+			return;
+		}
+		
+		Integer amountOfOrderLines = orderLineDAO.backfillFromOrderedProducts();
+		
+		if (amountOfOrderLines == null) {
+			Logger.getLogger(OrderLineBackfillJob.class.getName()).log(Level.WARNING, "Order lines could not be backfilled");
+		} else if (amountOfOrderLines > 0) {
+			Logger.getLogger(OrderLineBackfillJob.class.getName()).log(Level.INFO, "{0} order lines backfilled from ordered_products", amountOfOrderLines);
+		}
+	}
+}
\ No newline at end of file
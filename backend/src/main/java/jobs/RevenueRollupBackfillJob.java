@@ -0,0 +1,55 @@
+package jobs;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.DependsOn;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.inject.Inject;
+
+import daos.RevenueRollupDAO;
+import entities.RevenueRollup;
+
+/**
+ * <p>Fills the {@link RevenueRollup} table from the concluded orders when the application starts with it empty.</p>
+ * <p>From then on every conclusion keeps the rollups up to date, so the orders are only read this once.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Startup
+@Singleton
+@DependsOn("SchemaMigrationJob")
+public class RevenueRollupBackfillJob {
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding revenue_rollups table.
+	 */
+	@Inject
+	private RevenueRollupDAO revenueRollupDAO;
+	
+	/**
+	 * Rebuilds the revenue rollups as soon as the application is deployed, if there are none yet.
+	 */
+	@PostConstruct
+	public void onStartup() {
+		try {
+			if (revenueRollupDAO.countAll() > 0) {
+				return;
+			}
+		} catch (Exception exception) {
+			Logger.getLogger(RevenueRollupBackfillJob.class.getName()).log(Level.WARNING, "Revenue rollups could not be counted, the backfill was skipped", exception);
+			
+			return;
+		}
+		
+		Integer amountOfRollups = revenueRollupDAO.rebuild();
+		
+		if (amountOfRollups == null) {
+			Logger.getLogger(RevenueRollupBackfillJob.class.getName()).log(Level.WARNING, "Revenue rollups could not be backfilled");
+		} else {
+			Logger.getLogger(RevenueRollupBackfillJob.class.getName()).log(Level.INFO, "Revenue rollups backfilled with {0} periods", amountOfRollups);
+		}
+	}
+}
\ No newline at end of file
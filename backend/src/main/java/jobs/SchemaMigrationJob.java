@@ -0,0 +1,61 @@
+package jobs;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+
+/**
+ * <p>Applies the pending versioned database migrations, found in the <code>{@value #MIGRATIONS_LOCATION}</code> location, as soon as the application is deployed.</p>
+ * <p>A database that already has tables but was never migrated is taken as being at version {@value #BASELINE_VERSION}, before every migration, so they all run on it and bring its tables created by Hibernate up to the entities. The other startup jobs depend on this one, so they only read the database after it is migrated.</p>
+ * <p><em>If a migration fails, the deployment fails with it, instead of running on a schema that does not match the entities.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Startup
+@Singleton
+public class SchemaMigrationJob {
+	/**
+	 * Classpath location of the migrations, SQL scripts in the resources and Java classes in the package of the same name.
+	 */
+	private static final String MIGRATIONS_LOCATION = "classpath:migrations";
+	/**
+	 * Version given to a database that was created before the migrations existed, lower than the first migration.
+	 */
+	private static final String BASELINE_VERSION = "0";
+	
+	/**
+	 * The application data source, the same used by the persistence unit.
+	 */
+	@Resource(lookup = "java:/MySqlDSPharmacy")
+	private DataSource dataSource;
+	
+	/**
+	 * <p>Migrates the database to the latest version.</p>
+	 * <p><em>Runs out of any container transaction, since each migration is committed by Flyway on its own connection.</em></p>
+	 */
+	@PostConstruct
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public void onStartup() {
+		long start = System.currentTimeMillis();
+		MigrateResult migrateResult = Flyway.configure()
+				.dataSource(dataSource)
+				.locations(MIGRATIONS_LOCATION)
+				.baselineOnMigrate(true)
+				.baselineVersion(BASELINE_VERSION)
+				.load()
+				.migrate();
+		
+		Logger.getLogger(SchemaMigrationJob.class.getName()).log(Level.INFO, "{0} migrations applied in {1} ms, database at version {2}", 
+				new Object[] {migrateResult.migrationsExecuted, System.currentTimeMillis() - start, migrateResult.targetSchemaVersion});
+	}
+}
\ No newline at end of file
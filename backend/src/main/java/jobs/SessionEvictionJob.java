@@ -0,0 +1,35 @@
+package jobs;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+
+import caches.SessionCache;
+
+/**
+ * Removes the expired principals from the {@link SessionCache}, so tokens that are never used again do not stay in memory until the cache is full.
+ * 
+ * @author Wanderley Drumond
+ */
+@Singleton
+public class SessionEvictionJob {
+	
+	/**
+	 * Cache of the logged users principals.
+	 */
+	@Inject
+	private SessionCache sessionCache;
+	
+	/**
+	 * Evicts the expired principals every five minutes.
+	 */
+	@Schedule(hour = "*", minute = "*/5", persistent = false)
+	public void evict() {
+		int amountOfPrincipalsEvicted = sessionCache.evictExpired();
+		
+		Logger.getLogger(SessionEvictionJob.class.getName()).log(Level.FINE, "{0} expired sessions evicted, {1} remaining", new Object[] {amountOfPrincipalsEvicted, sessionCache.size()});
+	}
+}
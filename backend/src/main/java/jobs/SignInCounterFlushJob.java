@@ -0,0 +1,48 @@
+package jobs;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.DependsOn;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.inject.Inject;
+
+import caches.SignInCounter;
+
+/**
+ * Saves the sign ins counted by the {@link SignInCounter} in the database, every minute and once more when the application is stopped.
+ * 
+ * @author Wanderley Drumond
+ */
+@Startup
+@Singleton
+@DependsOn("SchemaMigrationJob")
+public class SignInCounterFlushJob {
+	
+	/**
+	 * In-memory sign in counter.
+	 */
+	@Inject
+	private SignInCounter signInCounter;
+	
+	/**
+	 * Flushes the pending sign ins every minute.
+	 */
+	@Schedule(hour = "*", minute = "*", persistent = false)
+	public void flush() {
+		long amountOfSignInsSaved = signInCounter.flush();
+		
+		Logger.getLogger(SignInCounterFlushJob.class.getName()).log(Level.FINE, "{0} sign ins saved", amountOfSignInsSaved);
+	}
+	
+	/**
+	 * Flushes the pending sign ins before the application is undeployed, so they are not lost.
+	 */
+	@PreDestroy
+	public void onShutdown() {
+		flush();
+	}
+}
\ No newline at end of file
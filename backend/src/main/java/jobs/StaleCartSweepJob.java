@@ -0,0 +1,99 @@
+package jobs;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import caches.ConfigurationRegistry;
+import caches.DashboardStatistics;
+import daos.OrderDAO;
+import daos.OrderLineDAO;
+
+/**
+ * <p>Deletes the carts (non concluded orders) that were not updated for longer than their time to live, along with their lines.</p>
+ * <p>The carts are deleted in batches, each one in its own short transaction, so the sweep never holds many rows locked. The time to live, in hours, is read from the <code>{@value #TIME_TO_LIVE_KEYWORD}</code> configuration, {@value #DEFAULT_TIME_TO_LIVE_HOURS} if it is not set.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@Singleton
+public class StaleCartSweepJob {
+	/**
+	 * Keyword of the configuration that holds the carts time to live, in hours.
+	 */
+	public static final String TIME_TO_LIVE_KEYWORD = "cart time to live in hours";
+	/**
+	 * Carts time to live, in hours, used when it is not configured.
+	 */
+	private static final long DEFAULT_TIME_TO_LIVE_HOURS = 48L;
+	/**
+	 * How many carts are deleted by each transaction.
+	 */
+	private static final int BATCH_SIZE = 500;
+	/**
+	 * How many batches a single sweep may run, the remaining carts are left for the next one.
+	 */
+	private static final int MAXIMUM_BATCHES = 100;
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding orders table.
+	 */
+	@Inject
+	private OrderDAO orderDAO;
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding order_lines table.
+	 */
+	@Inject
+	private OrderLineDAO orderLineDAO;
+	
+	/**
+	 * In-memory copy of the configurations table.
+	 */
+	@Inject
+	private ConfigurationRegistry configurationRegistry;
+	
+	/**
+	 * In-memory copy of the administrator dashboard figures.
+	 */
+	@Inject
+	private DashboardStatistics dashboardStatistics;
+	
+	/**
+	 * Sweeps the stale carts every hour, logging how many were deleted and how long it took.
+	 */
+	@Schedule(hour = "*", minute = "10", persistent = false)
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public void sweep() {
+		long startMillis = System.currentTimeMillis();
+		long timeToLiveHours = configurationRegistry.getLong(TIME_TO_LIVE_KEYWORD, DEFAULT_TIME_TO_LIVE_HOURS);
+		Timestamp olderThan = Timestamp.valueOf(LocalDateTime.now().minusHours(timeToLiveHours));
+		boolean includeFormerTable = orderLineDAO.hasFormerOrderedProductsTable();
+		long amountOfCartsDeleted = 0;
+		int amountOfBatches = 0;
+		Integer amountOfCartsOfBatch;
+		
+		do {
+			amountOfCartsOfBatch = orderDAO.deleteStaleCarts(olderThan, BATCH_SIZE, includeFormerTable);
+			
+			if (amountOfCartsOfBatch == null) {
+				Logger.getLogger(StaleCartSweepJob.class.getName()).log(Level.WARNING, "Stale carts sweep interrupted by a database error");
+				break;
+			}
+			
+			amountOfCartsDeleted += amountOfCartsOfBatch;
+			amountOfBatches++;
+		} while (amountOfCartsOfBatch == BATCH_SIZE && amountOfBatches < MAXIMUM_BATCHES);
+		
+		dashboardStatistics.cartsRemoved(amountOfCartsDeleted);
+		
+		Logger.getLogger(StaleCartSweepJob.class.getName()).log(amountOfCartsDeleted > 0 ? Level.INFO : Level.FINE, "{0} carts older than {1} hours deleted in {2} batches and {3} ms",
+				new Object[] {amountOfCartsDeleted, timeToLiveHours, amountOfBatches, System.currentTimeMillis() - startMillis});
+	}
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+/**
+ * Contains all Project background jobs, run by the container timer service.
+ * 
+ * @author Wanderley Drumond
+ */
+package jobs;
\ No newline at end of file
@@ -1,5 +1,7 @@
 package mappers;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -10,6 +12,7 @@ import javax.inject.Inject;
 import dtos.OrderDTO;
 import dtos.ProductDTO;
 import entities.Order;
+import entities.Product;
 
 /**
  * Class responsible by transform {@link Order} data that transits between backend and frontend.
@@ -52,13 +55,7 @@ public class OrderMapper {
 	 * @return the DTO resultant object
 	 */
 	public OrderDTO toDTO(Order order, boolean verifyLikedOrFavorited, UUID token) {
-		List<ProductDTO> productsDTO;
-		
-		if(verifyLikedOrFavorited && token!= null) {
-			productsDTO = order.getProductsOfAnOrder().stream().map(productElement -> productMapper.toDTO(productElement, verifyLikedOrFavorited, token)).collect(Collectors.toList());
-		} else {
-			productsDTO = order.getProductsOfAnOrder().stream().map(productMapper::toDTO).collect(Collectors.toList());			
-		}
+		List<ProductDTO> productsDTO = productMapper.toDTOs(order.getProductsOfAnOrder(), verifyLikedOrFavorited, token);
 		
 		return new OrderDTO(order.getId(), order.getLastUpdate().toString(), order.getTotalValue(), order.getIsConcluded(), productsDTO);
 	}
@@ -74,12 +71,24 @@ public class OrderMapper {
 	}
 	
 	/**
-	 * Changes an {@link Order} objects list into an {@link OrderDTO} objects list.
+	 * <p>Changes an {@link Order} objects list into an {@link OrderDTO} objects list.</p>
+	 * <p><em>The products of all orders are transformed together, so the amount of queries does not depend on the amount of orders.</em></p>
 	 * 
 	 * @param orders the list that will be transformed into DTO list
 	 * @return the {@link OrderDTO} resultant objects list
 	 */
 	public List<OrderDTO> toDTOs(List<Order> orders) {
-		return orders.stream().map(this::toDTO).collect(Collectors.toList());
+		List<Product> productsOfAllOrders = orders.stream().flatMap(orderElement -> orderElement.getProductsOfAnOrder().stream()).collect(Collectors.toList());
+		Iterator<ProductDTO> productsDTO = productMapper.toDTOs(productsOfAllOrders).iterator();
+		List<OrderDTO> ordersDTO = new ArrayList<>();
+		
+		for (Order orderElement : orders) {
+			List<ProductDTO> productsDTOOfThisOrder = new ArrayList<>();
+			
+			orderElement.getProductsOfAnOrder().forEach(productElement -> productsDTOOfThisOrder.add(productsDTO.next()));
+			ordersDTO.add(new OrderDTO(orderElement.getId(), orderElement.getLastUpdate().toString(), orderElement.getTotalValue(), orderElement.getIsConcluded(), productsDTOOfThisOrder));
+		}
+		
+		return ordersDTO;
 	}
 }
\ No newline at end of file
@@ -1,18 +1,25 @@
 package mappers;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import javax.ws.rs.core.Response;
 
+import caches.CatalogProduct;
+import caches.ProductCatalog;
 import daos.ProductDAO;
-import daos.UserDAO;
 import dtos.ProductDTO;
 import entities.Product;
 import enums.Section;
+import exceptions.PharmacyException;
 
 /**
  * Class responsible by transform {@link Product} data that transits between backend and frontend.
@@ -23,16 +30,16 @@ import enums.Section;
 public class ProductMapper {
 	
 	/**
-	 * Object that contains all methods to manipulates database regarding users table.
+	 * Object that contains all methods to manipulates database regarding products table.
 	 */
 	@Inject
-	private UserDAO userDAO;
+	private ProductDAO productDAO;
 	
 	/**
-	 * Object that contains all methods to manipulates database regarding products table.
+	 * In-memory product catalogue, which holds the amount of likes of each product.
 	 */
 	@Inject
-	private ProductDAO productDAO;
+	private ProductCatalog productCatalog;
 	
 	/**
 	 * A generic token when a user assigned to a non logged user
@@ -58,15 +65,7 @@ public class ProductMapper {
 	 * @return the {@link ProductDTO} resultant object
 	 */
 	public ProductDTO toDTO(Product product, boolean verifyLikedOrFavorited, UUID token) {
-		DecimalFormat decimalFormat = new DecimalFormat("#,###.00");
-		String formatedValue = decimalFormat.format(product.getPrice()) + "€";
-		if (verifyLikedOrFavorited && !token.equals(NOT_LOGGED_TOKEN)) {
-			Boolean hasLiked = productDAO.verifyLoggedUserLiked(token, product);
-			Boolean hasFavorited = productDAO.verifyLoggedUserFavorited(token, product);
-			
-			return new ProductDTO(product.getId(), userDAO.countTotalLikes(product.getId()), product.getName(), product.getImage(), product.getSection().getVALUE(), formatedValue, hasLiked, hasFavorited);
-		}
-		return new ProductDTO(product.getId(), userDAO.countTotalLikes(product.getId()), product.getName(), product.getImage(), product.getSection().getVALUE(), formatedValue, false, false);
+		return toDTOs(Collections.singletonList(product), verifyLikedOrFavorited, token).get(0);
 	}
 	
 	/**
@@ -89,14 +88,43 @@ public class ProductMapper {
 		return productsDTO.stream().map(this::toEntity).collect(Collectors.toList());
 	}
 	
-	/** Changes a {@link Product} objects list into a {@link ProductDTO} objects list checking if this product was liked and or marked as favourite.
+	/**
+	 * <p>Changes a {@link Product} objects list into a {@link ProductDTO} objects list checking if this product was liked and or marked as favourite.</p>
+	 * <p>The amount of likes is read from the product itself, and the whole list is enriched with a constant amount of queries, regardless of its size:</p>
+	 * <ol>
+	 * 	<li>If it has to be verified, one query finding which of these products the logged user liked</li>
+	 * 	<li>If it has to be verified, one query finding which of these products the logged user marked as favourite</li>
+	 * </ol>
+	 * 
 	 * @param products				 the list that will be transformed into DTO list
 	 * @param verifyLikedOrFavorited it will check if this product was liked and/or marked as favourite?
 	 * @param token					 logged user identifier key
 	 * @return the {@link ProductDTO} resultant objects list
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
 	public List<ProductDTO> toDTOs(List<Product> products, boolean verifyLikedOrFavorited, UUID token) {
-		return products.stream().map(productElement -> toDTO(productElement, verifyLikedOrFavorited, token)).collect(Collectors.toList());
+		if (products.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		Set<Long> productsIds = products.stream().map(Product::getId).collect(Collectors.toSet());
+		Set<Long> likedIds = new HashSet<>();
+		Set<Long> favoritedIds = new HashSet<>();
+		
+		findLikedAndFavoritedIds(productsIds, verifyLikedOrFavorited, token, likedIds, favoritedIds);
+		
+		DecimalFormat decimalFormat = new DecimalFormat("#,###.00");
+		
+		return products.stream().map(productElement -> new ProductDTO(
+				productElement.getId(), 
+				productElement.getLikeCount(), 
+				productElement.getName(), 
+				productElement.getImage(), 
+				productElement.getSection().getVALUE(), 
+				decimalFormat.format(productElement.getPrice()) + "€", 
+				likedIds.contains(productElement.getId()), 
+				favoritedIds.contains(productElement.getId())))
+				.collect(Collectors.toList());
 	}
 	
 	
@@ -109,4 +137,74 @@ public class ProductMapper {
 	public List<ProductDTO> toDTOs(List<Product> products) {
 		return toDTOs(products, false, null);
 	}
+	
+	/**
+	 * Changes a {@link CatalogProduct} object into a {@link ProductDTO} object checking if this product was liked and or marked as favourite.
+	 * 
+	 * @param catalogProduct		 the object that will be transformed into DTO object
+	 * @param verifyLikedOrFavorited it will check if this product was liked and/or favorited?
+	 * @param token					 logged user identifier key
+	 * @return the {@link ProductDTO} resultant object
+	 */
+	public ProductDTO catalogToDTO(CatalogProduct catalogProduct, boolean verifyLikedOrFavorited, UUID token) {
+		return catalogToDTOs(Collections.singletonList(catalogProduct), verifyLikedOrFavorited, token).get(0);
+	}
+	
+	/**
+	 * <p>Changes a {@link CatalogProduct} objects list into a {@link ProductDTO} objects list checking if this product was liked and or marked as favourite.</p>
+	 * <p>The display fields and the amount of likes come from the {@link ProductCatalog}, so the database is only reached if the liked and favourite marks have to be verified.</p>
+	 * 
+	 * @param catalogProducts		 the list that will be transformed into DTO list
+	 * @param verifyLikedOrFavorited it will check if this product was liked and/or marked as favourite?
+	 * @param token					 logged user identifier key
+	 * @return the {@link ProductDTO} resultant objects list
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	public List<ProductDTO> catalogToDTOs(List<CatalogProduct> catalogProducts, boolean verifyLikedOrFavorited, UUID token) {
+		if (catalogProducts.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		Set<Long> productsIds = catalogProducts.stream().map(CatalogProduct::getId).collect(Collectors.toSet());
+		Set<Long> likedIds = new HashSet<>();
+		Set<Long> favoritedIds = new HashSet<>();
+		
+		findLikedAndFavoritedIds(productsIds, verifyLikedOrFavorited, token, likedIds, favoritedIds);
+		
+		return catalogProducts.stream().map(catalogProductElement -> new ProductDTO(
+				catalogProductElement.getId(), 
+				productCatalog.getLikeCount(catalogProductElement.getId()), 
+				catalogProductElement.getName(), 
+				catalogProductElement.getImage(), 
+				catalogProductElement.getSectionLabel(), 
+				catalogProductElement.getFormattedPrice(), 
+				likedIds.contains(catalogProductElement.getId()), 
+				favoritedIds.contains(catalogProductElement.getId())))
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * <p>Fills the provided sets with the ids, among the provided ones, of the products that the logged user liked and marked as favourite.</p>
+	 * <p><em>Auxiliary method. Nothing is filled if it does not have to be verified or if there is no logged user.</em></p>
+	 * 
+	 * @param productsIds			 primary keys that identify the products to verify
+	 * @param verifyLikedOrFavorited it will check if this product was liked and/or marked as favourite?
+	 * @param token					 logged user identifier key
+	 * @param likedIds				 the set to be filled with the liked products ids
+	 * @param favoritedIds			 the set to be filled with the favourite products ids
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	private void findLikedAndFavoritedIds(Set<Long> productsIds, boolean verifyLikedOrFavorited, UUID token, Set<Long> likedIds, Set<Long> favoritedIds) {
+		if (verifyLikedOrFavorited && token != null && !token.equals(NOT_LOGGED_TOKEN)) {
+			List<Long> liked = productDAO.findAllIdsLikedByToken(token, productsIds);
+			List<Long> favorited = productDAO.findAllIdsFavoritedByToken(token, productsIds);
+			
+			if (liked == null || favorited == null) {
+				throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+			}
+			
+			likedIds.addAll(liked);
+			favoritedIds.addAll(favorited);
+		}
+	}
 }
\ No newline at end of file
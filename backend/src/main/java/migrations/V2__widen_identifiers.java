@@ -0,0 +1,127 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * <p>Widens every primary key, and every foreign key that points to one, from SMALLINT to BIGINT, and the order totals from FLOAT to DOUBLE.</p>
+ * <p>Each table is altered by a single statement, and only the columns that exist and are not widened yet are altered, so it also runs on databases created after the entities were widened and on databases without the former ordered_products table.</p>
+ * <p><em>Foreign key checks are disabled while the tables are altered, since a key and the columns that point to it cannot have different types in between.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+public class V2__widen_identifiers extends BaseJavaMigration {
+	/**
+	 * Columns to be widened, as table, column, target data type and full column definition.
+	 */
+	private static final String[][] COLUMNS = {
+			{"users", "id", "bigint", "BIGINT NOT NULL AUTO_INCREMENT"},
+			{"products", "id", "bigint", "BIGINT NOT NULL AUTO_INCREMENT"},
+			{"orders", "id", "bigint", "BIGINT NOT NULL AUTO_INCREMENT"},
+			{"orders", "buyer_id", "bigint", "BIGINT"},
+			{"orders", "total_value", "double", "DOUBLE"},
+			{"order_lines", "id", "bigint", "BIGINT NOT NULL AUTO_INCREMENT"},
+			{"order_lines", "order_id", "bigint", "BIGINT NOT NULL"},
+			{"order_lines", "product_id", "bigint", "BIGINT NOT NULL"},
+			{"comments", "id", "bigint", "BIGINT NOT NULL AUTO_INCREMENT"},
+			{"comments", "owner_id", "bigint", "BIGINT"},
+			{"comments", "product_id", "bigint", "BIGINT"},
+			{"configurations", "id", "bigint", "BIGINT NOT NULL AUTO_INCREMENT"},
+			{"revenue_rollups", "id", "bigint", "BIGINT NOT NULL AUTO_INCREMENT"},
+			{"liked_products", "liked_product_id", "bigint", "BIGINT NOT NULL"},
+			{"liked_products", "user_that_liked_id", "bigint", "BIGINT NOT NULL"},
+			{"favorite_products", "favorite_product_id", "bigint", "BIGINT NOT NULL"},
+			{"favorite_products", "user_that_favorited_id", "bigint", "BIGINT NOT NULL"},
+			{"ordered_products", "order_id", "bigint", "BIGINT NOT NULL"},
+			{"ordered_products", "product_id", "bigint", "BIGINT NOT NULL"}
+	};
+
+	/**
+	 * <ol>
+	 * 	<li>Disables the foreign key checks of the migration connection</li>
+	 * 	<li>Alters, table by table, the columns that still have to be widened</li>
+	 * 	<li>Enables the foreign key checks again, even if an alteration failed</li>
+	 * </ol>
+	 * 
+	 * @param context the migration context, which provides the connection
+	 * @throws SQLException if any alteration failed
+	 */
+	@Override
+	public void migrate(Context context) throws SQLException {
+		Connection connection = context.getConnection();
+		
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+			try {
+				String table = null;
+				List<String> modifications = new ArrayList<>();
+				
+				for (String[] column : COLUMNS) {
+					if (!column[0].equals(table)) {
+						alter(statement, table, modifications);
+						table = column[0];
+						modifications.clear();
+					}
+					
+					String currentDataType = findDataType(connection, column[0], column[1]);
+					
+					if (currentDataType != null && !currentDataType.equalsIgnoreCase(column[2])) {
+						modifications.add("MODIFY " + column[1] + " " + column[3]);
+					}
+				}
+				alter(statement, table, modifications);
+			} finally {
+				statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+			}
+		}
+	}
+
+	/**
+	 * Alters the given table with the given column modifications, if there is any.
+	 * 
+	 * @param statement		statement of the migration connection
+	 * @param table			the table to be altered
+	 * @param modifications the MODIFY clauses
+	 * @throws SQLException if the alteration failed
+	 */
+	private void alter(Statement statement, String table, List<String> modifications) throws SQLException {
+		if (table == null || modifications.isEmpty()) {
+			return;
+		}
+		
+		long start = System.currentTimeMillis();
+		statement.execute("ALTER TABLE " + table + " " + String.join(", ", modifications));
+		Logger.getLogger(V2__widen_identifiers.class.getName()).log(Level.INFO, "{0} widened in {1} ms: {2}", new Object[] {table, System.currentTimeMillis() - start, modifications});
+	}
+
+	/**
+	 * Finds the current data type of the given column.
+	 * 
+	 * @param connection the migration connection
+	 * @param table		 the table of the column
+	 * @param column	 the column name
+	 * @return the data type in lower case (e.g. smallint), null if the column or its table does not exist
+	 * @throws SQLException if the database could not be read
+	 */
+	private String findDataType(Connection connection, String table, String column) throws SQLException {
+		try (PreparedStatement preparedStatement = connection.prepareStatement(
+				"SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+			preparedStatement.setString(1, table);
+			preparedStatement.setString(2, column);
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				return resultSet.next() ? resultSet.getString(1).toLowerCase() : null;
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * <p>Creates the tables and columns the entities gained since the baseline, and gives the like and favourite join tables their (product, user) primary key.</p>
+ * <p>Everything is only created if it does not exist yet, so it runs both on new databases and on databases whose tables were created by Hibernate, before or after the entities changed.</p>
+ * <p><em>A join table created by Hibernate has no key and may hold the same like or favourite more than once. It is copied, without the repeated rows, into a new table that has the key, which then takes its place.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+public class V3__complete_entities_schema extends BaseJavaMigration {
+	/**
+	 * Columns to be added, as table, column and full column definition.
+	 */
+	private static final String[][] COLUMNS = {
+			{"products", "like_count", "BIGINT NOT NULL DEFAULT 0"},
+			{"orders", "version", "BIGINT NOT NULL DEFAULT 0"}
+	};
+	/**
+	 * Tables to be created, as their full definition.
+	 */
+	private static final String[] TABLES = {
+			"CREATE TABLE IF NOT EXISTS order_lines ("
+			+ "id BIGINT NOT NULL AUTO_INCREMENT, "
+			+ "order_id BIGINT NOT NULL, "
+			+ "product_id BIGINT NOT NULL, "
+			+ "quantity INT NOT NULL, "
+			+ "unit_price FLOAT NOT NULL, "
+			+ "PRIMARY KEY (id), "
+			+ "CONSTRAINT uk_order_lines_order_product UNIQUE (order_id, product_id), "
+			+ "CONSTRAINT fk_order_lines_order FOREIGN KEY (order_id) REFERENCES orders (id), "
+			+ "CONSTRAINT fk_order_lines_product FOREIGN KEY (product_id) REFERENCES products (id)"
+			+ ") ENGINE = InnoDB",
+			"CREATE TABLE IF NOT EXISTS revenue_rollups ("
+			+ "id BIGINT NOT NULL AUTO_INCREMENT, "
+			+ "granularity VARCHAR(5) NOT NULL, "
+			+ "period_start DATE NOT NULL, "
+			+ "total DOUBLE NOT NULL, "
+			+ "orders_count BIGINT NOT NULL, "
+			+ "PRIMARY KEY (id), "
+			+ "CONSTRAINT uk_revenue_rollups_granularity_period UNIQUE (granularity, period_start)"
+			+ ") ENGINE = InnoDB"
+	};
+	/**
+	 * Join tables to be keyed, as table, product column, user column and the prefix of their foreign key names.
+	 */
+	private static final String[][] JOIN_TABLES = {
+			{"liked_products", "liked_product_id", "user_that_liked_id", "fk_liked_products"},
+			{"favorite_products", "favorite_product_id", "user_that_favorited_id", "fk_favorite_products"}
+	};
+
+	/**
+	 * <ol>
+	 * 	<li>Adds the columns that do not exist yet</li>
+	 * 	<li>Creates the tables that do not exist yet</li>
+	 * 	<li>Replaces each join table that has no primary key by a copy without repeated rows that has it</li>
+	 * </ol>
+	 * 
+	 * @param context the migration context, which provides the connection
+	 * @throws SQLException if any change failed
+	 */
+	@Override
+	public void migrate(Context context) throws SQLException {
+		Connection connection = context.getConnection();
+		
+		try (Statement statement = connection.createStatement()) {
+			for (String[] column : COLUMNS) {
+				if (!columnExists(connection, column[0], column[1])) {
+					statement.execute("ALTER TABLE " + column[0] + " ADD COLUMN " + column[1] + " " + column[2]);
+					Logger.getLogger(V3__complete_entities_schema.class.getName()).log(Level.INFO, "{0}.{1} added", new Object[] {column[0], column[1]});
+				}
+			}
+			
+			for (String table : TABLES) {
+				statement.execute(table);
+			}
+			
+			for (String[] joinTable : JOIN_TABLES) {
+				if (!hasPrimaryKey(connection, joinTable[0])) {
+					addPrimaryKey(statement, joinTable[0], joinTable[1], joinTable[2], joinTable[3]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * <ol>
+	 * 	<li>Creates a copy of the join table keyed by the product and user columns</li>
+	 * 	<li>Copies each distinct row into it</li>
+	 * 	<li>Swaps both tables at once and drops the former one</li>
+	 * </ol>
+	 * 
+	 * @param statement		statement of the migration connection
+	 * @param table			the join table to be keyed
+	 * @param productColumn the column that points to the product
+	 * @param userColumn	the column that points to the user
+	 * @param foreignKey	the prefix of the foreign key names
+	 * @throws SQLException if any step failed
+	 */
+	private void addPrimaryKey(Statement statement, String table, String productColumn, String userColumn, String foreignKey) throws SQLException {
+		long start = System.currentTimeMillis();
+		String keyedTable = table + "_keyed";
+		String formerTable = table + "_unkeyed";
+		
+		statement.execute("DROP TABLE IF EXISTS " + keyedTable);
+		statement.execute("CREATE TABLE " + keyedTable + " ("
+				+ productColumn + " BIGINT NOT NULL, "
+				+ userColumn + " BIGINT NOT NULL, "
+				+ "PRIMARY KEY (" + productColumn + ", " + userColumn + "), "
+				+ "CONSTRAINT " + foreignKey + "_product FOREIGN KEY (" + productColumn + ") REFERENCES products (id), "
+				+ "CONSTRAINT " + foreignKey + "_user FOREIGN KEY (" + userColumn + ") REFERENCES users (id)"
+				+ ") ENGINE = InnoDB");
+		int amountOfRows = statement.executeUpdate("INSERT INTO " + keyedTable + " (" + productColumn + ", " + userColumn + ") "
+				+ "SELECT DISTINCT " + productColumn + ", " + userColumn + " FROM " + table + " "
+				+ "WHERE " + productColumn + " IS NOT NULL AND " + userColumn + " IS NOT NULL");
+		statement.execute("RENAME TABLE " + table + " TO " + formerTable + ", " + keyedTable + " TO " + table);
+		statement.execute("DROP TABLE " + formerTable);
+		
+		Logger.getLogger(V3__complete_entities_schema.class.getName()).log(Level.INFO, "{0} keyed in {1} ms with {2} distinct rows", new Object[] {table, System.currentTimeMillis() - start, amountOfRows});
+	}
+
+	/**
+	 * Checks if the given column exists.
+	 * 
+	 * @param connection the migration connection
+	 * @param table		 the table of the column
+	 * @param column	 the column name
+	 * @return true if the table has the column
+	 * @throws SQLException if the database could not be read
+	 */
+	private boolean columnExists(Connection connection, String table, String column) throws SQLException {
+		try (PreparedStatement preparedStatement = connection.prepareStatement(
+				"SELECT 1 FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+			preparedStatement.setString(1, table);
+			preparedStatement.setString(2, column);
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				return resultSet.next();
+			}
+		}
+	}
+
+	/**
+	 * Checks if the given table has a primary key.
+	 * 
+	 * @param connection the migration connection
+	 * @param table		 the table name
+	 * @return true if the table has a primary key
+	 * @throws SQLException if the database could not be read
+	 */
+	private boolean hasPrimaryKey(Connection connection, String table) throws SQLException {
+		try (PreparedStatement preparedStatement = connection.prepareStatement(
+				"SELECT 1 FROM information_schema.TABLE_CONSTRAINTS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND CONSTRAINT_TYPE = 'PRIMARY KEY'")) {
+			preparedStatement.setString(1, table);
+			
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				return resultSet.next();
+			}
+		}
+	}
+}
\ No newline at end of file
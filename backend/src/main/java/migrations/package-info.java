@@ -0,0 +1,6 @@
+/**
+ * Contains all Project versioned database migrations written in Java, applied in order by the {@link jobs.SchemaMigrationJob}.
+ * 
+ * @author Wanderley Drumond
+ */
+package migrations;
\ No newline at end of file
@@ -0,0 +1,70 @@
+package search;
+
+/**
+ * Levenshtein distance between two words, bounded so that words that are clearly too different are discarded early.
+ * 
+ * @author Wanderley Drumond
+ */
+final class EditDistance {
+	
+	private EditDistance() {
+	}
+	
+	/**
+	 * <p>Counts the minimum amount of single character insertions, deletions and substitutions that turn one word into the other.</p>
+	 * <p><em>Only the diagonal band of width 2 * maximum + 1 is computed, and the computation stops as soon as a whole row exceeds the maximum, so the cost is O(maximum * length) instead of O(length²).</em></p>
+	 * 
+	 * @param first	  one of the words
+	 * @param second  the other word
+	 * @param maximum the greatest distance of interest
+	 * @return the distance between the words, or maximum + 1 if it is greater than the maximum
+	 */
+	static int bounded(String first, String second, int maximum) {
+		if (Math.abs(first.length() - second.length()) > maximum) {
+			return maximum + 1;
+		}
+		
+		int outOfBounds = maximum + 1;
+		int[] previousRow = new int[second.length() + 1];
+		int[] currentRow = new int[second.length() + 1];
+		
+		for (int column = 0; column <= second.length(); column++) {
+			previousRow[column] = column <= maximum ? column : outOfBounds;
+		}
+		
+		for (int row = 1; row <= first.length(); row++) {
+			int fromColumn = Math.max(1, row - maximum);
+			int toColumn = Math.min(second.length(), row + maximum);
+			
+			currentRow[0] = row <= maximum ? row : outOfBounds;
+			int rowMinimum = currentRow[0];
+			
+			if (fromColumn > 1) {
+				currentRow[fromColumn - 1] = outOfBounds;
+			}
+			
+			for (int column = fromColumn; column <= toColumn; column++) {
+				int substitution = previousRow[column - 1] + (first.charAt(row - 1) == second.charAt(column - 1) ? 0 : 1);
+				int deletion = previousRow[column] + 1;
+				int insertion = currentRow[column - 1] + 1;
+				
+				currentRow[column] = Math.min(outOfBounds, Math.min(substitution, Math.min(deletion, insertion)));
+				rowMinimum = Math.min(rowMinimum, currentRow[column]);
+			}
+			
+			if (toColumn < second.length()) {
+				currentRow[toColumn + 1] = outOfBounds;
+			}
+			
+			if (rowMinimum > maximum) {
+				return outOfBounds;
+			}
+			
+			int[] swap = previousRow;
+			previousRow = currentRow;
+			currentRow = swap;
+		}
+		
+		return previousRow[second.length()];
+	}
+}
@@ -0,0 +1,290 @@
+package search;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import caches.CatalogProduct;
+import caches.ProductCatalog;
+
+/**
+ * <p>Typo tolerant search over the words of the product names.</p>
+ * <p>Every distinct word of the catalogue is indexed by its trigrams (padded with a space on each side). A query word with length n has n + 2 trigrams and each edit destroys at most 3 of them, so a word within distance d shares at least n + 2 - 3d trigrams with it. Only the words that reach this threshold are verified by the bounded {@link EditDistance}, which keeps the search sub-linear in the catalogue size.</p>
+ * <p>The allowed distance grows with the word length: none up to 3 characters, 1 up to 7 and 2 from 8 on.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class FuzzyNameIndex implements Serializable {
+	
+	/**
+	 * In-memory product catalogue, which is the source of the indexed names.
+	 */
+	@Inject
+	private ProductCatalog productCatalog;
+	
+	/**
+	 * Guards the index, which is read by many searches at the same time and written only when the catalogue changes.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	/**
+	 * The catalogue snapshot list that is indexed.
+	 */
+	private List<CatalogProduct> indexedProducts;
+	/**
+	 * Position of each distinct word in {@link #words}.
+	 */
+	private final Map<String, Integer> wordPositions = new HashMap<>();
+	/**
+	 * All distinct words of the catalogue.
+	 */
+	private final List<String> words = new ArrayList<>();
+	/**
+	 * The ids of the products that contain each word, in the same order as {@link #words}.
+	 */
+	private final List<PostingList> productsOfWords = new ArrayList<>();
+	/**
+	 * The positions of the words that contain each trigram.
+	 */
+	private final Map<String, List<Integer>> wordsOfTrigrams = new HashMap<>();
+	/**
+	 * All indexed products, by their id.
+	 */
+	private final Map<Long, CatalogProduct> products = new HashMap<>();
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * <p>Finds the products whose name has, for every word of the key search, a word within the allowed edit distance.</p>
+	 * <p><em>They are ranked by the sum of the distances, then by the shortest name, then by id.</em></p>
+	 * 
+	 * @param keysearch the product name, possibly misspelled
+	 * @param limit		the maximum amount of products to answer
+	 * @return the ranked {@link CatalogProduct} {@link List} found
+	 */
+	public List<CatalogProduct> search(String keysearch, int limit) {
+		String query = NameNormalizer.normalize(keysearch);
+		
+		if (query.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		refreshIfStale();
+		lock.readLock().lock();
+		
+		try {
+			Map<Long, Integer> distancesByProduct = null;
+			
+			for (String queryWord : query.split(" ")) {
+				Map<Long, Integer> wordDistancesByProduct = findProductsWithWordNear(queryWord);
+				
+				if (distancesByProduct == null) {
+					distancesByProduct = wordDistancesByProduct;
+				} else {
+					Map<Long, Integer> previousDistances = distancesByProduct;
+					
+					distancesByProduct = new HashMap<>();
+					for (Map.Entry<Long, Integer> entry : wordDistancesByProduct.entrySet()) {
+						if (previousDistances.containsKey(entry.getKey())) {
+							distancesByProduct.put(entry.getKey(), previousDistances.get(entry.getKey()) + entry.getValue());
+						}
+					}
+				}
+				
+				if (distancesByProduct.isEmpty()) {
+					return new ArrayList<>();
+				}
+			}
+			
+			Map<Long, Integer> totalDistances = distancesByProduct;
+			
+			return totalDistances.keySet().stream()
+					.map(products::get)
+					.sorted(Comparator.comparingInt((CatalogProduct product) -> totalDistances.get(product.getId()))
+							.thenComparingInt(product -> product.getName().length())
+							.thenComparing(CatalogProduct::getId))
+					.limit(limit)
+					.collect(Collectors.toList());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Finds the products that have a word within the allowed edit distance of the query word.
+	 * 
+	 * @param queryWord a normalised word of the key search
+	 * @return the smallest distance found in each of these products, by the product id
+	 */
+	private Map<Long, Integer> findProductsWithWordNear(String queryWord) {
+		int maximumDistance = maximumDistance(queryWord);
+		Map<Long, Integer> distancesByProduct = new HashMap<>();
+		
+		for (Map.Entry<Integer, Integer> wordDistance : findWordsNear(queryWord, maximumDistance).entrySet()) {
+			PostingList productsOfWord = productsOfWords.get(wordDistance.getKey());
+			
+			for (int index = 0; index < productsOfWord.size(); index++) {
+				distancesByProduct.merge(productsOfWord.get(index), wordDistance.getValue(), Math::min);
+			}
+		}
+		
+		return distancesByProduct;
+	}
+	
+	/**
+	 * Finds the indexed words within the provided edit distance of the query word.
+	 * 
+	 * @param queryWord		  a normalised word of the key search
+	 * @param maximumDistance the greatest distance allowed
+	 * @return the distance of each word found, by the word position
+	 */
+	private Map<Integer, Integer> findWordsNear(String queryWord, int maximumDistance) {
+		Map<Integer, Integer> distancesByWord = new HashMap<>();
+		
+		if (maximumDistance == 0) {
+			Integer wordPosition = wordPositions.get(queryWord);
+			
+			if (wordPosition != null) {
+				distancesByWord.put(wordPosition, 0);
+			}
+			
+			return distancesByWord;
+		}
+		
+		List<String> queryTrigrams = trigrams(queryWord);
+		int minimumSharedTrigrams = queryTrigrams.size() - 3 * maximumDistance;
+		Map<Integer, Integer> sharedTrigramsByWord = new HashMap<>();
+		
+		for (String trigram : queryTrigrams) {
+			wordsOfTrigrams.getOrDefault(trigram, new ArrayList<>()).forEach(wordPosition -> sharedTrigramsByWord.merge(wordPosition, 1, Integer::sum));
+		}
+		
+		sharedTrigramsByWord.forEach((wordPosition, sharedTrigrams) -> {
+			if (sharedTrigrams >= minimumSharedTrigrams) {
+				int distance = EditDistance.bounded(queryWord, words.get(wordPosition), maximumDistance);
+				
+				if (distance <= maximumDistance) {
+					distancesByWord.put(wordPosition, distance);
+				}
+			}
+		});
+		
+		return distancesByWord;
+	}
+	
+	/**
+	 * Gives the greatest edit distance allowed for a query word.
+	 * 
+	 * @param queryWord a normalised word of the key search
+	 * @return 0 for words up to 3 characters, 1 up to 7 characters, 2 otherwise
+	 */
+	private int maximumDistance(String queryWord) {
+		if (queryWord.length() <= 3) {
+			return 0;
+		}
+		
+		return queryWord.length() <= 7 ? 1 : 2;
+	}
+	
+	/**
+	 * Gets the trigrams of a word padded with a space on each side.
+	 * 
+	 * @param word a normalised word
+	 * @return the trigrams of the word, in order and with repetitions
+	 */
+	private List<String> trigrams(String word) {
+		String paddedWord = " " + word + " ";
+		List<String> trigrams = new ArrayList<>(paddedWord.length() - 2);
+		
+		for (int start = 0; start + 3 <= paddedWord.length(); start++) {
+			trigrams.add(paddedWord.substring(start, start + 3));
+		}
+		
+		return trigrams;
+	}
+	
+	/**
+	 * Brings the index up to date with the current catalogue snapshot, if it is not yet.
+	 */
+	private void refreshIfStale() {
+		List<CatalogProduct> currentProducts = productCatalog.getAll();
+		
+		lock.readLock().lock();
+		try {
+			if (currentProducts == indexedProducts) {
+				return;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		
+		lock.writeLock().lock();
+		try {
+			if (currentProducts == indexedProducts) {
+				return;
+			}
+			
+			if (indexedProducts == null || !ProductNameIndex.isAppendOf(currentProducts, indexedProducts)) {
+				wordPositions.clear();
+				words.clear();
+				productsOfWords.clear();
+				wordsOfTrigrams.clear();
+				products.clear();
+				currentProducts.forEach(this::index);
+			} else {
+				currentProducts.subList(indexedProducts.size(), currentProducts.size()).forEach(this::index);
+			}
+			
+			indexedProducts = currentProducts;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Adds the words of the provided product name to the index.
+	 * 
+	 * @param product the product to be indexed
+	 */
+	private void index(CatalogProduct product) {
+		products.put(product.getId(), product);
+		
+		for (String word : NameNormalizer.normalize(product.getName()).split(" ")) {
+			if (word.isEmpty()) {
+				continue;
+			}
+			
+			Integer wordPosition = wordPositions.get(word);
+			
+			if (wordPosition == null) {
+				wordPosition = words.size();
+				wordPositions.put(word, wordPosition);
+				words.add(word);
+				productsOfWords.add(new PostingList());
+				
+				for (String trigram : trigrams(word)) {
+					List<Integer> wordsOfTrigram = wordsOfTrigrams.computeIfAbsent(trigram, key -> new ArrayList<>());
+					
+					if (wordsOfTrigram.isEmpty() || !wordsOfTrigram.get(wordsOfTrigram.size() - 1).equals(wordPosition)) {
+						wordsOfTrigram.add(wordPosition);
+					}
+				}
+			}
+			
+			productsOfWords.get(wordPosition).add(product.getId());
+		}
+	}
+}
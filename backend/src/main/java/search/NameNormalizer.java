@@ -0,0 +1,41 @@
+package search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Puts product names and key searches in the same form before they are indexed or compared.</p>
+ * <p>The database compares names ignoring case and accents, so the in-memory search does the same.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+final class NameNormalizer {
+	/**
+	 * Combining marks left by the canonical decomposition of accented letters.
+	 */
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+	/**
+	 * Any sequence of white spaces.
+	 */
+	private static final Pattern WHITE_SPACES = Pattern.compile("\\s+");
+	
+	private NameNormalizer() {
+	}
+	
+	/**
+	 * Removes accents, lower cases and collapses white spaces of the provided text.
+	 * 
+	 * @param text the text to be normalised
+	 * @return the normalised text, empty if the provided one is null
+	 */
+	static String normalize(String text) {
+		if (text == null) {
+			return "";
+		}
+		
+		String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+		
+		return WHITE_SPACES.matcher(withoutDiacritics.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+	}
+}
@@ -0,0 +1,62 @@
+package search;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * <p>Ascending list of the ids of the products whose name contains a given n-gram.</p>
+ * <p><em>Products are indexed by ascending id, so adding is always an append and the list stays sorted without ever being sorted.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+final class PostingList implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private long[] ids = new long[4];
+	private int size;
+	
+	/**
+	 * Appends the provided id, ignoring it if it is already the last one.
+	 * 
+	 * @param id primary key that identifies the product
+	 */
+	void add(long id) {
+		if (size > 0 && ids[size - 1] == id) {
+			return;
+		}
+		
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+		}
+		
+		ids[size++] = id;
+	}
+	
+	/**
+	 * Checks if the provided id is in this list.
+	 * 
+	 * @param id primary key that identifies the product
+	 * @return true if the product is in this list
+	 */
+	boolean contains(long id) {
+		return Arrays.binarySearch(ids, 0, size, id) >= 0;
+	}
+	
+	/**
+	 * Gets the id in the provided position.
+	 * 
+	 * @param index the position, from 0 to {@link #size()} - 1
+	 * @return the id in that position
+	 */
+	long get(int index) {
+		return ids[index];
+	}
+	
+	/**
+	 * Gets the amount of ids in this list.
+	 * 
+	 * @return the amount of ids
+	 */
+	int size() {
+		return size;
+	}
+}
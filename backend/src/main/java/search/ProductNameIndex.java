@@ -0,0 +1,280 @@
+package search;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import caches.CatalogProduct;
+import caches.ProductCatalog;
+
+/**
+ * <p>In-memory inverted index of every product name by its n-grams (1 to 3 characters long), which replaces the LIKE '%name%' scan of the products table.</p>
+ * <p>A key search up to 3 characters long is itself an n-gram, so its posting list is the answer. A longer one is answered by the smallest posting list of its trigrams, which is then verified against the names. Either way, the cost depends on how many products match, not on the catalogue size.</p>
+ * <p>The index follows the {@link ProductCatalog}: when the catalogue snapshot changes by new products being added (the usual case, since products are only created), only those are indexed; any other change rebuilds the whole index.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class ProductNameIndex implements Serializable {
+	/**
+	 * Amount of products answered when no limit is asked.
+	 */
+	public static final int DEFAULT_LIMIT = 50;
+	/**
+	 * The longest n-gram indexed.
+	 */
+	private static final int MAXIMUM_GRAM_LENGTH = 3;
+	
+	/**
+	 * In-memory product catalogue, which is the source of the indexed names.
+	 */
+	@Inject
+	private ProductCatalog productCatalog;
+	
+	/**
+	 * Guards the index, which is read by many searches at the same time and written only when the catalogue changes.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	/**
+	 * The catalogue snapshot list that is indexed.
+	 */
+	private List<CatalogProduct> indexedProducts;
+	/**
+	 * The ids of the products that contain each n-gram.
+	 */
+	private final Map<String, PostingList> postings = new HashMap<>();
+	/**
+	 * The normalised name of each product, by its id.
+	 */
+	private final Map<Long, IndexedName> names = new HashMap<>();
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * <p>Finds the products whose name contains the provided key search, ignoring case and accents.</p>
+	 * <p>They are ranked by relevance:</p>
+	 * <ol>
+	 * 	<li>The name is the key search</li>
+	 * 	<li>The name starts with the key search</li>
+	 * 	<li>A word of the name starts with the key search</li>
+	 * 	<li>The name contains the key search</li>
+	 * </ol>
+	 * <p><em>Ties are broken by the earliest match, then by the shortest name, then by id.</em></p>
+	 * 
+	 * @param keysearch the product name or part of it
+	 * @param limit		the maximum amount of products to answer
+	 * @return the ranked {@link CatalogProduct} {@link List} found
+	 */
+	public List<CatalogProduct> search(String keysearch, int limit) {
+		String query = NameNormalizer.normalize(keysearch);
+		
+		refreshIfStale();
+		lock.readLock().lock();
+		
+		try {
+			if (query.isEmpty()) {
+				return indexedProducts.stream().limit(limit).collect(Collectors.toList());
+			}
+			
+			PostingList candidates = smallestPostingList(query);
+			
+			if (candidates == null) {
+				return new ArrayList<>();
+			}
+			
+			Comparator<RankedName> ranking = Comparator.comparingInt((RankedName rankedName) -> rankedName.score)
+					.thenComparingInt(rankedName -> rankedName.position)
+					.thenComparingInt(rankedName -> rankedName.name.normalizedName.length())
+					.thenComparing(rankedName -> rankedName.name.product.getId());
+			PriorityQueue<RankedName> best = new PriorityQueue<>(ranking.reversed());
+			
+			for (int index = 0; index < candidates.size(); index++) {
+				IndexedName name = names.get(candidates.get(index));
+				int position = name.normalizedName.indexOf(query);
+				
+				if (position < 0) {
+					continue;
+				}
+				
+				best.add(new RankedName(name, score(name.normalizedName, query, position), position));
+				
+				if (best.size() > limit) {
+					best.poll();
+				}
+			}
+			
+			List<RankedName> ranked = new ArrayList<>(best);
+			ranked.sort(ranking);
+			
+			return ranked.stream().map(rankedName -> rankedName.name.product).collect(Collectors.toList());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets the posting list that contains, at least, all products whose name contains the provided query.
+	 * 
+	 * @param query the normalised key search
+	 * @return the smallest {@link PostingList} of the query n-grams, null if any of them is not indexed
+	 */
+	private PostingList smallestPostingList(String query) {
+		if (query.length() <= MAXIMUM_GRAM_LENGTH) {
+			return postings.get(query);
+		}
+		
+		PostingList smallest = null;
+		
+		for (int start = 0; start + MAXIMUM_GRAM_LENGTH <= query.length(); start++) {
+			PostingList postingList = postings.get(query.substring(start, start + MAXIMUM_GRAM_LENGTH));
+			
+			if (postingList == null) {
+				return null;
+			}
+			
+			if (smallest == null || postingList.size() < smallest.size()) {
+				smallest = postingList;
+			}
+		}
+		
+		return smallest;
+	}
+	
+	/**
+	 * Gives the relevance of a name that contains the query, the lower the better.
+	 * 
+	 * @param normalizedName the normalised product name
+	 * @param query			 the normalised key search
+	 * @param position		 where the query first appears in the name
+	 * @return 0 if the name is the query, 1 if it starts with it, 2 if a word of it starts with it, 3 otherwise
+	 */
+	private int score(String normalizedName, String query, int position) {
+		if (normalizedName.equals(query)) {
+			return 0;
+		}
+		
+		if (position == 0) {
+			return 1;
+		}
+		
+		return normalizedName.contains(" " + query) ? 2 : 3;
+	}
+	
+	/**
+	 * Brings the index up to date with the current catalogue snapshot, if it is not yet.
+	 */
+	private void refreshIfStale() {
+		List<CatalogProduct> currentProducts = productCatalog.getAll();
+		
+		lock.readLock().lock();
+		try {
+			if (currentProducts == indexedProducts) {
+				return;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		
+		lock.writeLock().lock();
+		try {
+			if (currentProducts == indexedProducts) {
+				return;
+			}
+			
+			if (indexedProducts == null || !isAppendOf(currentProducts, indexedProducts)) {
+				postings.clear();
+				names.clear();
+				currentProducts.forEach(this::index);
+			} else {
+				currentProducts.subList(indexedProducts.size(), currentProducts.size()).forEach(this::index);
+			}
+			
+			indexedProducts = currentProducts;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Checks if the current products are the indexed ones followed by new products only.
+	 * 
+	 * @param currentProducts the current catalogue, ordered by id
+	 * @param indexedProducts the indexed catalogue, ordered by id
+	 * @return true if only new products must be indexed
+	 */
+	static boolean isAppendOf(List<CatalogProduct> currentProducts, List<CatalogProduct> indexedProducts) {
+		if (currentProducts.size() < indexedProducts.size()) {
+			return false;
+		}
+		
+		for (int index = 0; index < indexedProducts.size(); index++) {
+			CatalogProduct current = currentProducts.get(index);
+			CatalogProduct indexed = indexedProducts.get(index);
+			
+			if (!current.getId().equals(indexed.getId()) || !current.getName().equals(indexed.getName())) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Adds all n-grams of the provided product name to the index.
+	 * 
+	 * @param product the product to be indexed
+	 */
+	private void index(CatalogProduct product) {
+		IndexedName name = new IndexedName(product, NameNormalizer.normalize(product.getName()));
+		
+		names.put(product.getId(), name);
+		
+		for (int start = 0; start < name.normalizedName.length(); start++) {
+			for (int length = 1; length <= MAXIMUM_GRAM_LENGTH && start + length <= name.normalizedName.length(); length++) {
+				postings.computeIfAbsent(name.normalizedName.substring(start, start + length), gram -> new PostingList()).add(product.getId());
+			}
+		}
+	}
+	
+	/**
+	 * A product along with its normalised name.
+	 */
+	private static final class IndexedName implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final CatalogProduct product;
+		private final String normalizedName;
+		
+		private IndexedName(CatalogProduct product, String normalizedName) {
+			this.product = product;
+			this.normalizedName = normalizedName;
+		}
+	}
+	
+	/**
+	 * A name that matched a search, along with its relevance.
+	 */
+	private static final class RankedName {
+		private final IndexedName name;
+		private final int score, position;
+		
+		private RankedName(IndexedName name, int score, int position) {
+			this.name = name;
+			this.score = score;
+			this.position = position;
+		}
+	}
+}
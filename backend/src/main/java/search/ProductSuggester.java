@@ -0,0 +1,246 @@
+package search;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import caches.CatalogProduct;
+import caches.ProductCatalog;
+import dtos.SuggestionDTO;
+
+/**
+ * <p>Prefix autocomplete over the product names, meant to be called on every keystroke of the search box.</p>
+ * <p>The names are kept in two sorted arrays: one keyed by the whole normalised name and one keyed by each of its inner words. A prefix is found by binary search and the suggestions are the entries that follow it, so a query costs O(log n + k) whatever the catalogue size.</p>
+ * <p>The arrays are immutable and replaced at once (copy on write). When the {@link ProductCatalog} only gained new products, their entries are merged into copies of the current arrays instead of sorting everything again.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+@ApplicationScoped
+public class ProductSuggester implements Serializable {
+	/**
+	 * Amount of suggestions answered when no limit is asked.
+	 */
+	public static final int DEFAULT_LIMIT = 10;
+	/**
+	 * The greatest amount of suggestions that can be asked.
+	 */
+	public static final int MAXIMUM_LIMIT = 50;
+	/**
+	 * Order of the entries in the arrays: by key, then by product id.
+	 */
+	private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparing((Entry entry) -> entry.key).thenComparing(entry -> entry.productId);
+	
+	/**
+	 * In-memory product catalogue, which is the source of the suggested names.
+	 */
+	@Inject
+	private ProductCatalog productCatalog;
+	
+	/**
+	 * The current suggestion arrays.
+	 */
+	private volatile Snapshot snapshot;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * <p>Suggests the products whose name, or any word of it, starts with the provided prefix, ignoring case and accents.</p>
+	 * <p><em>Names that start with the prefix come first, then names that only have an inner word starting with it, each group in alphabetical order.</em></p>
+	 * 
+	 * @param prefix what was typed so far
+	 * @param limit	 the maximum amount of suggestions
+	 * @return the {@link SuggestionDTO} {@link List}, empty if the prefix is blank
+	 */
+	public List<SuggestionDTO> suggest(String prefix, int limit) {
+		String query = NameNormalizer.normalize(prefix);
+		List<SuggestionDTO> suggestions = new ArrayList<>(limit);
+		
+		if (query.isEmpty()) {
+			return suggestions;
+		}
+		
+		Snapshot currentSnapshot = current();
+		Set<Long> suggestedIds = new HashSet<>();
+		
+		collect(currentSnapshot.nameStarts, query, limit, suggestedIds, suggestions);
+		collect(currentSnapshot.wordStarts, query, limit, suggestedIds, suggestions);
+		
+		return suggestions;
+	}
+	
+	/**
+	 * Adds to the suggestions the entries of the provided array whose key starts with the query, until the limit is reached.
+	 * 
+	 * @param entries	   the sorted array to look into
+	 * @param query		   the normalised prefix
+	 * @param limit		   the maximum amount of suggestions
+	 * @param suggestedIds the ids of the products already suggested
+	 * @param suggestions  the suggestions found so far
+	 */
+	private void collect(Entry[] entries, String query, int limit, Set<Long> suggestedIds, List<SuggestionDTO> suggestions) {
+		for (int index = lowerBound(entries, query); index < entries.length && suggestions.size() < limit && entries[index].key.startsWith(query); index++) {
+			if (suggestedIds.add(entries[index].productId)) {
+				suggestions.add(new SuggestionDTO(entries[index].productId, entries[index].productName));
+			}
+		}
+	}
+	
+	/**
+	 * Finds the first entry whose key is not lower than the query.
+	 * 
+	 * @param entries the sorted array to look into
+	 * @param query	  the normalised prefix
+	 * @return the position of that entry, the array length if there is none
+	 */
+	private int lowerBound(Entry[] entries, String query) {
+		int low = 0, high = entries.length;
+		
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			
+			if (entries[middle].key.compareTo(query) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * Gets the current suggestion arrays, bringing them up to date with the catalogue if needed.
+	 * 
+	 * @return the current {@link Snapshot}
+	 */
+	private Snapshot current() {
+		List<CatalogProduct> currentProducts = productCatalog.getAll();
+		Snapshot currentSnapshot = snapshot;
+		
+		if (currentSnapshot != null && currentSnapshot.products == currentProducts) {
+			return currentSnapshot;
+		}
+		
+		return refresh(currentProducts);
+	}
+	
+	/**
+	 * Builds the suggestion arrays of the provided catalogue, merging only the new products when possible.
+	 * 
+	 * @param currentProducts the current catalogue, ordered by id
+	 * @return the new {@link Snapshot}
+	 */
+	private synchronized Snapshot refresh(List<CatalogProduct> currentProducts) {
+		Snapshot currentSnapshot = snapshot;
+		
+		if (currentSnapshot != null && currentSnapshot.products == currentProducts) {
+			return currentSnapshot;
+		}
+		
+		List<Entry> newNameStarts = new ArrayList<>();
+		List<Entry> newWordStarts = new ArrayList<>();
+		boolean isAppend = currentSnapshot != null && ProductNameIndex.isAppendOf(currentProducts, currentSnapshot.products);
+		
+		currentProducts.subList(isAppend ? currentSnapshot.products.size() : 0, currentProducts.size())
+				.forEach(productElement -> addEntries(productElement, newNameStarts, newWordStarts));
+		
+		Snapshot newSnapshot = isAppend
+				? new Snapshot(currentProducts, merge(currentSnapshot.nameStarts, newNameStarts), merge(currentSnapshot.wordStarts, newWordStarts))
+				: new Snapshot(currentProducts, merge(new Entry[0], newNameStarts), merge(new Entry[0], newWordStarts));
+		
+		snapshot = newSnapshot;
+		
+		return newSnapshot;
+	}
+	
+	/**
+	 * Creates the entries of the provided product: one for the whole name and one for each inner word.
+	 * 
+	 * @param product	 the product to be suggested
+	 * @param nameStarts where the whole name entry is added
+	 * @param wordStarts where the inner words entries are added
+	 */
+	private void addEntries(CatalogProduct product, List<Entry> nameStarts, List<Entry> wordStarts) {
+		String normalizedName = NameNormalizer.normalize(product.getName());
+		
+		nameStarts.add(new Entry(normalizedName, product));
+		
+		for (int position = normalizedName.indexOf(' '); position >= 0; position = normalizedName.indexOf(' ', position + 1)) {
+			if (position + 1 < normalizedName.length()) {
+				wordStarts.add(new Entry(normalizedName.substring(position + 1), product));
+			}
+		}
+	}
+	
+	/**
+	 * Merges the new entries into a sorted copy of the current ones.
+	 * 
+	 * @param currentEntries the current sorted array, which is not changed
+	 * @param newEntries	 the entries to be added, in any order
+	 * @return the new sorted array
+	 */
+	private Entry[] merge(Entry[] currentEntries, List<Entry> newEntries) {
+		if (newEntries.isEmpty()) {
+			return currentEntries;
+		}
+		
+		newEntries.sort(ENTRY_ORDER);
+		
+		Entry[] mergedEntries = new Entry[currentEntries.length + newEntries.size()];
+		int currentIndex = 0, newIndex = 0, mergedIndex = 0;
+		
+		while (currentIndex < currentEntries.length && newIndex < newEntries.size()) {
+			mergedEntries[mergedIndex++] = ENTRY_ORDER.compare(currentEntries[currentIndex], newEntries.get(newIndex)) <= 0 ? currentEntries[currentIndex++] : newEntries.get(newIndex++);
+		}
+		
+		System.arraycopy(currentEntries, currentIndex, mergedEntries, mergedIndex, currentEntries.length - currentIndex);
+		mergedIndex += currentEntries.length - currentIndex;
+		
+		while (newIndex < newEntries.size()) {
+			mergedEntries[mergedIndex++] = newEntries.get(newIndex++);
+		}
+		
+		return mergedEntries;
+	}
+	
+	/**
+	 * Immutable suggestion arrays of a catalogue snapshot.
+	 */
+	private static final class Snapshot implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final List<CatalogProduct> products;
+		private final Entry[] nameStarts, wordStarts;
+		
+		private Snapshot(List<CatalogProduct> products, Entry[] nameStarts, Entry[] wordStarts) {
+			this.products = products;
+			this.nameStarts = nameStarts;
+			this.wordStarts = wordStarts;
+		}
+	}
+	
+	/**
+	 * A suggestion key along with the product it points to.
+	 */
+	private static final class Entry implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final String key;
+		private final Long productId;
+		private final String productName;
+		
+		private Entry(String key, CatalogProduct product) {
+			this.key = key;
+			this.productId = product.getId();
+			this.productName = product.getName();
+		}
+	}
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains all classes responsible for searching products in memory.
+ * 
+ * @author Wanderley Drumond
+ */
+package search;
\ No newline at end of file
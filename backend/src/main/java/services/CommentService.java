@@ -7,6 +7,7 @@ import java.util.UUID;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import javax.transaction.Transactional;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
@@ -16,6 +17,7 @@ import entities.Comment;
 import entities.Product;
 import entities.User;
 import exceptions.PharmacyException;
+import interceptors.ReadOnly;
 import mappers.CommentMapper;
 
 /**
@@ -24,6 +26,7 @@ import mappers.CommentMapper;
  * @author Wanderley Drumond
  */
 @RequestScoped
+@Transactional
 public class CommentService implements Serializable {
 	/**
 	 * Object that contains all product service methods.
@@ -48,6 +51,15 @@ public class CommentService implements Serializable {
 	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
 	 */
 	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Amount of comments of a page when no limit is provided.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 20;
+	/**
+	 * Largest amount of comments a page may have.
+	 */
+	public static final int MAXIMUM_PAGE_SIZE = 100;
 
 	/**
 	 * <ol>
@@ -65,7 +77,7 @@ public class CommentService implements Serializable {
 	 * @return the new {@link Comment}
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if already exists a comment for this product made by this user
 	 */
-	public Comment create(User user, Short productId, CommentDTO requestBody) {
+	public Comment create(User user, Long productId, CommentDTO requestBody) {
 		Product product = productService.getById(productId);
 		Comment newComment = commentMapper.toEntity(requestBody);
 		
@@ -88,7 +100,8 @@ public class CommentService implements Serializable {
 	 * @param token 	logged user identifier key
 	 * @return The {@link Optional} {@link Comment} that belongs to the logged user for the identified product
 	 */
-	public Optional<Comment> getByProductIdForLoggedUser(Short productId, UUID token) {
+	@ReadOnly
+	public Optional<Comment> getByProductIdForLoggedUser(Long productId, UUID token) {
 		Optional<Comment> comment = commentDAO.findByProductIdForLoggedUser(productId, token);
 		
 		if (comment == null) {
@@ -110,7 +123,7 @@ public class CommentService implements Serializable {
 	 * @return true
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the comment does not belongs to the logged user
 	 */
-	public boolean delete(UUID token, Short commentId) {
+	public boolean delete(UUID token, Long commentId) {
 		Comment comment = getById(commentId);
 
 		if (isCommentOwner(comment, token)) {
@@ -136,7 +149,7 @@ public class CommentService implements Serializable {
 	 * @return the updated {@link Comment}
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the comment does not belongs to the logged user
 	 */
-	public Comment updateById(UUID token, Short commentId, CommentDTO requestBody) {
+	public Comment updateById(UUID token, Long commentId, CommentDTO requestBody) {
 		Comment comment = getById(commentId);
 		
 		if (isCommentOwner(comment, token)) {
@@ -159,7 +172,7 @@ public class CommentService implements Serializable {
 	 * @return the {@link Comment} that owns the provided id
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 404 (NOT FOUND) if no comment was found with the provided id
 	 */
-	private Comment getById(Short commentId) {
+	private Comment getById(Long commentId) {
 		Optional<Comment> comment = commentDAO.find(commentId);
 		
 		if (comment.isEmpty()) {
@@ -186,17 +199,25 @@ public class CommentService implements Serializable {
 
 	/**
 	 * <ol>
-	 * 	<li>Gets the list of comments of the given product id</li>
+	 * 	<li>Checks if the limit is in range</li>
+	 * 	<li>Gets a page of the comments of the given product id</li>
 	 * 	<li>Checks if the list is null</li>
 	 * </ol>
 	 * 
-	 * @param productId primary key that identifies the product to find all comments
-	 * @return the {@link Comment} {@link List}
+	 * @param productId primary key that identifies the product to find the comments
+	 * @param afterId	primary key of the last comment of the previous page, null for the first page
+	 * @param limit		the maximum amount of comments of the page, {@value #DEFAULT_PAGE_SIZE} if not provided
+	 * @return the {@link CommentDTO} {@link List} of the page
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 400 (BAD REQUEST) if the limit is out of range
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
-	 * 
 	 */
-	public List<Comment> getAllByProductId(Short productId) {
-		List<Comment> comments = commentDAO.findAllByProductId(productId);
+	@ReadOnly
+	public List<CommentDTO> getPageByProductId(Long productId, Long afterId, Integer limit) {
+		if (limit != null && (limit < 1 || limit > MAXIMUM_PAGE_SIZE)) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid limit", "The limit must be between 1 and " + MAXIMUM_PAGE_SIZE);
+		}
+		
+		List<CommentDTO> comments = commentDAO.findPageByProductId(productId, afterId, limit == null ? DEFAULT_PAGE_SIZE : limit);
 		
 		if (comments == null) {
 			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
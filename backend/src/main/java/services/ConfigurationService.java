@@ -0,0 +1,104 @@
+package services;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import javax.ws.rs.core.Response;
+
+import caches.ConfigurationRegistry;
+import exceptions.PharmacyException;
+import interceptors.ReadOnly;
+
+/**
+ * Class that contains all the programmatic logic regarding the configurations.
+ * 
+ * @author Wanderley Drumond
+ */
+@RequestScoped
+@Transactional
+public class ConfigurationService implements Serializable {
+	/**
+	 * Object that contains all user service methods.
+	 */
+	@Inject
+	private UserService userService;
+	
+	/**
+	 * In-memory copy of the configurations table.
+	 */
+	@Inject
+	private ConfigurationRegistry configurationRegistry;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Gets every configuration value.
+	 * 
+	 * @param token logged administrator identifier key
+	 * @return the {@link Map} of the values by their keyword
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	@ReadOnly
+	public Map<String, String> getAll(UUID token) {
+		verifyIfIsAdmin(token);
+		
+		return configurationRegistry.getAll();
+	}
+	
+	/**
+	 * Sets the value of a configuration, in the database and, once the transaction commits, in memory.
+	 * 
+	 * @param token	  logged administrator identifier key
+	 * @param keyword the configuration to set
+	 * @param value	  the new value
+	 * @return the {@link Map} of the values by their keyword, after the change
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 400 (BAD REQUEST) if the keyword or the value are blank
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	public Map<String, String> set(UUID token, String keyword, String value) {
+		verifyIfIsAdmin(token);
+		
+		if (keyword == null || keyword.isBlank() || value == null || value.isBlank()) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid configuration", "Both keyword and value must be provided");
+		}
+		
+		return configurationRegistry.set(keyword, value);
+	}
+	
+	/**
+	 * Replaces every configuration value in memory with the ones in the database.
+	 * 
+	 * @param token logged administrator identifier key
+	 * @return the {@link Map} of the values by their keyword, after the reload
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	public Map<String, String> reload(UUID token) {
+		verifyIfIsAdmin(token);
+		configurationRegistry.reload();
+		
+		return configurationRegistry.getAll();
+	}
+	
+	/**
+	 * Checks if the logged user is an administrator.
+	 * 
+	 * @param token logged user identifier key
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
+	 */
+	private void verifyIfIsAdmin(UUID token) {
+		if (!userService.verifyIfIsAdmin(token)) {
+			throw new PharmacyException(Response.Status.FORBIDDEN, "insufficient privileges", "Only administrators can execute this action");
+		}
+	}
+}
\ No newline at end of file
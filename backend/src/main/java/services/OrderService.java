@@ -1,21 +1,51 @@
 package services;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import javax.json.Json;
+import javax.json.JsonObjectBuilder;
+import javax.transaction.Transactional;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
+import caches.AfterCommit;
+import caches.DashboardStatistics;
 import daos.OrderDAO;
 import daos.ProductDAO;
+import daos.RevenueRollupDAO;
+import daos.UserDAO;
+import dtos.RevenueDTO;
 import entities.Order;
 import entities.Product;
+import entities.RevenueRollup;
 import entities.User;
+import enums.ExportFormat;
+import enums.Granularity;
 import exceptions.PharmacyException;
+import interceptors.ReadOnly;
+import interceptors.RetryOnConflict;
 
 /**
  * Class that contains all the programmatic logic regarding the order.
@@ -23,6 +53,7 @@ import exceptions.PharmacyException;
  * @author Wanderley Drumond
  */
 @RequestScoped
+@Transactional
 public class OrderService implements Serializable {
 	/**
 	 * Object that contains all user service methods.
@@ -47,6 +78,50 @@ public class OrderService implements Serializable {
 	 */
 	@Inject
 	private ProductDAO productDAO;
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding users table.
+	 */
+	@Inject
+	private UserDAO userDAO;
+	
+	/**
+	 * In-memory copy of the administrator dashboard figures.
+	 */
+	@Inject
+	private DashboardStatistics dashboardStatistics;
+	
+	/**
+	 * Applies the changes of the in-memory caches once the transaction commits.
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding revenue_rollups table.
+	 */
+	@Inject
+	private RevenueRollupDAO revenueRollupDAO;
+	
+	/**
+	 * Amount of orders of a history page when no limit is provided.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 20;
+	/**
+	 * Largest amount of orders a history page may have.
+	 */
+	public static final int MAXIMUM_PAGE_SIZE = 100;
+	
+	/**
+	 * Names of the columns of the orders export, in the order they are read by {@link OrderDAO#scrollConcludedLines}.
+	 */
+	private static final List<String> EXPORT_COLUMNS = List.of("order_id", "buyer", "created_in", "concluded_in", "total_value", "product_id", "product_name", "quantity", "unit_price");
+	
+	/**
+	 * Largest amount of periods a single revenue report may have.
+	 */
+	private static final long MAXIMUM_REVENUE_PERIODS = 3_660L;
+	
 	/**
 	 * <p>The serial version identifier for this class.<p>
 	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
@@ -58,7 +133,9 @@ public class OrderService implements Serializable {
 	 * <ol>
 	 * 	<li>Gets the product to insert into the order</li>
 	 * 	<li>Checks if exists an order with the status non concluded false, if it does, gets it</li>
+	 * 	<li>If it does not, locks the buyer row and checks it again, so only one cart is created</li>
 	 * </ol>
+	 * <p><em>The buyer row stays locked until the cart creation is committed. Runs again if the cart was changed by another request in the meantime.</em></p>
 	 * 
 	 * @param token		logged user identifier key
 	 * @param productId	primary key that identifies the product to add to the the order
@@ -67,12 +144,30 @@ public class OrderService implements Serializable {
 	 * 	<li>the order does not exists, {@linkplain OrderService#create(UUID, Product) create} call</li>
 	 * 	<li>the order exists, {@linkplain OrderService#addProducts addProducts} call</li>
 	 * </ul>
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 401 (UNAUTHORIZED) if a non logged user tries to access this functionality
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 409 (CONFLICT) if the cart kept being changed by other requests
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public Order manage(UUID token, Short productId) {
+	@RetryOnConflict
+	public Order manage(UUID token, Long productId) {
+		if (token == null) {
+			throw new PharmacyException(Response.Status.UNAUTHORIZED, "User not logged", "User must be logged to access this functionality");
+		}
+		
 		Product product = productService.getById(productId);
-		Optional<Order> order = orderDAO.findNonConcludedOrder(token);
+		Optional<Order> order = findNonConcludedOrder(token);
+		
+		if (order.isPresent()) {
+			return addProducts(product, order.get());
+		}
+		
+		if (userDAO.findByUUIDForUpdate(token) == null) {
+			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		}
+		
+		order = findNonConcludedOrder(token);
 		
-		return order.isPresent() ? addProducts(product, order.get()) : create(token, product);	
+		return order.isPresent() ? addProducts(product, order.get()) : create(token, product);
 	}
 
 	/**
@@ -84,14 +179,13 @@ public class OrderService implements Serializable {
 	 * 	<li>Sets the order status</li>
 	 * 	<li>Saves the order in the database</li>
 	 * </ol>
-	 * <p><em>Ensures that the whole code procedure is finished before the {@linkplain OrderService#addProducts addProducts} is called</em></p>
 	 * 
 	 * @param token		logged user identifier key
 	 * @param productId	primary key that identifies the product to add to the current order
 	 * @return {@linkplain OrderService#addProducts addProducts} call
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 401 (UNAUTHORIZED) if a non logged user tries to access this functionality
 	 */
-	public synchronized Order create(UUID token, Product product) {
+	public Order create(UUID token, Product product) {
 		if (token == null) {
 			throw new PharmacyException(Response.Status.UNAUTHORIZED, "User not logged", "User must be logged to access this functionality");
 		}
@@ -101,36 +195,33 @@ public class OrderService implements Serializable {
 		
 		order.setBuyer(buyer);
 		order.setIsConcluded(false);
+		order.setTotalValue(0D);
 		
 		orderDAO.persist(order);
+		afterCommit.run(dashboardStatistics::cartCreated);
+		
 		return addProducts(product, order);
 	}
 	
 	/**
 	 * <ol>
-	 * 	<li>Gets the products list of the current order</li>
-	 * 	<li>Adds the given {@link Product} to the current {@link Order} {@link List}</li>
-	 * 	<li>Sets the order total value conditionally</li>
-	 * 	<li>Updates the order in the database</li>
+	 * 	<li>Adds one unit of the given {@link Product} to its line in the current {@link Order}, along with its price to the order total value</li>
+	 * 	<li>Refreshes the order, whose total value and version were changed in the database only</li>
+	 * 	<li>Sets the order products</li>
 	 * </ol>
+	 * <p><em>The write touches only the product line and the order row, whatever the size of the order.</em></p>
 	 * 
 	 * @param product the {@link Product} to add
-	 * @param order the {@link Order} to update
+	 * @param order the managed {@link Order} to update
 	 * @return the updated {@link Order}
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
 	public Order addProducts(Product product, Order order) {
-		List<Product> productsInThisCart = productDAO.findAllByOrderId(order.getId());
-		
-		productsInThisCart.add(product);
-		order.setProductsOfAnOrder(productsInThisCart);
+		if (orderDAO.addProduct(order.getId(), product) == null || orderDAO.refresh(order) == null) {
+			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		}
 		
-		order.setTotalValue(
-			    Optional.ofNullable(order.getTotalValue())
-			        .map(totalValue -> totalValue + product.getPrice())
-			        .orElse(product.getPrice())
-			);
-
-		orderDAO.merge(order);
+		order.setProductsOfAnOrder(productService.getAllByOrderId(order.getId()));
 		
 		return order;
 	}
@@ -148,7 +239,20 @@ public class OrderService implements Serializable {
 	 * @param orderId primary key that identifies the order to find
 	 * @return The found {@link Order}
 	 */
-	public Order getById(UUID token, Short orderId) {
+	@ReadOnly
+	public Order getById(UUID token, Long orderId) {
+		return findWithProducts(orderId);
+	}
+
+	/**
+	 * Finds the given order along with its products.
+	 * 
+	 * @param orderId primary key that identifies the order to find
+	 * @return The found {@link Order}
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 204 (NO CONTENT) if the order was not found
+	 */
+	private Order findWithProducts(Long orderId) {
 		Optional<Order> order = orderDAO.findById(orderId);
 		
 		if (order == null) {
@@ -168,43 +272,37 @@ public class OrderService implements Serializable {
 
 	/**
 	 * <ol>
-	 * 	<li>Gets the {@link Order} to be updated</li>
-	 * 	<li>Gets the {@link Product} to remove</li>
-	 * 	<li>Remove the product from the order</li>
-	 * 	<li>Sets the order total value conditionally</li>
-	 * 	<li>Updates the order in the database</li>
+	 * 	<li>Removes one unit of the {@link Product} from its line in the {@link Order}, along with its unit price from the order total value</li>
+	 * 	<li>Gets the updated order</li>
+	 * 	<li>Removes the order if it has no products left</li>
 	 * </ol>
 	 * 
 	 * @param token		logged user identifier key
 	 * @param orderId	primary key that identifies the order to find
 	 * @param productId	primary key that identifies the product to remove to the current order
 	 * @return the updated {@link Order}
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 404 (NOT FOUND) if the order does not have the provided product
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 409 (CONFLICT) if the cart kept being changed by other requests
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public synchronized Order removeProductByOrderId(UUID token, Short orderId, Short productId) {
-		Order order = getById(token, orderId);
+	@RetryOnConflict
+	public Order removeProductByOrderId(UUID token, Long orderId, Long productId) {
+		Integer amountOfLinesAffected = orderDAO.removeProduct(orderId, productId);
 		
-		Product product = order.getProductsOfAnOrder()
-			    .stream()
-			    .filter(productElement -> productElement.getId().equals(productId))
-			    .findFirst()
-			    .orElse(null);
-
-		order.getProductsOfAnOrder().remove(product);
-		
-		order.setTotalValue(
-			    Optional.ofNullable(order.getTotalValue())
-			        .map(totalValue -> totalValue - product.getPrice())
-			        .orElse(product.getPrice())
-			);
+		if (amountOfLinesAffected == null) {
+			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		}
 		
-		orderDAO.merge(order);
+		if (amountOfLinesAffected == 0) {
+			throw new PharmacyException(Response.Status.NOT_FOUND, "Impossible to remove product", "The provided order does not have the provided product");
+		}
 		
-		return verifyRemoveOrder(order);
+		return verifyRemoveOrder(getById(token, orderId));
 	}
 
 	/**
 	 * <p>Verifies if the given {@link Order} should be removed or not.</p>
-	 * <p><em>{@linkplain OrderService#removeProductByOrderId(UUID, Short, Short) removeProductByOrderId} auxiliary method.</em></p>
+	 * <p><em>{@linkplain OrderService#removeProductByOrderId(UUID, Long, Long) removeProductByOrderId} auxiliary method.</em></p>
 	 * 
 	 * @param order to be removed
 	 * @return If the order was:
@@ -223,32 +321,44 @@ public class OrderService implements Serializable {
 
 	/**
 	 * <ol>
-	 * 	<li>Gets concluded orders list</li>
+	 * 	<li>Gets a page of the concluded orders list, from the newest to the oldest</li>
 	 * 	<li>Checks if this list is null</li>
 	 * 	<li>Checks if this list is empty</li>
-	 * 	<li>Inserts on each concluded order element a list of products</li>
+	 * 	<li>Inserts on each concluded order element a list of products, all of them found by a single query</li>
 	 * </ol>
+	 * <p><em>A page costs two queries, whatever the amount of orders and products it has.</em></p>
 	 * 
-	 * @param token logged user identifier key
-	 * @return the concluded {@link Order} {@link List}
+	 * @param token	   logged user identifier key
+	 * @param beforeId primary key of the last order of the previous page, null for the first page
+	 * @param limit	   the maximum amount of orders of the page, {@value #DEFAULT_PAGE_SIZE} if not provided
+	 * @return the concluded {@link Order} {@link List} of the page
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 400 (BAD REQUEST) if the limit is out of range
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 204 (NO CONTENT) if the logged user has no concluded orders
 	 */
-	public List<Order> getAllConcluded(UUID token) {
-		List<Order> concludedOrders = orderDAO.findAllConcluded(token);
+	@ReadOnly
+	public List<Order> getConcludedPage(UUID token, Long beforeId, Integer limit) {
+		if (limit != null && (limit < 1 || limit > MAXIMUM_PAGE_SIZE)) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid limit", "The limit must be between 1 and " + MAXIMUM_PAGE_SIZE);
+		}
+		
+		List<Order> concludedOrders = orderDAO.findConcludedPage(token, beforeId, limit == null ? DEFAULT_PAGE_SIZE : limit);
 		
 		if (concludedOrders == null) {
 			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
 		}
 		
-		if (concludedOrders.size() == 0) {
+		if (concludedOrders.isEmpty() && beforeId == null) {
 			throw new PharmacyException(Response.Status.NO_CONTENT, "No content", "The current user did not concluded any orders yet");
 		}
 		
-		concludedOrders.forEach(orderElement -> {
-		    List<Product> productsOfThisOrder = productService.getAllByOrderId(orderElement.getId());
-		    orderElement.setProductsOfAnOrder(productsOfThisOrder);
-		});
+		Map<Long, List<Product>> productsByOrderId = productDAO.findAllByOrderIds(concludedOrders.stream().map(Order::getId).collect(Collectors.toList()));
+		
+		if (productsByOrderId == null) {
+			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		}
+		
+		concludedOrders.forEach(orderElement -> orderElement.setProductsOfAnOrder(productsByOrderId.getOrDefault(orderElement.getId(), new ArrayList<>())));
 		
 		return concludedOrders;
 	}
@@ -257,15 +367,18 @@ public class OrderService implements Serializable {
 	 * <ol>
 	 * 	<li>Gets the order</li>
 	 * 	<li>Sets isConcluded conditionally</li>
-	 * 	<li>Updates the database</li>
+	 * 	<li>Updates the database along with the revenue rollups of the day and month</li>
 	 * </ol>
 	 * 
 	 * @param token	  logged user identifier key
 	 * @param orderId primary key that identifies the order to update
 	 * @return the updated {@link Order}
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the found order is already set as concluded
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 409 (CONFLICT) if the cart kept being changed by other requests
 	 */
-	public Order conclude(UUID token, Short orderId) {
+	@RetryOnConflict
+	public Order conclude(UUID token, Long orderId) {
 		Order order = getById(token, orderId);
 		
 		if (order.getId() == null) {
@@ -276,8 +389,13 @@ public class OrderService implements Serializable {
 			throw new PharmacyException(Response.Status.FORBIDDEN, "Order already concluded", "It's not possible to conclude an order already concluded");
 		}
 		order.setIsConcluded(true);
-
-		orderDAO.merge(order);
+		
+		if (orderDAO.conclude(order) == null) {
+			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		}
+		Double totalValue = order.getTotalValue();
+		LocalDate concludedIn = LocalDate.now();
+		afterCommit.run(() -> dashboardStatistics.orderConcluded(totalValue, concludedIn));
 		
 		return order;
 	}
@@ -292,13 +410,13 @@ public class OrderService implements Serializable {
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 404 (NOT FOUND) if the provided order id was not found in the database
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the user that is trying to perform this action is not logged
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 401 (UNAUTHORIZED) if the logged user tries to delete an order from another client
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 409 (CONFLICT) if the cart kept being changed by other requests
 	 */
-	public synchronized Boolean emptyCart(UUID token, Short orderId) {
+	@RetryOnConflict
+	public Boolean emptyCart(UUID token, Long orderId) {
 		Optional<Order> optionalOrder = orderDAO.findById(orderId);
 		
-		Order order = optionalOrder.get();
-		
-		if (order == null) {
+		if (optionalOrder == null) {
 			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
 		}
 		
@@ -306,6 +424,8 @@ public class OrderService implements Serializable {
 			throw new PharmacyException(Response.Status.NOT_FOUND, "Impossible to delete order", "Order not found");
 		}
 		
+		Order order = optionalOrder.get();
+		
 		if (order.getBuyer().getToken() == null) {
 			throw new PharmacyException(Response.Status.FORBIDDEN, "Access denied", "Client must be logged to perform this action");
 		}
@@ -314,21 +434,18 @@ public class OrderService implements Serializable {
 			throw new PharmacyException(Response.Status.UNAUTHORIZED, "Access denied", "Order does not belogs to logged user");
 		}
 		
-		order.setProductsOfAnOrder(new ArrayList<Product>());
-		
-		orderDAO.merge(order);
-		
 		return remove(order);
 	}
 	
 	/**
-	 * Deletes the provided order
+	 * Deletes the provided order, which is always a cart (non concluded order).
 	 * 
 	 * @param orderToRemove order to remove
 	 * @return true
 	 */
 	public Boolean remove(Order orderToRemove) {
 		orderDAO.remove(orderToRemove);
+		afterCommit.run(dashboardStatistics::cartRemoved);
 		
 		return true;
 	}
@@ -346,6 +463,7 @@ public class OrderService implements Serializable {
 	 * @return the corresponding {@link Optional} {@link Order}
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
+	@ReadOnly
 	public Optional<Order> getNonConcluded(UUID token) {
 		Optional<Order> optionalOrder = orderDAO.findNonConcludedOrder(token);
 		
@@ -366,78 +484,207 @@ public class OrderService implements Serializable {
 	}
 
 	/**
-	 * Counts all carts.
+	 * <p>Gets the revenue of each period between the given days, read from the revenue rollups.</p>
 	 * <ol>
-	 * 	<li>Gets the amount of all non concluded orders</li>
-	 * 	<li>Verifies if this amount is null</li>
+	 * 	<li>Checks if the logged user is an administrator</li>
+	 * 	<li>Parses and validates the range and the granularity</li>
+	 * 	<li>Finds the rollup rows of the range</li>
+	 * 	<li>Fills the periods without concluded orders with zero</li>
 	 * </ol>
+	 * <p><em>The cost depends on the amount of periods asked, not on the amount of orders.</em></p>
 	 * 
-	 * @return the amount of carts
+	 * @param token		  logged administrator identifier key
+	 * @param from		  first day of the range, in ISO format (e.g. 2023-01-31)
+	 * @param to		  last day of the range, in ISO format
+	 * @param granularity DAY or MONTH, MONTH if not provided
+	 * @return the {@link RevenueDTO} {@link List} with one element per period, in chronological order
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 400 (BAD REQUEST) if the range or the granularity are not valid
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public Short countAllNonConcluded() {
-		Short amountNonConcluded = orderDAO.countAllNonConcluded();
+	@ReadOnly
+	public List<RevenueDTO> getRevenue(UUID token, String from, String to, String granularity) {
+		Boolean isAdmin = userService.verifyIfIsAdmin(token);
+		
+		if (!isAdmin) {
+			throw new PharmacyException(Response.Status.FORBIDDEN, "insufficient privileges", "Only administrators can execute this action");
+		}
+		
+		if (from == null || to == null) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid range", "Provide from and to as yyyy-MM-dd and granularity as DAY or MONTH");
+		}
+		
+		final Granularity GRANULARITY;
+		LocalDate firstPeriod, lastPeriod;
+		try {
+			GRANULARITY = granularity == null || granularity.isBlank() ? Granularity.MONTH : Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+			firstPeriod = toPeriodStart(LocalDate.parse(from), GRANULARITY);
+			lastPeriod = toPeriodStart(LocalDate.parse(to), GRANULARITY);
+		} catch (IllegalArgumentException | DateTimeParseException exception) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid range", "Provide from and to as yyyy-MM-dd and granularity as DAY or MONTH");
+		}
+		
+		long amountOfPeriods = (GRANULARITY == Granularity.DAY ? ChronoUnit.DAYS : ChronoUnit.MONTHS).between(firstPeriod, lastPeriod) + 1;
 		
-		if (amountNonConcluded == null) {
+		if (amountOfPeriods < 1 || amountOfPeriods > MAXIMUM_REVENUE_PERIODS) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid range", "The range must start before it ends and have at most " + MAXIMUM_REVENUE_PERIODS + " periods");
+		}
+		
+		List<RevenueRollup> revenueRollups = revenueRollupDAO.findAllBetween(GRANULARITY, firstPeriod, lastPeriod);
+		
+		if (revenueRollups == null) {
 			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
 		}
 		
-		return amountNonConcluded;
+		Map<LocalDate, RevenueRollup> revenueRollupsByPeriod = revenueRollups.stream().collect(Collectors.toMap(RevenueRollup::getPeriodStart, Function.identity()));
+		List<RevenueDTO> revenueDTOs = new ArrayList<>((int) amountOfPeriods);
+		
+		for (LocalDate period = firstPeriod; !period.isAfter(lastPeriod); period = GRANULARITY == Granularity.DAY ? period.plusDays(1L) : period.plusMonths(1L)) {
+			RevenueRollup revenueRollup = revenueRollupsByPeriod.get(period);
+			
+			revenueDTOs.add(revenueRollup == null
+					? new RevenueDTO(period.toString(), 0D, 0L)
+					: new RevenueDTO(period.toString(), revenueRollup.getTotal(), revenueRollup.getOrdersCount()));
+		}
+		
+		return revenueDTOs;
 	}
 
 	/**
-	 * Sums the total value from all orders.
+	 * <p>Exports every line of the orders concluded in the given range, in the given format.</p>
+	 * <p><em>The returned output writes each line as soon as it is read from the database, so the memory used does not grow with the size of the export.</em></p>
 	 * <ol>
-	 * 	<li>Gets the sum of all concluded orders</li>
-	 * 	<li>Verifies if this amount is null</li>
+	 * 	<li>Checks if the logged user is an administrator</li>
+	 * 	<li>Validates the range, which is unbounded on the sides not provided</li>
+	 * 	<li>Returns the output that reads and writes the lines when the response body is written</li>
 	 * </ol>
 	 * 
-	 * @return the sum of all orders
+	 * @param token	 logged administrator identifier key
+	 * @param format the format of the export
+	 * @param from	 first day of the range, in ISO format (e.g. 2023-01-31), may be null
+	 * @param to	 last day of the range, in ISO format, may be null
+	 * @return the {@link StreamingOutput} that writes the export
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 400 (BAD REQUEST) if the range is not valid
 	 */
-	public Float sumTotalValue() {
-		Float totalValue = orderDAO.sumTotalValue();
+	@ReadOnly
+	public StreamingOutput exportConcluded(UUID token, ExportFormat format, String from, String to) {
+		Boolean isAdmin = userService.verifyIfIsAdmin(token);
 		
-		if (totalValue == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		if (!isAdmin) {
+			throw new PharmacyException(Response.Status.FORBIDDEN, "insufficient privileges", "Only administrators can execute this action");
 		}
 		
-		return totalValue;
+		final Timestamp FROM, TO;
+		try {
+			FROM = from == null || from.isBlank() ? null : Timestamp.valueOf(LocalDate.parse(from).atStartOfDay());
+			TO = to == null || to.isBlank() ? null : Timestamp.valueOf(LocalDate.parse(to).plusDays(1L).atStartOfDay());
+		} catch (DateTimeParseException dateTimeParseException) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid range", "Provide from and to as yyyy-MM-dd");
+		}
+		
+		if (FROM != null && TO != null && !FROM.before(TO)) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid range", "The range must start before it ends");
+		}
+		
+		return outputStream -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+			
+			if (format == ExportFormat.CSV) {
+				writer.write(String.join(",", EXPORT_COLUMNS));
+				writer.write('\n');
+			}
+			
+			Long amountOfRows = orderDAO.scrollConcludedLines(FROM, TO, row -> {
+				try {
+					writer.write(format == ExportFormat.CSV ? toCsvLine(row) : toJsonLine(row));
+					writer.write('\n');
+				} catch (IOException ioException) {
+					throw new UncheckedIOException(ioException);
+				}
+			});
+			
+			if (amountOfRows == null) {
+				throw new IOException("The export was interrupted by a problem in database");
+			}
+			
+			writer.flush();
+		};
 	}
 
 	/**
-	 * Sums the total value from all orders from current month.
-	 * <ol>
-	 * 	<li>Gets the sum of all concluded orders from current month</li>
-	 * 	<li>Verifies if this amount is null</li>
-	 * </ol>
+	 * Converts an exported row into a CSV line, quoting the values that contain commas, quotes or line breaks.
 	 * 
-	 * @return the sum of all orders from current month
+	 * @param row the values of the row, in the order of {@link #EXPORT_COLUMNS}
+	 * @return the CSV line, without the line break
 	 */
-	public Float sumTotalValueConcludedOrdersCurrentMonth() {
-		Float currentTotalValue = orderDAO.sumTotalValueConcludedOrdersCurrentMonth();
+	private String toCsvLine(Object[] row) {
+		StringBuilder line = new StringBuilder();
 		
-		if (currentTotalValue == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		for (int index = 0; index < row.length; index++) {
+			if (index > 0) {
+				line.append(',');
+			}
+			
+			String value = row[index] == null ? "" : row[index].toString();
+			
+			if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+				line.append('"').append(value.replace("\"", "\"\"")).append('"');
+			} else {
+				line.append(value);
+			}
 		}
 		
-		return currentTotalValue;
+		return line.toString();
 	}
 
 	/**
-	 * Sums the total value from all orders from last month.
-	 * <ol>
-	 * 	<li>Gets the sum of all concluded orders from last month</li>
-	 * 	<li>Verifies if this amount is null</li>
-	 * </ol>
+	 * Converts an exported row into a JSON object, named by {@link #EXPORT_COLUMNS}.
+	 * 
+	 * @param row the values of the row, in the order of {@link #EXPORT_COLUMNS}
+	 * @return the JSON object, in a single line
+	 */
+	private String toJsonLine(Object[] row) {
+		JsonObjectBuilder jsonObjectBuilder = Json.createObjectBuilder();
+		
+		for (int index = 0; index < row.length; index++) {
+			if (row[index] == null) {
+				jsonObjectBuilder.addNull(EXPORT_COLUMNS.get(index));
+			} else if (row[index] instanceof Number) {
+				jsonObjectBuilder.add(EXPORT_COLUMNS.get(index), new BigDecimal(row[index].toString()));
+			} else {
+				jsonObjectBuilder.add(EXPORT_COLUMNS.get(index), row[index].toString());
+			}
+		}
+		
+		return jsonObjectBuilder.build().toString();
+	}
+
+	/**
+	 * Gets the first day of the period of the given granularity that contains the given day.
+	 * 
+	 * @param day		  any day of the period
+	 * @param granularity size of the period
+	 * @return the day itself for DAY, the first day of its month for MONTH
+	 */
+	private LocalDate toPeriodStart(LocalDate day, Granularity granularity) {
+		return granularity == Granularity.DAY ? day : day.with(TemporalAdjusters.firstDayOfMonth());
+	}
+
+	/**
+	 * Finds the non concluded order of the logged user.
 	 * 
-	 * @return the sum of all orders from last month
+	 * @param token logged user identifier key
+	 * @return the {@link Optional} {@link Order}, empty if the user has no cart
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public Float sumTotalValueConcludedOrdersLastMonth() {
-		Float lastTotalValue = orderDAO.sumTotalValueConcludedOrdersLastMonth();
+	private Optional<Order> findNonConcludedOrder(UUID token) {
+		Optional<Order> order = orderDAO.findNonConcludedOrder(token);
 		
-		if (lastTotalValue == null) {
+		if (order == null) {
 			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
 		}
 		
-		return lastTotalValue;
+		return order;
 	}
 }
\ No newline at end of file
@@ -4,21 +4,33 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import javax.transaction.Transactional;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
+import caches.AfterCommit;
+import caches.CatalogProduct;
+import caches.DashboardStatistics;
+import caches.ProductCatalog;
+import caches.SessionPrincipal;
 import daos.ProductDAO;
-import daos.UserDAO;
+import dtos.CatalogStatisticsDTO;
 import dtos.ProductDTO;
+import dtos.SuggestionDTO;
 import entities.Product;
-import entities.User;
 import enums.Section;
 import exceptions.PharmacyException;
+import interceptors.ReadOnly;
 import mappers.ProductMapper;
+import search.FuzzyNameIndex;
+import search.ProductNameIndex;
+import search.ProductSuggester;
 
 /**
  * Class that contains all the programmatic logic regarding the product.
@@ -26,6 +38,7 @@ import mappers.ProductMapper;
  * @author Wanderley Drumond
  */
 @RequestScoped
+@Transactional
 public class ProductService implements Serializable {
 	/**
 	 * Object that contains all user service methods.
@@ -40,16 +53,46 @@ public class ProductService implements Serializable {
 	private ProductDAO productDAO;
 	
 	/**
-	 * Object that contains all methods to manipulates database regarding users table.
+	 * Object that contains method that allows to switch between {@link Product} and {@link ProductDTO}.
 	 */
 	@Inject
-	private UserDAO userDAO;
+	private ProductMapper productMapper;
 	
 	/**
-	 * Object that contains method that allows to switch between {@link Product} and {@link ProductDTO}.
+	 * In-memory product catalogue, which serves the product reads.
 	 */
 	@Inject
-	private ProductMapper productMapper;
+	private ProductCatalog productCatalog;
+	
+	/**
+	 * Applies the changes of the in-memory caches once the transaction commits.
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+	
+	/**
+	 * In-memory copy of the administrator dashboard figures.
+	 */
+	@Inject
+	private DashboardStatistics dashboardStatistics;
+	
+	/**
+	 * In-memory index of the product names, which serves the name search.
+	 */
+	@Inject
+	private ProductNameIndex productNameIndex;
+	
+	/**
+	 * In-memory index of the product names words, which serves the typo tolerant name search.
+	 */
+	@Inject
+	private FuzzyNameIndex fuzzyNameIndex;
+	
+	/**
+	 * In-memory prefix structure of the product names, which serves the autocomplete.
+	 */
+	@Inject
+	private ProductSuggester productSuggester;
 
 	/**
 	 * <p>The serial version identifier for this class.<p>
@@ -62,6 +105,7 @@ public class ProductService implements Serializable {
 	 * 	<li>Verifies if the logged user has the ADMINISTRATOR role.</li>
 	 * 	<li>Transforms the provided {@link ProductDTO} into {@link Product}.</li>
 	 * 	<li>Saves the {@link Product} in the database.</li>
+	 * 	<li>Adds the product to the product catalogue once the transaction commits, so the new product is served at once.</li>
 	 * </ol>
 	 * 
 	 * @param token		  logged user identifier key
@@ -78,15 +122,18 @@ public class ProductService implements Serializable {
 		Product newProduct = productMapper.toEntity(requestBody);
 		
 		productDAO.persist(newProduct);
+		afterCommit.run(() -> {
+			productCatalog.add(newProduct);
+			dashboardStatistics.productCreated();
+		});
 		
 		return newProduct;
 	}
 
 	/**
 	 * <ol>
-	 * 	<li>Gets the list of products of the provided section</li>
-	 * 	<li>Checks if the product list is null</li>
-	 * 	<li>Checks if the product list is empty</li>
+	 * 	<li>Checks if the provided section exists</li>
+	 * 	<li>Gets the list of products of the provided section from the product catalogue</li>
 	 * </ol>
 	 * 
 	 * @param section which the list of products belongs
@@ -94,7 +141,8 @@ public class ProductService implements Serializable {
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 404 (NOT FOUND) if the provided enumerator value does not exists in database
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public List<Product> getAllBySection(String section) {
+	@ReadOnly
+	public List<CatalogProduct> getAllBySection(String section) {
 		boolean exists = false;
 		for (Section sectionElement : Section.values()) {
 			if (sectionElement.name().equals(section)) {
@@ -106,13 +154,7 @@ public class ProductService implements Serializable {
 			throw new PharmacyException(Response.Status.NOT_FOUND, "Section not found", "This section does not exists in our database, please try again with another value");
 		}
 
-		List<Product> productsOfThisSection = productDAO.findAllBySection(Section.valueOf(section));
-		
-		if (productsOfThisSection == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
-		}
-		
-		return productsOfThisSection;
+		return productCatalog.getAllBySection(Section.valueOf(section));
 	}
 
 	/**
@@ -120,6 +162,7 @@ public class ProductService implements Serializable {
 	 * 
 	 * @return the {@link String} {@link ArrayList} with all section values inside of it
 	 */
+	@ReadOnly
 	public List<String> getAllSections() {
 		List<String> descriptions = new ArrayList<>();
 		for (Section section : Section.values()) {
@@ -130,23 +173,14 @@ public class ProductService implements Serializable {
 	}
 
 	/**
-	 * <ol>
-	 * 	<li>Gets all product.</li>
-	 * 	<li>Checks if products list is null.</li>
-	 *  <li>Checks if the products list is empty.</li>
-	 * </ol>
+	 * Gets all products from the product catalogue.
 	 * 
-	 * @return the {@link Product} {@link ArrayList} with all products inside of it
+	 * @return the {@link CatalogProduct} {@link List} with all products inside of it
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public List<Product> getAll() {
-		List<Product> products = productDAO.findAll();
-		
-		if (products == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
-		}
-		
-		return products;
+	@ReadOnly
+	public List<CatalogProduct> getAll() {
+		return productCatalog.getAll();
 	}
 
 	/**
@@ -159,7 +193,8 @@ public class ProductService implements Serializable {
 	 * @param productId primary key that identifies the product to be found
 	 * @return the {@link Product} that owns the provided id
 	 */
-	public Product getById(Short productId) {
+	@ReadOnly
+	public Product getById(Long productId) {
 		Optional<Product> productFound = productDAO.findById(productId);
 		
 		if (productFound == null) {
@@ -175,78 +210,68 @@ public class ProductService implements Serializable {
 
 	/**
 	 * <ol>
-	 * 	<li>Gets the user who will do the like by their token.</li>
-	 * 	<li>Gets the product to like by its id.</li>
-	 * 	<li>Gets the list of users that liked this product. <em>({@link Product} attribute)</em> </li>
-	 * 	<li>Checks if this list is null.</li>
-	 * 	<li>Adds the logged user to this list.</li>
-	 * 	<li>Sets list of users that liked this product with the above list</li>
-	 * 	<li>Save the product in database</li>
+	 * 	<li>Gets the {@link CatalogProduct} by its id from the product catalogue.</li>
+	 *  <li>Checks if the product is empty.</li>
 	 * </ol>
 	 * 
-	 * @param token		logged user identifier key
-	 * @param productId	primary key that identifies the product to like
-	 * @return true if the product was successfully saved
+	 * @param productId primary key that identifies the product to be found
+	 * @return the {@link CatalogProduct} that owns the provided id
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 404 (NOT FOUND) if the product does not exist
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public boolean likeById(UUID token, Short productId) {
-		User userWhoLikedTheProduct = userService.getByToken(token);
-		Product productToBeLiked = getById(productId);
-		List<User> usersThatLikedThisProduct = userDAO.findAllThatLikedThisProduct(productId);
+	@ReadOnly
+	public CatalogProduct getCatalogProductById(Long productId) {
+		Optional<CatalogProduct> productFound = productCatalog.getById(productId);
 		
-		if (usersThatLikedThisProduct == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		if (productFound.isEmpty()) {
+			throw new PharmacyException(Response.Status.NOT_FOUND, "Product not found", "There is not exists a product with the provided id");
 		}
 		
-		usersThatLikedThisProduct.add(userWhoLikedTheProduct);
-		productToBeLiked.setUsersThatLiked(usersThatLikedThisProduct);
-		
-		try {
-			productDAO.merge(productToBeLiked);
-			
-			return true;
-		} catch (Exception exception) {
-			System.err.println("Catch " + exception.getClass().getName() + " in likeById() in ProductService");
-			exception.printStackTrace();
-			throw new PharmacyException(Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
-		}
+		return productFound.get();
 	}
 
 	/**
 	 * <ol>
-	 * 	<li>Gets the user who will do the unlike by their token.</li>
-	 * 	<li>Gets the product to unlike by its id.</li>
-	 * 	<li>Gets the list of users that liked this product. <em>({@link Product} attribute)</em> </li>
-	 * 	<li>Checks if this list is null.</li>
-	 * 	<li>Adds the logged user to this list.</li>
-	 * 	<li>Sets list of users that liked this product with the above list</li>
-	 * 	<li>Save the product in database</li>
+	 * 	<li>Gets the user who will do the like by their token.</li>
+	 * 	<li>Checks if the product to like exists.</li>
+	 * 	<li>Inserts the like in the database, if the user did not like this product yet.</li>
+	 * 	<li>Adds the like to the product catalogue once the transaction commits.</li>
 	 * </ol>
 	 * 
 	 * @param token		logged user identifier key
 	 * @param productId	primary key that identifies the product to like
-	 * @return true if the product was successfully saved
+	 * @return true if the like was successfully saved
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public boolean unlikeById(UUID token, Short productId) {
-		User userWhoUnlikedTheProduct = userService.getByToken(token);
-		Product productToBeUnliked = getById(productId);
-		List<User> usersThatLikedThisProduct = userDAO.findAllThatLikedThisProduct(productId);
+	public boolean likeById(UUID token, Long productId) {
+		SessionPrincipal userWhoLikedTheProduct = userService.getPrincipalByToken(token);
+		getCatalogProductById(productId);
 		
-		if (usersThatLikedThisProduct == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
-		}
+		int amountOfLikesAdded = verifyJoinTableWrite(productDAO.insertLike(productId, userWhoLikedTheProduct.getUserId()), "likeById()");
+		afterCommit.run(() -> productCatalog.addToLikeCount(productId, amountOfLikesAdded));
 		
-		usersThatLikedThisProduct.removeIf(userElement -> userWhoUnlikedTheProduct.getId().equals(userElement.getId()));
-		productToBeUnliked.setUsersThatLiked(usersThatLikedThisProduct);
+		return true;
+	}
+
+	/**
+	 * <ol>
+	 * 	<li>Gets the user who will do the unlike by their token.</li>
+	 * 	<li>Checks if the product to unlike exists.</li>
+	 * 	<li>Deletes the like from the database, if the user liked this product.</li>
+	 * 	<li>Removes the like from the product catalogue once the transaction commits.</li>
+	 * </ol>
+	 * 
+	 * @param token		logged user identifier key
+	 * @param productId	primary key that identifies the product to unlike
+	 * @return true if the like was successfully removed
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	public boolean unlikeById(UUID token, Long productId) {
+		SessionPrincipal userWhoUnlikedTheProduct = userService.getPrincipalByToken(token);
+		getCatalogProductById(productId);
 		
-		try {
-			productDAO.merge(productToBeUnliked);
-		} catch (Exception exception) {
-			System.err.println("Catch " + exception.getClass().getName() + " in likeById() in ProductService");
-			exception.printStackTrace();
-			throw new PharmacyException(Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
-		}
+		int amountOfLikesRemoved = verifyJoinTableWrite(productDAO.deleteLike(productId, userWhoUnlikedTheProduct.getUserId()), "unlikeById()");
+		afterCommit.run(() -> productCatalog.addToLikeCount(productId, -amountOfLikesRemoved));
 		
 		return true;
 	}
@@ -254,38 +279,19 @@ public class ProductService implements Serializable {
 	/**
 	 * <ol>
 	 * 	<li>Gets the user who will favourited by their token.</li>
-	 * 	<li>Gets the product to be favourite by its id.</li>
-	 * 	<li>Gets the list of users that favourited this product.<em>({@link Product} attribute)</em> </li>
-	 * 	<li>Checks if this list is null.</li>
-	 * 	<li>Adds the logged user to this list.</li>
-	 * 	<li>Sets list of users that favourited this product with the above list</li>
-	 * 	<li>Save the product in database</li>
+	 * 	<li>Checks if the product to be favourite exists.</li>
+	 * 	<li>Inserts the favourite in the database, if the user did not favourite this product yet.</li>
 	 * </ol>
 	 * 
 	 * @param token		logged user identifier key
 	 * @param productId	primary key that identifies the product to be favourited
-	 * @return true if the product was successfully saved
+	 * @return true if the favourite was successfully saved
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public boolean favoriteById(UUID token, Short productId) {
-		User userWhoFavouritedTheProduct = userService.getByToken(token);
-		Product productToBeFavourited = getById(productId);
-		List<User> usersThatFavouritedThisProduct = userDAO.findAllThatFavouritedThisProduct(productId);
-		
-		if (usersThatFavouritedThisProduct == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
-		}
-		
-		usersThatFavouritedThisProduct.add(userWhoFavouritedTheProduct);
-		productToBeFavourited.setUsersThatFavorited(usersThatFavouritedThisProduct);
-		
-		try {
-			productDAO.merge(productToBeFavourited);
-		} catch (Exception exception) {
-			System.err.println("Catch " + exception.getClass().getName() + " in favoriteById() in ProductService");
-			exception.printStackTrace();
-			throw new PharmacyException(Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
-		}
+	public boolean favoriteById(UUID token, Long productId) {
+		SessionPrincipal userWhoFavouritedTheProduct = userService.getPrincipalByToken(token);
+		getCatalogProductById(productId);
+		verifyJoinTableWrite(productDAO.insertFavorite(productId, userWhoFavouritedTheProduct.getUserId()), "favoriteById()");
 		
 		return true;
 	}
@@ -293,40 +299,39 @@ public class ProductService implements Serializable {
 	/**
 	 * <ol>
 	 * 	<li>Gets the user who will unfavourited by their token.</li>
-	 * 	<li>Gets the product to be favourite by its id.</li>
-	 * 	<li>Gets the list of users that favourited this product.<em>({@link Product} attribute)</em> </li>
-	 * 	<li>Checks if this list is null.</li>
-	 * 	<li>Adds the logged user to this list.</li>
-	 * 	<li>Sets list of users that unfavourited this product with the above list</li>
-	 * 	<li>Save the product in database</li>
+	 * 	<li>Checks if the product to be unfavourited exists.</li>
+	 * 	<li>Deletes the favourite from the database, if the user favourited this product.</li>
 	 * </ol>
 	 * 
 	 * @param token		logged user identifier key
 	 * @param productId	primary key that identifies the product to be unfavourited
-	 * @return true if the product was successfully saved
+	 * @return true if the favourite was successfully removed
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public boolean unfavoriteById(UUID token, Short productId) {
-		User userWhoUnfavouritedTheProduct = userService.getByToken(token);
-		Product productToBeUnfavourited = getById(productId);
-		List<User> usersThatUnfavouritedThisProduct = userDAO.findAllThatFavouritedThisProduct(productId);
+	public boolean unfavoriteById(UUID token, Long productId) {
+		SessionPrincipal userWhoUnfavouritedTheProduct = userService.getPrincipalByToken(token);
+		getCatalogProductById(productId);
+		verifyJoinTableWrite(productDAO.deleteFavorite(productId, userWhoUnfavouritedTheProduct.getUserId()), "unfavoriteById()");
 		
-		if (usersThatUnfavouritedThisProduct == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
-		}
-		
-		usersThatUnfavouritedThisProduct.removeIf(userElement -> userWhoUnfavouritedTheProduct.getId().equals(userElement.getId()));
-		productToBeUnfavourited.setUsersThatFavorited(usersThatUnfavouritedThisProduct);
-		
-		try {
-			productDAO.merge(productToBeUnfavourited);
-		} catch (Exception exception) {
-			System.err.println("Catch " + exception.getClass().getName() + " in unfavoriteById() in ProductService");
-			exception.printStackTrace();
+		return true;
+	}
+
+	/**
+	 * <p>Checks the result of a like or favourite write.</p>
+	 * <p><em>Auxiliary method. Writing an already existent like/favourite, or removing a non existent one, is not an error.</em></p>
+	 * 
+	 * @param amountOfRowsAffected the amount of rows written in the join table
+	 * @param methodName		   the method that made the write
+	 * @return the amount of rows written in the join table
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	private int verifyJoinTableWrite(Integer amountOfRowsAffected, String methodName) {
+		if (amountOfRowsAffected == null) {
+			System.err.println("Catch database error in " + methodName + " in ProductService");
 			throw new PharmacyException(Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
 		}
 		
-		return true;
+		return amountOfRowsAffected;
 	}
 
 	/**
@@ -337,6 +342,7 @@ public class ProductService implements Serializable {
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 401 (UNAUTHORISED) if token is null
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
+	@ReadOnly
 	public List<Product> getAllFavoritesByToken(UUID token) {
 		if (token == null) {
 			throw new PharmacyException(Response.Status.UNAUTHORIZED, "User not logged", "User must be logged to access this functionality");
@@ -353,25 +359,63 @@ public class ProductService implements Serializable {
 
 	/**
 	 * <ol>
-	 * 	<li>Gets the list of products according to the provided name</li>
-	 * 	<li>Checks if the product list is null</li>
-	 * 	<li>Checks if the product list is empty</li>
+	 * 	<li>Checks if the provided limit is valid</li>
+	 * 	<li>Gets the ranked list of products according to the provided name from the product name index</li>
+	 * 	<li>If it is a fuzzy search and the limit was not reached, completes the list with the products whose name words are close to the key search words</li>
 	 * </ol>
 	 * 
 	 * @param productName the key search
-	 * @return the products list that contains the provided name
+	 * @param limit		  the maximum amount of products to answer, {@link ProductNameIndex#DEFAULT_LIMIT} if null
+	 * @param isFuzzy	  it will tolerate misspelled words?
+	 * @return the products list that contains the provided name, the most relevant first
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 400 (BAD REQUEST) if the limit is not positive
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
 	 */
-	public List<Product> getAllByName(String productName) {
-		List<Product> productsFound = productDAO.findAllByName(productName);
+	@ReadOnly
+	public List<CatalogProduct> getAllByName(String productName, Integer limit, boolean isFuzzy) {
+		if (limit != null && limit < 1) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid limit", "The limit must be a positive number");
+		}
 		
-		if (productsFound == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		int maximumAmount = limit == null ? ProductNameIndex.DEFAULT_LIMIT : limit;
+		List<CatalogProduct> productsFound = productNameIndex.search(productName, maximumAmount);
+		
+		if (isFuzzy && productsFound.size() < maximumAmount) {
+			List<CatalogProduct> allProductsFound = new ArrayList<>(productsFound);
+			Set<Long> idsFound = productsFound.stream().map(CatalogProduct::getId).collect(Collectors.toSet());
+			
+			fuzzyNameIndex.search(productName, maximumAmount).stream()
+					.filter(productElement -> !idsFound.contains(productElement.getId()))
+					.limit(maximumAmount - productsFound.size())
+					.forEach(allProductsFound::add);
+			
+			return allProductsFound;
 		}
 		
 		return productsFound;
 	}
 
+	/**
+	 * <ol>
+	 * 	<li>Checks if the provided limit is valid</li>
+	 * 	<li>Gets the product names that start with the provided prefix from the product suggester</li>
+	 * </ol>
+	 * 
+	 * @param prefix what was typed so far in the search
+	 * @param limit	 the maximum amount of suggestions, {@link ProductSuggester#DEFAULT_LIMIT} if null
+	 * @return the {@link SuggestionDTO} {@link List}, names starting with the prefix first
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 400 (BAD REQUEST) if the limit is not between 1 and {@link ProductSuggester#MAXIMUM_LIMIT}
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 502 (BAD GATEWAY) if some problem happened in database
+	 */
+	@ReadOnly
+	public List<SuggestionDTO> suggest(String prefix, Integer limit) {
+		if (limit != null && (limit < 1 || limit > ProductSuggester.MAXIMUM_LIMIT)) {
+			throw new PharmacyException(Response.Status.BAD_REQUEST, "Invalid limit", "The limit must be between 1 and " + ProductSuggester.MAXIMUM_LIMIT);
+		}
+		
+		return productSuggester.suggest(prefix, limit == null ? ProductSuggester.DEFAULT_LIMIT : limit);
+	}
+
 	/**
 	 * <ol>
 	 * 	<li>Gets all products of this order</li>
@@ -380,7 +424,8 @@ public class ProductService implements Serializable {
 	 * @param orderId primary key that identifies the order that contains the products list 
 	 * @return the {@link Product} {@link List} of the given order
 	 */
-	public List<Product> getAllByOrderId(Short orderId) {
+	@ReadOnly
+	public List<Product> getAllByOrderId(Long orderId) {
 		List<Product> products = productDAO.findAllByOrderId(orderId);
 		
 		if (products == null) {
@@ -392,19 +437,22 @@ public class ProductService implements Serializable {
 
 	/**
 	 * <ol>
-	 * 	<li>Gets the amount of products existent in database</li>
-	 * 	<li>Verifies if that number is null</li>
+	 * 	<li>Verifies if the logged user has the ADMINISTRATOR role.</li>
+	 * 	<li>Gets the product catalogue usage metrics.</li>
 	 * </ol>
 	 * 
-	 * @return
+	 * @param token logged user identifier key
+	 * @return the {@link CatalogStatisticsDTO} with the current metrics
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
 	 */
-	public Short countAll() {
-		Short amountProducts = productDAO.countAll();
+	@ReadOnly
+	public CatalogStatisticsDTO getCatalogStatistics(UUID token) {
+		Boolean isAdmin = userService.verifyIfIsAdmin(token);
 		
-		if (amountProducts == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		if (!isAdmin) {
+			throw new PharmacyException(Response.Status.FORBIDDEN, "insufficient privileges", "Only administrators can execute this action");
 		}
 		
-		return amountProducts;
+		return productCatalog.getStatistics();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package services;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import javax.ws.rs.core.Response;
+
+import dtos.DatabaseStatisticsDTO;
+import dtos.StatementStatisticsDTO;
+import exceptions.PharmacyException;
+import interceptors.Monitored;
+import interceptors.MonitoredStatistics;
+import interceptors.ReadOnly;
+
+/**
+ * Class that contains all the programmatic logic regarding the database usage metrics.
+ * 
+ * @author Wanderley Drumond
+ */
+@RequestScoped
+@Transactional
+public class StatisticsService implements Serializable {
+	/**
+	 * Prefix of the name of every metric in the Prometheus exposition format.
+	 */
+	private static final String METRIC_PREFIX = "pharmacy_";
+	
+	/**
+	 * Object that contains all user service methods.
+	 */
+	@Inject
+	private UserService userService;
+	
+	/**
+	 * The figures of every {@link Monitored} method and of every query.
+	 */
+	@Inject
+	private MonitoredStatistics monitoredStatistics;
+	
+	/**
+	 * <p>The serial version identifier for this class.<p>
+	 * <p>This identifier is used during deserialisation to verify that the sender and receiver of a serialised object have loaded classes for that object that are compatible with respect to serialisation.<p>
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * <ol>
+	 * 	<li>Verifies if the logged user has the ADMINISTRATOR role.</li>
+	 * 	<li>Gets the database usage metrics.</li>
+	 * </ol>
+	 * 
+	 * @param token logged user identifier key
+	 * @return the {@link DatabaseStatisticsDTO} with the current metrics
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
+	 */
+	@ReadOnly
+	public DatabaseStatisticsDTO getStatistics(UUID token) {
+		verifyIfIsAdmin(token);
+		
+		return monitoredStatistics.getStatistics();
+	}
+	
+	/**
+	 * <ol>
+	 * 	<li>Verifies if the logged user has the ADMINISTRATOR role.</li>
+	 * 	<li>Gets the database usage metrics.</li>
+	 * 	<li>Writes them in the Prometheus text exposition format, the DAO methods labelled by their names.</li>
+	 * </ol>
+	 * <p><em>The figures of each query are left out, since the query strings would make too many distinct series. They are found in {@link #getStatistics(UUID)}.</em></p>
+	 * 
+	 * @param token logged user identifier key
+	 * @return the metrics in the Prometheus text format
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
+	 */
+	@ReadOnly
+	public String getPrometheusStatistics(UUID token) {
+		verifyIfIsAdmin(token);
+		
+		DatabaseStatisticsDTO statistics = monitoredStatistics.getStatistics();
+		StringBuilder text = new StringBuilder();
+		
+		appendMetric(text, "hibernate_sessions_opened_total", "counter", "Hibernate sessions opened.", statistics.getSessionsOpened());
+		appendMetric(text, "hibernate_transactions_total", "counter", "Transactions completed.", statistics.getTransactions());
+		appendMetric(text, "hibernate_prepared_statements_total", "counter", "JDBC statements prepared.", statistics.getPreparedStatements());
+		appendMetric(text, "hibernate_query_executions_total", "counter", "Queries executed.", statistics.getQueryExecutions());
+		appendMetric(text, "hibernate_query_execution_max_seconds", "gauge", "Time taken by the slowest query.", statistics.getQueryExecutionMaxMillis() / 1000D);
+		appendMetric(text, "hibernate_entity_loads_total", "counter", "Entities loaded.", statistics.getEntityLoads());
+		appendMetric(text, "hibernate_entity_fetches_total", "counter", "Entities fetched by a statement of their own.", statistics.getEntityFetches());
+		appendMetric(text, "hibernate_collection_loads_total", "counter", "Collections loaded.", statistics.getCollectionLoads());
+		appendMetric(text, "hibernate_collection_fetches_total", "counter", "Collections fetched by a statement of their own.", statistics.getCollectionFetches());
+		appendMetric(text, "hibernate_optimistic_failures_total", "counter", "Optimistic lock conflicts.", statistics.getOptimisticFailures());
+		
+		appendDaoMetric(text, "dao_calls_total", "counter", "Calls of each DAO method.", statistics.getDaoMethods(), StatementStatisticsDTO::getCount);
+		appendDaoMetric(text, "dao_duration_seconds_total", "counter", "Time spent in each DAO method.", statistics.getDaoMethods(), daoMethod -> daoMethod.getTotalMillis() / 1000D);
+		appendDaoMetric(text, "dao_duration_seconds_max", "gauge", "Time taken by the slowest call of each DAO method.", statistics.getDaoMethods(), daoMethod -> daoMethod.getMaxMillis() / 1000D);
+		appendDaoMetric(text, "dao_rows_total", "counter", "Rows returned by each DAO method.", statistics.getDaoMethods(), StatementStatisticsDTO::getRows);
+		
+		return text.toString();
+	}
+	
+	/**
+	 * Writes a metric without labels, along with its help and type lines.
+	 * 
+	 * @param text	the text being written
+	 * @param name	the metric name, without the prefix
+	 * @param type	the Prometheus metric type
+	 * @param help	the metric description
+	 * @param value the metric value
+	 */
+	private void appendMetric(StringBuilder text, String name, String type, String help, Number value) {
+		appendHeader(text, name, type, help);
+		text.append(METRIC_PREFIX).append(name).append(' ').append(format(value)).append('\n');
+	}
+	
+	/**
+	 * Writes a metric with one sample for each DAO method, along with its help and type lines.
+	 * 
+	 * @param text		 the text being written
+	 * @param name		 the metric name, without the prefix
+	 * @param type		 the Prometheus metric type
+	 * @param help		 the metric description
+	 * @param daoMethods the figures of every DAO method
+	 * @param value		 gets the metric value from the figures of a DAO method
+	 */
+	private void appendDaoMetric(StringBuilder text, String name, String type, String help, List<StatementStatisticsDTO> daoMethods, Function<StatementStatisticsDTO, Number> value) {
+		appendHeader(text, name, type, help);
+		
+		for (StatementStatisticsDTO daoMethod : daoMethods) {
+			text.append(METRIC_PREFIX).append(name)
+					.append("{method=\"").append(escapeLabel(daoMethod.getStatement())).append("\"} ")
+					.append(format(value.apply(daoMethod))).append('\n');
+		}
+	}
+	
+	/**
+	 * Writes the help and type lines of a metric.
+	 * 
+	 * @param text the text being written
+	 * @param name the metric name, without the prefix
+	 * @param type the Prometheus metric type
+	 * @param help the metric description
+	 */
+	private void appendHeader(StringBuilder text, String name, String type, String help) {
+		text.append("# HELP ").append(METRIC_PREFIX).append(name).append(' ').append(help).append('\n');
+		text.append("# TYPE ").append(METRIC_PREFIX).append(name).append(' ').append(type).append('\n');
+	}
+	
+	/**
+	 * Formats a sample value, integers without decimal places.
+	 * 
+	 * @param value the sample value
+	 * @return the value as Prometheus reads it
+	 */
+	private String format(Number value) {
+		if (value instanceof Double || value instanceof Float) {
+			return String.format(Locale.ROOT, "%.6f", value.doubleValue());
+		}
+		
+		return String.valueOf(value.longValue());
+	}
+	
+	/**
+	 * Escapes the backslashes, double quotes and line feeds of a label value.
+	 * 
+	 * @param value the label value
+	 * @return the escaped value
+	 */
+	private String escapeLabel(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+	
+	/**
+	 * Checks if the logged user is an administrator.
+	 * 
+	 * @param token logged user identifier key
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 403 (FORBIDDEN) if the logged user is not an administrator
+	 */
+	private void verifyIfIsAdmin(UUID token) {
+		if (!userService.verifyIfIsAdmin(token)) {
+			throw new PharmacyException(Response.Status.FORBIDDEN, "insufficient privileges", "Only administrators can execute this action");
+		}
+	}
+}
\ No newline at end of file
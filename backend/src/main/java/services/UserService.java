@@ -1,25 +1,42 @@
 package services;
 
 import java.io.Serializable;
-import java.sql.Timestamp;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import javax.transaction.Transactional;
 import javax.ws.rs.core.Response;
 
+import caches.AfterCommit;
+import caches.DashboardStatistics;
+import caches.SessionCache;
+import caches.SessionPrincipal;
+import caches.SignInCounter;
 import daos.ConfigurationDAO;
+import daos.OrderDAO;
+import daos.ProductDAO;
+import daos.RevenueRollupDAO;
 import daos.UserDAO;
 import dtos.DashboardDTO;
 import dtos.UserDTO;
-import entities.Configuration;
-import entities.Order;
 import entities.User;
 import enums.Role;
 import exceptions.PharmacyException;
+import interceptors.ReadOnly;
 import mappers.UserMapper;
 
 /**
@@ -28,6 +45,7 @@ import mappers.UserMapper;
  * @author Wanderley Drumond
  */
 @RequestScoped
+@Transactional
 public class UserService implements Serializable {
 	/**
 	 * <p>The serial version identifier for this class.<p>
@@ -48,22 +66,63 @@ public class UserService implements Serializable {
 	private ConfigurationDAO configurationDAO;
 	
 	/**
-	 * Object that contains all order service methods.
+	 * Object that contains all methods to manipulates database regarding products table.
 	 */
 	@Inject
-	private OrderService orderService;
+	private ProductDAO productDAO;
 	
 	/**
-	 * Object that contains all product service methods.
+	 * Object that contains all methods to manipulates database regarding orders table.
 	 */
 	@Inject
-	private ProductService productService;
+	private OrderDAO orderDAO;
+	
+	/**
+	 * Object that contains all methods to manipulates database regarding revenue_rollups table.
+	 */
+	@Inject
+	private RevenueRollupDAO revenueRollupDAO;
+	
+	/**
+	 * Container managed thread pool, where the dashboard reads are dispatched.
+	 */
+	@Resource
+	private ManagedExecutorService managedExecutorService;
+	
+	/**
+	 * How long, in milliseconds, each dashboard read may take.
+	 */
+	static final long DASHBOARD_QUERY_TIMEOUT_MILLIS = 5_000L;
 	
 	/**
 	 * Object that contains method that allows to switch between {@link User} and {@link UserDTO}.
 	 */
 	@Inject
 	private UserMapper userMapper;
+	
+	/**
+	 * Cache of the logged users principals, which spares the token lookup in database.
+	 */
+	@Inject
+	private SessionCache sessionCache;
+	
+	/**
+	 * In-memory copy of the administrator dashboard figures.
+	 */
+	@Inject
+	private DashboardStatistics dashboardStatistics;
+	
+	/**
+	 * Applies the changes of the in-memory caches once the transaction commits.
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+	
+	/**
+	 * In-memory sign in counter, flushed to the configurations table in batches.
+	 */
+	@Inject
+	private SignInCounter signInCounter;
 
 	/**
 	 * <ol>
@@ -71,6 +130,7 @@ public class UserService implements Serializable {
 	 * 	<li>Sets role attribute</li>
 	 * 	<li>Sets isDeleted attribute</li>
 	 * 	<li>Saves user into the database</li>
+	 * 	<li>Adds the user to the dashboard users waiting for approval, once the transaction commits</li>
 	 * </ol>
 	 * 
 	 * <em>{@link Role} is set again for safety reasons.</em>
@@ -98,6 +158,9 @@ public class UserService implements Serializable {
 			throw new PharmacyException(Response.Status.BAD_REQUEST, "Error creating user", "User not created");
 		}
 		
+		UserDTO visitor = userMapper.toDTO(user);
+		afterCommit.run(() -> dashboardStatistics.visitorSignedUp(visitor));
+		
 		return user.getId();
 	}
 
@@ -107,22 +170,10 @@ public class UserService implements Serializable {
 	 * 	<li>Search for the user in database.</li>
 	 * 	<li>Sets a random UUID for this user.</li>
 	 * 	<li>Saves the UUID in the user table.</li>
+	 * 	<li>Replaces any cached session of this user by the new one, once the transaction commits.</li>
 	 * 	<li>Updates the amount of system sign ins in the configurations table for clients</li>
-	 *  <li>Checks if the logged user has the client role</li>
-	 *  <li>Gets the non concluded order from the logged user</li>
-	 *  <li>
-	 *  	Checks if this there is a cart
-	 *  	<ol>
-	 *  		<li>Gets the time of two days ago</li>
-	 *  		<ol>
-	 *  			<li>Checks if the order last update is equal to two days ago</li>
-	 *  				<ol>
-	 *  					<li>Deletes the cart</li>
-	 *  				</ol> 
-	 *  		</ol>
-	 *  	</ol>
-	 *  </li>
 	 * </ol>
+	 * <p><em>Stale carts are no longer deleted here, the {@link jobs.StaleCartSweepJob} removes them in the background.</em></p>
 	 * 
 	 * @param username of the user to sign in
 	 * @param password of the user to sign in
@@ -145,19 +196,16 @@ public class UserService implements Serializable {
 		
 		user.setToken(UUID.randomUUID());
 		userDAO.merge(user);
+		sessionCache.invalidateUser(user.getId());
+		afterCommit.run(() -> {
+			sessionCache.invalidateUser(user.getId());
+			sessionCache.put(user);
+		});
 		
 		if (user.getRole().equals(Role.CLIENT)) {
 			updateTotalSignIns();
 		}
 		
-		Optional<Order> order = orderService.getNonConcluded(user.getToken());
-		
-		if (order.isPresent()) {
-			Timestamp twoDaysAgo = Timestamp.valueOf(LocalDateTime.now().minusDays(2L));
-			if (order.get().getLastUpdate().before(twoDaysAgo)) {
-				orderService.emptyCart(user.getToken(), order.get().getId());
-			}
-		}
 		return user;
 	}
 	
@@ -168,6 +216,7 @@ public class UserService implements Serializable {
 	 * @return The {@link User} that owns the given token
 	 * @throws {@link PharmacyException} with HTTP {@link Response} status 404 (NOT FOUND) if the given token does not exists in database
 	 */
+	@ReadOnly
 	public User getByToken(UUID token) {
 		Optional<User> userToFind = userDAO.findByUUID(token);
 		
@@ -175,25 +224,60 @@ public class UserService implements Serializable {
 			throw new PharmacyException(Response.Status.NOT_FOUND, "User not found", "The given token does not exists in database");
 		}
 		
+		sessionCache.put(userToFind.get());
+		
 		return userToFind.get();
 	}
 	
 	/**
-	 * <ul>
-	 * 	<li>If the system already has other sign ins, increments the amount and save it in database.</li>
-	 * 	<li>If it is the very first sign in the system, creates the row in the configurations table and sets as "1" as value.</li>
-	 * </ul>
+	 * <p>Gets the {@link SessionPrincipal} of the user that owns the given token.</p>
+	 * <p><em>Prefer it over {@link #getByToken(UUID)} whenever only the user id and role are needed, since it is usually answered by the {@link SessionCache}.</em></p>
+	 * 
+	 * @param token user identifier key
+	 * @return The {@link SessionPrincipal} of the user that owns the given token
+	 * @throws {@link PharmacyException} with HTTP {@link Response} status 404 (NOT FOUND) if the given token does not exists in database
 	 */
-	public void updateTotalSignIns() {
-		String keyword = "total of sign ins";
-		Optional<Configuration> configurationOptional = configurationDAO.findValueByKeyWord(keyword);
+	@ReadOnly
+	public SessionPrincipal getPrincipalByToken(UUID token) {
+		Optional<SessionPrincipal> principal = findPrincipal(token);
 		
-		configurationOptional.ifPresentOrElse(congigurationElement -> {
-			short amountOfSignIns = Short.valueOf(configurationOptional.get().getValue());
-			configurationOptional.get().setValue(String.valueOf(++amountOfSignIns));
-			configurationDAO.merge(configurationOptional.get());
-			
-		}, () -> configurationDAO.persist(new Configuration(keyword, "1")));
+		if (principal.isEmpty()) {
+			throw new PharmacyException(Response.Status.NOT_FOUND, "User not found", "The given token does not exists in database");
+		}
+		
+		return principal.get();
+	}
+	
+	/**
+	 * <p>Finds the {@link SessionPrincipal} of the given token, in the {@link SessionCache} or else in the database.</p>
+	 * <p><em>Auxiliary method.</em></p>
+	 * 
+	 * @param token user identifier key
+	 * @return the {@link Optional} {@link SessionPrincipal} of that token, {@link Optional} empty if it does not exist
+	 */
+	private Optional<SessionPrincipal> findPrincipal(UUID token) {
+		if (token == null) {
+			return Optional.empty();
+		}
+		
+		Optional<SessionPrincipal> cachedPrincipal = sessionCache.get(token);
+		
+		if (cachedPrincipal.isPresent()) {
+			return cachedPrincipal;
+		}
+		
+		return userDAO.findByUUID(token).map(sessionCache::put);
+	}
+	
+	/**
+	 * <p>Counts one more client sign in, once the sign in transaction commits.</p>
+	 * <p><em>Only memory is touched here, the {@link SignInCounter} adds the sign ins to the configurations table in batches.</em></p>
+	 */
+	public void updateTotalSignIns() {
+		afterCommit.run(() -> {
+			signInCounter.increment();
+			dashboardStatistics.clientSignedIn();
+		});
 	}
 
 
@@ -211,6 +295,8 @@ public class UserService implements Serializable {
 	public Boolean signOut(UUID token) {
 		Integer amountOfRowsUpdated = userDAO.signOut(token);
 		System.out.println("amountOfRowsUpdated: " + amountOfRowsUpdated);
+		sessionCache.invalidate(token);
+		afterCommit.run(() -> sessionCache.invalidate(token));
 		
 		switch (amountOfRowsUpdated) {
 		case 0:
@@ -243,7 +329,7 @@ public class UserService implements Serializable {
 	 * 			<li><strong>400 (BAD REQUEST)</strong>if the amount of rows updated is 0</li>
 	 * 		</ul>
 	 */
-	public Boolean approve(UUID token, Integer userToApproveId) {
+	public Boolean approve(UUID token, Long userToApproveId) {
 		Boolean isAdmin = verifyIfIsAdmin(token);
 		
 		if (Boolean.FALSE.equals(isAdmin)) {
@@ -251,34 +337,33 @@ public class UserService implements Serializable {
 		}
 		
 		Integer updatedRowsInUsersTable = userDAO.approve(userToApproveId);
+		sessionCache.invalidateUser(userToApproveId);
+		afterCommit.run(() -> sessionCache.invalidateUser(userToApproveId));
 		
 		if (updatedRowsInUsersTable == 0) {
 			throw new PharmacyException(Response.Status.BAD_REQUEST, "Request not answered", "The requested row wasn't updated");
 		}
 		
+		afterCommit.run(() -> dashboardStatistics.visitorApproved(userToApproveId));
+		
 		return updatedRowsInUsersTable == 1 ? true : false;
 	}
 
 
 	/**
-	 * <p>Verify if the logged user is an administrator.</p>
-	 * <p><em>Auxiliary method.</em></p>
+	 * <p>Verify if the logged user is an active administrator.</p>
+	 * <p><em>Auxiliary method. The role is read from the user {@link SessionPrincipal}, so it is usually answered without reaching the database.</em></p>
 	 * 
 	 * @param token logged user identifier key
 	 * @return 
 	 * 		<ul>
 	 * 			<li>True, if the user is administrator</li>
-	 * 			<li>False, if the user is not an administrator</li>
+	 * 			<li>False, if the user is not an administrator, or if the token does not belong to anyone</li>
 	 * 		</ul>
 	 */
+	@ReadOnly
 	public Boolean verifyIfIsAdmin(UUID token) {
-		Boolean isAdmin = userDAO.checkIfIsAdmin(token);
-		
-		if (isAdmin == null) {
-			throw new PharmacyException(Response.Status.SERVICE_UNAVAILABLE, "Error", "Error in database occured");
-		}
-		
-		return isAdmin;
+		return findPrincipal(token).map(SessionPrincipal::isActiveAdministrator).orElse(false);
 	}
 
 	/**
@@ -327,76 +412,139 @@ public class UserService implements Serializable {
 		userToEdit.setPassword(requestBody.getPassword());
 		
 		userDAO.merge(userToEdit);
+		afterCommit.run(() -> sessionCache.put(userToEdit));
 		
 		return userToEdit;
 	}
 
 
 	/**
-	 * Gets the amount of users that contains the CLIENT role.
+	 * Gets the administrator dashboard.
+	 * <ol>
+	 * 	<li>Verifies if the user that is trying to access this method is logged</li>
+	 * 	<li>Verifies if the logged user has the ADMINISTRATOR role</li>
+	 * 	<li>If the dashboard figures were not loaded yet, computes them from the database</li>
+	 * 	<li>Builds the {@link DashboardDTO} from the figures in memory</li>
+	 * </ol>
 	 * 
-	 * @return the amount of clients
+	 * @param token logged administrator identifier key
+	 * @return the {@link DashboardDTO} containing all data to be displayed filled
 	 */
-	private Short countAllClients() {
-		Short amountClients = userDAO.countAllClients();
+	@ReadOnly
+	public DashboardDTO dashboard(UUID token) {
+		if (token == null) {
+			throw new PharmacyException(Response.Status.UNAUTHORIZED, "Access denied", "It must be logged to access this feature");
+		}
+		
+		if (!verifyIfIsAdmin(token)) {
+			throw new PharmacyException(Response.Status.FORBIDDEN, "Access denied", "This feature is only available to administrators");
+		}
 		
-		if (amountClients == null) {
-			throw new PharmacyException(Response.Status.BAD_GATEWAY, "Database unavailable", "Problems connecting database");
+		if (dashboardStatistics.isLoaded()) {
+			return dashboardStatistics.toDTO();
 		}
 		
-		return amountClients;
+		DashboardDTO computedDTO = refreshDashboard();
+		
+		return computedDTO.getUnavailableFigures().isEmpty() ? dashboardStatistics.toDTO() : computedDTO;
 	}
 
 	/**
-	 *  Gets all users that contains the VISITOR role.
+	 * <p>Replaces the dashboard figures in memory with the ones computed from the database.</p>
+	 * <p><em>If any figure could not be computed, the figures in memory are kept as they are.</em></p>
 	 * 
-	 * @return the {@link List} of {@link User} containing all clients
+	 * @return the {@link DashboardDTO} computed, along with the figures that could not be computed
 	 */
-	private List<UserDTO> getAllVisitors() {
-		List<User> visitors = userDAO.findAllVisitors();
-		List<UserDTO> visitorsDTO = userMapper.toDTOs(visitors);
+	public DashboardDTO refreshDashboard() {
+		YearMonth currentMonth = YearMonth.now();
+		DashboardDTO computedDTO = computeDashboard();
+		
+		if (computedDTO.getUnavailableFigures().isEmpty()) {
+			dashboardStatistics.replaceWith(computedDTO, currentMonth);
+		} else {
+			Logger.getLogger(UserService.class.getName()).log(Level.WARNING, "Dashboard figures {0} unavailable, the figures in memory were kept", computedDTO.getUnavailableFigures());
+		}
 		
-		return visitorsDTO;
+		return computedDTO;
 	}
 
 	/**
-	 * Mounts the administrator dashboard.
+	 * <p>Mounts the administrator dashboard from the database.</p>
+	 * <p>Its reads are independent from each other, so they are all dispatched at once to the managed executor and the dashboard takes as long as the slowest of them:</p>
 	 * <ol>
-	 * 	<li>Verifies if the user that is trying to access this method is logged</li>
-	 * 	<li>Verifies if the logged user has the ADMINISTRATOR role</li>
-	 * 	<li>Creates a new {@link DashboardDTO} instance</li>
-	 * 	<li>Sets into {@link DashboardDTO} the amount of users with CLIENT role</li>
-	 * 	<li>Sets into {@link DashboardDTO} the amount of products</li>
-	 * 	<li>Sets into {@link DashboardDTO} the amount of carts</li>
-	 * 	<li>Sets into {@link DashboardDTO} the amount of sign ins</li>
-	 * 	<li>Sets into {@link DashboardDTO} the sum of all concluded orders</li>
-	 * 	<li>Sets into {@link DashboardDTO} the sum of all concluded orders from current month</li>
-	 * 	<li>Sets into {@link DashboardDTO} the sum of all concluded orders from last month</li>
-	 * 	<li>Sets into {@link DashboardDTO} the list of users with registration pending</li>
+	 * 	<li>The amount of users with CLIENT role</li>
+	 * 	<li>The amount of products</li>
+	 * 	<li>The amount of carts</li>
+	 * 	<li>The amount of sign ins, the saved ones plus the ones still pending in the {@link SignInCounter}</li>
+	 * 	<li>The sum of all concluded orders, read from the monthly revenue rollups</li>
+	 * 	<li>The sum of all concluded orders from current month, read from its revenue rollup</li>
+	 * 	<li>The sum of all concluded orders from last month, read from its revenue rollup</li>
+	 * 	<li>The list of users with registration pending</li>
 	 * </ol>
+	 * <p><em>A read that fails, or that is not finished {@value #DASHBOARD_QUERY_TIMEOUT_MILLIS} ms after being dispatched, is cancelled and its figure is reported as unavailable instead of failing the whole dashboard.</em></p>
 	 * 
-	 * @param token logged administrator identifier key
-	 * @return the {@link DashboardDTO} containing all data to be displayed filled
+	 * @return the {@link DashboardDTO} filled with every figure available
 	 */
-	public DashboardDTO dashboard(UUID token) {
-		if (token == null) {
-			throw new PharmacyException(Response.Status.UNAUTHORIZED, "Access denied", "It must be logged to access this feature");
-		}
-		
-		if (!verifyIfIsAdmin(token)) {
-			throw new PharmacyException(Response.Status.FORBIDDEN, "Access denied", "This feature is only available to administrators");
-		}
+	private DashboardDTO computeDashboard() {
+		long deadline = System.currentTimeMillis() + DASHBOARD_QUERY_TIMEOUT_MILLIS;
+		Future<Long> totalClients = managedExecutorService.submit(userDAO::countAllClients);
+		Future<Long> totalProducts = managedExecutorService.submit(productDAO::countAll);
+		Future<Long> totalCarts = managedExecutorService.submit(orderDAO::countAllNonConcluded);
+		Future<Long> totalSignIns = managedExecutorService.submit(() -> configurationDAO.findValueByKeyWord(SignInCounter.CONFIGURATION_KEYWORD).map(configurationElement -> Long.valueOf(configurationElement.getValue())).orElse(0L) + signInCounter.getPendingAmount());
+		Future<Double> totalValue = managedExecutorService.submit(revenueRollupDAO::sumTotalValue);
+		Future<Double> totalValueCurrentMonth = managedExecutorService.submit(() -> revenueRollupDAO.sumTotalValueOfMonth(LocalDate.now()));
+		Future<Double> totalValueLastMonth = managedExecutorService.submit(() -> revenueRollupDAO.sumTotalValueOfMonth(LocalDate.now().minusMonths(1L)));
+		Future<List<UserDTO>> visitors = managedExecutorService.submit(userDAO::findAllVisitors);
 		
 		DashboardDTO dashboardDTO = new DashboardDTO();
-		dashboardDTO.setTotalClients(countAllClients());
-		dashboardDTO.setTotalProducts(productService.countAll());
-		dashboardDTO.setTotalCarts(orderService.countAllNonConcluded());
-		dashboardDTO.setTotalSignIns(Short.valueOf(configurationDAO.findValueByKeyWord("total of sign ins").get().getValue()));
-		dashboardDTO.setTotalValueConcludedOrders(orderService.sumTotalValue());
-		dashboardDTO.setTotalValueConcludedOrdersCurrentMonth(orderService.sumTotalValueConcludedOrdersCurrentMonth());
-		dashboardDTO.setTotalValueConcludedOrdersLastMonth(orderService.sumTotalValueConcludedOrdersLastMonth());
-		dashboardDTO.setVisitorsDTO(getAllVisitors());
+		List<String> unavailableFigures = new ArrayList<>();
+		
+		dashboardDTO.setTotalClients(collect("totalClients", totalClients, deadline, unavailableFigures));
+		dashboardDTO.setTotalProducts(collect("totalProducts", totalProducts, deadline, unavailableFigures));
+		dashboardDTO.setTotalCarts(collect("totalCarts", totalCarts, deadline, unavailableFigures));
+		dashboardDTO.setTotalSignIns(collect("totalSignIns", totalSignIns, deadline, unavailableFigures));
+		dashboardDTO.setTotalValueConcludedOrders(collect("totalValueConcludedOrders", totalValue, deadline, unavailableFigures));
+		dashboardDTO.setTotalValueConcludedOrdersCurrentMonth(collect("totalValueConcludedOrdersCurrentMonth", totalValueCurrentMonth, deadline, unavailableFigures));
+		dashboardDTO.setTotalValueConcludedOrdersLastMonth(collect("totalValueConcludedOrdersLastMonth", totalValueLastMonth, deadline, unavailableFigures));
+		
+		dashboardDTO.setVisitorsDTO(collect("visitorsDTO", visitors, deadline, unavailableFigures));
+		dashboardDTO.setUnavailableFigures(unavailableFigures);
 		
 		return dashboardDTO;
 	}
+
+	/**
+	 * <p>Waits for a dashboard read until the deadline.</p>
+	 * <p><em>Auxiliary method. A read that failed, returned null (database error) or was not finished in time is reported as unavailable.</em></p>
+	 * 
+	 * @param <T>				 the figure type
+	 * @param figure			 the figure name, as in {@link DashboardDTO}
+	 * @param read				 the dispatched read
+	 * @param deadline			 moment, in milliseconds since the epoch, after which the read is given up
+	 * @param unavailableFigures the figures already unavailable
+	 * @return the figure read, null if it is unavailable
+	 */
+	private <T> T collect(String figure, Future<T> read, long deadline, List<String> unavailableFigures) {
+		try {
+			T result = read.get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+			
+			if (result == null) {
+				unavailableFigures.add(figure);
+			}
+			
+			return result;
+		} catch (TimeoutException timeoutException) {
+			read.cancel(true);
+			Logger.getLogger(UserService.class.getName()).log(Level.WARNING, "Dashboard read of " + figure + " timed out", timeoutException);
+		} catch (ExecutionException executionException) {
+			Logger.getLogger(UserService.class.getName()).log(Level.SEVERE, "Dashboard read of " + figure + " failed", executionException);
+		} catch (InterruptedException interruptedException) {
+			read.cancel(true);
+			Thread.currentThread().interrupt();
+		}
+		
+		unavailableFigures.add(figure);
+		
+		return null;
+	}
 }
\ No newline at end of file
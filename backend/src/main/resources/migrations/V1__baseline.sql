@@ -0,0 +1,67 @@
+-- Tables of the entities as Hibernate created them before the migrations existed, already with the widened identifiers.
+-- Databases that already had these tables are baselined at version 0 and run it as well, so every table is only created if it does not exist.
+-- The tables and columns added afterwards are created by the next migrations.
+
+CREATE TABLE IF NOT EXISTS users (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	name VARCHAR(255),
+	token VARCHAR(36),
+	username VARCHAR(255),
+	password VARCHAR(255),
+	role VARCHAR(255),
+	is_deleted BIT,
+	PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS products (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	name VARCHAR(255),
+	price FLOAT NOT NULL,
+	section VARCHAR(255),
+	image VARCHAR(255),
+	PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS orders (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	last_update DATETIME(6),
+	created_in DATETIME(6),
+	total_value DOUBLE,
+	is_concluded BIT,
+	buyer_id BIGINT,
+	PRIMARY KEY (id),
+	CONSTRAINT fk_orders_buyer FOREIGN KEY (buyer_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS comments (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	content VARCHAR(255),
+	owner_id BIGINT,
+	product_id BIGINT,
+	PRIMARY KEY (id),
+	CONSTRAINT fk_comments_owner FOREIGN KEY (owner_id) REFERENCES users (id),
+	CONSTRAINT fk_comments_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS configurations (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	keyword VARCHAR(255),
+	value VARCHAR(255),
+	PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS liked_products (
+	liked_product_id BIGINT NOT NULL,
+	user_that_liked_id BIGINT NOT NULL,
+	PRIMARY KEY (liked_product_id, user_that_liked_id),
+	CONSTRAINT fk_liked_products_product FOREIGN KEY (liked_product_id) REFERENCES products (id),
+	CONSTRAINT fk_liked_products_user FOREIGN KEY (user_that_liked_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS favorite_products (
+	favorite_product_id BIGINT NOT NULL,
+	user_that_favorited_id BIGINT NOT NULL,
+	PRIMARY KEY (favorite_product_id, user_that_favorited_id),
+	CONSTRAINT fk_favorite_products_product FOREIGN KEY (favorite_product_id) REFERENCES products (id),
+	CONSTRAINT fk_favorite_products_user FOREIGN KEY (user_that_favorited_id) REFERENCES users (id)
+) ENGINE = InnoDB;
\ No newline at end of file
@@ -0,0 +1,26 @@
+-- Indexes for every lookup made by the DAOs on each request or job run, which were scanning whole tables.
+
+-- Every authenticated request finds its user by token, sign in finds it by username.
+CREATE UNIQUE INDEX uk_users_token ON users (token);
+CREATE INDEX idx_users_username ON users (username);
+-- Dashboard counts the clients and lists the visitors.
+CREATE INDEX idx_users_role ON users (role);
+
+-- Cart of a buyer, and the pages of their concluded orders from the newest.
+CREATE INDEX idx_orders_buyer_concluded ON orders (buyer_id, is_concluded, id);
+-- Stale carts sweep, orders export and revenue rebuild, all by conclusion state and time.
+CREATE INDEX idx_orders_concluded_last_update ON orders (is_concluded, last_update);
+
+-- Catalogue by section.
+CREATE INDEX idx_products_section ON products (section);
+
+-- Comments feed of a product, and the comment of a user on a product.
+CREATE INDEX idx_comments_product ON comments (product_id, id);
+CREATE INDEX idx_comments_owner_product ON comments (owner_id, product_id);
+
+-- Likes and favourites of a user, the reverse of the join tables primary keys.
+CREATE INDEX idx_liked_products_user ON liked_products (user_that_liked_id, liked_product_id);
+CREATE INDEX idx_favorite_products_user ON favorite_products (user_that_favorited_id, favorite_product_id);
+
+-- Configuration values are read and written by keyword.
+CREATE UNIQUE INDEX uk_configurations_keyword ON configurations (keyword);
\ No newline at end of file
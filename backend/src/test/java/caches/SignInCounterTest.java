@@ -0,0 +1,203 @@
+package caches;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import daos.ConfigurationDAO;
+
+/**
+ * <p>Checks that the sign ins counted by {@link SignInCounter} are each saved exactly once, whatever the threads that count them and the flushes that fail.</p>
+ * <p><em>The database is replaced by a {@link ConfigurationDAO} that keeps the amounts added in memory.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+public class SignInCounterTest {
+	/**
+	 * Threads that count sign ins at the same time.
+	 */
+	private static final int THREADS = 8;
+	/**
+	 * Sign ins counted by each thread.
+	 */
+	private static final int SIGN_INS_PER_THREAD = 50_000;
+
+	/**
+	 * Counter under test, with the stubs below injected.
+	 */
+	private SignInCounter signInCounter;
+
+	/**
+	 * Stub of the configurations table.
+	 */
+	private StubConfigurationDAO configurationDAO;
+
+	/**
+	 * Stub of the in-memory copy of the configurations table.
+	 */
+	private StubConfigurationRegistry configurationRegistry;
+
+	/**
+	 * Threads that count the sign ins.
+	 */
+	private ExecutorService executorService;
+
+	@Before
+	public void createCounter() throws Exception {
+		signInCounter = new SignInCounter();
+		configurationDAO = new StubConfigurationDAO();
+		configurationRegistry = new StubConfigurationRegistry();
+		executorService = Executors.newFixedThreadPool(THREADS);
+		
+		inject(signInCounter, "configurationDAO", configurationDAO);
+		inject(signInCounter, "configurationRegistry", configurationRegistry);
+	}
+
+	@After
+	public void stopThreads() {
+		executorService.shutdownNow();
+	}
+
+	@Test
+	public void flushSavesWhatWasCountedSinceThePreviousOne() {
+		assertEquals(0L, signInCounter.flush());
+		assertEquals(0, configurationDAO.amountsAdded.size());
+		
+		increment(3);
+		assertEquals(3L, signInCounter.getPendingAmount());
+		assertEquals(3L, signInCounter.flush());
+		assertEquals(0L, signInCounter.getPendingAmount());
+		
+		increment(2);
+		assertEquals(2L, signInCounter.flush());
+		
+		assertEquals(List.of(3L, 2L), configurationDAO.amountsAdded);
+		assertEquals(List.of(SignInCounter.CONFIGURATION_KEYWORD, SignInCounter.CONFIGURATION_KEYWORD), configurationRegistry.keywordsRefreshed);
+	}
+
+	@Test
+	public void failedFlushKeepsTheAmountForTheNextOne() {
+		increment(4);
+		configurationDAO.isAvailable = false;
+		
+		assertEquals(0L, signInCounter.flush());
+		assertEquals(4L, signInCounter.getPendingAmount());
+		assertEquals(0, configurationRegistry.keywordsRefreshed.size());
+		
+		increment(1);
+		configurationDAO.isAvailable = true;
+		
+		assertEquals(5L, signInCounter.flush());
+		assertEquals(0L, signInCounter.getPendingAmount());
+		assertEquals(List.of(5L), configurationDAO.amountsAdded);
+	}
+
+	@Test
+	public void parallelIncrementsAreSavedExactlyOnce() throws Exception {
+		List<Callable<Long>> counters = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			counters.add(() -> {
+				long flushed = 0;
+				
+				for (int signIn = 0; signIn < SIGN_INS_PER_THREAD; signIn++) {
+					signInCounter.increment();
+					
+					if (signIn % 1_000 == 0) {
+						flushed += signInCounter.flush();
+					}
+				}
+				
+				return flushed;
+			});
+		}
+		
+		long flushed = 0;
+		for (Future<Long> counter : executorService.invokeAll(counters)) {
+			flushed += counter.get();
+		}
+		flushed += signInCounter.flush();
+		
+		assertEquals((long) THREADS * SIGN_INS_PER_THREAD, flushed);
+		assertEquals(flushed, configurationDAO.amountsAdded.stream().mapToLong(Long::longValue).sum());
+		assertEquals(0L, signInCounter.getPendingAmount());
+	}
+
+	/**
+	 * Counts the given amount of sign ins.
+	 * 
+	 * @param amount how many sign ins to count
+	 */
+	private void increment(int amount) {
+		for (int signIn = 0; signIn < amount; signIn++) {
+			signInCounter.increment();
+		}
+	}
+
+	/**
+	 * Sets a private field, as the container would inject it.
+	 * 
+	 * @param target the object that receives the value
+	 * @param name	 the field name
+	 * @param value	 the value to be set
+	 */
+	private static void inject(Object target, String name, Object value) throws ReflectiveOperationException {
+		Field field = target.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+
+	/**
+	 * Keeps the amounts added instead of writing them to the database.
+	 */
+	private static class StubConfigurationDAO extends ConfigurationDAO {
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Every amount added, in order.
+		 */
+		private final List<Long> amountsAdded = new ArrayList<>();
+		
+		/**
+		 * False to behave as if the database could not be reached.
+		 */
+		private volatile boolean isAvailable = true;
+		
+		@Override
+		public synchronized Integer addToValue(String keyword, long amount) {
+			if (!isAvailable) {
+				return null;
+			}
+			
+			amountsAdded.add(amount);
+			
+			return 1;
+		}
+	}
+
+	/**
+	 * Keeps the keywords refreshed instead of reading them from the database.
+	 */
+	private static class StubConfigurationRegistry extends ConfigurationRegistry {
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Every keyword refreshed, in order.
+		 */
+		private final List<String> keywordsRefreshed = new ArrayList<>();
+		
+		@Override
+		public synchronized void refresh(String keyword) {
+			keywordsRefreshed.add(keyword);
+		}
+	}
+}
\ No newline at end of file
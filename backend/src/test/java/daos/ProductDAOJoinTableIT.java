@@ -0,0 +1,234 @@
+package daos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.UserTransaction;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import deployments.ApplicationDeployment;
+
+/**
+ * <p>Checks that likes are written to the liked_products table as single idempotent rows, whose cost does not depend on how many likes the product already has.</p>
+ * <p><em>Every row it seeds is named after {@link #MARKER} and removed after each test.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RunWith(Arquillian.class)
+public class ProductDAOJoinTableIT {
+	/**
+	 * Prefix of the name of every user and product created by the tests.
+	 */
+	private static final String MARKER = "join-table-it-";
+	/**
+	 * Likes of the product used as reference.
+	 */
+	private static final int FEW_LIKES = 10;
+	/**
+	 * Likes of the popular product.
+	 */
+	private static final int MANY_LIKES = 100_000;
+	/**
+	 * Like/unlike pairs run before measuring, so connections and statements are warmed up.
+	 */
+	private static final int WARM_UP_ROUNDS = 200;
+	/**
+	 * Like/unlike pairs measured on each product.
+	 */
+	private static final int MEASURED_ROUNDS = 1_000;
+	/**
+	 * How many times slower the median like/unlike of the popular product may be, leaving room for the noise of a shared database.
+	 */
+	private static final double LATENCY_BOUND = 3D;
+	/**
+	 * Requests that like the same product at the same time.
+	 */
+	private static final int CONCURRENT_LIKES = 8;
+	/**
+	 * Derived table of the digits from 0 to 9, cross joined to number the seeded users.
+	 */
+	private static final String DIGITS = "(SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+
+	@Deployment
+	public static WebArchive createDeployment() {
+		return ApplicationDeployment.create(ProductDAOJoinTableIT.class);
+	}
+
+	@Inject
+	private ProductDAO productDAO;
+
+	@PersistenceContext(unitName = "backend")
+	private EntityManager entityManager;
+
+	@Resource
+	private UserTransaction userTransaction;
+
+	@Resource
+	private ManagedExecutorService managedExecutorService;
+
+	@After
+	public void removeSeededRows() throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("DELETE l FROM liked_products l JOIN products p ON p.id = l.liked_product_id WHERE p.name LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM products WHERE name LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM users WHERE username LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		userTransaction.commit();
+	}
+
+	@Test
+	public void likeCostDoesNotGrowWithTheLikesOfTheProduct() throws Exception {
+		seedUsers(MANY_LIKES);
+		Long productWithFewLikes = seedProduct("few", FEW_LIKES);
+		Long productWithManyLikes = seedProduct("many", MANY_LIKES);
+		Long userId = seedUser("liker");
+		
+		long fewLikesMedian = medianLikeNanos(productWithFewLikes, userId);
+		long manyLikesMedian = medianLikeNanos(productWithManyLikes, userId);
+		
+		assertTrue("Median like/unlike took " + manyLikesMedian + " ns with " + MANY_LIKES + " likes against " + fewLikesMedian + " ns with " + FEW_LIKES,
+				manyLikesMedian <= fewLikesMedian * LATENCY_BOUND);
+	}
+
+	@Test
+	public void concurrentLikesOfTheSameUserAddASingleRow() throws Exception {
+		Long productId = seedProduct("concurrent", 0);
+		Long userId = seedUser("liker");
+		
+		List<Callable<Integer>> likes = new ArrayList<>();
+		for (int index = 0; index < CONCURRENT_LIKES; index++) {
+			likes.add(() -> productDAO.insertLike(productId, userId));
+		}
+		
+		int amountOfRowsInserted = 0;
+		for (Future<Integer> like : managedExecutorService.invokeAll(likes)) {
+			amountOfRowsInserted += like.get();
+		}
+		
+		assertEquals(1, amountOfRowsInserted);
+		assertEquals(1L, count("SELECT COUNT(*) FROM liked_products WHERE liked_product_id = ?1", productId));
+		assertEquals(1L, count("SELECT like_count FROM products WHERE id = ?1", productId));
+		
+		assertEquals(Integer.valueOf(1), productDAO.deleteLike(productId, userId));
+		assertEquals(Integer.valueOf(0), productDAO.deleteLike(productId, userId));
+		assertEquals(0L, count("SELECT like_count FROM products WHERE id = ?1", productId));
+	}
+
+	/**
+	 * Likes and unlikes the product, each in its own transaction, as the service does.
+	 * 
+	 * @param productId the product to be liked
+	 * @param userId	the user who likes it
+	 * @return the median time, in nanoseconds, of a like followed by an unlike
+	 */
+	private long medianLikeNanos(Long productId, Long userId) {
+		long[] nanos = new long[MEASURED_ROUNDS];
+		
+		for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+			long start = System.nanoTime();
+			assertEquals(Integer.valueOf(1), productDAO.insertLike(productId, userId));
+			assertEquals(Integer.valueOf(1), productDAO.deleteLike(productId, userId));
+			
+			if (round >= WARM_UP_ROUNDS) {
+				nanos[round - WARM_UP_ROUNDS] = System.nanoTime() - start;
+			}
+		}
+		
+		Arrays.sort(nanos);
+		
+		return nanos[nanos.length / 2];
+	}
+
+	/**
+	 * Creates the given amount of users, numbered from 0, in a single statement.
+	 * 
+	 * @param amount how many users to create, at most 100 000
+	 */
+	private void seedUsers(int amount) throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery(
+				"INSERT INTO users (name, username, password, role, is_deleted) "
+				+ "SELECT CONCAT(?1, n), CONCAT(?1, n), 'password', 'CLIENT', FALSE FROM ("
+				+ "SELECT a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d AS n FROM "
+				+ DIGITS + " a, "
+				+ DIGITS + " b, "
+				+ DIGITS + " c, "
+				+ DIGITS + " e, "
+				+ DIGITS + " f"
+				+ ") numbers WHERE n < ?2")
+				.setParameter(1, MARKER)
+				.setParameter(2, amount)
+				.executeUpdate();
+		userTransaction.commit();
+	}
+
+	/**
+	 * Creates a single user.
+	 * 
+	 * @param name the user name, after the marker
+	 * @return the primary key of the user
+	 */
+	private Long seedUser(String name) throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("INSERT INTO users (name, username, password, role, is_deleted) VALUES (?1, ?1, 'password', 'CLIENT', FALSE)")
+				.setParameter(1, MARKER + name)
+				.executeUpdate();
+		Long userId = ((Number) entityManager.createNativeQuery("SELECT LAST_INSERT_ID()").getSingleResult()).longValue();
+		userTransaction.commit();
+		
+		return userId;
+	}
+
+	/**
+	 * Creates a product liked by the given amount of the seeded users.
+	 * 
+	 * @param name	the product name, after the marker
+	 * @param likes how many seeded users like it
+	 * @return the primary key of the product
+	 */
+	private Long seedProduct(String name, int likes) throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("INSERT INTO products (name, price, section, image, like_count) VALUES (?1, 1, 'HEALTH', 'image', ?2)")
+				.setParameter(1, MARKER + name)
+				.setParameter(2, likes)
+				.executeUpdate();
+		Long productId = ((Number) entityManager.createNativeQuery("SELECT LAST_INSERT_ID()").getSingleResult()).longValue();
+		entityManager.createNativeQuery(
+				"INSERT INTO liked_products (liked_product_id, user_that_liked_id) SELECT ?1, id FROM users WHERE username LIKE ?2 ORDER BY id LIMIT ?3")
+				.setParameter(1, productId)
+				.setParameter(2, MARKER + "%")
+				.setParameter(3, likes)
+				.executeUpdate();
+		userTransaction.commit();
+		
+		return productId;
+	}
+
+	/**
+	 * Runs a query that returns a single number about the given product.
+	 * 
+	 * @param query		the native query, with the product as its only parameter
+	 * @param productId the product
+	 * @return the number returned
+	 */
+	private long count(String query, Long productId) {
+		return ((Number) entityManager.createNativeQuery(query).setParameter(1, productId).getSingleResult()).longValue();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package daos;
+
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import javax.transaction.UserTransaction;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import deployments.ApplicationDeployment;
+
+/**
+ * <p>Checks, with EXPLAIN on a seeded large dataset, that no lookup made by the DAOs reads a whole table.</p>
+ * <p>Each lookup is written as the SQL the DAO method sends, with values taken from the seeded rows. Only lookups that select a small share of their table are checked: full listings, as <code>findAllConfigurations</code> or <code>findAllBySection</code>, read most of the table on purpose.</p>
+ * <p><em>Every row it seeds is named after {@link #MARKER}, or dated before 1910 for the revenue rollups, and removed after the test.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RunWith(Arquillian.class)
+public class QueryPlanIT {
+	/**
+	 * Prefix of the name of every user, product and configuration created by the test.
+	 */
+	private static final String MARKER = "query-plan-it-";
+	/**
+	 * Users seeded, each with an order, a comment, a like and a favourite.
+	 */
+	private static final int USERS = 20_000;
+	/**
+	 * Products seeded.
+	 */
+	private static final int PRODUCTS = 2_000;
+	/**
+	 * Configurations seeded.
+	 */
+	private static final int CONFIGURATIONS = 1_000;
+	/**
+	 * Days of revenue rollups seeded, from 1900-01-01.
+	 */
+	private static final int ROLLUP_DAYS = 3_650;
+	/**
+	 * Every twentieth order is a cart, the others are concluded.
+	 */
+	private static final int CART_EVERY = 20;
+	/**
+	 * Every hundredth user is a visitor, the others are clients.
+	 */
+	private static final int VISITOR_EVERY = 100;
+	/**
+	 * Derived table of the digits from 0 to 9, cross joined to number the seeded rows.
+	 */
+	private static final String DIGITS = "(SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+	/**
+	 * Numbers from 0 to 99 999, to be limited by a where clause on <code>n</code>.
+	 */
+	private static final String NUMBERS = "(SELECT a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d AS n FROM "
+			+ DIGITS + " a, " + DIGITS + " b, " + DIGITS + " c, " + DIGITS + " e, " + DIGITS + " f) numbers";
+	/**
+	 * Tables whose statistics are refreshed after seeding, so the plans are the ones of a database that grew to that size.
+	 */
+	private static final String SEEDED_TABLES = "users, products, orders, order_lines, comments, liked_products, favorite_products, configurations, revenue_rollups";
+
+	@Deployment
+	public static WebArchive createDeployment() {
+		return ApplicationDeployment.create(QueryPlanIT.class);
+	}
+
+	@PersistenceContext(unitName = "backend")
+	private EntityManager entityManager;
+
+	@Resource
+	private UserTransaction userTransaction;
+
+	@Resource(lookup = "java:/MySqlDSPharmacy")
+	private DataSource dataSource;
+
+	@After
+	public void removeSeededRows() throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("DELETE ol FROM order_lines ol JOIN orders o ON o.id = ol.order_id JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE o FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE c FROM comments c JOIN users u ON u.id = c.owner_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE l FROM liked_products l JOIN users u ON u.id = l.user_that_liked_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE f FROM favorite_products f JOIN users u ON u.id = f.user_that_favorited_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM products WHERE name LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM users WHERE username LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM configurations WHERE keyword LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM revenue_rollups WHERE period_start < '1910-01-01'").executeUpdate();
+		userTransaction.commit();
+	}
+
+	@Test
+	public void noLookupScansAWholeTable() throws Exception {
+		seed();
+		
+		List<String> fullScans = new ArrayList<>();
+		for (Map.Entry<String, String> lookup : lookups().entrySet()) {
+			for (String table : fullyScannedTables(lookup.getValue())) {
+				fullScans.add(lookup.getKey() + " scans the whole " + table + " table");
+			}
+		}
+		
+		assertTrue(String.join("\n", fullScans), fullScans.isEmpty());
+	}
+
+	/**
+	 * Writes the SQL of each lookup made by the DAOs, with values of the seeded rows.
+	 * 
+	 * @return the SQL of each lookup, by the DAO method that sends it
+	 */
+	private Map<String, String> lookups() {
+		String token = "'" + single("SELECT token FROM users WHERE username = ?1", MARKER + 1) + "'";
+		String username = "'" + MARKER + 1 + "'";
+		Object visitorId = single("SELECT id FROM users WHERE username = ?1", MARKER + VISITOR_EVERY);
+		Object productId = single("SELECT MIN(id) FROM products WHERE name LIKE ?1", MARKER + "%");
+		Object userId = single("SELECT id FROM users WHERE username = ?1", MARKER + 1);
+		Object orderId = single("SELECT o.id FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.username = ?1", MARKER + 1);
+		Object lineProductId = single("SELECT MIN(product_id) FROM order_lines WHERE order_id = ?1", orderId);
+		String keyword = "'" + MARKER + 1 + "'";
+		
+		Map<String, String> lookups = new LinkedHashMap<>();
+		lookups.put("UserDAO.signIn", "SELECT * FROM users WHERE username = " + username + " AND password = 'password'");
+		lookups.put("UserDAO.findByUUID", "SELECT * FROM users WHERE token = " + token + " AND role <> 'VISITOR'");
+		lookups.put("UserDAO.findByUUIDForUpdate", "SELECT * FROM users WHERE token = " + token + " FOR UPDATE");
+		lookups.put("UserDAO.signOut", "UPDATE users SET token = NULL WHERE token = " + token);
+		lookups.put("UserDAO.approve", "UPDATE users SET role = 'CLIENT' WHERE id = " + visitorId + " AND role = 'VISITOR'");
+		lookups.put("UserDAO.countAllClients", "SELECT COUNT(*) FROM users WHERE role = 'CLIENT'");
+		lookups.put("UserDAO.findAllVisitors", "SELECT id, name, username FROM users WHERE role = 'VISITOR'");
+		lookups.put("OrderDAO.findById", "SELECT * FROM orders WHERE id = " + orderId);
+		lookups.put("OrderDAO.findConcludedPage", "SELECT o.*, u.* FROM orders o JOIN users u ON u.id = o.buyer_id "
+				+ "WHERE u.token = " + token + " AND o.is_concluded = TRUE AND o.id < " + Long.MAX_VALUE + " ORDER BY o.id DESC LIMIT 20");
+		lookups.put("OrderDAO.findNonConcludedOrder", "SELECT o.* FROM orders o JOIN users u ON u.id = o.buyer_id WHERE o.is_concluded = FALSE AND u.token = " + token);
+		lookups.put("OrderDAO.countAllNonConcluded", "SELECT COUNT(*) FROM orders WHERE is_concluded = FALSE");
+		lookups.put("OrderDAO.deleteStaleCarts", "SELECT id FROM orders WHERE is_concluded = FALSE AND last_update < '1990-01-02' ORDER BY id LIMIT 500 FOR UPDATE");
+		lookups.put("OrderDAO.scrollConcludedLines", "SELECT o.id, u.username, o.created_in, o.last_update, o.total_value, p.id, p.name, ol.quantity, ol.unit_price "
+				+ "FROM orders o JOIN users u ON u.id = o.buyer_id JOIN order_lines ol ON ol.order_id = o.id JOIN products p ON p.id = ol.product_id "
+				+ "WHERE o.is_concluded = TRUE AND o.last_update >= '1990-01-02' AND o.last_update < '1990-01-03' ORDER BY o.id, ol.id");
+		lookups.put("OrderDAO.addToTotalValue", "UPDATE orders SET total_value = COALESCE(total_value, 0) + 1, version = version + 1, last_update = CURRENT_TIMESTAMP WHERE id = " + orderId);
+		lookups.put("OrderLineDAO.findByOrderIdAndProductId", "SELECT * FROM order_lines WHERE order_id = " + orderId + " AND product_id = " + lineProductId);
+		lookups.put("OrderLineDAO.removeUnit", "UPDATE order_lines SET quantity = quantity - 1 WHERE order_id = " + orderId + " AND product_id = " + lineProductId + " AND quantity > 1");
+		lookups.put("OrderLineDAO.deleteAllByOrderId", "DELETE FROM order_lines WHERE order_id = " + orderId);
+		lookups.put("ProductDAO.findById", "SELECT * FROM products WHERE id = " + productId);
+		lookups.put("ProductDAO.findAllfavoritesByToken", "SELECT p.* FROM products p JOIN favorite_products f ON f.favorite_product_id = p.id "
+				+ "JOIN users u ON u.id = f.user_that_favorited_id WHERE u.token = " + token);
+		lookups.put("ProductDAO.findAllByOrderIds", "SELECT ol.order_id, p.*, ol.quantity FROM order_lines ol JOIN products p ON p.id = ol.product_id "
+				+ "WHERE ol.order_id IN (" + orderId + ", " + orderId + " + 1) ORDER BY ol.id");
+		lookups.put("ProductDAO.findAllIdsLikedByToken", "SELECT p.id FROM products p JOIN liked_products l ON l.liked_product_id = p.id "
+				+ "JOIN users u ON u.id = l.user_that_liked_id WHERE u.token = " + token + " AND p.id IN (" + productId + ", " + productId + " + 1)");
+		lookups.put("ProductDAO.findAllIdsFavoritedByToken", "SELECT p.id FROM products p JOIN favorite_products f ON f.favorite_product_id = p.id "
+				+ "JOIN users u ON u.id = f.user_that_favorited_id WHERE u.token = " + token + " AND p.id IN (" + productId + ", " + productId + " + 1)");
+		lookups.put("ProductDAO.deleteLike", "DELETE FROM liked_products WHERE liked_product_id = " + productId + " AND user_that_liked_id = " + userId);
+		lookups.put("ProductDAO.deleteFavorite", "DELETE FROM favorite_products WHERE favorite_product_id = " + productId + " AND user_that_favorited_id = " + userId);
+		lookups.put("ProductDAO.addToLikeCount", "UPDATE products SET like_count = like_count + 1 WHERE id = " + productId);
+		lookups.put("CommentDAO.findByProductIdForLoggedUser", "SELECT c.* FROM comments c JOIN users u ON u.id = c.owner_id JOIN products p ON p.id = c.product_id "
+				+ "WHERE u.token = " + token + " AND p.id = " + productId);
+		lookups.put("CommentDAO.findPageByProductId", "SELECT c.id, c.content, u.username FROM comments c JOIN users u ON u.id = c.owner_id "
+				+ "WHERE c.product_id = " + productId + " AND c.id > 0 ORDER BY c.id LIMIT 20");
+		lookups.put("ConfigurationDAO.findValueByKeyWord", "SELECT * FROM configurations WHERE keyword = " + keyword);
+		lookups.put("ConfigurationDAO.addToValue", "UPDATE configurations SET value = CAST(CAST(value AS SIGNED) + 1 AS CHAR) WHERE keyword = " + keyword);
+		lookups.put("RevenueRollupDAO.findAllBetween", "SELECT * FROM revenue_rollups WHERE granularity = 'DAY' AND period_start BETWEEN '1900-03-01' AND '1900-03-31'");
+		lookups.put("RevenueRollupDAO.sumTotalValueOfMonth", "SELECT SUM(total) FROM revenue_rollups WHERE granularity = 'MONTH' AND period_start = '1900-03-01'");
+		
+		return lookups;
+	}
+
+	/**
+	 * Explains the given statement.
+	 * 
+	 * @param sql the statement to be explained
+	 * @return the tables that the plan reads whole (type ALL)
+	 * @throws SQLException if the statement could not be explained
+	 */
+	private List<String> fullyScannedTables(String sql) throws SQLException {
+		List<String> tables = new ArrayList<>();
+		
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+			while (resultSet.next()) {
+				if ("ALL".equals(resultSet.getString("type"))) {
+					tables.add(resultSet.getString("table"));
+				}
+			}
+		}
+		
+		return tables;
+	}
+
+	/**
+	 * <p>Creates {@link #USERS} users, each with an order of two lines, a comment, a like and a favourite of the seeded products, along with the configurations and revenue rollups.</p>
+	 * <p><em>The orders are dated one minute apart from 1990-01-01, so a day holds a small share of them.</em></p>
+	 */
+	private void seed() throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("INSERT INTO users (name, username, password, role, token, is_deleted) "
+				+ "SELECT CONCAT(?1, n), CONCAT(?1, n), 'password', IF(n % ?3 = 0, 'VISITOR', 'CLIENT'), UUID(), FALSE FROM " + NUMBERS + " WHERE n < ?2")
+				.setParameter(1, MARKER).setParameter(2, USERS).setParameter(3, VISITOR_EVERY).executeUpdate();
+		entityManager.createNativeQuery("INSERT INTO products (name, price, section, image, like_count) "
+				+ "SELECT CONCAT(?1, n), 1, ELT(1 + n % 3, 'BEAUTY', 'HEALTH', 'SUPPLEMENTS'), 'image', 0 FROM " + NUMBERS + " WHERE n < ?2")
+				.setParameter(1, MARKER).setParameter(2, PRODUCTS).executeUpdate();
+		entityManager.createNativeQuery("INSERT INTO orders (buyer_id, is_concluded, created_in, last_update, total_value, version) "
+				+ "SELECT id, id % ?2 <> 0, '1990-01-01' + INTERVAL (id % ?3) MINUTE, '1990-01-01' + INTERVAL (id % ?3) MINUTE, 2, 0 FROM users WHERE username LIKE ?1")
+				.setParameter(1, MARKER + "%").setParameter(2, CART_EVERY).setParameter(3, USERS).executeUpdate();
+		userTransaction.commit();
+		
+		Object firstProductId = single("SELECT MIN(id) FROM products WHERE name LIKE ?1", MARKER + "%");
+		
+		userTransaction.begin();
+		for (int offset : new int[] {0, 7}) {
+			entityManager.createNativeQuery("INSERT IGNORE INTO order_lines (order_id, product_id, quantity, unit_price) "
+					+ "SELECT o.id, " + seededProduct("o.id + " + offset, firstProductId) + ", 1, 1 FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+					.setParameter(1, MARKER + "%").executeUpdate();
+		}
+		entityManager.createNativeQuery("INSERT INTO comments (content, owner_id, product_id) SELECT 'comment', id, " + seededProduct("id", firstProductId) + " FROM users WHERE username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("INSERT IGNORE INTO liked_products (liked_product_id, user_that_liked_id) SELECT " + seededProduct("id", firstProductId) + ", id FROM users WHERE username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("INSERT IGNORE INTO favorite_products (favorite_product_id, user_that_favorited_id) SELECT " + seededProduct("id", firstProductId) + ", id FROM users WHERE username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("INSERT INTO configurations (keyword, value) SELECT CONCAT(?1, n), '0' FROM " + NUMBERS + " WHERE n < ?2")
+				.setParameter(1, MARKER).setParameter(2, CONFIGURATIONS).executeUpdate();
+		entityManager.createNativeQuery("INSERT IGNORE INTO revenue_rollups (granularity, period_start, total, orders_count) "
+				+ "SELECT 'DAY', '1900-01-01' + INTERVAL n DAY, 1, 1 FROM " + NUMBERS + " WHERE n < ?1")
+				.setParameter(1, ROLLUP_DAYS).executeUpdate();
+		entityManager.createNativeQuery("INSERT IGNORE INTO revenue_rollups (granularity, period_start, total, orders_count) "
+				+ "SELECT 'MONTH', '1900-01-01' + INTERVAL n MONTH, 30, 30 FROM " + NUMBERS + " WHERE n < ?1")
+				.setParameter(1, ROLLUP_DAYS / 30).executeUpdate();
+		userTransaction.commit();
+		
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("ANALYZE TABLE " + SEEDED_TABLES);
+		}
+	}
+
+	/**
+	 * Writes the subquery that picks one of the seeded products from a number, tolerating gaps in their ids.
+	 * 
+	 * @param number		 the SQL expression of the number
+	 * @param firstProductId the smallest id of the seeded products
+	 * @return the SQL subquery that returns the product id
+	 */
+	private String seededProduct(String number, Object firstProductId) {
+		return "(SELECT MIN(p.id) FROM products p WHERE p.id >= " + firstProductId + " + (" + number + ") % " + (PRODUCTS * 9 / 10) + ")";
+	}
+
+	/**
+	 * Runs a query that returns a single value.
+	 * 
+	 * @param query		the native query, with a single parameter
+	 * @param parameter the value of the parameter
+	 * @return the value returned
+	 */
+	private Object single(String query, Object parameter) {
+		return entityManager.createNativeQuery(query).setParameter(1, parameter).getSingleResult();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,206 @@
+package daos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import deployments.ApplicationDeployment;
+import entities.Order;
+import entities.Product;
+import services.OrderService;
+import services.ProductService;
+
+/**
+ * <p>Checks, through the Hibernate statistics, that the product and order lists are read as read-only entities: each row is loaded once, no snapshot of it is kept, and a flush neither compares nor writes them.</p>
+ * <p>It also checks that the read-only services that return those lists never flush.</p>
+ * <p><em>Every row it seeds is named after {@link #MARKER} and removed after each test, and every change made to the entities read is rolled back. The statistics are shared by the whole server, so nothing else should use the database while it runs.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RunWith(Arquillian.class)
+public class ReadOnlyListIT {
+	/**
+	 * Prefix of the name of every user and product created by the tests.
+	 */
+	private static final String MARKER = "read-only-list-it-";
+	/**
+	 * Concluded orders seeded, each with every seeded product.
+	 */
+	private static final int ORDERS = 10;
+	/**
+	 * Products seeded.
+	 */
+	private static final int PRODUCTS = 20;
+
+	@Deployment
+	public static WebArchive createDeployment() {
+		return ApplicationDeployment.create(ReadOnlyListIT.class);
+	}
+
+	@Inject
+	private OrderDAO orderDAO;
+
+	@Inject
+	private ProductDAO productDAO;
+
+	@Inject
+	private OrderService orderService;
+
+	@Inject
+	private ProductService productService;
+
+	@PersistenceContext(unitName = "backend")
+	private EntityManager entityManager;
+
+	@PersistenceUnit(unitName = "backend")
+	private EntityManagerFactory entityManagerFactory;
+
+	@Resource
+	private UserTransaction userTransaction;
+
+	/**
+	 * Token of the seeded buyer.
+	 */
+	private UUID token;
+
+	@Before
+	public void seedConcludedOrders() throws Exception {
+		token = UUID.randomUUID();
+		
+		userTransaction.begin();
+		entityManager.createNativeQuery("INSERT INTO users (name, username, password, role, token, is_deleted) VALUES (?1, ?1, 'password', 'CLIENT', ?2, FALSE)")
+				.setParameter(1, MARKER + "buyer")
+				.setParameter(2, token.toString())
+				.executeUpdate();
+		for (int order = 0; order < ORDERS; order++) {
+			entityManager.createNativeQuery("INSERT INTO orders (buyer_id, is_concluded, created_in, last_update, total_value, version) SELECT id, TRUE, NOW(), NOW(), ?2, 0 FROM users WHERE username = ?1")
+					.setParameter(1, MARKER + "buyer")
+					.setParameter(2, PRODUCTS)
+					.executeUpdate();
+		}
+		for (int product = 0; product < PRODUCTS; product++) {
+			entityManager.createNativeQuery("INSERT INTO products (name, price, section, image, like_count) VALUES (?1, 1, 'HEALTH', 'image', 0)")
+					.setParameter(1, MARKER + product)
+					.executeUpdate();
+		}
+		entityManager.createNativeQuery(
+				"INSERT INTO order_lines (order_id, product_id, quantity, unit_price) "
+				+ "SELECT o.id, p.id, 1, p.price FROM orders o JOIN users u ON u.id = o.buyer_id, products p WHERE u.username = ?1 AND p.name LIKE ?2")
+				.setParameter(1, MARKER + "buyer")
+				.setParameter(2, MARKER + "%")
+				.executeUpdate();
+		userTransaction.commit();
+	}
+
+	@After
+	public void removeSeededRows() throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("DELETE ol FROM order_lines ol JOIN orders o ON o.id = ol.order_id JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE o FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM products WHERE name LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM users WHERE username LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		userTransaction.commit();
+	}
+
+	@Test
+	public void listedOrdersAndProductsAreNeitherSnapshottedNorDirtyChecked() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		userTransaction.begin();
+		try {
+			Session session = entityManager.unwrap(Session.class);
+			long loadsBefore = statistics.getEntityLoadCount();
+			long fetchesBefore = statistics.getEntityFetchCount();
+			
+			List<Order> orders = orderDAO.findConcludedPage(token, null, ORDERS);
+			Map<Long, List<Product>> productsByOrderId = productDAO.findAllByOrderIds(orders.stream().map(Order::getId).collect(Collectors.toList()));
+			List<Object> entities = new ArrayList<>(orders);
+			entities.add(orders.get(0).getBuyer());
+			productsByOrderId.values().stream().flatMap(List::stream).distinct().forEach(entities::add);
+			
+			assertEquals("Entities loaded: the orders, their buyer and their products", ORDERS + 1L + PRODUCTS, statistics.getEntityLoadCount() - loadsBefore);
+			assertEquals("Entities fetched after the queries", 0L, statistics.getEntityFetchCount() - fetchesBefore);
+			assertEquals(ORDERS + 1 + PRODUCTS, entities.size());
+			entities.forEach(entity -> assertTrue(entity + " is kept with a snapshot", session.isReadOnly(entity)));
+			
+			orders.forEach(order -> order.setTotalValue(order.getTotalValue() + 1));
+			productsByOrderId.values().stream().flatMap(List::stream).forEach(product -> product.setName(product.getName() + " changed"));
+			long flushesBefore = statistics.getFlushCount();
+			long updatesBefore = statistics.getEntityUpdateCount();
+			long statementsBefore = statistics.getPrepareStatementCount();
+			
+			entityManager.flush();
+			
+			assertEquals(1L, statistics.getFlushCount() - flushesBefore);
+			assertEquals("Entities written by the flush", 0L, statistics.getEntityUpdateCount() - updatesBefore);
+			assertEquals("Statements run by the flush", 0L, statistics.getPrepareStatementCount() - statementsBefore);
+		} finally {
+			userTransaction.rollback();
+		}
+	}
+
+	@Test
+	public void entityFoundAloneIsStillDirtyChecked() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		userTransaction.begin();
+		try {
+			Order order = orderDAO.findConcludedPage(token, null, 1).get(0);
+			entityManager.detach(order);
+			Order managedOrder = entityManager.find(Order.class, order.getId());
+			
+			assertFalse(entityManager.unwrap(Session.class).isReadOnly(managedOrder));
+			
+			managedOrder.setTotalValue(managedOrder.getTotalValue() + 1);
+			long updatesBefore = statistics.getEntityUpdateCount();
+			
+			entityManager.flush();
+			
+			assertEquals("Entities written by the flush", 1L, statistics.getEntityUpdateCount() - updatesBefore);
+		} finally {
+			userTransaction.rollback();
+		}
+	}
+
+	@Test
+	public void readOnlyServicesNeverFlush() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		long flushesBefore = statistics.getFlushCount();
+		long updatesBefore = statistics.getEntityUpdateCount();
+		
+		List<Order> orders = orderService.getConcludedPage(token, null, ORDERS);
+		List<Product> products = productService.getAllByOrderId(orders.get(0).getId());
+		
+		assertEquals(ORDERS, orders.size());
+		assertEquals(PRODUCTS, products.size());
+		assertEquals("Flushes of the read-only services", 0L, statistics.getFlushCount() - flushesBefore);
+		assertEquals("Entities written by the read-only services", 0L, statistics.getEntityUpdateCount() - updatesBefore);
+	}
+}
\ No newline at end of file
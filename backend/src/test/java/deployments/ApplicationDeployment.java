@@ -0,0 +1,33 @@
+package deployments;
+
+import java.io.File;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+
+/**
+ * <p>Builds the archive that the Arquillian integration tests deploy, which is the application itself with the tests added.</p>
+ * <p><em>The tests run in the integration-test phase of the arq-managed or arq-remote profiles, after the application archive is packaged, against the database of the server data source.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+public final class ApplicationDeployment {
+	/**
+	 * The application archive, as packaged by Maven.
+	 */
+	private static final String APPLICATION_ARCHIVE = "target/backend.war";
+	
+	private ApplicationDeployment() {}
+	
+	/**
+	 * Creates the deployment from the packaged application.
+	 * 
+	 * @param testClasses the test classes that run inside the deployment
+	 * @return the {@link WebArchive} to be deployed
+	 */
+	public static WebArchive create(Class<?>... testClasses) {
+		return ShrinkWrap.createFromZipFile(WebArchive.class, new File(APPLICATION_ARCHIVE))
+				.addClass(ApplicationDeployment.class)
+				.addClasses(testClasses);
+	}
+}
@@ -0,0 +1,92 @@
+package search;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link EditDistance} gives the Levenshtein distance up to the maximum, and maximum + 1 beyond it.
+ * 
+ * @author Wanderley Drumond
+ */
+public class EditDistanceTest {
+	/**
+	 * Pairs of random words compared with the full computation.
+	 */
+	private static final int RANDOM_PAIRS = 5_000;
+
+	@Test
+	public void countsInsertionsDeletionsAndSubstitutions() {
+		assertEquals(0, EditDistance.bounded("aspirin", "aspirin", 2));
+		assertEquals(1, EditDistance.bounded("aspirin", "asprin", 2));
+		assertEquals(1, EditDistance.bounded("asprin", "aspirin", 2));
+		assertEquals(1, EditDistance.bounded("zinc", "zinx", 1));
+		assertEquals(2, EditDistance.bounded("", "ab", 2));
+		assertEquals(3, EditDistance.bounded("kitten", "sitting", 3));
+	}
+
+	@Test
+	public void stopsAtTheMaximum() {
+		assertEquals(3, EditDistance.bounded("kitten", "sitting", 2));
+		assertEquals(1, EditDistance.bounded("gel", "gek", 0));
+		assertEquals(3, EditDistance.bounded("a", "abcdef", 2));
+		assertEquals(2, EditDistance.bounded("aaaaaaaaaaaaaaaaaaaa", "bbbbbbbbbbbbbbbbbbbb", 1));
+		assertEquals(2, EditDistance.bounded("xbcdefghij", "abcdefghiy", 1));
+	}
+
+	@Test
+	public void agreesWithTheFullComputation() {
+		Random random = new Random(42L);
+		
+		for (int pair = 0; pair < RANDOM_PAIRS; pair++) {
+			String first = randomWord(random);
+			String second = randomWord(random);
+			int maximum = random.nextInt(4);
+			
+			assertEquals(first + " / " + second + " / " + maximum,
+					Math.min(levenshtein(first, second), maximum + 1), EditDistance.bounded(first, second, maximum));
+		}
+	}
+
+	/**
+	 * Creates a word of up to 9 letters out of a small alphabet, so the words compared are often close.
+	 * 
+	 * @param random the source of the letters
+	 * @return the word
+	 */
+	private String randomWord(Random random) {
+		StringBuilder word = new StringBuilder();
+		
+		for (int length = random.nextInt(10); length > 0; length--) {
+			word.append((char) ('a' + random.nextInt(3)));
+		}
+		
+		return word.toString();
+	}
+
+	/**
+	 * Computes the Levenshtein distance with the whole matrix, as reference.
+	 * 
+	 * @param first	 one of the words
+	 * @param second the other word
+	 * @return the distance between the words
+	 */
+	private int levenshtein(String first, String second) {
+		int[][] distances = new int[first.length() + 1][second.length() + 1];
+		
+		for (int row = 0; row <= first.length(); row++) {
+			for (int column = 0; column <= second.length(); column++) {
+				if (row == 0 || column == 0) {
+					distances[row][column] = row + column;
+				} else {
+					distances[row][column] = Math.min(distances[row - 1][column - 1] + (first.charAt(row - 1) == second.charAt(column - 1) ? 0 : 1),
+							Math.min(distances[row - 1][column], distances[row][column - 1]) + 1);
+				}
+			}
+		}
+		
+		return distances[first.length()][second.length()];
+	}
+}
\ No newline at end of file
@@ -0,0 +1,182 @@
+package search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import caches.CatalogProduct;
+
+/**
+ * <p>Checks that {@link FuzzyNameIndex} tolerates as many typos as the length of each word allows, and no more.</p>
+ * <p>It also measures the search cost by word length, typos and catalogue size, and checks that it grows slower than the catalogue.</p>
+ * 
+ * @author Wanderley Drumond
+ */
+public class FuzzyNameIndexTest {
+	/**
+	 * Amount of products answered by the searches.
+	 */
+	private static final int LIMIT = 10;
+	/**
+	 * Products of the smaller catalogue measured.
+	 */
+	private static final int SMALL_CATALOGUE_SIZE = 30_000;
+	/**
+	 * Products of the larger catalogue measured, ten times the smaller one.
+	 */
+	private static final int LARGE_CATALOGUE_SIZE = 300_000;
+	/**
+	 * Searches measured for each kind of query, after as many to warm it up.
+	 */
+	private static final int MEASURED_SEARCHES = 200;
+	/**
+	 * Kinds of query measured, as the length of the word searched and its typos: 5 letters allow 1 typo, 9 letters allow 2.
+	 */
+	private static final int[][] QUERIES = {{5, 0}, {5, 1}, {9, 0}, {9, 1}, {9, 2}};
+
+	@Test
+	public void toleratesTheDistanceAllowedByTheWordLength() throws Exception {
+		FuzzyNameIndex fuzzyNameIndex = new StubProductCatalog("Paracetamol", "Ibuprofen", "Aspirin", "Zinc", "Gel")
+				.injectInto(new FuzzyNameIndex());
+		
+		assertEquals(List.of(1L), ids(fuzzyNameIndex.search("paracetmol", LIMIT)));
+		assertEquals(List.of(1L), ids(fuzzyNameIndex.search("parasetmol", LIMIT)));
+		assertEquals(List.of(2L), ids(fuzzyNameIndex.search("IBUPROFEM", LIMIT)));
+		assertEquals(List.of(3L), ids(fuzzyNameIndex.search("asprin", LIMIT)));
+		assertEquals(List.of(4L), ids(fuzzyNameIndex.search("zinx", LIMIT)));
+		assertEquals(List.of(5L), ids(fuzzyNameIndex.search("gel", LIMIT)));
+	}
+
+	@Test
+	public void rejectsWordsBeyondTheAllowedDistance() throws Exception {
+		FuzzyNameIndex fuzzyNameIndex = new StubProductCatalog("Paracetamol", "Ibuprofen", "Aspirin", "Zinc", "Gel")
+				.injectInto(new FuzzyNameIndex());
+		
+		assertTrue(fuzzyNameIndex.search("parasetmal", LIMIT).isEmpty());
+		assertTrue(fuzzyNameIndex.search("aspxrxn", LIMIT).isEmpty());
+		assertTrue(fuzzyNameIndex.search("zonx", LIMIT).isEmpty());
+		assertTrue(fuzzyNameIndex.search("gek", LIMIT).isEmpty());
+		assertTrue(fuzzyNameIndex.search("", LIMIT).isEmpty());
+	}
+
+	@Test
+	public void requiresEveryWordAndRanksByTotalDistance() throws Exception {
+		FuzzyNameIndex fuzzyNameIndex = new StubProductCatalog("Vitamine B12", "Vitamin D3 Extra", "Vitamin C", "Vitamin D")
+				.injectInto(new FuzzyNameIndex());
+		
+		assertEquals(List.of(3L), ids(fuzzyNameIndex.search("vitamn c", LIMIT)));
+		assertEquals(List.of(3L, 4L, 2L, 1L), ids(fuzzyNameIndex.search("vitamin", LIMIT)));
+		assertEquals(List.of(3L, 4L), ids(fuzzyNameIndex.search("vitamin", 2)));
+	}
+
+	@Test
+	public void findsTheProductsAddedToTheCatalogue() throws Exception {
+		StubProductCatalog stubProductCatalog = new StubProductCatalog("Aspirin");
+		FuzzyNameIndex fuzzyNameIndex = stubProductCatalog.injectInto(new FuzzyNameIndex());
+		
+		assertTrue(fuzzyNameIndex.search("magnesum", LIMIT).isEmpty());
+		
+		Long magnesiumId = stubProductCatalog.add("Magnesium");
+		
+		assertEquals(List.of(magnesiumId), ids(fuzzyNameIndex.search("magnesum", LIMIT)));
+	}
+
+	@Test
+	public void searchCostGrowsSlowerThanTheCatalogue() throws Exception {
+		long[] smallCatalogueMedians = medianSearchNanos(SMALL_CATALOGUE_SIZE);
+		long[] largeCatalogueMedians = medianSearchNanos(LARGE_CATALOGUE_SIZE);
+		long smallCatalogueTotal = 0L, largeCatalogueTotal = 0L;
+		
+		for (int query = 0; query < QUERIES.length; query++) {
+			Logger.getLogger(FuzzyNameIndexTest.class.getName()).log(Level.INFO, "{0} letters with {1} typos: {2} µs with {3} products, {4} µs with {5} products",
+					new Object[] {QUERIES[query][0], QUERIES[query][1], smallCatalogueMedians[query] / 1_000, SMALL_CATALOGUE_SIZE, largeCatalogueMedians[query] / 1_000, LARGE_CATALOGUE_SIZE});
+			smallCatalogueTotal += smallCatalogueMedians[query];
+			largeCatalogueTotal += largeCatalogueMedians[query];
+		}
+		
+		assertTrue("The searches took " + largeCatalogueTotal + " ns with " + LARGE_CATALOGUE_SIZE + " products against " + smallCatalogueTotal + " ns with " + SMALL_CATALOGUE_SIZE,
+				(double) largeCatalogueTotal / smallCatalogueTotal < (double) LARGE_CATALOGUE_SIZE / SMALL_CATALOGUE_SIZE);
+	}
+
+	/**
+	 * Measures each kind of query in a catalogue of random names.
+	 * 
+	 * @param catalogueSize the amount of products of the catalogue
+	 * @return the median time of a search, in nanoseconds, in the same order as {@link #QUERIES}
+	 */
+	private long[] medianSearchNanos(int catalogueSize) throws Exception {
+		Random random = new Random(11L);
+		StubProductCatalog stubProductCatalog = new StubProductCatalog();
+		stubProductCatalog.addRandomNames(catalogueSize, random);
+		FuzzyNameIndex fuzzyNameIndex = stubProductCatalog.injectInto(new FuzzyNameIndex());
+		List<CatalogProduct> products = stubProductCatalog.getAll();
+		long[] medians = new long[QUERIES.length];
+		
+		fuzzyNameIndex.search("index", LIMIT);
+		for (int query = 0; query < QUERIES.length; query++) {
+			long[] nanos = new long[MEASURED_SEARCHES];
+			
+			for (int search = -MEASURED_SEARCHES; search < MEASURED_SEARCHES; search++) {
+				String keysearch = misspelledWord(products, QUERIES[query][0], QUERIES[query][1], random);
+				
+				long start = System.nanoTime();
+				fuzzyNameIndex.search(keysearch, LIMIT);
+				
+				if (search >= 0) {
+					nanos[search] = System.nanoTime() - start;
+				}
+			}
+			
+			Arrays.sort(nanos);
+			medians[query] = nanos[MEASURED_SEARCHES / 2];
+		}
+		
+		return medians;
+	}
+
+	/**
+	 * Picks a word of the provided length from a random product name and replaces some of its letters by one that no name has.
+	 * 
+	 * @param products the products of the catalogue
+	 * @param length   the length of the word
+	 * @param typos	   how many letters to replace, each at a different position
+	 * @param random   the source of the choices
+	 * @return the misspelled word
+	 */
+	private String misspelledWord(List<CatalogProduct> products, int length, int typos, Random random) {
+		while (true) {
+			for (String word : NameNormalizer.normalize(products.get(random.nextInt(products.size())).getName()).split(" ")) {
+				if (word.length() != length) {
+					continue;
+				}
+				
+				char[] letters = word.toCharArray();
+				int offset = random.nextInt(length);
+				
+				for (int typo = 0; typo < typos; typo++) {
+					letters[(offset + typo * length / typos) % length] = 'w';
+				}
+				
+				return new String(letters);
+			}
+		}
+	}
+
+	/**
+	 * Gets the ids of the provided products, in the same order.
+	 * 
+	 * @param products the products found
+	 * @return the ids {@link List}
+	 */
+	private List<Long> ids(List<CatalogProduct> products) {
+		return products.stream().map(CatalogProduct::getId).collect(Collectors.toList());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.UserTransaction;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import caches.ProductCatalog;
+import deployments.ApplicationDeployment;
+import entities.Product;
+
+/**
+ * <p>Compares the key search of {@link ProductNameIndex} with the query it replaced, which ORs three LIKE patterns over the products table, with 10 000, 100 000 and 1 000 000 products.</p>
+ * <p>For each size, it logs the median time of both and checks that the index is faster and finds as many products as the query, up to its limit.</p>
+ * <p><em>Every product it seeds is named after {@link #MARKER} and removed after the test. The index of a million products takes a few gigabytes, so that size is only measured when the server heap allows it.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RunWith(Arquillian.class)
+public class ProductNameIndexIT {
+	/**
+	 * Prefix of the name of every product created by the test.
+	 */
+	private static final String MARKER = "name-index-it-";
+	/**
+	 * Amounts of products measured, in increasing order.
+	 */
+	private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+	/**
+	 * Smallest maximum heap, in bytes, with which the million products are measured.
+	 */
+	private static final long HEAP_FOR_A_MILLION = 4L * 1024 * 1024 * 1024;
+	/**
+	 * Key searches measured: a word start found in a tenth of the products, and an inner part found in a fiftieth of them.
+	 */
+	private static final String[] KEYSEARCHES = {"ibupro", "tamol forte"};
+	/**
+	 * Runs of the query measured for each key search, which scans the whole table every time.
+	 */
+	private static final int QUERY_RUNS = 5;
+	/**
+	 * Runs of the index measured for each key search.
+	 */
+	private static final int INDEX_RUNS = 200;
+	/**
+	 * Derived table of the digits from 0 to 9, cross joined to number the seeded products.
+	 */
+	private static final String DIGITS = "(SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+
+	@Deployment
+	public static WebArchive createDeployment() {
+		return ApplicationDeployment.create(ProductNameIndexIT.class);
+	}
+
+	@Inject
+	private ProductNameIndex productNameIndex;
+
+	@Inject
+	private ProductCatalog productCatalog;
+
+	@PersistenceContext(unitName = "backend")
+	private EntityManager entityManager;
+
+	@Resource
+	private UserTransaction userTransaction;
+
+	@After
+	public void removeSeededProducts() throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("DELETE FROM products WHERE name LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		userTransaction.commit();
+		
+		productCatalog.rebuild();
+	}
+
+	@Test
+	public void indexIsFasterThanTheLikeQueryAtEverySize() throws Exception {
+		int seededProducts = 0;
+		
+		for (int size : SIZES) {
+			if (size >= 1_000_000) {
+				assumeTrue("The heap is too small to index a million products", Runtime.getRuntime().maxMemory() >= HEAP_FOR_A_MILLION);
+			}
+			
+			seedProducts(seededProducts, size);
+			seededProducts = size;
+			
+			productCatalog.rebuild();
+			long indexingStart = System.nanoTime();
+			productNameIndex.search(KEYSEARCHES[0], ProductNameIndex.DEFAULT_LIMIT);
+			long indexingMillis = (System.nanoTime() - indexingStart) / 1_000_000;
+			
+			for (String keysearch : KEYSEARCHES) {
+				int amountFoundByQuery = findAllByName(keysearch).size();
+				int amountFoundByIndex = productNameIndex.search(keysearch, ProductNameIndex.DEFAULT_LIMIT).size();
+				long queryMedian = medianQueryNanos(keysearch);
+				long indexMedian = medianIndexNanos(keysearch);
+				
+				Logger.getLogger(ProductNameIndexIT.class.getName()).log(Level.INFO, "{0} products, \"{1}\": LIKE query {2} µs, index {3} µs, {4} found, index built in {5} ms",
+						new Object[] {size, keysearch, queryMedian / 1_000, indexMedian / 1_000, amountFoundByQuery, indexingMillis});
+				
+				assertEquals("Products found for \"" + keysearch + "\" with " + size + " products", Math.min(amountFoundByQuery, ProductNameIndex.DEFAULT_LIMIT), amountFoundByIndex);
+				assertTrue("With " + size + " products, \"" + keysearch + "\" took " + indexMedian + " ns in the index against " + queryMedian + " ns in the LIKE query",
+						indexMedian < queryMedian);
+			}
+		}
+	}
+
+	/**
+	 * Runs the LIKE query that the name search used before the index.
+	 * 
+	 * @param keysearch the product name or part of it
+	 * @return the {@link Product} {@link List} found
+	 */
+	private List<Product> findAllByName(String keysearch) {
+		return entityManager.createQuery("SELECT p FROM Product p WHERE p.name LIKE :start OR p.name LIKE :inner OR p.name LIKE :end", Product.class)
+				.setParameter("start", keysearch + '%')
+				.setParameter("inner", '%' + keysearch + '%')
+				.setParameter("end", '%' + keysearch)
+				.getResultList();
+	}
+
+	/**
+	 * Measures the LIKE query.
+	 * 
+	 * @param keysearch the product name or part of it
+	 * @return the median time of a query, in nanoseconds
+	 */
+	private long medianQueryNanos(String keysearch) {
+		long[] nanos = new long[QUERY_RUNS];
+		
+		for (int run = 0; run < QUERY_RUNS; run++) {
+			long start = System.nanoTime();
+			findAllByName(keysearch);
+			nanos[run] = System.nanoTime() - start;
+		}
+		
+		return median(nanos);
+	}
+
+	/**
+	 * Measures the index search, after as many searches to warm it up.
+	 * 
+	 * @param keysearch the product name or part of it
+	 * @return the median time of a search, in nanoseconds
+	 */
+	private long medianIndexNanos(String keysearch) {
+		long[] nanos = new long[INDEX_RUNS];
+		
+		for (int run = 0; run < 2 * INDEX_RUNS; run++) {
+			long start = System.nanoTime();
+			productNameIndex.search(keysearch, ProductNameIndex.DEFAULT_LIMIT);
+			
+			if (run >= INDEX_RUNS) {
+				nanos[run - INDEX_RUNS] = System.nanoTime() - start;
+			}
+		}
+		
+		return median(nanos);
+	}
+
+	/**
+	 * Gets the median of the provided times.
+	 * 
+	 * @param nanos the times measured, sorted by this method
+	 * @return the median time
+	 */
+	private long median(long[] nanos) {
+		Arrays.sort(nanos);
+		
+		return nanos[nanos.length / 2];
+	}
+
+	/**
+	 * <p>Creates the products numbered from the first to the last provided, in statements of up to 100 000 products.</p>
+	 * <p><em>Each name has one of ten drug names and one of five variants, so a drug is in a tenth of the products and a drug with a variant in a fiftieth of them.</em></p>
+	 * 
+	 * @param from the number of the first product to create
+	 * @param to   the number after the last product to create
+	 */
+	private void seedProducts(int from, int to) throws Exception {
+		for (int batchStart = from; batchStart < to; batchStart += 100_000) {
+			userTransaction.begin();
+			entityManager.createNativeQuery(
+					"INSERT INTO products (name, price, section, image, like_count) "
+					+ "SELECT CONCAT(?1, n, ' ', ELT(1 + n % 10, 'Aspirin', 'Paracetamol', 'Ibuprofen', 'Vitamin C', 'Omega 3', 'Zinc', 'Magnesium', 'Melatonin', 'Shampoo', 'Syrup'), "
+					+ "' ', ELT(1 + n DIV 10 % 5, '500 mg', 'kids', 'forte', 'plus', 'duo')), 1, 'HEALTH', 'image', 0 FROM ("
+					+ "SELECT ?2 + a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d AS n FROM "
+					+ DIGITS + " a, "
+					+ DIGITS + " b, "
+					+ DIGITS + " c, "
+					+ DIGITS + " e, "
+					+ DIGITS + " f"
+					+ ") numbers WHERE n < ?3")
+					.setParameter(1, MARKER)
+					.setParameter(2, batchStart)
+					.setParameter(3, to)
+					.executeUpdate();
+			userTransaction.commit();
+		}
+	}
+}
\ No newline at end of file
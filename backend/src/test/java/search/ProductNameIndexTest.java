@@ -0,0 +1,101 @@
+package search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import caches.CatalogProduct;
+
+/**
+ * Checks which products {@link ProductNameIndex} picks for a key search, in which order and how many.
+ * 
+ * @author Wanderley Drumond
+ */
+public class ProductNameIndexTest {
+	/**
+	 * Products of the catalogue used by the limit tests.
+	 */
+	private static final int CATALOGUE_SIZE = 100;
+
+	@Test
+	public void findsOnlyTheNamesThatContainTheKeySearch() throws Exception {
+		ProductNameIndex productNameIndex = new StubProductCatalog("Aspirin", "Paracetamol", "Vitamin C", "Ibuprofen", "Crème hydratante")
+				.injectInto(new ProductNameIndex());
+		
+		assertEquals(List.of(2L), ids(productNameIndex.search("amol", ProductNameIndex.DEFAULT_LIMIT)));
+		assertEquals(List.of(2L), ids(productNameIndex.search("  PARACETAMOL ", ProductNameIndex.DEFAULT_LIMIT)));
+		assertEquals(List.of(5L), ids(productNameIndex.search("creme", ProductNameIndex.DEFAULT_LIMIT)));
+		assertEquals(List.of(1L, 3L), ids(productNameIndex.search("in", ProductNameIndex.DEFAULT_LIMIT)));
+		assertTrue(productNameIndex.search("xyz", ProductNameIndex.DEFAULT_LIMIT).isEmpty());
+		assertTrue(productNameIndex.search("aspirine", ProductNameIndex.DEFAULT_LIMIT).isEmpty());
+	}
+
+	@Test
+	public void findsTheProductsAddedToTheCatalogue() throws Exception {
+		StubProductCatalog stubProductCatalog = new StubProductCatalog("Aspirin");
+		ProductNameIndex productNameIndex = stubProductCatalog.injectInto(new ProductNameIndex());
+		
+		assertTrue(productNameIndex.search("zinc", ProductNameIndex.DEFAULT_LIMIT).isEmpty());
+		
+		Long zincId = stubProductCatalog.add("Zinc tablets");
+		
+		assertEquals(List.of(zincId), ids(productNameIndex.search("zinc", ProductNameIndex.DEFAULT_LIMIT)));
+		assertEquals(List.of(1L), ids(productNameIndex.search("aspirin", ProductNameIndex.DEFAULT_LIMIT)));
+	}
+
+	@Test
+	public void ranksExactThenPrefixThenWordThenInnerMatches() throws Exception {
+		ProductNameIndex productNameIndex = new StubProductCatalog(
+				"Baby shampoo",
+				"Shampoo",
+				"Shampoo anti dandruff",
+				"Dry shampoo",
+				"Antishampoo",
+				"Ultra shampoo",
+				"Oil shampoo").injectInto(new ProductNameIndex());
+		
+		assertEquals(List.of(2L, 3L, 4L, 7L, 1L, 6L, 5L), ids(productNameIndex.search("shampoo", ProductNameIndex.DEFAULT_LIMIT)));
+	}
+
+	@Test
+	public void answersAtMostTheLimitBestProducts() throws Exception {
+		ProductNameIndex productNameIndex = numberedCatalogue().injectInto(new ProductNameIndex());
+		
+		List<Long> allIds = ids(productNameIndex.search("vitamin", CATALOGUE_SIZE));
+		
+		assertEquals(CATALOGUE_SIZE, allIds.size());
+		assertEquals(allIds.subList(0, 5), ids(productNameIndex.search("vitamin", 5)));
+		assertEquals(List.of(1L), ids(productNameIndex.search("vitamin", 1)));
+		assertTrue(productNameIndex.search("vitamin", 0).isEmpty());
+		assertEquals(5, productNameIndex.search("", 5).size());
+	}
+
+	/**
+	 * Creates a catalogue whose names differ only by their number.
+	 * 
+	 * @return the {@link StubProductCatalog} with {@link #CATALOGUE_SIZE} products
+	 */
+	private StubProductCatalog numberedCatalogue() {
+		StubProductCatalog stubProductCatalog = new StubProductCatalog();
+		
+		for (int number = 0; number < CATALOGUE_SIZE; number++) {
+			stubProductCatalog.add(String.format("Vitamin %03d", number));
+		}
+		
+		return stubProductCatalog;
+	}
+
+	/**
+	 * Gets the ids of the provided products, in the same order.
+	 * 
+	 * @param products the products found
+	 * @return the ids {@link List}
+	 */
+	private List<Long> ids(List<CatalogProduct> products) {
+		return products.stream().map(CatalogProduct::getId).collect(Collectors.toList());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import caches.CatalogProduct;
+import dtos.SuggestionDTO;
+
+/**
+ * Checks which names {@link ProductSuggester} suggests for what was typed so far, in which order, and that 99% of the suggestions take less than a millisecond in a catalogue of hundreds of thousands of products.
+ * 
+ * @author Wanderley Drumond
+ */
+public class ProductSuggesterTest {
+	/**
+	 * Products of the catalogue used by the latency test.
+	 */
+	private static final int LARGE_CATALOGUE_SIZE = 300_000;
+	/**
+	 * Suggestions measured by the latency test, after as many to warm it up.
+	 */
+	private static final int MEASURED_SUGGESTIONS = 20_000;
+	/**
+	 * Time, in nanoseconds, that 99% of the suggestions must not exceed.
+	 */
+	private static final long P99_BOUND_NANOS = 1_000_000L;
+
+	@Test
+	public void suggestsNameStartsBeforeWordStarts() throws Exception {
+		ProductSuggester productSuggester = new StubProductCatalog("Baby aspirin", "Aspirin complex", "Vitamin C", "Aspirin", "Asthma spray")
+				.injectInto(new ProductSuggester());
+		
+		assertEquals(List.of("Aspirin", "Aspirin complex", "Baby aspirin"), names(productSuggester.suggest("asp", ProductSuggester.DEFAULT_LIMIT)));
+		assertEquals(List.of("Aspirin", "Aspirin complex", "Asthma spray", "Baby aspirin"), names(productSuggester.suggest("AS", ProductSuggester.DEFAULT_LIMIT)));
+		assertEquals(List.of("Aspirin complex"), names(productSuggester.suggest("comp", ProductSuggester.DEFAULT_LIMIT)));
+		assertEquals(List.of("Asthma spray"), names(productSuggester.suggest("spr", ProductSuggester.DEFAULT_LIMIT)));
+	}
+
+	@Test
+	public void suggestsOnlyWhatStartsWithThePrefix() throws Exception {
+		ProductSuggester productSuggester = new StubProductCatalog("Aspirin", "Paracetamol", "Crème hydratante")
+				.injectInto(new ProductSuggester());
+		
+		assertTrue(productSuggester.suggest("pirin", ProductSuggester.DEFAULT_LIMIT).isEmpty());
+		assertTrue(productSuggester.suggest("aspirine", ProductSuggester.DEFAULT_LIMIT).isEmpty());
+		assertTrue(productSuggester.suggest("   ", ProductSuggester.DEFAULT_LIMIT).isEmpty());
+		assertTrue(productSuggester.suggest(null, ProductSuggester.DEFAULT_LIMIT).isEmpty());
+		assertEquals(List.of("Crème hydratante"), names(productSuggester.suggest("CREME h", ProductSuggester.DEFAULT_LIMIT)));
+		assertEquals(List.of("Crème hydratante"), names(productSuggester.suggest("hydr", ProductSuggester.DEFAULT_LIMIT)));
+	}
+
+	@Test
+	public void suggestsEachProductOnceAndAtMostTheLimit() throws Exception {
+		ProductSuggester productSuggester = new StubProductCatalog("Vitamin vitality", "Vitamin C", "Vitamin D", "Vitamin E")
+				.injectInto(new ProductSuggester());
+		
+		List<SuggestionDTO> suggestions = productSuggester.suggest("vit", ProductSuggester.DEFAULT_LIMIT);
+		
+		assertEquals(List.of("Vitamin C", "Vitamin D", "Vitamin E", "Vitamin vitality"), names(suggestions));
+		assertEquals(List.of(2L, 3L, 4L, 1L), suggestions.stream().map(SuggestionDTO::getId).collect(Collectors.toList()));
+		assertEquals(List.of("Vitamin C", "Vitamin D"), names(productSuggester.suggest("vit", 2)));
+	}
+
+	@Test
+	public void suggestsTheProductsAddedToTheCatalogue() throws Exception {
+		StubProductCatalog stubProductCatalog = new StubProductCatalog("Zinc", "Aspirin");
+		ProductSuggester productSuggester = stubProductCatalog.injectInto(new ProductSuggester());
+		
+		assertEquals(List.of("Zinc"), names(productSuggester.suggest("z", ProductSuggester.DEFAULT_LIMIT)));
+		
+		stubProductCatalog.add("Anti zinc cream");
+		stubProductCatalog.add("Zinc oxide");
+		
+		assertEquals(List.of("Zinc", "Zinc oxide", "Anti zinc cream"), names(productSuggester.suggest("zin", ProductSuggester.DEFAULT_LIMIT)));
+		assertEquals(List.of("Anti zinc cream", "Aspirin"), names(productSuggester.suggest("a", ProductSuggester.DEFAULT_LIMIT)));
+	}
+
+	@Test
+	public void suggestsWithinAMillisecondAtThe99thPercentileInALargeCatalogue() throws Exception {
+		Random random = new Random(7L);
+		StubProductCatalog stubProductCatalog = new StubProductCatalog();
+		stubProductCatalog.addRandomNames(LARGE_CATALOGUE_SIZE, random);
+		ProductSuggester productSuggester = stubProductCatalog.injectInto(new ProductSuggester());
+		List<CatalogProduct> products = stubProductCatalog.getAll();
+		long[] nanos = new long[MEASURED_SUGGESTIONS];
+		
+		productSuggester.suggest("a", ProductSuggester.DEFAULT_LIMIT);
+		for (int suggestion = -MEASURED_SUGGESTIONS; suggestion < MEASURED_SUGGESTIONS; suggestion++) {
+			String[] words = products.get(random.nextInt(products.size())).getName().split(" ");
+			String word = words[random.nextInt(words.length)];
+			String prefix = word.substring(0, 1 + random.nextInt(Math.min(6, word.length())));
+			
+			long start = System.nanoTime();
+			productSuggester.suggest(prefix, ProductSuggester.DEFAULT_LIMIT);
+			
+			if (suggestion >= 0) {
+				nanos[suggestion] = System.nanoTime() - start;
+			}
+		}
+		
+		Arrays.sort(nanos);
+		long p99 = nanos[nanos.length * 99 / 100];
+		
+		assertTrue("The 99th percentile took " + p99 + " ns with " + LARGE_CATALOGUE_SIZE + " products", p99 < P99_BOUND_NANOS);
+	}
+
+	/**
+	 * Gets the names of the provided suggestions, in the same order.
+	 * 
+	 * @param suggestions the suggestions found
+	 * @return the names {@link List}
+	 */
+	private List<String> names(List<SuggestionDTO> suggestions) {
+		return suggestions.stream().map(SuggestionDTO::getName).collect(Collectors.toList());
+	}
+}
\ No newline at end of file
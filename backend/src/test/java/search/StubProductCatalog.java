@@ -0,0 +1,112 @@
+package search;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import caches.CatalogProduct;
+import caches.ProductCatalog;
+import enums.Section;
+
+/**
+ * <p>Product catalogue whose products are given by the tests instead of being read from the database.</p>
+ * <p><em>As the real catalogue, each change replaces the list of products by a new one, which is how the search indexes notice it.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+class StubProductCatalog extends ProductCatalog {
+	private static final long serialVersionUID = 1L;
+	/**
+	 * Syllables of the random product names.
+	 */
+	private static final String[] SYLLABLES = {"ba", "cor", "de", "fen", "gal", "hy", "ix", "lo", "mag", "nol", "pra", "qui", "ros", "sul", "tam", "vi", "xen", "zol"};
+
+	/**
+	 * The current products, ordered by id.
+	 */
+	private List<CatalogProduct> products = Collections.emptyList();
+
+	/**
+	 * Creates the catalogue with a product of each provided name, numbered from 1.
+	 * 
+	 * @param names the product names
+	 */
+	StubProductCatalog(String... names) {
+		for (String name : names) {
+			add(name);
+		}
+	}
+
+	@Override
+	public List<CatalogProduct> getAll() {
+		return products;
+	}
+
+	/**
+	 * Adds a product with the provided name and the next id.
+	 * 
+	 * @param name the product name
+	 * @return the id of the new product
+	 */
+	Long add(String name) {
+		List<CatalogProduct> newProducts = new ArrayList<>(products);
+		Long id = (long) newProducts.size() + 1;
+		
+		newProducts.add(newProduct(id, name));
+		products = Collections.unmodifiableList(newProducts);
+		
+		return id;
+	}
+	
+	/**
+	 * <p>Adds, in a single change, the provided amount of products whose names have two or three random words of two to four syllables.</p>
+	 * <p><em>Used to build catalogues of hundreds of thousands of products, with about a hundred thousand distinct words.</em></p>
+	 * 
+	 * @param amount how many products to add
+	 * @param random the source of the names, seeded so the catalogue is the same in every run
+	 */
+	void addRandomNames(int amount, Random random) {
+		List<CatalogProduct> newProducts = new ArrayList<>(products.size() + amount);
+		
+		newProducts.addAll(products);
+		for (int index = 0; index < amount; index++) {
+			StringBuilder name = new StringBuilder();
+			
+			for (int word = 2 + random.nextInt(2); word > 0; word--) {
+				for (int syllable = 2 + random.nextInt(3); syllable > 0; syllable--) {
+					name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+				}
+				name.append(word > 1 ? " " : "");
+			}
+			newProducts.add(newProduct((long) newProducts.size() + 1, Character.toUpperCase(name.charAt(0)) + name.substring(1)));
+		}
+		products = Collections.unmodifiableList(newProducts);
+	}
+	
+	/**
+	 * Creates a product of the health section.
+	 * 
+	 * @param id   the product id
+	 * @param name the product name
+	 * @return the {@link CatalogProduct}
+	 */
+	private CatalogProduct newProduct(Long id, String name) {
+		return new CatalogProduct(id, name, "image", Section.HEALTH, 1F, Section.HEALTH.getVALUE(), "1.00€");
+	}
+
+	/**
+	 * Sets this catalogue as the one of the provided search, as the container would inject it.
+	 * 
+	 * @param search the search that follows the catalogue
+	 * @return the provided search
+	 */
+	<T> T injectInto(T search) throws ReflectiveOperationException {
+		Field field = search.getClass().getDeclaredField("productCatalog");
+		field.setAccessible(true);
+		field.set(search, this);
+		
+		return search;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,284 @@
+package services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.control.RequestContextController;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.UserTransaction;
+import javax.ws.rs.core.Response;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import deployments.ApplicationDeployment;
+import exceptions.PharmacyException;
+
+/**
+ * <p>Checks that requests which change the same cart at the same time, as from several tabs, neither lose units nor unbalance its total value.</p>
+ * <p><em>Every row it seeds is named after {@link #MARKER} and removed after each test. A request that gives up with 409 (CONFLICT) is allowed, as long as it left no trace in the cart.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RunWith(Arquillian.class)
+public class OrderServiceConcurrencyIT {
+	/**
+	 * Prefix of the name of every user and product created by the tests.
+	 */
+	private static final String MARKER = "order-concurrency-it-";
+	/**
+	 * Requests that change the cart at the same time.
+	 */
+	private static final int THREADS = 8;
+	/**
+	 * Changes made by each request thread.
+	 */
+	private static final int CALLS_PER_THREAD = 25;
+	/**
+	 * Units of each product put in the cart before the mixed test, so the concurrent removals never empty it.
+	 */
+	private static final int INITIAL_UNITS = THREADS * CALLS_PER_THREAD;
+	/**
+	 * Prices of the seeded products, exactly representable so their sums can be compared as they are.
+	 */
+	private static final float[] PRICES = {1.25F, 2.5F};
+
+	@Deployment
+	public static WebArchive createDeployment() {
+		return ApplicationDeployment.create(OrderServiceConcurrencyIT.class);
+	}
+
+	@Inject
+	private OrderService orderService;
+
+	@Inject
+	private Instance<RequestContextController> requestContextControllers;
+
+	@PersistenceContext(unitName = "backend")
+	private EntityManager entityManager;
+
+	@Resource
+	private UserTransaction userTransaction;
+
+	@Resource
+	private ManagedExecutorService managedExecutorService;
+
+	/**
+	 * Token of the seeded buyer.
+	 */
+	private UUID token;
+
+	/**
+	 * Ids of the seeded products, in the same order as {@link #PRICES}.
+	 */
+	private Long[] productIds;
+
+	@Before
+	public void seedBuyerAndProducts() throws Exception {
+		token = UUID.randomUUID();
+		productIds = new Long[PRICES.length];
+		
+		userTransaction.begin();
+		entityManager.createNativeQuery("INSERT INTO users (name, username, password, role, token, is_deleted) VALUES (?1, ?1, 'password', 'CLIENT', ?2, FALSE)")
+				.setParameter(1, MARKER + "buyer")
+				.setParameter(2, token.toString())
+				.executeUpdate();
+		for (int index = 0; index < PRICES.length; index++) {
+			entityManager.createNativeQuery("INSERT INTO products (name, price, section, image, like_count) VALUES (?1, ?2, 'HEALTH', 'image', 0)")
+					.setParameter(1, MARKER + index)
+					.setParameter(2, PRICES[index])
+					.executeUpdate();
+			productIds[index] = ((Number) entityManager.createNativeQuery("SELECT LAST_INSERT_ID()").getSingleResult()).longValue();
+		}
+		userTransaction.commit();
+	}
+
+	@After
+	public void removeSeededRows() throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("DELETE ol FROM order_lines ol JOIN orders o ON o.id = ol.order_id JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE o FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM products WHERE name LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM users WHERE username LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		userTransaction.commit();
+	}
+
+	@Test
+	public void concurrentAdditionsKeepEveryUnitAndTheTotal() throws Exception {
+		AtomicInteger[] unitsAdded = counters();
+		
+		List<Callable<Void>> requests = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			int firstProduct = thread % PRICES.length;
+			
+			requests.add(() -> inRequestContext(() -> {
+				for (int call = 0; call < CALLS_PER_THREAD; call++) {
+					int product = (firstProduct + call) % PRICES.length;
+					
+					if (succeeded(() -> orderService.manage(token, productIds[product]))) {
+						unitsAdded[product].incrementAndGet();
+					}
+				}
+			}));
+		}
+		runAll(requests);
+		
+		assertEquals(1L, count("SELECT COUNT(*) FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.token = ?1 AND o.is_concluded = FALSE", token.toString()));
+		assertCartMatches(unitsAdded);
+	}
+
+	@Test
+	public void concurrentAdditionsAndRemovalsKeepTheTotalBalanced() throws Exception {
+		AtomicInteger[] units = counters();
+		
+		inRequestContext(() -> {
+			for (int unit = 0; unit < INITIAL_UNITS; unit++) {
+				for (int product = 0; product < PRICES.length; product++) {
+					orderService.manage(token, productIds[product]);
+					units[product].incrementAndGet();
+				}
+			}
+		});
+		
+		Long cartId = count("SELECT o.id FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.token = ?1 AND o.is_concluded = FALSE", token.toString());
+		List<Callable<Void>> requests = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			boolean isAdding = thread % 2 == 0;
+			int product = (thread / 2) % PRICES.length;
+			
+			requests.add(() -> inRequestContext(() -> {
+				for (int call = 0; call < CALLS_PER_THREAD; call++) {
+					if (isAdding && succeeded(() -> orderService.manage(token, productIds[product]))) {
+						units[product].incrementAndGet();
+					} else if (!isAdding && succeeded(() -> orderService.removeProductByOrderId(token, cartId, productIds[product]))) {
+						units[product].decrementAndGet();
+					}
+				}
+			}));
+		}
+		runAll(requests);
+		
+		assertCartMatches(units);
+	}
+
+	/**
+	 * Checks that each line of the cart has the expected units, and that its total value is the sum of them.
+	 * 
+	 * @param units the units expected of each product, in the same order as {@link #PRICES}
+	 */
+	private void assertCartMatches(AtomicInteger[] units) {
+		double expectedTotal = 0D;
+		
+		for (int product = 0; product < PRICES.length; product++) {
+			assertTrue("No request changed product " + product, units[product].get() > 0);
+			assertEquals("Units of product " + product, units[product].get(),
+					count("SELECT ol.quantity FROM order_lines ol JOIN orders o ON o.id = ol.order_id JOIN users u ON u.id = o.buyer_id "
+							+ "WHERE u.token = ?1 AND o.is_concluded = FALSE AND ol.product_id = " + productIds[product], token.toString()));
+			expectedTotal += units[product].get() * (double) PRICES[product];
+		}
+		
+		Number totalValue = (Number) entityManager.createNativeQuery(
+				"SELECT o.total_value FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.token = ?1 AND o.is_concluded = FALSE")
+				.setParameter(1, token.toString())
+				.getSingleResult();
+		
+		assertEquals(expectedTotal, totalValue.doubleValue(), 0D);
+	}
+
+	/**
+	 * Runs the given changes within a request context of the current thread, as a request would.
+	 * 
+	 * @param changes the changes to be made
+	 * @return nothing, so it can be submitted as a {@link Callable}
+	 */
+	private Void inRequestContext(Runnable changes) {
+		RequestContextController requestContextController = requestContextControllers.get();
+		
+		requestContextController.activate();
+		try {
+			changes.run();
+		} finally {
+			requestContextController.deactivate();
+			requestContextControllers.destroy(requestContextController);
+		}
+		
+		return null;
+	}
+
+	/**
+	 * Makes a change of the cart, telling if it was applied.
+	 * 
+	 * @param change the change to be made
+	 * @return true if it was applied, false if it gave up by a conflict
+	 * @throws PharmacyException if it failed for any other reason
+	 */
+	private boolean succeeded(Runnable change) {
+		try {
+			change.run();
+			
+			return true;
+		} catch (PharmacyException pharmacyException) {
+			if (pharmacyException.getHttpStatus() != Response.Status.CONFLICT) {
+				throw pharmacyException;
+			}
+			
+			return false;
+		}
+	}
+
+	/**
+	 * Runs all requests at the same time and waits for them, failing if any of them failed.
+	 * 
+	 * @param requests the requests to be run
+	 */
+	private void runAll(List<Callable<Void>> requests) throws Exception {
+		for (Future<Void> request : managedExecutorService.invokeAll(requests)) {
+			request.get();
+		}
+	}
+
+	/**
+	 * Creates a counter for each seeded product.
+	 * 
+	 * @return the counters, in the same order as {@link #PRICES}
+	 */
+	private AtomicInteger[] counters() {
+		AtomicInteger[] counters = new AtomicInteger[PRICES.length];
+		
+		for (int product = 0; product < PRICES.length; product++) {
+			counters[product] = new AtomicInteger();
+		}
+		
+		return counters;
+	}
+
+	/**
+	 * Runs a query that returns a single number about the seeded buyer.
+	 * 
+	 * @param query the native query, with the buyer token as its only parameter
+	 * @param token the buyer token
+	 * @return the number returned
+	 */
+	private long count(String query, String token) {
+		return ((Number) entityManager.createNativeQuery(query).setParameter(1, token).getSingleResult()).longValue();
+	}
+}
\ No newline at end of file
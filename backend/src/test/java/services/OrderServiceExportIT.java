@@ -0,0 +1,235 @@
+package services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.UserTransaction;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import deployments.ApplicationDeployment;
+import enums.ExportFormat;
+
+/**
+ * <p>Checks that the export of the concluded orders writes every line while the heap it holds stays the same, however many lines are exported, and that a client who disconnects is told apart from a database error.</p>
+ * <p><em>Every row it seeds is named after {@link #MARKER}, its orders are concluded in {@link #FROM}, and they are removed after each test.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RunWith(Arquillian.class)
+public class OrderServiceExportIT {
+	/**
+	 * Prefix of the name of every user and product created by the tests.
+	 */
+	private static final String MARKER = "order-export-it-";
+	/**
+	 * Day in which every seeded order was concluded, far before any real order.
+	 */
+	private static final String FROM = "1980-01-01";
+	/**
+	 * Last day of the exported range.
+	 */
+	private static final String TO = "1980-01-02";
+	/**
+	 * Concluded orders seeded.
+	 */
+	private static final int ORDERS = 100_000;
+	/**
+	 * Lines of each seeded order, one per seeded product.
+	 */
+	private static final int LINES_PER_ORDER = 3;
+	/**
+	 * Bytes written between two samples of the heap.
+	 */
+	private static final long SAMPLE_BYTES = 2L * 1024 * 1024;
+	/**
+	 * <p>How much the used heap may grow from the first sample to any later one.</p>
+	 * <p><em>Holding the exported rows would take several times this, since each one is an array of nine objects.</em></p>
+	 */
+	private static final long HEAP_GROWTH_BOUND = 16L * 1024 * 1024;
+	/**
+	 * Bytes the client receives before it disconnects.
+	 */
+	private static final long BYTES_BEFORE_DISCONNECTING = 64L * 1024;
+	/**
+	 * Derived table of the digits from 0 to 9, cross joined to number the seeded orders.
+	 */
+	private static final String DIGITS = "(SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+
+	@Deployment
+	public static WebArchive createDeployment() {
+		return ApplicationDeployment.create(OrderServiceExportIT.class);
+	}
+
+	@Inject
+	private OrderService orderService;
+
+	@PersistenceContext(unitName = "backend")
+	private EntityManager entityManager;
+
+	@Resource
+	private UserTransaction userTransaction;
+
+	/**
+	 * Token of the seeded administrator.
+	 */
+	private UUID token;
+
+	@Before
+	public void seedConcludedOrders() throws Exception {
+		token = UUID.randomUUID();
+		
+		userTransaction.begin();
+		entityManager.createNativeQuery("INSERT INTO users (name, username, password, role, token, is_deleted) VALUES (?1, ?1, 'password', 'ADMINISTRATOR', ?2, FALSE)")
+				.setParameter(1, MARKER + "administrator")
+				.setParameter(2, token.toString())
+				.executeUpdate();
+		entityManager.createNativeQuery("INSERT INTO users (name, username, password, role, is_deleted) VALUES (?1, ?1, 'password', 'CLIENT', FALSE)")
+				.setParameter(1, MARKER + "buyer")
+				.executeUpdate();
+		for (int product = 0; product < LINES_PER_ORDER; product++) {
+			entityManager.createNativeQuery("INSERT INTO products (name, price, section, image, like_count) VALUES (?1, 1.5, 'HEALTH', 'image', 0)")
+					.setParameter(1, MARKER + product)
+					.executeUpdate();
+		}
+		entityManager.createNativeQuery(
+				"INSERT INTO orders (buyer_id, is_concluded, created_in, last_update, total_value, version) "
+				+ "SELECT u.id, TRUE, ?3, ?3 + INTERVAL (n % 86400) SECOND, ?4, 0 FROM users u, ("
+				+ "SELECT a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d AS n FROM "
+				+ DIGITS + " a, "
+				+ DIGITS + " b, "
+				+ DIGITS + " c, "
+				+ DIGITS + " e, "
+				+ DIGITS + " f"
+				+ ") numbers WHERE u.username = ?1 AND n < ?2")
+				.setParameter(1, MARKER + "buyer")
+				.setParameter(2, ORDERS)
+				.setParameter(3, FROM)
+				.setParameter(4, 1.5 * LINES_PER_ORDER)
+				.executeUpdate();
+		entityManager.createNativeQuery(
+				"INSERT INTO order_lines (order_id, product_id, quantity, unit_price) "
+				+ "SELECT o.id, p.id, 1, p.price FROM orders o JOIN users u ON u.id = o.buyer_id, products p WHERE u.username = ?1 AND p.name LIKE ?2")
+				.setParameter(1, MARKER + "buyer")
+				.setParameter(2, MARKER + "%")
+				.executeUpdate();
+		userTransaction.commit();
+	}
+
+	@After
+	public void removeSeededRows() throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("DELETE ol FROM order_lines ol JOIN orders o ON o.id = ol.order_id JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE o FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM products WHERE name LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM users WHERE username LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		userTransaction.commit();
+	}
+
+	@Test
+	public void exportHoldsTheSameHeapWhateverItsSize() throws Exception {
+		HeapSamplingOutputStream outputStream = new HeapSamplingOutputStream();
+		
+		orderService.exportConcluded(token, ExportFormat.CSV, FROM, TO).write(outputStream);
+		
+		assertEquals("Lines written, header included", 1L + ORDERS * LINES_PER_ORDER, outputStream.lines);
+		assertTrue("Only " + outputStream.samples + " heap samples were taken", outputStream.samples >= 4);
+		assertTrue("The used heap grew " + (outputStream.largestHeap - outputStream.firstHeap) / 1024 + " KB while " + outputStream.bytes / 1024 + " KB were exported",
+				outputStream.largestHeap - outputStream.firstHeap <= HEAP_GROWTH_BOUND);
+	}
+
+	@Test
+	public void clientDisconnectionIsNotTakenForADatabaseError() throws Exception {
+		OutputStream disconnectingOutputStream = new OutputStream() {
+			/**
+			 * Bytes received so far.
+			 */
+			private long bytes;
+			
+			@Override
+			public void write(int b) throws IOException {
+				if (++bytes > BYTES_BEFORE_DISCONNECTING) {
+					throw new IOException("Broken pipe");
+				}
+			}
+		};
+		
+		try {
+			orderService.exportConcluded(token, ExportFormat.NDJSON, FROM, TO).write(disconnectingOutputStream);
+			fail("The export went on after the client disconnected");
+		} catch (IOException ioException) {
+			assertEquals("Broken pipe", ioException.getMessage());
+		}
+	}
+
+	/**
+	 * <p>Discards what is written, counting the lines and sampling the used heap every {@link #SAMPLE_BYTES}.</p>
+	 * <p><em>Each sample runs a garbage collection first, so it measures what the export holds rather than what it already let go.</em></p>
+	 */
+	private static class HeapSamplingOutputStream extends OutputStream {
+		/**
+		 * Bytes written so far.
+		 */
+		private long bytes;
+		/**
+		 * Line breaks written so far.
+		 */
+		private long lines;
+		/**
+		 * Samples of the heap taken so far.
+		 */
+		private int samples;
+		/**
+		 * Heap used in the first sample, in bytes.
+		 */
+		private long firstHeap;
+		/**
+		 * Largest heap used in any sample, in bytes.
+		 */
+		private long largestHeap;
+		
+		
+		@Override
+		public void write(int b) {
+			if (b == '\n') {
+				lines++;
+			}
+			
+			if (++bytes % SAMPLE_BYTES == 0) {
+				sample();
+			}
+		}
+		
+		/**
+		 * Records the heap used after a garbage collection.
+		 */
+		private void sample() {
+			Runtime runtime = Runtime.getRuntime();
+			
+			System.gc();
+			long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+			
+			if (samples++ == 0) {
+				firstHeap = usedHeap;
+			}
+			largestHeap = Math.max(largestHeap, usedHeap);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import deployments.ApplicationDeployment;
+import entities.Order;
+
+/**
+ * <p>Counts, through the Hibernate statistics, the statements run for each page of the order history, whatever the size of the page, its position and the amount of products of its orders.</p>
+ * <p><em>Every row it seeds is named after {@link #MARKER} and removed after each test. The statistics are shared by the whole server, so nothing else should use the database while it runs.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RunWith(Arquillian.class)
+public class OrderServiceHistoryIT {
+	/**
+	 * Prefix of the name of every user and product created by the tests.
+	 */
+	private static final String MARKER = "order-history-it-";
+	/**
+	 * Concluded orders seeded.
+	 */
+	private static final int ORDERS = 250;
+	/**
+	 * Products seeded. Each order has from one to all of them, by the remainder of its id.
+	 */
+	private static final int PRODUCTS = 10;
+	/**
+	 * Sizes of the first page measured.
+	 */
+	private static final int[] PAGE_SIZES = {1, OrderService.DEFAULT_PAGE_SIZE, OrderService.MAXIMUM_PAGE_SIZE};
+	/**
+	 * Statements a page with orders costs: the orders with their buyer, and the products of all of them.
+	 */
+	private static final long STATEMENTS_PER_PAGE = 2L;
+	/**
+	 * Derived table of the digits from 0 to 9, cross joined to number the seeded orders.
+	 */
+	private static final String DIGITS = "(SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+
+	@Deployment
+	public static WebArchive createDeployment() {
+		return ApplicationDeployment.create(OrderServiceHistoryIT.class);
+	}
+
+	@Inject
+	private OrderService orderService;
+
+	@PersistenceContext(unitName = "backend")
+	private EntityManager entityManager;
+
+	@PersistenceUnit(unitName = "backend")
+	private EntityManagerFactory entityManagerFactory;
+
+	@Resource
+	private UserTransaction userTransaction;
+
+	/**
+	 * Token of the seeded buyer.
+	 */
+	private UUID token;
+
+	@Before
+	public void seedConcludedOrders() throws Exception {
+		token = UUID.randomUUID();
+		
+		userTransaction.begin();
+		entityManager.createNativeQuery("INSERT INTO users (name, username, password, role, token, is_deleted) VALUES (?1, ?1, 'password', 'CLIENT', ?2, FALSE)")
+				.setParameter(1, MARKER + "buyer")
+				.setParameter(2, token.toString())
+				.executeUpdate();
+		entityManager.createNativeQuery(
+				"INSERT INTO orders (buyer_id, is_concluded, created_in, last_update, total_value, version) "
+				+ "SELECT u.id, TRUE, NOW(), NOW(), 1, 0 FROM users u, ("
+				+ "SELECT a.d + 10 * b.d + 100 * c.d AS n FROM "
+				+ DIGITS + " a, "
+				+ DIGITS + " b, "
+				+ DIGITS + " c"
+				+ ") numbers WHERE u.username = ?1 AND n < ?2")
+				.setParameter(1, MARKER + "buyer")
+				.setParameter(2, ORDERS)
+				.executeUpdate();
+		for (int product = 0; product < PRODUCTS; product++) {
+			entityManager.createNativeQuery("INSERT INTO products (name, price, section, image, like_count) VALUES (?1, 1, 'HEALTH', 'image', 0)")
+					.setParameter(1, MARKER + product)
+					.executeUpdate();
+			entityManager.createNativeQuery(
+					"INSERT INTO order_lines (order_id, product_id, quantity, unit_price) "
+					+ "SELECT o.id, p.id, 1, 1 FROM orders o JOIN users u ON u.id = o.buyer_id, products p WHERE u.username = ?1 AND p.name = ?2 AND o.id % ?3 >= ?4")
+					.setParameter(1, MARKER + "buyer")
+					.setParameter(2, MARKER + product)
+					.setParameter(3, PRODUCTS)
+					.setParameter(4, product)
+					.executeUpdate();
+		}
+		userTransaction.commit();
+	}
+
+	@After
+	public void removeSeededRows() throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("DELETE ol FROM order_lines ol JOIN orders o ON o.id = ol.order_id JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE o FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM products WHERE name LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM users WHERE username LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		userTransaction.commit();
+	}
+
+	@Test
+	public void firstPageCostsTheSameStatementsWhateverItsSize() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		for (int pageSize : PAGE_SIZES) {
+			long statementsBefore = statistics.getPrepareStatementCount();
+			List<Order> page = orderService.getConcludedPage(token, null, pageSize);
+			long statements = statistics.getPrepareStatementCount() - statementsBefore;
+			
+			Logger.getLogger(OrderServiceHistoryIT.class.getName()).log(Level.INFO, "History page of {0} orders and {1} products took {2} statements",
+					new Object[] {page.size(), page.stream().mapToInt(order -> order.getProductsOfAnOrder().size()).sum(), statements});
+			
+			assertEquals(pageSize, page.size());
+			page.forEach(order -> assertEquals("Products of order " + order.getId(), 1 + order.getId() % PRODUCTS, order.getProductsOfAnOrder().size()));
+			assertEquals("Statements of a page of " + pageSize + " orders", STATEMENTS_PER_PAGE, statements);
+		}
+	}
+
+	@Test
+	public void everyPageCostsTheSameStatementsWhateverItsPosition() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Long beforeId = null;
+		int ordersRead = 0;
+		List<Order> page;
+		
+		do {
+			long statementsBefore = statistics.getPrepareStatementCount();
+			page = orderService.getConcludedPage(token, beforeId, null);
+			long statements = statistics.getPrepareStatementCount() - statementsBefore;
+			
+			assertEquals("Statements of the page after order " + beforeId, page.isEmpty() ? 1L : STATEMENTS_PER_PAGE, statements);
+			
+			ordersRead += page.size();
+			beforeId = page.isEmpty() ? beforeId : page.get(page.size() - 1).getId();
+		} while (!page.isEmpty());
+		
+		assertEquals(ORDERS, ordersRead);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,253 @@
+package services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.control.RequestContextController;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import daos.OrderDAO;
+import daos.ProductDAO;
+import deployments.ApplicationDeployment;
+import entities.Order;
+import entities.Product;
+
+/**
+ * <p>Compares, under concurrent requests, the transactions committed and the latency of adding a product to a cart as a single service operation and as it was done before, one transaction for each DAO call.</p>
+ * <p>The transactions are read from the Hibernate statistics, which count every transaction that used the persistence unit.</p>
+ * <p><em>Every row it seeds is named after {@link #MARKER} and removed after each test. The statistics are shared by the whole server, so nothing else should use the database while it runs.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RunWith(Arquillian.class)
+public class OrderServiceTransactionIT {
+	/**
+	 * Prefix of the name of every user and product created by the tests.
+	 */
+	private static final String MARKER = "order-transaction-it-";
+	/**
+	 * Request threads, each adding to the cart of its own buyer so they never conflict.
+	 */
+	private static final int THREADS = 8;
+	/**
+	 * Requests made by each thread in every run.
+	 */
+	private static final int REQUESTS_PER_THREAD = 50;
+	/**
+	 * DAO calls of an addition to an existing cart: the product, the cart, the addition, the updated cart and its products.
+	 */
+	private static final int DAO_CALLS_PER_REQUEST = 5;
+
+	@Deployment
+	public static WebArchive createDeployment() {
+		return ApplicationDeployment.create(OrderServiceTransactionIT.class);
+	}
+
+	@Inject
+	private OrderService orderService;
+
+	@Inject
+	private OrderDAO orderDAO;
+
+	@Inject
+	private ProductDAO productDAO;
+
+	@Inject
+	private Instance<RequestContextController> requestContextControllers;
+
+	@PersistenceContext(unitName = "backend")
+	private EntityManager entityManager;
+
+	@PersistenceUnit(unitName = "backend")
+	private EntityManagerFactory entityManagerFactory;
+
+	@Resource
+	private UserTransaction userTransaction;
+
+	@Resource
+	private ManagedExecutorService managedExecutorService;
+
+	/**
+	 * Tokens of the seeded buyers, one for each thread.
+	 */
+	private UUID[] tokens;
+
+	/**
+	 * Id of the seeded product.
+	 */
+	private Long productId;
+
+	@Before
+	public void seedBuyersWithCarts() throws Exception {
+		tokens = new UUID[THREADS];
+		
+		userTransaction.begin();
+		for (int thread = 0; thread < THREADS; thread++) {
+			tokens[thread] = UUID.randomUUID();
+			entityManager.createNativeQuery("INSERT INTO users (name, username, password, role, token, is_deleted) VALUES (?1, ?1, 'password', 'CLIENT', ?2, FALSE)")
+					.setParameter(1, MARKER + "buyer-" + thread)
+					.setParameter(2, tokens[thread].toString())
+					.executeUpdate();
+		}
+		entityManager.createNativeQuery(
+				"INSERT INTO orders (buyer_id, is_concluded, created_in, last_update, total_value, version) "
+				+ "SELECT u.id, FALSE, NOW(), NOW(), 0, 0 FROM users u WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%")
+				.executeUpdate();
+		entityManager.createNativeQuery("INSERT INTO products (name, price, section, image, like_count) VALUES (?1, 1, 'HEALTH', 'image', 0)")
+				.setParameter(1, MARKER + "product")
+				.executeUpdate();
+		productId = ((Number) entityManager.createNativeQuery("SELECT LAST_INSERT_ID()").getSingleResult()).longValue();
+		userTransaction.commit();
+	}
+
+	@After
+	public void removeSeededRows() throws Exception {
+		userTransaction.begin();
+		entityManager.createNativeQuery("DELETE ol FROM order_lines ol JOIN orders o ON o.id = ol.order_id JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE o FROM orders o JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+				.setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM products WHERE name LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		entityManager.createNativeQuery("DELETE FROM users WHERE username LIKE ?1").setParameter(1, MARKER + "%").executeUpdate();
+		userTransaction.commit();
+	}
+
+	@Test
+	public void singleTransactionCommitsOncePerRequestAndIsNotSlower() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		int requests = THREADS * REQUESTS_PER_THREAD;
+		
+		runLoad(this::additionByDAOCalls);
+		long transactionsBefore = statistics.getTransactionCount();
+		long[] byDAOCallsNanos = runLoad(this::additionByDAOCalls);
+		long byDAOCallsTransactions = statistics.getTransactionCount() - transactionsBefore;
+		
+		runLoad(this::additionByService);
+		transactionsBefore = statistics.getTransactionCount();
+		long[] byServiceNanos = runLoad(this::additionByService);
+		long byServiceTransactions = statistics.getTransactionCount() - transactionsBefore;
+		
+		Logger.getLogger(OrderServiceTransactionIT.class.getName()).log(Level.INFO,
+				"{0} additions by {1} threads: a transaction per DAO call committed {2} with a median of {3} µs and p99 of {4} µs, a single transaction committed {5} with a median of {6} µs and p99 of {7} µs",
+				new Object[] {requests, THREADS, byDAOCallsTransactions, percentile(byDAOCallsNanos, 50) / 1_000, percentile(byDAOCallsNanos, 99) / 1_000,
+						byServiceTransactions, percentile(byServiceNanos, 50) / 1_000, percentile(byServiceNanos, 99) / 1_000});
+		
+		assertEquals("Transactions of the additions by DAO calls", (long) DAO_CALLS_PER_REQUEST * requests, byDAOCallsTransactions);
+		assertEquals("Transactions of the additions by the service", (long) requests, byServiceTransactions);
+		assertTrue("The median addition took " + percentile(byServiceNanos, 50) + " ns in a single transaction against " + percentile(byDAOCallsNanos, 50) + " ns in one per DAO call",
+				percentile(byServiceNanos, 50) <= percentile(byDAOCallsNanos, 50));
+		assertEquals("Units added to the carts by both runs of each kind", 4L * requests,
+				((Number) entityManager.createNativeQuery("SELECT SUM(ol.quantity) FROM order_lines ol JOIN orders o ON o.id = ol.order_id JOIN users u ON u.id = o.buyer_id WHERE u.username LIKE ?1")
+						.setParameter(1, MARKER + "%").getSingleResult()).longValue());
+	}
+
+	/**
+	 * Adds the seeded product to the cart of the given thread buyer through {@link OrderService#manage}, in a single transaction.
+	 * 
+	 * @param thread the number of the request thread
+	 * @return the addition
+	 */
+	private Runnable additionByService(int thread) {
+		return () -> orderService.manage(tokens[thread], productId);
+	}
+
+	/**
+	 * Adds the seeded product to the cart of the given thread buyer with the DAO calls {@link OrderService#manage} used to make, each one committing its own transaction as before the services were transactional.
+	 * 
+	 * @param thread the number of the request thread
+	 * @return the addition
+	 */
+	private Runnable additionByDAOCalls(int thread) {
+		return () -> {
+			Product product = productDAO.findById(productId).get();
+			Order order = orderDAO.findNonConcludedOrder(tokens[thread]).get();
+			
+			orderDAO.addProduct(order.getId(), product);
+			orderDAO.findById(order.getId()).get().setProductsOfAnOrder(productDAO.findAllByOrderId(order.getId()));
+		};
+	}
+
+	/**
+	 * Runs {@link #REQUESTS_PER_THREAD} requests in each of {@link #THREADS} threads at the same time, each request within a request context of its own.
+	 * 
+	 * @param requestOfThread gives the request of each thread by its number
+	 * @return how long each request took, in nanoseconds
+	 */
+	private long[] runLoad(IntFunction<Runnable> requestOfThread) throws Exception {
+		List<Callable<long[]>> threads = new ArrayList<>();
+		
+		for (int thread = 0; thread < THREADS; thread++) {
+			Runnable request = requestOfThread.apply(thread);
+			
+			threads.add(() -> {
+				long[] nanos = new long[REQUESTS_PER_THREAD];
+				
+				for (int call = 0; call < REQUESTS_PER_THREAD; call++) {
+					RequestContextController requestContextController = requestContextControllers.get();
+					long start = System.nanoTime();
+					
+					requestContextController.activate();
+					try {
+						request.run();
+					} finally {
+						requestContextController.deactivate();
+						requestContextControllers.destroy(requestContextController);
+					}
+					nanos[call] = System.nanoTime() - start;
+				}
+				
+				return nanos;
+			});
+		}
+		
+		long[] nanos = new long[THREADS * REQUESTS_PER_THREAD];
+		int thread = 0;
+		for (Future<long[]> threadNanos : managedExecutorService.invokeAll(threads)) {
+			System.arraycopy(threadNanos.get(), 0, nanos, thread++ * REQUESTS_PER_THREAD, REQUESTS_PER_THREAD);
+		}
+		
+		return nanos;
+	}
+
+	/**
+	 * Gets the given percentile of the provided times.
+	 * 
+	 * @param nanos		 the times measured, sorted by this method
+	 * @param percentile the percentile, from 0 to 99
+	 * @return the time of the percentile
+	 */
+	private long percentile(long[] nanos, int percentile) {
+		Arrays.sort(nanos);
+		
+		return nanos[nanos.length * percentile / 100];
+	}
+}
\ No newline at end of file
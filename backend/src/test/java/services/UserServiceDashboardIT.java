@@ -0,0 +1,116 @@
+package services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import deployments.ApplicationDeployment;
+import dtos.DashboardDTO;
+
+/**
+ * <p>Checks that the dashboard reads run at the same time: a stalled read costs one timeout at most and only its own figures, and a slow one costs only its own delay.</p>
+ * <p><em>The reads are stalled by a write lock on their tables, taken by another connection and always released at the end of each test. No row is changed.</em></p>
+ * 
+ * @author Wanderley Drumond
+ */
+@RunWith(Arquillian.class)
+public class UserServiceDashboardIT {
+	/**
+	 * How long the slow reads are held, well under the timeout.
+	 */
+	private static final long STALL_MILLIS = 1_000L;
+	/**
+	 * How much longer than expected the dashboard may take, for the noise of a shared server.
+	 */
+	private static final long TOLERANCE_MILLIS = 1_500L;
+
+	@Deployment
+	public static WebArchive createDeployment() {
+		return ApplicationDeployment.create(UserServiceDashboardIT.class);
+	}
+
+	@Inject
+	private UserService userService;
+
+	@Resource(lookup = "java:/MySqlDSPharmacy")
+	private DataSource dataSource;
+
+	@Resource
+	private ManagedExecutorService managedExecutorService;
+
+	@Test
+	public void stalledReadsCostOneTimeoutAndOnlyTheirFigures() throws Exception {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("LOCK TABLES orders WRITE, revenue_rollups WRITE");
+			
+			try {
+				long start = System.currentTimeMillis();
+				DashboardDTO dashboardDTO = userService.refreshDashboard();
+				long elapsedMillis = System.currentTimeMillis() - start;
+				
+				Logger.getLogger(UserServiceDashboardIT.class.getName()).log(Level.INFO, "Dashboard with four stalled reads took {0} ms, {1} unavailable",
+						new Object[] {elapsedMillis, dashboardDTO.getUnavailableFigures()});
+				
+				assertEquals(Arrays.asList("totalCarts", "totalValueConcludedOrders", "totalValueConcludedOrdersCurrentMonth", "totalValueConcludedOrdersLastMonth"),
+						dashboardDTO.getUnavailableFigures());
+				assertNull(dashboardDTO.getTotalCarts());
+				assertNull(dashboardDTO.getTotalValueConcludedOrders());
+				assertNotNull(dashboardDTO.getTotalClients());
+				assertNotNull(dashboardDTO.getTotalProducts());
+				assertNotNull(dashboardDTO.getTotalSignIns());
+				assertNotNull(dashboardDTO.getVisitorsDTO());
+				assertTrue("The dashboard gave up after " + elapsedMillis + " ms", elapsedMillis >= UserService.DASHBOARD_QUERY_TIMEOUT_MILLIS);
+				assertTrue("The dashboard took " + elapsedMillis + " ms, more than a single timeout", elapsedMillis < UserService.DASHBOARD_QUERY_TIMEOUT_MILLIS + TOLERANCE_MILLIS);
+			} finally {
+				statement.execute("UNLOCK TABLES");
+			}
+		}
+	}
+
+	@Test
+	public void slowReadsCostOnlyTheirDelay() throws Exception {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("LOCK TABLES orders WRITE, revenue_rollups WRITE");
+			
+			Future<Boolean> release = managedExecutorService.submit(() -> {
+				Thread.sleep(STALL_MILLIS);
+				
+				return statement.execute("UNLOCK TABLES");
+			});
+			try {
+				long start = System.currentTimeMillis();
+				DashboardDTO dashboardDTO = userService.refreshDashboard();
+				long elapsedMillis = System.currentTimeMillis() - start;
+				
+				Logger.getLogger(UserServiceDashboardIT.class.getName()).log(Level.INFO, "Dashboard with four reads held for {0} ms took {1} ms",
+						new Object[] {STALL_MILLIS, elapsedMillis});
+				
+				assertEquals(Collections.emptyList(), dashboardDTO.getUnavailableFigures());
+				assertTrue("The dashboard came back after " + elapsedMillis + " ms, before the reads were released", elapsedMillis >= STALL_MILLIS);
+				assertTrue("The dashboard took " + elapsedMillis + " ms for reads held for " + STALL_MILLIS + " ms", elapsedMillis < STALL_MILLIS + TOLERANCE_MILLIS);
+			} finally {
+				release.get();
+			}
+		}
+	}
+}
\ No newline at end of file